@@ -0,0 +1,348 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans;
+
+import com.springframework.beans.factory.BeansException;
+import com.springframework.beans.factory.config.MutablePropertyValues;
+import com.springframework.core.MethodParameter;
+import com.springframework.core.NamedThreadLocal;
+import com.springframework.core.convert.ConversionException;
+import com.springframework.core.convert.ConverterNotFoundException;
+import com.springframework.core.convert.Property;
+import com.springframework.core.convert.TypeDescriptor;
+import com.springframework.util.ConcurrentReferenceHashMap;
+import com.springframework.util.ReflectionUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Binds property values to instances of a given class, as a lightweight
+ * alternative to a {@link BeanWrapperImpl} per instance: the introspection
+ * results are shared by all instances of the class, and the type converter
+ * with the default and config value editors is shared by all binders used on
+ * the same thread, leaving the target object as the only per-instance state.
+ *
+ * <p>Instances are thread-safe. Since PropertyEditors are stateful, each thread
+ * converts through editors of its own, so concurrent bean creation does not
+ * contend on a shared converter. Custom editors are not applied: the converter
+ * only ever holds the default and config value editors.
+ *
+ * <p>Only supports simple property names itself, delegating nested and
+ * indexed property paths to a BeanWrapperImpl for the target instance.
+ *
+ * @see #forClass
+ * @see BeanWrapperImpl
+ */
+public final class BeanPropertyBinder implements TypeConverter {
+
+	private static final Log logger = LogFactory.getLog(BeanPropertyBinder.class);
+
+	/** Class --> BeanPropertyBinder, softly referenced */
+	private static final ConcurrentMap<Class<?>, BeanPropertyBinder> binderCache =
+			new ConcurrentReferenceHashMap<Class<?>, BeanPropertyBinder>(64);
+
+	/** Type converter of the current thread, shared by all binders */
+	private static final ThreadLocal<SharedTypeConverter> typeConverterHolder =
+			new NamedThreadLocal<SharedTypeConverter>("BeanPropertyBinder type converter") {
+				@Override
+				protected SharedTypeConverter initialValue() {
+					return new SharedTypeConverter();
+				}
+			};
+
+
+	/**
+	 * Obtain the shared BeanPropertyBinder for the given bean class.
+	 * @param beanClass the bean class to bind property values to
+	 * @return the corresponding BeanPropertyBinder
+	 * @throws BeansException in case of introspection failure
+	 */
+	public static BeanPropertyBinder forClass(Class<?> beanClass) throws BeansException {
+		BeanPropertyBinder binder = binderCache.get(beanClass);
+		if (binder == null) {
+			binder = new BeanPropertyBinder(beanClass);
+			BeanPropertyBinder existing = binderCache.putIfAbsent(beanClass, binder);
+			if (existing != null) {
+				binder = existing;
+			}
+		}
+		return binder;
+	}
+
+
+	private final Class<?> beanClass;
+
+	private final CachedIntrospectionResults introspectionResults;
+
+
+	private BeanPropertyBinder(Class<?> beanClass) {
+		this.beanClass = beanClass;
+		this.introspectionResults = CachedIntrospectionResults.forClass(beanClass);
+	}
+
+
+	/**
+	 * Return the bean class that this binder binds property values to.
+	 */
+	public Class<?> getBeanClass() {
+		return this.beanClass;
+	}
+
+	/**
+	 * Determine whether the specified simple property is writable.
+	 * @param propertyName the property name (not a nested or indexed path)
+	 */
+	public boolean isWritableProperty(String propertyName) {
+		PropertyDescriptor pd = this.introspectionResults.getPropertyDescriptor(propertyName);
+		return (pd != null && pd.getWriteMethod() != null);
+	}
+
+	/**
+	 * Convert the given value for the specified simple property to the latter's type.
+	 * @param target the bean instance that the value is meant for
+	 * @param value the value to convert
+	 * @param propertyName the target property (not a nested or indexed path)
+	 * @return the new value, possibly the result of type conversion
+	 * @throws TypeMismatchException if type conversion failed
+	 */
+	public Object convertForProperty(Object target, Object value, String propertyName) throws TypeMismatchException {
+		PropertyDescriptor pd = this.introspectionResults.getPropertyDescriptor(propertyName);
+		if (pd == null) {
+			throw new InvalidPropertyException(this.beanClass, propertyName,
+					"No property '" + propertyName + "' found");
+		}
+		TypeDescriptor td = this.introspectionResults.getTypeDescriptor(pd);
+		if (td == null) {
+			td = this.introspectionResults.addTypeDescriptor(pd, new TypeDescriptor(
+					new Property(this.beanClass, pd.getReadMethod(), pd.getWriteMethod(), pd.getName())));
+		}
+		try {
+			return typeConverterHolder.get().typeConverterDelegate.convertIfNecessary(
+					propertyName, null, value, td.getType(), td);
+		}
+		catch (ConverterNotFoundException ex) {
+			PropertyChangeEvent pce = new PropertyChangeEvent(target, propertyName, null, value);
+			throw new ConversionNotSupportedException(pce, td.getType(), ex);
+		}
+		catch (ConversionException ex) {
+			PropertyChangeEvent pce = new PropertyChangeEvent(target, propertyName, null, value);
+			throw new TypeMismatchException(pce, td.getType(), ex);
+		}
+		catch (IllegalStateException ex) {
+			PropertyChangeEvent pce = new PropertyChangeEvent(target, propertyName, null, value);
+			throw new ConversionNotSupportedException(pce, td.getType(), ex);
+		}
+		catch (IllegalArgumentException ex) {
+			PropertyChangeEvent pce = new PropertyChangeEvent(target, propertyName, null, value);
+			throw new TypeMismatchException(pce, td.getType(), ex);
+		}
+	}
+
+	/**
+	 * Apply the given property values to the given target instance,
+	 * converting values that have not been converted yet.
+	 * @param target the bean instance to populate
+	 * @param pvs the property values to apply
+	 * @throws PropertyBatchUpdateException if individual property values
+	 * could not be applied
+	 * @throws BeansException in case of a critical failure such as no matching field
+	 */
+	public void setPropertyValues(Object target, PropertyValues pvs) throws BeansException {
+		List<PropertyValue> propertyValues = (pvs instanceof MutablePropertyValues ?
+				((MutablePropertyValues) pvs).getPropertyValueList() : Arrays.asList(pvs.getPropertyValues()));
+		Object[] values = new Object[propertyValues.size()];
+		for (int i = 0; i < values.length; i++) {
+			PropertyValue pv = propertyValues.get(i);
+			Object value = (pv.isConverted() ? pv.getConvertedValue() : pv.getValue());
+			if (!pv.isConverted() && !Boolean.FALSE.equals(pv.conversionNecessary) &&
+					isWritableProperty(pv.getName())) {
+				Object convertedValue = convertForProperty(target, value, pv.getName());
+				pv.getOriginalPropertyValue().conversionNecessary = (convertedValue != value);
+				value = convertedValue;
+			}
+			values[i] = value;
+		}
+		setPropertyValues(target, propertyValues, values);
+	}
+
+	/**
+	 * Apply the given property values to the given target instance,
+	 * using the given values instead of the property values' own ones.
+	 * <p>Values for simple properties get applied as-is, so they need
+	 * to be converted already.
+	 * @param target the bean instance to populate
+	 * @param pvs the property values to apply
+	 * @param values the values to apply, in the order of the property values
+	 * @throws PropertyBatchUpdateException if individual property values
+	 * could not be applied
+	 * @throws BeansException in case of a critical failure such as no matching field
+	 */
+	public void setPropertyValues(Object target, List<PropertyValue> pvs, Object[] values) throws BeansException {
+		List<PropertyAccessException> propertyAccessExceptions = null;
+		for (int i = 0; i < values.length; i++) {
+			try {
+				setPropertyValue(target, pvs.get(i), values[i]);
+			}
+			catch (PropertyAccessException ex) {
+				if (propertyAccessExceptions == null) {
+					propertyAccessExceptions = new LinkedList<PropertyAccessException>();
+				}
+				propertyAccessExceptions.add(ex);
+			}
+		}
+
+		// If we encountered individual exceptions, throw the composite exception.
+		if (propertyAccessExceptions != null) {
+			PropertyAccessException[] paeArray =
+					propertyAccessExceptions.toArray(new PropertyAccessException[propertyAccessExceptions.size()]);
+			throw new PropertyBatchUpdateException(paeArray);
+		}
+	}
+
+	/**
+	 * Apply the given value for the given property to the given target instance.
+	 * @param target the bean instance to populate
+	 * @param pv the property value to apply
+	 * @param value the value to apply instead of the property value's own one
+	 * (needs to be converted already in case of a simple property)
+	 * @throws BeansException if the value could not be applied
+	 */
+	public void setPropertyValue(Object target, PropertyValue pv, Object value) throws BeansException {
+		String propertyName = pv.getName();
+		if (PropertyAccessorUtils.isNestedOrIndexedProperty(propertyName)) {
+			BeanWrapperImpl bw = new BeanWrapperImpl(target);
+			bw.useConfigValueEditors();
+			bw.setPropertyValue(value == pv.getValue() ? pv : new PropertyValue(pv, value));
+			return;
+		}
+
+		PropertyDescriptor pd = pv.resolvedDescriptor;
+		if (pd == null || !pd.getWriteMethod().getDeclaringClass().isInstance(target)) {
+			pd = this.introspectionResults.getPropertyDescriptor(propertyName);
+			if (pd == null || pd.getWriteMethod() == null) {
+				if (pv.isOptional()) {
+					logger.debug("Ignoring optional value for property '" + propertyName +
+							"' - property not found on bean class [" + this.beanClass.getName() + "]");
+					return;
+				}
+				else {
+					PropertyMatches matches = PropertyMatches.forProperty(propertyName, this.beanClass);
+					throw new NotWritablePropertyException(this.beanClass, propertyName,
+							matches.buildErrorMessage(), matches.getPossibleMatches());
+				}
+			}
+			pv.getOriginalPropertyValue().resolvedDescriptor = pd;
+		}
+
+		Method writeMethod = (pd instanceof GenericTypeAwarePropertyDescriptor ?
+				((GenericTypeAwarePropertyDescriptor) pd).getWriteMethodForActualAccess() : pd.getWriteMethod());
+		try {
+			ReflectionUtils.makeAccessible(writeMethod);
+			writeMethod.invoke(target, value);
+		}
+		catch (InvocationTargetException ex) {
+			PropertyChangeEvent pce = new PropertyChangeEvent(target, propertyName, null, pv.getValue());
+			if (ex.getTargetException() instanceof ClassCastException) {
+				throw new TypeMismatchException(pce, pd.getPropertyType(), ex.getTargetException());
+			}
+			else {
+				Throwable cause = ex.getTargetException();
+				if (cause instanceof UndeclaredThrowableException) {
+					// May happen e.g. with Groovy-generated methods
+					cause = cause.getCause();
+				}
+				throw new MethodInvocationException(pce, cause);
+			}
+		}
+		catch (Exception ex) {
+			PropertyChangeEvent pce = new PropertyChangeEvent(target, propertyName, null, pv.getValue());
+			throw new MethodInvocationException(pce, ex);
+		}
+	}
+
+
+	@Override
+	public <T> T convertIfNecessary(Object value, Class<T> requiredType) throws TypeMismatchException {
+		return convertIfNecessary(value, requiredType, TypeDescriptor.valueOf(requiredType));
+	}
+
+	@Override
+	public <T> T convertIfNecessary(Object value, Class<T> requiredType, MethodParameter methodParam)
+			throws TypeMismatchException {
+
+		return convertIfNecessary(value, requiredType,
+				(methodParam != null ? new TypeDescriptor(methodParam) : TypeDescriptor.valueOf(requiredType)));
+	}
+
+	@Override
+	public <T> T convertIfNecessary(Object value, Class<T> requiredType, Field field) throws TypeMismatchException {
+		return convertIfNecessary(value, requiredType,
+				(field != null ? new TypeDescriptor(field) : TypeDescriptor.valueOf(requiredType)));
+	}
+
+	private <T> T convertIfNecessary(Object value, Class<T> requiredType, TypeDescriptor td)
+			throws TypeMismatchException {
+
+		try {
+			return typeConverterHolder.get().typeConverterDelegate.convertIfNecessary(
+					null, null, value, requiredType, td);
+		}
+		catch (ConverterNotFoundException ex) {
+			throw new ConversionNotSupportedException(value, requiredType, ex);
+		}
+		catch (ConversionException ex) {
+			throw new TypeMismatchException(value, requiredType, ex);
+		}
+		catch (IllegalStateException ex) {
+			throw new ConversionNotSupportedException(value, requiredType, ex);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new TypeMismatchException(value, requiredType, ex);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "BeanPropertyBinder for class [" + this.beanClass.getName() + "]";
+	}
+
+
+	/**
+	 * Type converter holding the default and config value editors,
+	 * confined to a single thread.
+	 */
+	private static class SharedTypeConverter extends TypeConverterSupport {
+
+		public SharedTypeConverter() {
+			registerDefaultEditors();
+			useConfigValueEditors();
+			this.typeConverterDelegate = new TypeConverterDelegate(this);
+		}
+	}
+
+}
@@ -442,5 +442,19 @@ public abstract class BeanUtils {
 		return cr.getPropertyDescriptors();
 	}
 
+	/**
+	 * Retrieve the JavaBeans {@code PropertyDescriptor} for the given property.
+	 * @param clazz the Class to retrieve the PropertyDescriptor for
+	 * @param propertyName the name of the property
+	 * @return the corresponding PropertyDescriptor, or {@code null} if none
+	 * @throws BeansException if PropertyDescriptor lookup fails
+	 */
+	public static PropertyDescriptor getPropertyDescriptor(Class<?> clazz, String propertyName)
+			throws BeansException {
+
+		CachedIntrospectionResults cr = CachedIntrospectionResults.forClass(clazz);
+		return cr.getPropertyDescriptor(propertyName);
+	}
+
 
 }
@@ -4,9 +4,11 @@ import com.springframework.beans.factory.BeansException;
 import com.springframework.core.convert.ConversionException;
 import com.springframework.core.convert.ConverterNotFoundException;
 import com.springframework.core.convert.Property;
+import com.springframework.core.ResolvableType;
 import com.springframework.core.convert.TypeDescriptor;
 import com.springframework.util.Assert;
 import com.springframework.util.ClassUtils;
+import com.springframework.util.ConcurrentReferenceHashMap;
 import com.springframework.util.ObjectUtils;
 import com.springframework.util.StringUtils;
 import org.apache.commons.logging.Log;
@@ -17,8 +19,18 @@ import java.beans.PropertyDescriptor;
 import java.lang.reflect.*;
 import java.security.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Created by hadoop on 2015/5/9 0009.
@@ -30,6 +42,13 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
      */
     private static final Log logger = LogFactory.getLog(BeanWrapperImpl.class);
 
+    /**
+     * Compiled property paths: property path String --> one PropertyTokenHolder
+     * per nested segment, shared by all BeanWrapperImpl instances.
+     */
+    private static final Map<String, PropertyTokenHolder[]> compiledPropertyPaths =
+            new ConcurrentReferenceHashMap<String, PropertyTokenHolder[]>(256);
+
     private static Class<?> javaUtilOptionalClass = null;
 
     static {
@@ -92,7 +111,6 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
         if (registerDefaultEditors) {
             registerDefaultEditors();
         }
-        this.typeConverterDelegate = new TypeConverterDelegate(this);
     }
 
     /**
@@ -105,6 +123,24 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
         setWrappedInstance(object);
     }
 
+    /**
+     * Create new BeanWrapperImpl for the given object,
+     * registering a nested path that the object is in.
+     *
+     * @param object     object wrapped by this BeanWrapper
+     * @param nestedPath the nested path of the object
+     * @param superBw    the containing BeanWrapper (must not be {@code null})
+     */
+    private BeanWrapperImpl(Object object, String nestedPath, BeanWrapperImpl superBw) {
+        registerDefaultEditors();
+        setWrappedInstance(object, nestedPath, superBw.rootObject);
+        setExtractOldValueForEditor(superBw.isExtractOldValueForEditor());
+        setAutoGrowNestedPaths(superBw.isAutoGrowNestedPaths());
+        setConversionService(superBw.getConversionService());
+        this.autoGrowCollectionLimit = superBw.autoGrowCollectionLimit;
+        this.acc = superBw.acc;
+    }
+
     /**
      * Switch the target object, replacing the cached introspection results only
      * if the class of the new object is different to that of the replaced object.
@@ -134,7 +170,8 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
         this.nestedPath = (nestedPath != null ? nestedPath : "");
         this.rootObject = (!"".equals(this.nestedPath) ? rootObject : this.object);
         this.nestedBeanWrappers = null;
-        this.typeConverterDelegate = new TypeConverterDelegate(this, this.object);
+        // The TypeConverterDelegate gets created on first conversion.
+        this.typeConverterDelegate = null;
         setIntrospectionClass(this.object.getClass());
     }
 
@@ -145,10 +182,29 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
      * @param clazz the class to introspect
      */
     protected void setIntrospectionClass(Class<?> clazz) {
-//        if (this.cachedIntrospectionResults != null &&
-//                !clazz.equals(this.cachedIntrospectionResults.getBeanClass())) {
-//            this.cachedIntrospectionResults = null;
-//        }
+        if (this.cachedIntrospectionResults != null &&
+                !clazz.equals(this.cachedIntrospectionResults.getBeanClass())) {
+            this.cachedIntrospectionResults = null;
+        }
+    }
+
+    @Override
+    public boolean isReadableProperty(String propertyName) {
+        try {
+            PropertyDescriptor pd = getPropertyDescriptorInternal(propertyName);
+            if (pd != null) {
+                if (pd.getReadMethod() != null) {
+                    return true;
+                }
+            } else {
+                // Maybe an indexed/mapped property...
+                getPropertyValue(propertyName);
+                return true;
+            }
+        } catch (InvalidPropertyException ex) {
+            // Cannot be evaluated, so can't be readable.
+        }
+        return false;
     }
 
     @Override
@@ -181,29 +237,81 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
      */
     protected PropertyDescriptor getPropertyDescriptorInternal(String propertyName) throws BeansException {
         Assert.notNull(propertyName, "Property name must not be null");
-        BeanWrapperImpl nestedBw = getBeanWrapperForPropertyPath(propertyName);
-        return nestedBw.getCachedIntrospectionResults().getPropertyDescriptor(getFinalPath(nestedBw, propertyName));
+        PropertyTokenHolder[] propertyPath = getCompiledPropertyPath(propertyName);
+        BeanWrapperImpl nestedBw = getBeanWrapperForPropertyPath(propertyPath);
+        PropertyTokenHolder tokens = propertyPath[propertyPath.length - 1];
+        // An indexed or mapped final segment never denotes a property of its own.
+        return (tokens.keys == null ?
+                nestedBw.getCachedIntrospectionResults().getPropertyDescriptor(tokens.actualName) : null);
     }
 
     /**
-     * Recursively navigate to return a BeanWrapper for the nested property path.
+     * Navigate to return a BeanWrapper for the nested property path.
      *
      * @param propertyPath property property path, which may be nested
      * @return a BeanWrapper for the target bean
      */
     protected BeanWrapperImpl getBeanWrapperForPropertyPath(String propertyPath) {
-        int pos = PropertyAccessorUtils.getFirstNestedPropertySeparatorIndex(propertyPath);
-        // Handle nested properties recursively.
-
-//        if (pos > -1) {
-//            String nestedProperty = propertyPath.substring(0, pos);
-//            String nestedPath = propertyPath.substring(pos + 1);
-//            BeanWrapperImpl nestedBw = getNestedBeanWrapper(nestedProperty);
-//            return nestedBw.getBeanWrapperForPropertyPath(nestedPath);
-//        }
-//        else {
-        return this;
-//        }
+        return getBeanWrapperForPropertyPath(getCompiledPropertyPath(propertyPath));
+    }
+
+    /**
+     * Navigate along all but the last segment of the given compiled property path,
+     * reusing the nested BeanWrappers cached at each level.
+     *
+     * @param propertyPath the compiled property path
+     * @return a BeanWrapper for the target bean
+     */
+    private BeanWrapperImpl getBeanWrapperForPropertyPath(PropertyTokenHolder[] propertyPath) {
+        BeanWrapperImpl nestedBw = this;
+        for (int i = 0; i < propertyPath.length - 1; i++) {
+            nestedBw = nestedBw.getNestedBeanWrapper(propertyPath[i], this.nestedPath);
+        }
+        return nestedBw;
+    }
+
+    /**
+     * Retrieve a BeanWrapper for the given nested property.
+     * Create a new one if not found in the cache.
+     * <p>Note: Caching nested BeanWrappers is necessary now,
+     * to keep registered custom editors for nested properties.
+     *
+     * @param tokens   the tokens of the nested property
+     * @param basePath the nested path of the BeanWrapper that the
+     *                 compiled property path is relative to
+     * @return the BeanWrapper instance, either cached or newly created
+     */
+    private BeanWrapperImpl getNestedBeanWrapper(PropertyTokenHolder tokens, String basePath) {
+        if (this.nestedBeanWrappers == null) {
+            this.nestedBeanWrappers = new HashMap<String, BeanWrapperImpl>();
+        }
+        Object value = getPropertyValue(tokens);
+        String canonicalName = tokens.canonicalName;
+        if (value == null) {
+            if (isAutoGrowNestedPaths()) {
+                value = setDefaultValue(tokens, (tokens.keys != null ? tokens.keys.length : 0));
+            }
+            else {
+                throw new NullValueInNestedPathException(getRootClass(), this.nestedPath + canonicalName);
+            }
+        }
+
+        // Lookup cached sub-BeanWrapper, create new one if not found.
+        BeanWrapperImpl nestedBw = this.nestedBeanWrappers.get(canonicalName);
+        if (nestedBw == null || nestedBw.getWrappedInstance() != value) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Creating new nested BeanWrapper for property '" + canonicalName + "'");
+            }
+            String nestedPath = (basePath.length() == 0 ? tokens.nestedPath : basePath + tokens.nestedPath);
+            nestedBw = new BeanWrapperImpl(value, nestedPath, this);
+            this.nestedBeanWrappers.put(canonicalName, nestedBw);
+        }
+        else {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Using cached nested BeanWrapper for property '" + canonicalName + "'");
+            }
+        }
+        return nestedBw;
     }
 
     /**
@@ -218,20 +326,6 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
         return this.cachedIntrospectionResults;
     }
 
-    /**
-     * Get the last component of the path. Also works if not nested.
-     *
-     * @param bw         BeanWrapper to work on
-     * @param nestedPath property path we know is nested
-     * @return last component of the path (the property on the target bean)
-     */
-    private String getFinalPath(BeanWrapper bw, String nestedPath) {
-        if (bw == this) {
-            return nestedPath;
-        }
-        return nestedPath.substring(PropertyAccessorUtils.getLastNestedPropertySeparatorIndex(nestedPath) + 1);
-    }
-
     /**
      * Convert the given value for the specified property to the latter's type.
      * <p>This method is only intended for optimizations in a BeanFactory.
@@ -263,6 +357,9 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 
     private Object convertIfNecessary(String propertyName, Object oldValue, Object newValue, Class<?> requiredType,
                                       TypeDescriptor td) throws TypeMismatchException {
+        if (this.typeConverterDelegate == null) {
+            this.typeConverterDelegate = new TypeConverterDelegate(this, this.object);
+        }
         try {
             return this.typeConverterDelegate.convertIfNecessary(propertyName, oldValue, newValue, requiredType, td);
         }
@@ -309,26 +406,22 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 
     @Override
     public void setPropertyValue(PropertyValue pv) throws BeansException {
-        PropertyTokenHolder tokens = (PropertyTokenHolder) pv.resolvedTokens;
-        if (tokens == null) {
-            String propertyName = pv.getName();
-            BeanWrapperImpl nestedBw;
+        PropertyTokenHolder[] propertyPath = (PropertyTokenHolder[]) pv.resolvedTokens;
+        if (propertyPath == null) {
+            propertyPath = getCompiledPropertyPath(pv.getName());
+            pv.getOriginalPropertyValue().resolvedTokens = propertyPath;
+        }
+        BeanWrapperImpl nestedBw = this;
+        if (propertyPath.length > 1) {
             try {
-                nestedBw = getBeanWrapperForPropertyPath(propertyName);
+                nestedBw = getBeanWrapperForPropertyPath(propertyPath);
             }
             catch (NotReadablePropertyException ex) {
-                throw new NotWritablePropertyException(getRootClass(), this.nestedPath + propertyName,
-                        "Nested property in path '" + propertyName + "' does not exist", ex);
+                throw new NotWritablePropertyException(getRootClass(), this.nestedPath + pv.getName(),
+                        "Nested property in path '" + pv.getName() + "' does not exist", ex);
             }
-            tokens = getPropertyNameTokens(getFinalPath(nestedBw, propertyName));
-            if (nestedBw == this) {
-                pv.getOriginalPropertyValue().resolvedTokens = tokens;
-            }
-            nestedBw.setPropertyValue(tokens, pv);
-        }
-        else {
-            setPropertyValue(tokens, pv);
         }
+        nestedBw.setPropertyValue(propertyPath[propertyPath.length - 1], pv);
     }
 
 
@@ -338,126 +431,116 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
         String actualName = tokens.actualName;
 
         if (tokens.keys != null) {
-//            // Apply indexes and map keys: fetch value for all keys but the last one.
-//            PropertyTokenHolder getterTokens = new PropertyTokenHolder();
-//            getterTokens.canonicalName = tokens.canonicalName;
-//            getterTokens.actualName = tokens.actualName;
-//            getterTokens.keys = new String[tokens.keys.length - 1];
-//            System.arraycopy(tokens.keys, 0, getterTokens.keys, 0, tokens.keys.length - 1);
-//            Object propValue;
-//            try {
-//                propValue = getPropertyValue(getterTokens);
-//            }
-//            catch (NotReadablePropertyException ex) {
-//                throw new NotWritablePropertyException(getRootClass(), this.nestedPath + propertyName,
-//                        "Cannot access indexed value in property referenced " +
-//                                "in indexed property path '" + propertyName + "'", ex);
-//            }
-//            // Set value for last key.
-//            String key = tokens.keys[tokens.keys.length - 1];
-//            if (propValue == null) {
-//                // null map value case
-//                if (isAutoGrowNestedPaths()) {
-//                    // TODO: cleanup, this is pretty hacky
-//                    int lastKeyIndex = tokens.canonicalName.lastIndexOf('[');
-//                    getterTokens.canonicalName = tokens.canonicalName.substring(0, lastKeyIndex);
-//                    propValue = setDefaultValue(getterTokens);
-//                }
-//                else {
-//                    throw new NullValueInNestedPathException(getRootClass(), this.nestedPath + propertyName,
-//                            "Cannot access indexed value in property referenced " +
-//                                    "in indexed property path '" + propertyName + "': returned null");
-//                }
-//            }
-//            if (propValue.getClass().isArray()) {
-//                PropertyDescriptor pd = getCachedIntrospectionResults().getPropertyDescriptor(actualName);
-//                Class<?> requiredType = propValue.getClass().getComponentType();
-//                int arrayIndex = Integer.parseInt(key);
-//                Object oldValue = null;
-//                try {
-//                    if (isExtractOldValueForEditor() && arrayIndex < Array.getLength(propValue)) {
-//                        oldValue = Array.get(propValue, arrayIndex);
-//                    }
-//                    Object convertedValue = convertIfNecessary(propertyName, oldValue, pv.getValue(),
-//                            requiredType, TypeDescriptor.nested(property(pd), tokens.keys.length));
-//                    int length = Array.getLength(propValue);
-//                    if (arrayIndex >= length && arrayIndex < this.autoGrowCollectionLimit) {
-//                        Class<?> componentType = propValue.getClass().getComponentType();
-//                        Object newArray = Array.newInstance(componentType, arrayIndex + 1);
-//                        System.arraycopy(propValue, 0, newArray, 0, length);
-//                        setPropertyValue(actualName, newArray);
-//                        propValue = getPropertyValue(actualName);
-//                    }
-//                    Array.set(propValue, arrayIndex, convertedValue);
-//                }
-//                catch (IndexOutOfBoundsException ex) {
-//                    throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
-//                            "Invalid array index in property path '" + propertyName + "'", ex);
-//                }
-//            }
-//            else if (propValue instanceof List) {
-//                PropertyDescriptor pd = getCachedIntrospectionResults().getPropertyDescriptor(actualName);
-//                Class<?> requiredType = GenericCollectionTypeResolver.getCollectionReturnType(
-//                        pd.getReadMethod(), tokens.keys.length);
-//                List<Object> list = (List<Object>) propValue;
-//                int index = Integer.parseInt(key);
-//                Object oldValue = null;
-//                if (isExtractOldValueForEditor() && index < list.size()) {
-//                    oldValue = list.get(index);
-//                }
-//                Object convertedValue = convertIfNecessary(propertyName, oldValue, pv.getValue(),
-//                        requiredType, TypeDescriptor.nested(property(pd), tokens.keys.length));
-//                int size = list.size();
-//                if (index >= size && index < this.autoGrowCollectionLimit) {
-//                    for (int i = size; i < index; i++) {
-//                        try {
-//                            list.add(null);
-//                        }
-//                        catch (NullPointerException ex) {
-//                            throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
-//                                    "Cannot set element with index " + index + " in List of size " +
-//                                            size + ", accessed using property path '" + propertyName +
-//                                            "': List does not support filling up gaps with null elements");
-//                        }
-//                    }
-//                    list.add(convertedValue);
-//                }
-//                else {
-//                    try {
-//                        list.set(index, convertedValue);
-//                    }
-//                    catch (IndexOutOfBoundsException ex) {
-//                        throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
-//                                "Invalid list index in property path '" + propertyName + "'", ex);
-//                    }
-//                }
-//            }
-//            else if (propValue instanceof Map) {
-//                PropertyDescriptor pd = getCachedIntrospectionResults().getPropertyDescriptor(actualName);
-//                Class<?> mapKeyType = GenericCollectionTypeResolver.getMapKeyReturnType(
-//                        pd.getReadMethod(), tokens.keys.length);
-//                Class<?> mapValueType = GenericCollectionTypeResolver.getMapValueReturnType(
-//                        pd.getReadMethod(), tokens.keys.length);
-//                Map<Object, Object> map = (Map<Object, Object>) propValue;
-//                // IMPORTANT: Do not pass full property name in here - property editors
-//                // must not kick in for map keys but rather only for map values.
-//                TypeDescriptor typeDescriptor = TypeDescriptor.valueOf(mapKeyType);
-//                Object convertedMapKey = convertIfNecessary(null, null, key, mapKeyType, typeDescriptor);
-//                Object oldValue = null;
-//                if (isExtractOldValueForEditor()) {
-//                    oldValue = map.get(convertedMapKey);
-//                }
-//                // Pass full property name and old value in here, since we want full
-//                // conversion ability for map values.
-//                Object convertedMapValue = convertIfNecessary(propertyName, oldValue, pv.getValue(),
-//                        mapValueType, TypeDescriptor.nested(property(pd), tokens.keys.length));
-//                map.put(convertedMapKey, convertedMapValue);
-//            }
-//            else {
-//                throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
-//                        "Property referenced in indexed property path '" + propertyName +
-//                                "' is neither an array nor a List nor a Map; returned value was [" + propValue + "]");
-//            }
+            // Apply indexes and map keys: fetch value for all keys but the last one.
+            int keyCount = tokens.keys.length - 1;
+            Object propValue;
+            try {
+                propValue = getPropertyValue(tokens, keyCount);
+            }
+            catch (NotReadablePropertyException ex) {
+                throw new NotWritablePropertyException(getRootClass(), this.nestedPath + propertyName,
+                        "Cannot access indexed value in property referenced " +
+                                "in indexed property path '" + propertyName + "'", ex);
+            }
+            // Set value for last key.
+            String key = tokens.keys[keyCount];
+            if (propValue == null) {
+                // null map value case
+                if (isAutoGrowNestedPaths()) {
+                    propValue = setDefaultValue(tokens, keyCount);
+                }
+                else {
+                    throw new NullValueInNestedPathException(getRootClass(), this.nestedPath + propertyName,
+                            "Cannot access indexed value in property referenced " +
+                                    "in indexed property path '" + propertyName + "': returned null");
+                }
+            }
+            if (propValue.getClass().isArray()) {
+                Class<?> requiredType = propValue.getClass().getComponentType();
+                int arrayIndex = Integer.parseInt(key);
+                Object oldValue = null;
+                try {
+                    if (isExtractOldValueForEditor() && arrayIndex < Array.getLength(propValue)) {
+                        oldValue = Array.get(propValue, arrayIndex);
+                    }
+                    Object convertedValue = convertIfNecessary(propertyName, oldValue, pv.getValue(),
+                            requiredType, TypeDescriptor.valueOf(requiredType));
+                    int length = Array.getLength(propValue);
+                    if (arrayIndex >= length && arrayIndex < this.autoGrowCollectionLimit) {
+                        PropertyTokenHolder arrayTokens = getPropertyNameTokens(tokens, keyCount);
+                        Object newArray = Array.newInstance(requiredType, arrayIndex + 1);
+                        System.arraycopy(propValue, 0, newArray, 0, length);
+                        setPropertyValue(arrayTokens, new PropertyValue(arrayTokens.canonicalName, newArray));
+                        propValue = getPropertyValue(arrayTokens, keyCount);
+                    }
+                    setArrayElement(propValue, arrayIndex, convertedValue);
+                }
+                catch (IndexOutOfBoundsException ex) {
+                    throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                            "Invalid array index in property path '" + propertyName + "'", ex);
+                }
+            }
+            else if (propValue instanceof List) {
+                PropertyDescriptor pd = getCachedIntrospectionResults().getPropertyDescriptor(actualName);
+                Class<?> requiredType = getPropertyType(pd, keyCount + 1).asCollection().resolveGeneric();
+                List<Object> list = (List<Object>) propValue;
+                int index = Integer.parseInt(key);
+                Object oldValue = null;
+                if (isExtractOldValueForEditor() && index < list.size()) {
+                    oldValue = list.get(index);
+                }
+                Object convertedValue = convertIfNecessary(propertyName, oldValue, pv.getValue(),
+                        requiredType, TypeDescriptor.valueOf(requiredType));
+                int size = list.size();
+                if (index >= size && index < this.autoGrowCollectionLimit) {
+                    for (int i = size; i < index; i++) {
+                        try {
+                            list.add(null);
+                        }
+                        catch (NullPointerException ex) {
+                            throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                                    "Cannot set element with index " + index + " in List of size " +
+                                            size + ", accessed using property path '" + propertyName +
+                                            "': List does not support filling up gaps with null elements");
+                        }
+                    }
+                    list.add(convertedValue);
+                }
+                else {
+                    try {
+                        list.set(index, convertedValue);
+                    }
+                    catch (IndexOutOfBoundsException ex) {
+                        throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                                "Invalid list index in property path '" + propertyName + "'", ex);
+                    }
+                }
+            }
+            else if (propValue instanceof Map) {
+                PropertyDescriptor pd = getCachedIntrospectionResults().getPropertyDescriptor(actualName);
+                ResolvableType mapType = getPropertyType(pd, keyCount + 1).asMap();
+                Class<?> mapKeyType = mapType.resolveGeneric(0);
+                Class<?> mapValueType = mapType.resolveGeneric(1);
+                Map<Object, Object> map = (Map<Object, Object>) propValue;
+                // IMPORTANT: Do not pass full property name in here - property editors
+                // must not kick in for map keys but rather only for map values.
+                Object convertedMapKey = (mapKeyType == null || mapKeyType.isInstance(key) ? key :
+                        convertIfNecessary(null, null, key, mapKeyType, TypeDescriptor.valueOf(mapKeyType)));
+                Object oldValue = null;
+                if (isExtractOldValueForEditor()) {
+                    oldValue = map.get(convertedMapKey);
+                }
+                // Pass full property name and old value in here, since we want full
+                // conversion ability for map values.
+                Object convertedMapValue = convertIfNecessary(propertyName, oldValue, pv.getValue(),
+                        mapValueType, TypeDescriptor.valueOf(mapValueType));
+                map.put(convertedMapKey, convertedMapValue);
+            }
+            else {
+                throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                        "Property referenced in indexed property path '" + propertyName +
+                                "' is neither an array nor a List nor a Map; returned value was [" + propValue + "]");
+            }
         }
 
         else {
@@ -597,12 +680,52 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
         }
     }
 
+    /**
+     * Return the compiled form of the given property path, compiling
+     * it on first use.
+     * @param propertyPath the property path, which may be nested
+     * @return the tokens of each segment of the path, in order
+     */
+    private static PropertyTokenHolder[] getCompiledPropertyPath(String propertyPath) {
+        PropertyTokenHolder[] compiledPath = compiledPropertyPaths.get(propertyPath);
+        if (compiledPath == null) {
+            compiledPath = compilePropertyPath(propertyPath);
+            compiledPropertyPaths.put(propertyPath, compiledPath);
+        }
+        return compiledPath;
+    }
+
+    /**
+     * Split the given property path into its nested segments, ignoring
+     * dots in keys (like "map[my.key]"), and parse each of them.
+     * @param propertyPath the property path to compile
+     * @return the tokens of each segment of the path, in order
+     */
+    private static PropertyTokenHolder[] compilePropertyPath(String propertyPath) {
+        List<PropertyTokenHolder> compiledPath = new ArrayList<PropertyTokenHolder>(4);
+        String nestedPath = "";
+        String remainingPath = propertyPath;
+        int pos = PropertyAccessorUtils.getFirstNestedPropertySeparatorIndex(remainingPath);
+        while (pos > -1) {
+            PropertyTokenHolder tokens = getPropertyNameTokens(remainingPath.substring(0, pos));
+            nestedPath = nestedPath + tokens.canonicalName + NESTED_PROPERTY_SEPARATOR;
+            tokens.nestedPath = nestedPath;
+            compiledPath.add(tokens);
+            remainingPath = remainingPath.substring(pos + 1);
+            pos = PropertyAccessorUtils.getFirstNestedPropertySeparatorIndex(remainingPath);
+        }
+        PropertyTokenHolder tokens = getPropertyNameTokens(remainingPath);
+        tokens.nestedPath = nestedPath + tokens.canonicalName + NESTED_PROPERTY_SEPARATOR;
+        compiledPath.add(tokens);
+        return compiledPath.toArray(new PropertyTokenHolder[compiledPath.size()]);
+    }
+
     /**
      * Parse the given property name into the corresponding property name tokens.
      * @param propertyName the property name to parse
      * @return representation of the parsed property tokens
      */
-    private PropertyTokenHolder getPropertyNameTokens(String propertyName) {
+    private static PropertyTokenHolder getPropertyNameTokens(String propertyName) {
         PropertyTokenHolder tokens = new PropertyTokenHolder();
         String actualName = null;
         List<String> keys = new ArrayList<String>(2);
@@ -637,6 +760,30 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
         return tokens;
     }
 
+    /**
+     * Derive the tokens for the given property with only its leading keys.
+     * @param tokens the tokens of the property
+     * @param keyCount the number of leading keys to keep
+     * @return the given tokens if they have no further keys, or new tokens
+     */
+    private static PropertyTokenHolder getPropertyNameTokens(PropertyTokenHolder tokens, int keyCount) {
+        if (keyCount == (tokens.keys != null ? tokens.keys.length : 0)) {
+            return tokens;
+        }
+        PropertyTokenHolder prefixTokens = new PropertyTokenHolder();
+        prefixTokens.actualName = tokens.actualName;
+        StringBuilder canonicalName = new StringBuilder(tokens.actualName);
+        if (keyCount > 0) {
+            prefixTokens.keys = new String[keyCount];
+            System.arraycopy(tokens.keys, 0, prefixTokens.keys, 0, keyCount);
+            for (String key : prefixTokens.keys) {
+                canonicalName.append(PROPERTY_KEY_PREFIX).append(key).append(PROPERTY_KEY_SUFFIX);
+            }
+        }
+        prefixTokens.canonicalName = canonicalName.toString();
+        return prefixTokens;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(getClass().getName());
@@ -651,12 +798,395 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 
     @Override
     public Object getPropertyValue(String propertyName) throws BeansException {
-        return null;
+        PropertyTokenHolder[] propertyPath = getCompiledPropertyPath(propertyName);
+        BeanWrapperImpl nestedBw = getBeanWrapperForPropertyPath(propertyPath);
+        return nestedBw.getPropertyValue(propertyPath[propertyPath.length - 1]);
+    }
+
+    private Object getPropertyValue(PropertyTokenHolder tokens) throws BeansException {
+        return getPropertyValue(tokens, (tokens.keys != null ? tokens.keys.length : 0));
+    }
+
+    /**
+     * Read the given property, applying the given number of its keys.
+     * @param tokens the tokens of the property
+     * @param keyCount the number of leading keys to apply
+     */
+    @SuppressWarnings("unchecked")
+    private Object getPropertyValue(PropertyTokenHolder tokens, int keyCount) throws BeansException {
+        String propertyName = tokens.canonicalName;
+        String actualName = tokens.actualName;
+        PropertyDescriptor pd = getCachedIntrospectionResults().getPropertyDescriptor(actualName);
+        if (pd == null || pd.getReadMethod() == null) {
+            throw new NotReadablePropertyException(getRootClass(), this.nestedPath + propertyName);
+        }
+        final Method readMethod = pd.getReadMethod();
+        try {
+            if (!Modifier.isPublic(readMethod.getDeclaringClass().getModifiers()) && !readMethod.isAccessible()) {
+                if (System.getSecurityManager() != null) {
+                    AccessController.doPrivileged(new PrivilegedAction<Object>() {
+                        @Override
+                        public Object run() {
+                            readMethod.setAccessible(true);
+                            return null;
+                        }
+                    });
+                }
+                else {
+                    readMethod.setAccessible(true);
+                }
+            }
+
+            Object value;
+            if (System.getSecurityManager() != null) {
+                try {
+                    value = AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
+                        @Override
+                        public Object run() throws Exception {
+                            return readMethod.invoke(object, (Object[]) null);
+                        }
+                    }, acc);
+                }
+                catch (PrivilegedActionException pae) {
+                    throw pae.getException();
+                }
+            }
+            else {
+                value = readMethod.invoke(this.object, (Object[]) null);
+            }
+
+            if (keyCount > 0) {
+                if (value == null) {
+                    if (isAutoGrowNestedPaths()) {
+                        value = setDefaultValue(tokens, 0);
+                    }
+                    else {
+                        throw new NullValueInNestedPathException(getRootClass(), this.nestedPath + propertyName,
+                                "Cannot access indexed value of property referenced in indexed " +
+                                        "property path '" + propertyName + "': returned null");
+                    }
+                }
+                // Apply indexes and map keys, in order.
+                for (int i = 0; i < keyCount; i++) {
+                    String key = tokens.keys[i];
+                    if (value == null) {
+                        throw new NullValueInNestedPathException(getRootClass(), this.nestedPath + propertyName,
+                                "Cannot access indexed value of property referenced in indexed " +
+                                        "property path '" + propertyName + "': returned null");
+                    }
+                    else if (value.getClass().isArray()) {
+                        int index = Integer.parseInt(key);
+                        value = growArrayIfNecessary(value, index, tokens, i);
+                        value = Array.get(value, index);
+                    }
+                    else if (value instanceof List) {
+                        int index = Integer.parseInt(key);
+                        List<Object> list = (List<Object>) value;
+                        growCollectionIfNecessary(list, index, tokens, i, pd);
+                        value = list.get(index);
+                    }
+                    else if (value instanceof Set) {
+                        // Apply index to Iterator in case of a Set.
+                        Set<Object> set = (Set<Object>) value;
+                        int index = Integer.parseInt(key);
+                        if (index < 0 || index >= set.size()) {
+                            throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                                    "Cannot get element with index " + index + " from Set of size " +
+                                            set.size() + ", accessed using property path '" + propertyName + "'");
+                        }
+                        Iterator<Object> it = set.iterator();
+                        for (int j = 0; it.hasNext(); j++) {
+                            Object elem = it.next();
+                            if (j == index) {
+                                value = elem;
+                                break;
+                            }
+                        }
+                    }
+                    else if (value instanceof Map) {
+                        Map<Object, Object> map = (Map<Object, Object>) value;
+                        Class<?> mapKeyType = getPropertyType(pd, i + 1).asMap().resolveGeneric(0);
+                        // IMPORTANT: Do not pass full property name in here - property editors
+                        // must not kick in for map keys but rather only for map values.
+                        Object convertedMapKey = (mapKeyType == null || mapKeyType.isInstance(key) ? key :
+                                convertIfNecessary(null, null, key, mapKeyType, TypeDescriptor.valueOf(mapKeyType)));
+                        value = map.get(convertedMapKey);
+                    }
+                    else {
+                        throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                                "Property referenced in indexed property path '" + propertyName +
+                                        "' is neither an array nor a List nor a Set nor a Map; returned value was [" +
+                                        value + "]");
+                    }
+                }
+            }
+            return value;
+        }
+        catch (IndexOutOfBoundsException ex) {
+            throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                    "Index of out of bounds in property path '" + propertyName + "'", ex);
+        }
+        catch (NumberFormatException ex) {
+            throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                    "Invalid index in property path '" + propertyName + "'", ex);
+        }
+        catch (TypeMismatchException ex) {
+            throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                    "Invalid index in property path '" + propertyName + "'", ex);
+        }
+        catch (InvocationTargetException ex) {
+            throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                    "Getter for property '" + actualName + "' threw exception", ex);
+        }
+        catch (BeansException ex) {
+            throw ex;
+        }
+        catch (Exception ex) {
+            throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                    "Illegal attempt to get property '" + actualName + "' threw exception", ex);
+        }
     }
 
     @Override
     public void setPropertyValue(String propertyName, Object value) throws BeansException {
+        setPropertyValue(new PropertyValue(propertyName, value));
+    }
+
+    @Override
+    public void setPropertyValues(PropertyValues pvs, boolean ignoreUnknown, boolean ignoreInvalid)
+            throws BeansException {
+
+        growIndexedArrays(pvs.getPropertyValues());
+        super.setPropertyValues(pvs, ignoreUnknown, ignoreInvalid);
+    }
+
+    /**
+     * Grow arrays that receive several indexed values beyond their current length
+     * to their final length right away, instead of reallocating them per index.
+     * @param pvs the property values about to be applied
+     */
+    private void growIndexedArrays(PropertyValue[] pvs) {
+        Map<String, int[]> indexedPaths = null;
+        for (PropertyValue pv : pvs) {
+            String propertyPath = pv.getName();
+            int keyStart = (propertyPath.endsWith(PROPERTY_KEY_SUFFIX) ?
+                    propertyPath.lastIndexOf(PROPERTY_KEY_PREFIX_CHAR) : -1);
+            int index = (keyStart > 0 ? parseIndex(propertyPath, keyStart + 1, propertyPath.length() - 1) : -1);
+            if (index >= 0) {
+                if (indexedPaths == null) {
+                    indexedPaths = new HashMap<String, int[]>();
+                }
+                String arrayPath = propertyPath.substring(0, keyStart);
+                int[] maxIndexAndCount = indexedPaths.get(arrayPath);
+                if (maxIndexAndCount == null) {
+                    indexedPaths.put(arrayPath, new int[] {index, 1});
+                }
+                else {
+                    maxIndexAndCount[0] = Math.max(maxIndexAndCount[0], index);
+                    maxIndexAndCount[1]++;
+                }
+            }
+        }
+        if (indexedPaths == null) {
+            return;
+        }
+        for (Map.Entry<String, int[]> entry : indexedPaths.entrySet()) {
+            int maxIndex = entry.getValue()[0];
+            if (entry.getValue()[1] > 1 && maxIndex < this.autoGrowCollectionLimit) {
+                try {
+                    PropertyTokenHolder[] propertyPath = getCompiledPropertyPath(entry.getKey());
+                    BeanWrapperImpl nestedBw = getBeanWrapperForPropertyPath(propertyPath);
+                    PropertyTokenHolder tokens = propertyPath[propertyPath.length - 1];
+                    Object array = nestedBw.getPropertyValue(tokens);
+                    if (array != null && array.getClass().isArray() && Array.getLength(array) <= maxIndex) {
+                        Object newArray = Array.newInstance(array.getClass().getComponentType(), maxIndex + 1);
+                        System.arraycopy(array, 0, newArray, 0, Array.getLength(array));
+                        nestedBw.setPropertyValue(tokens, new PropertyValue(tokens.canonicalName, newArray));
+                    }
+                }
+                catch (BeansException ex) {
+                    // Leave it up to the individual property writes to report the problem.
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Could not pre-size array property '" + this.nestedPath + entry.getKey() + "'", ex);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse the given range of the given String as a non-negative index.
+     * @return the index, or -1 if the range does not consist of digits only
+     */
+    private static int parseIndex(String str, int start, int end) {
+        if (start >= end || end - start > 9) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            char ch = str.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            index = index * 10 + (ch - '0');
+        }
+        return index;
+    }
+
+    /**
+     * Set the given element of the given array, writing {@code int}, {@code long}
+     * and {@code double} arrays directly rather than through reflection.
+     */
+    private static void setArrayElement(Object array, int index, Object value) {
+        if (array instanceof int[] && value instanceof Integer) {
+            ((int[]) array)[index] = (Integer) value;
+        }
+        else if (array instanceof long[] && value instanceof Long) {
+            ((long[]) array)[index] = (Long) value;
+        }
+        else if (array instanceof double[] && value instanceof Double) {
+            ((double[]) array)[index] = (Double) value;
+        }
+        else if (array instanceof Object[]) {
+            ((Object[]) array)[index] = value;
+        }
+        else {
+            Array.set(array, index, value);
+        }
+    }
+
+    /**
+     * Grow the given array on read access, if auto-growing is active
+     * and the given index lies beyond its end.
+     */
+    private Object growArrayIfNecessary(Object array, int index, PropertyTokenHolder tokens, int keyCount) {
+        if (!isAutoGrowNestedPaths()) {
+            return array;
+        }
+        int length = Array.getLength(array);
+        if (index >= length && index < this.autoGrowCollectionLimit) {
+            PropertyTokenHolder arrayTokens = getPropertyNameTokens(tokens, keyCount);
+            Class<?> componentType = array.getClass().getComponentType();
+            Object newArray = Array.newInstance(componentType, index + 1);
+            System.arraycopy(array, 0, newArray, 0, length);
+            if (!componentType.isPrimitive()) {
+                for (int i = length; i < Array.getLength(newArray); i++) {
+                    Array.set(newArray, i, newValue(ResolvableType.forClass(componentType), arrayTokens.canonicalName));
+                }
+            }
+            setPropertyValue(arrayTokens, new PropertyValue(arrayTokens.canonicalName, newArray));
+            return getPropertyValue(arrayTokens, keyCount);
+        }
+        else {
+            return array;
+        }
+    }
+
+    /**
+     * Grow the given collection on read access, if auto-growing is active
+     * and the given index lies beyond its end.
+     */
+    private void growCollectionIfNecessary(Collection<Object> collection, int index, PropertyTokenHolder tokens,
+            int keyCount, PropertyDescriptor pd) {
 
+        if (!isAutoGrowNestedPaths()) {
+            return;
+        }
+        int size = collection.size();
+        if (index >= size && index < this.autoGrowCollectionLimit) {
+            ResolvableType elementType = getPropertyType(pd, keyCount + 1).asCollection().getGeneric();
+            if (elementType.resolve() != null) {
+                String name = getPropertyNameTokens(tokens, keyCount).canonicalName;
+                for (int i = collection.size(); i < index + 1; i++) {
+                    collection.add(newValue(elementType, name));
+                }
+            }
+        }
+    }
+
+    /**
+     * Auto-grow the given property (or keyed value within it) with a default value.
+     * @param tokens the tokens of the property
+     * @param keyCount the number of leading keys denoting the value to grow
+     * @return the value set
+     */
+    private Object setDefaultValue(PropertyTokenHolder tokens, int keyCount) {
+        PropertyTokenHolder defaultTokens = getPropertyNameTokens(tokens, keyCount);
+        PropertyDescriptor pd = getCachedIntrospectionResults().getPropertyDescriptor(tokens.actualName);
+        if (pd == null || pd.getReadMethod() == null) {
+            throw new NotReadablePropertyException(getRootClass(), this.nestedPath + defaultTokens.canonicalName);
+        }
+        ResolvableType type = getPropertyType(pd, keyCount + 1);
+        if (type.resolve() == null) {
+            throw new NullValueInNestedPathException(getRootClass(), this.nestedPath + defaultTokens.canonicalName,
+                    "Could not determine property type for auto-growing a default value");
+        }
+        Object defaultValue = newValue(type, defaultTokens.canonicalName);
+        setPropertyValue(defaultTokens, new PropertyValue(defaultTokens.canonicalName, defaultValue));
+        return getPropertyValue(defaultTokens, keyCount);
+    }
+
+    /**
+     * Create a default array of the given type: an empty array, or for arrays
+     * of any number of dimensions, an array holding a single default array
+     * of the next lower dimension.
+     * @param arrayType the array type
+     * @return the new array
+     */
+    private static Object newArray(Class<?> arrayType) {
+        Class<?> componentType = arrayType.getComponentType();
+        if (componentType.isArray()) {
+            Object array = Array.newInstance(componentType, 1);
+            Array.set(array, 0, newArray(componentType));
+            return array;
+        }
+        return Array.newInstance(componentType, 0);
+    }
+
+    private Object newValue(ResolvableType type, String name) {
+        Class<?> rawType = type.resolve();
+        try {
+            if (rawType.isArray()) {
+                return newArray(rawType);
+            }
+            else if (Collection.class.isAssignableFrom(rawType)) {
+                if (rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers())) {
+                    if (SortedSet.class.isAssignableFrom(rawType)) {
+                        return new TreeSet<Object>();
+                    }
+                    else if (Set.class.isAssignableFrom(rawType)) {
+                        return new LinkedHashSet<Object>();
+                    }
+                    return new ArrayList<Object>();
+                }
+                return BeanUtils.instantiate(rawType);
+            }
+            else if (Map.class.isAssignableFrom(rawType)) {
+                if (rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers())) {
+                    if (SortedMap.class.isAssignableFrom(rawType)) {
+                        return new TreeMap<Object, Object>();
+                    }
+                    return new LinkedHashMap<Object, Object>();
+                }
+                return BeanUtils.instantiate(rawType);
+            }
+            else {
+                return BeanUtils.instantiate(rawType);
+            }
+        }
+        catch (Exception ex) {
+            throw new NullValueInNestedPathException(getRootClass(), this.nestedPath + name,
+                    "Could not instantiate property type [" + rawType.getName() +
+                            "] to auto-grow nested property path: " + ex);
+        }
+    }
+
+    /**
+     * Determine the generic type of the given property at the given nesting level:
+     * 1 for the property itself, 2 for its elements or map values, and so on.
+     */
+    private ResolvableType getPropertyType(PropertyDescriptor pd, int nestingLevel) {
+        return ResolvableType.forMethodReturnType(pd.getReadMethod(), getWrappedClass()).getNested(nestingLevel);
     }
 
     @Override
@@ -671,22 +1201,27 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 
     @Override
     public PropertyDescriptor[] getPropertyDescriptors() {
-        return new PropertyDescriptor[0];
+        return getCachedIntrospectionResults().getPropertyDescriptors();
     }
 
     @Override
     public PropertyDescriptor getPropertyDescriptor(String propertyName) throws InvalidPropertyException {
-        return null;
+        PropertyDescriptor pd = getPropertyDescriptorInternal(propertyName);
+        if (pd == null) {
+            throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+                    "No property '" + propertyName + "' found");
+        }
+        return pd;
     }
 
     @Override
     public void setAutoGrowCollectionLimit(int autoGrowCollectionLimit) {
-
+        this.autoGrowCollectionLimit = autoGrowCollectionLimit;
     }
 
     @Override
     public int getAutoGrowCollectionLimit() {
-        return 0;
+        return this.autoGrowCollectionLimit;
     }
 
     /**
@@ -703,5 +1238,8 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
         public String actualName;
 
         public String[] keys;
+
+        /** Canonical path up to and including this segment, followed by a separator */
+        public String nestedPath;
     }
 }
@@ -87,12 +87,23 @@ public class CachedIntrospectionResults {
      */
     public static final String IGNORE_BEANINFO_PROPERTY_NAME = "spring.beaninfo.ignore";
 
+    /**
+     * System property that specifies a file to persist introspection metadata in
+     * across JVM runs: "spring.beaninfo.cache.file". Bean classes recorded in that
+     * file get their property descriptors rehydrated through direct method lookups
+     * instead of being introspected again, as long as their class files and the
+     * class files of their supertypes are unchanged.
+     * <p>There is no such file by default. Mainly worth it for short-lived JVMs,
+     * e.g. batch jobs, where introspection makes up a large share of the runtime.
+     */
+    public static final String CACHE_FILE_PROPERTY_NAME = "spring.beaninfo.cache.file";
+
 
     private static final boolean shouldIntrospectorIgnoreBeaninfoClasses =
             SpringProperties.getFlag(IGNORE_BEANINFO_PROPERTY_NAME);
 
     /** Stores the BeanInfoFactory instances */
-    private static List<BeanInfoFactory> beanInfoFactories = SpringFactoriesLoader.loadFactories(
+    private static List<BeanInfoFactory> beanInfoFactories = SpringFactoriesLoader.loadFactorySingletons(
             BeanInfoFactory.class, CachedIntrospectionResults.class.getClassLoader());
 
 
@@ -105,6 +116,10 @@ public class CachedIntrospectionResults {
 
     private static final Log logger = LogFactory.getLog(CachedIntrospectionResults.class);
 
+    /** Introspection metadata recorded by earlier JVM runs, if enabled */
+    private static final IntrospectionMetadataCache metadataCache =
+            IntrospectionMetadataCache.forFile(SpringProperties.getProperty(CACHE_FILE_PROPERTY_NAME));
+
     /**
      * Set of ClassLoaders that this CachedIntrospectionResults class will always
      * accept classes from, even if the classes do not qualify as cache-safe.
@@ -268,11 +283,14 @@ public class CachedIntrospectionResults {
                 logger.trace("Getting BeanInfo for class [" + beanClass.getName() + "]");
             }
 
-            BeanInfo beanInfo = null;
-            for (BeanInfoFactory beanInfoFactory : beanInfoFactories) {
-                beanInfo = beanInfoFactory.getBeanInfo(beanClass);
-                if (beanInfo != null) {
-                    break;
+            BeanInfo beanInfo = (metadataCache != null ? metadataCache.getBeanInfo(beanClass) : null);
+            boolean rehydrated = (beanInfo != null);
+            if (!rehydrated) {
+                for (BeanInfoFactory beanInfoFactory : beanInfoFactories) {
+                    beanInfo = beanInfoFactory.getBeanInfo(beanClass);
+                    if (beanInfo != null) {
+                        break;
+                    }
                 }
             }
             if (beanInfo == null) {
@@ -302,9 +320,14 @@ public class CachedIntrospectionResults {
                             (pd.getPropertyEditorClass() != null ?
                                     "; editor [" + pd.getPropertyEditorClass().getName() + "]" : ""));
                 }
-                pd = buildGenericTypeAwarePropertyDescriptor(beanClass, pd);
+                if (!(pd instanceof GenericTypeAwarePropertyDescriptor)) {
+                    pd = buildGenericTypeAwarePropertyDescriptor(beanClass, pd);
+                }
                 this.propertyDescriptorCache.put(pd.getName(), pd);
             }
+            if (metadataCache != null && !rehydrated) {
+                metadataCache.store(beanClass, this.propertyDescriptorCache.values());
+            }
 
             this.typeDescriptorCache = new ConcurrentReferenceHashMap<PropertyDescriptor, TypeDescriptor>();
         }
@@ -0,0 +1,486 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans;
+
+import com.springframework.beans.factory.BeansException;
+import com.springframework.core.MethodParameter;
+import com.springframework.core.convert.ConversionException;
+import com.springframework.core.convert.ConverterNotFoundException;
+import com.springframework.core.convert.TypeDescriptor;
+import com.springframework.util.Assert;
+import com.springframework.util.ConcurrentReferenceHashMap;
+import com.springframework.util.ObjectUtils;
+import com.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyChangeEvent;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link ConfigurablePropertyAccessor} implementation that directly accesses
+ * instance fields. Allows for direct binding to fields instead of going through
+ * JavaBean setters, for example for plain data holders without any setters.
+ *
+ * <p>The fields of a class get resolved once, from {@link ReflectionUtils}'
+ * declared fields cache, and are shared by all accessors for that class: each
+ * field gets made accessible a single time, so reading or writing a value comes
+ * down to a plain {@link Field#get} or {@link Field#set} call, without any
+ * introspection or setter dispatch. Fields declared in a subclass shadow
+ * superclass fields of the same name; static fields are not exposed, and
+ * final fields are readable but not writable.
+ *
+ * <p>Supports nested field paths such as "address.city", but no indexed
+ * or mapped properties.
+ *
+ * <p>A DirectFieldAccessor's default for the "extractOldValueForEditor" setting
+ * is "true", since a field can always be read without side effects.
+ *
+ * @see #setExtractOldValueForEditor
+ * @see BeanWrapper
+ */
+public class DirectFieldAccessor extends AbstractPropertyAccessor {
+
+	/** Class --> field name --> FieldHandle, softly referenced */
+	private static final Map<Class<?>, Map<String, FieldHandle>> fieldHandleCache =
+			new ConcurrentReferenceHashMap<Class<?>, Map<String, FieldHandle>>(64);
+
+
+	private final Object target;
+
+	private final String nestedPath;
+
+	private final Object rootObject;
+
+	private final Map<String, FieldHandle> fieldHandles;
+
+	private Map<String, DirectFieldAccessor> nestedAccessors;
+
+
+	/**
+	 * Create a new DirectFieldAccessor for the given target object.
+	 * @param target the target object to access
+	 */
+	public DirectFieldAccessor(Object target) {
+		Assert.notNull(target, "Target object must not be null");
+		this.target = target;
+		this.nestedPath = "";
+		this.rootObject = target;
+		this.fieldHandles = getFieldHandles(target.getClass());
+		registerDefaultEditors();
+		setExtractOldValueForEditor(true);
+	}
+
+	/**
+	 * Create a new DirectFieldAccessor for the given object,
+	 * registering a nested path that the object is in.
+	 * @param target the target object to access
+	 * @param nestedPath the nested path of the object
+	 * @param parent the containing DirectFieldAccessor (must not be {@code null})
+	 */
+	private DirectFieldAccessor(Object target, String nestedPath, DirectFieldAccessor parent) {
+		this.target = target;
+		this.nestedPath = nestedPath;
+		this.rootObject = parent.rootObject;
+		this.fieldHandles = getFieldHandles(target.getClass());
+		registerDefaultEditors();
+		setExtractOldValueForEditor(parent.isExtractOldValueForEditor());
+		setAutoGrowNestedPaths(parent.isAutoGrowNestedPaths());
+		setConversionService(parent.getConversionService());
+	}
+
+
+	/**
+	 * Return the target object that this accessor operates on.
+	 */
+	public final Object getWrappedInstance() {
+		return this.target;
+	}
+
+	/**
+	 * Return the type of the target object that this accessor operates on.
+	 */
+	public final Class<?> getWrappedClass() {
+		return this.target.getClass();
+	}
+
+	/**
+	 * Return the class of the root object at the top of the path of this accessor.
+	 */
+	private Class<?> getRootClass() {
+		return this.rootObject.getClass();
+	}
+
+
+	@Override
+	public boolean isReadableProperty(String propertyName) {
+		try {
+			return (getFieldHandle(propertyName) != null);
+		}
+		catch (InvalidPropertyException ex) {
+			// Cannot be evaluated, so can't be readable.
+			return false;
+		}
+	}
+
+	@Override
+	public boolean isWritableProperty(String propertyName) {
+		try {
+			FieldHandle handle = getFieldHandle(propertyName);
+			return (handle != null && handle.writable);
+		}
+		catch (InvalidPropertyException ex) {
+			// Cannot be evaluated, so can't be writable.
+			return false;
+		}
+	}
+
+	@Override
+	public Class<?> getPropertyType(String propertyName) throws BeansException {
+		try {
+			FieldHandle handle = getFieldHandle(propertyName);
+			return (handle != null ? handle.field.getType() : null);
+		}
+		catch (InvalidPropertyException ex) {
+			// Consider as not determinable.
+			return null;
+		}
+	}
+
+	@Override
+	public TypeDescriptor getPropertyTypeDescriptor(String propertyName) throws BeansException {
+		try {
+			FieldHandle handle = getFieldHandle(propertyName);
+			return (handle != null ? handle.getTypeDescriptor() : null);
+		}
+		catch (InvalidPropertyException ex) {
+			// Consider as not determinable.
+			return null;
+		}
+	}
+
+	@Override
+	public Object getPropertyValue(String propertyName) throws BeansException {
+		DirectFieldAccessor accessor = getAccessorForPropertyPath(propertyName);
+		String fieldName = getFinalPath(accessor, propertyName);
+		FieldHandle handle = accessor.fieldHandles.get(fieldName);
+		if (handle == null) {
+			throw new NotReadablePropertyException(getRootClass(), accessor.nestedPath + fieldName,
+					"Field '" + fieldName + "' does not exist");
+		}
+		try {
+			return handle.field.get(accessor.target);
+		}
+		catch (IllegalAccessException ex) {
+			throw new InvalidPropertyException(getRootClass(), accessor.nestedPath + fieldName,
+					"Field is not accessible", ex);
+		}
+	}
+
+	@Override
+	public void setPropertyValue(String propertyName, Object value) throws BeansException {
+		setPropertyValue(new PropertyValue(propertyName, value));
+	}
+
+	@Override
+	public void setPropertyValue(PropertyValue pv) throws BeansException {
+		String propertyName = pv.getName();
+		DirectFieldAccessor accessor;
+		try {
+			accessor = getAccessorForPropertyPath(propertyName);
+		}
+		catch (NotReadablePropertyException ex) {
+			throw new NotWritablePropertyException(getRootClass(), this.nestedPath + propertyName,
+					"Nested field in path '" + propertyName + "' does not exist", ex);
+		}
+		accessor.setFieldValue(getFinalPath(accessor, propertyName), pv);
+	}
+
+	private void setFieldValue(String fieldName, PropertyValue pv) throws BeansException {
+		FieldHandle handle = this.fieldHandles.get(fieldName);
+		if (handle == null || !handle.writable) {
+			if (pv.isOptional()) {
+				return;
+			}
+			throw new NotWritablePropertyException(getRootClass(), this.nestedPath + fieldName,
+					(handle == null ? "Field '" + fieldName + "' does not exist" :
+							"Field '" + fieldName + "' is final"));
+		}
+		Field field = handle.field;
+		Object oldValue = null;
+		Object value = pv.getValue();
+		try {
+			if (pv.isConverted()) {
+				value = pv.getConvertedValue();
+			}
+			else {
+				if (isExtractOldValueForEditor()) {
+					oldValue = field.get(this.target);
+				}
+				value = convertIfNecessary(fieldName, oldValue, value, field.getType(), handle.getTypeDescriptor());
+			}
+			field.set(this.target, value);
+		}
+		catch (IllegalAccessException ex) {
+			throw new InvalidPropertyException(getRootClass(), this.nestedPath + fieldName,
+					"Field is not accessible", ex);
+		}
+		catch (IllegalArgumentException ex) {
+			PropertyChangeEvent pce =
+					new PropertyChangeEvent(this.rootObject, this.nestedPath + fieldName, oldValue, value);
+			throw new TypeMismatchException(pce, field.getType(), ex);
+		}
+	}
+
+	/**
+	 * Convert the given value for the specified field to the latter's type.
+	 * <p>This method is only intended for optimizations in a BeanFactory.
+	 * Use the {@code convertIfNecessary} methods for programmatic conversion.
+	 * @param value the value to convert
+	 * @param propertyName the target field
+	 * (note that nested field paths are not supported here)
+	 * @return the new value, possibly the result of type conversion
+	 * @throws TypeMismatchException if type conversion failed
+	 */
+	public Object convertForProperty(Object value, String propertyName) throws TypeMismatchException {
+		FieldHandle handle = this.fieldHandles.get(propertyName);
+		if (handle == null) {
+			throw new InvalidPropertyException(getRootClass(), this.nestedPath + propertyName,
+					"Field '" + propertyName + "' does not exist");
+		}
+		return convertIfNecessary(propertyName, null, value, handle.field.getType(), handle.getTypeDescriptor());
+	}
+
+	private Object convertIfNecessary(String propertyName, Object oldValue, Object newValue, Class<?> requiredType,
+			TypeDescriptor td) throws TypeMismatchException {
+
+		try {
+			return getTypeConverterDelegate().convertIfNecessary(propertyName, oldValue, newValue, requiredType, td);
+		}
+		catch (ConverterNotFoundException ex) {
+			PropertyChangeEvent pce =
+					new PropertyChangeEvent(this.rootObject, this.nestedPath + propertyName, oldValue, newValue);
+			throw new ConversionNotSupportedException(pce, requiredType, ex);
+		}
+		catch (ConversionException ex) {
+			PropertyChangeEvent pce =
+					new PropertyChangeEvent(this.rootObject, this.nestedPath + propertyName, oldValue, newValue);
+			throw new TypeMismatchException(pce, requiredType, ex);
+		}
+		catch (IllegalStateException ex) {
+			PropertyChangeEvent pce =
+					new PropertyChangeEvent(this.rootObject, this.nestedPath + propertyName, oldValue, newValue);
+			throw new ConversionNotSupportedException(pce, requiredType, ex);
+		}
+		catch (IllegalArgumentException ex) {
+			PropertyChangeEvent pce =
+					new PropertyChangeEvent(this.rootObject, this.nestedPath + propertyName, oldValue, newValue);
+			throw new TypeMismatchException(pce, requiredType, ex);
+		}
+	}
+
+	@Override
+	public <T> T convertIfNecessary(Object value, Class<T> requiredType) throws TypeMismatchException {
+		return convertIfNecessary(value, requiredType, TypeDescriptor.valueOf(requiredType));
+	}
+
+	@Override
+	public <T> T convertIfNecessary(Object value, Class<T> requiredType, MethodParameter methodParam)
+			throws TypeMismatchException {
+
+		return convertIfNecessary(value, requiredType,
+				(methodParam != null ? new TypeDescriptor(methodParam) : TypeDescriptor.valueOf(requiredType)));
+	}
+
+	@Override
+	public <T> T convertIfNecessary(Object value, Class<T> requiredType, Field field) throws TypeMismatchException {
+		return convertIfNecessary(value, requiredType,
+				(field != null ? new TypeDescriptor(field) : TypeDescriptor.valueOf(requiredType)));
+	}
+
+	private <T> T convertIfNecessary(Object value, Class<T> requiredType, TypeDescriptor td)
+			throws TypeMismatchException {
+
+		try {
+			return getTypeConverterDelegate().convertIfNecessary(null, null, value, requiredType, td);
+		}
+		catch (ConverterNotFoundException ex) {
+			throw new ConversionNotSupportedException(value, requiredType, ex);
+		}
+		catch (ConversionException ex) {
+			throw new TypeMismatchException(value, requiredType, ex);
+		}
+		catch (IllegalStateException ex) {
+			throw new ConversionNotSupportedException(value, requiredType, ex);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new TypeMismatchException(value, requiredType, ex);
+		}
+	}
+
+	private TypeConverterDelegate getTypeConverterDelegate() {
+		if (this.typeConverterDelegate == null) {
+			this.typeConverterDelegate = new TypeConverterDelegate(this, this.target);
+		}
+		return this.typeConverterDelegate;
+	}
+
+
+	/**
+	 * Return the FieldHandle for the given field path, if any.
+	 * @throws InvalidPropertyException if a nested field in the path cannot be navigated
+	 */
+	private FieldHandle getFieldHandle(String propertyPath) {
+		DirectFieldAccessor accessor = getAccessorForPropertyPath(propertyPath);
+		return accessor.fieldHandles.get(getFinalPath(accessor, propertyPath));
+	}
+
+	/**
+	 * Get the last component of the path. Also works if not nested.
+	 * @param accessor the accessor to work on
+	 * @param nestedPath the field path we know is nested
+	 * @return the last component of the path (the field on the target object)
+	 */
+	private String getFinalPath(DirectFieldAccessor accessor, String nestedPath) {
+		if (accessor == this) {
+			return nestedPath;
+		}
+		return nestedPath.substring(PropertyAccessorUtils.getLastNestedPropertySeparatorIndex(nestedPath) + 1);
+	}
+
+	/**
+	 * Recursively navigate to return an accessor for the nested field path.
+	 * @param propertyPath field path, which may be nested
+	 * @return an accessor for the target object
+	 */
+	private DirectFieldAccessor getAccessorForPropertyPath(String propertyPath) {
+		int pos = PropertyAccessorUtils.getFirstNestedPropertySeparatorIndex(propertyPath);
+		// Handle nested fields recursively.
+		if (pos > -1) {
+			String nestedField = propertyPath.substring(0, pos);
+			String nestedPath = propertyPath.substring(pos + 1);
+			return getNestedAccessor(nestedField).getAccessorForPropertyPath(nestedPath);
+		}
+		return this;
+	}
+
+	/**
+	 * Retrieve an accessor for the value of the given field, creating a new one
+	 * if none is cached yet or if the field's value has been replaced meanwhile.
+	 * Populates a {@code null} value with a new instance of the field's type
+	 * if "autoGrowNestedPaths" is activated.
+	 * @param fieldName the name of the field to create an accessor for
+	 * @return the accessor instance, either cached or newly created
+	 */
+	private DirectFieldAccessor getNestedAccessor(String fieldName) {
+		FieldHandle handle = this.fieldHandles.get(fieldName);
+		if (handle == null) {
+			throw new NotReadablePropertyException(getRootClass(), this.nestedPath + fieldName,
+					"Field '" + fieldName + "' does not exist");
+		}
+		Object value;
+		try {
+			value = handle.field.get(this.target);
+			if (value == null) {
+				if (!isAutoGrowNestedPaths() || !handle.writable) {
+					throw new NullValueInNestedPathException(getRootClass(), this.nestedPath + fieldName);
+				}
+				value = BeanUtils.instantiate(handle.field.getType());
+				handle.field.set(this.target, value);
+			}
+		}
+		catch (IllegalAccessException ex) {
+			throw new InvalidPropertyException(getRootClass(), this.nestedPath + fieldName,
+					"Field is not accessible", ex);
+		}
+		catch (BeanInstantiationException ex) {
+			throw new NullValueInNestedPathException(getRootClass(), this.nestedPath + fieldName,
+					"Could not instantiate field type [" + handle.field.getType().getName() +
+							"] to auto-grow nested field path: " + ex);
+		}
+
+		if (this.nestedAccessors == null) {
+			this.nestedAccessors = new HashMap<String, DirectFieldAccessor>();
+		}
+		DirectFieldAccessor nestedAccessor = this.nestedAccessors.get(fieldName);
+		if (nestedAccessor == null || nestedAccessor.target != value) {
+			nestedAccessor = new DirectFieldAccessor(value, this.nestedPath + fieldName + NESTED_PROPERTY_SEPARATOR, this);
+			this.nestedAccessors.put(fieldName, nestedAccessor);
+		}
+		return nestedAccessor;
+	}
+
+	/**
+	 * Resolve the accessible fields of the given class, or return them from the cache.
+	 */
+	private static Map<String, FieldHandle> getFieldHandles(Class<?> clazz) {
+		Map<String, FieldHandle> handles = fieldHandleCache.get(clazz);
+		if (handles == null) {
+			final Map<String, FieldHandle> newHandles = new HashMap<String, FieldHandle>();
+			ReflectionUtils.doWithFields(clazz, new ReflectionUtils.FieldCallback() {
+				@Override
+				public void doWith(Field field) {
+					// Subclass fields come first and shadow superclass fields of the same name.
+					if (!newHandles.containsKey(field.getName())) {
+						newHandles.put(field.getName(), new FieldHandle(field));
+					}
+				}
+			}, new ReflectionUtils.FieldFilter() {
+				@Override
+				public boolean matches(Field field) {
+					return !Modifier.isStatic(field.getModifiers());
+				}
+			});
+			handles = newHandles;
+			fieldHandleCache.put(clazz, handles);
+		}
+		return handles;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getName() + ": wrapping object [" + ObjectUtils.identityToString(this.target) + "]";
+	}
+
+
+	/**
+	 * Holder for an accessible field and its lazily determined TypeDescriptor.
+	 */
+	private static class FieldHandle {
+
+		final Field field;
+
+		final boolean writable;
+
+		private volatile TypeDescriptor typeDescriptor;
+
+		public FieldHandle(Field field) {
+			ReflectionUtils.makeAccessible(field);
+			this.field = field;
+			this.writable = !Modifier.isFinal(field.getModifiers());
+		}
+
+		public TypeDescriptor getTypeDescriptor() {
+			if (this.typeDescriptor == null) {
+				this.typeDescriptor = new TypeDescriptor(this.field);
+			}
+			return this.typeDescriptor;
+		}
+	}
+
+}
@@ -48,7 +48,7 @@ final class GenericTypeAwarePropertyDescriptor extends PropertyDescriptor {
 
 	private volatile Set<Method> ambiguousWriteMethods;
 
-	private MethodParameter writeMethodParameter;
+	private volatile MethodParameter writeMethodParameter;
 
 	private Class<?> propertyType;
 
@@ -111,6 +111,28 @@ final class GenericTypeAwarePropertyDescriptor extends PropertyDescriptor {
 		this.propertyEditorClass = propertyEditorClass;
 	}
 
+	/**
+	 * Create a descriptor for accessor methods and a property type that have been
+	 * resolved before, e.g. in an earlier run recorded by {@link IntrospectionMetadataCache}.
+	 * Skips bridge method and generic type resolution; the write method parameter
+	 * gets resolved on first access only.
+	 */
+	GenericTypeAwarePropertyDescriptor(Class<?> beanClass, String propertyName,
+			Method readMethod, Method writeMethod, Class<?> propertyType, Class<?> propertyEditorClass)
+			throws IntrospectionException {
+
+		super(propertyName, null, null);
+
+		if (beanClass == null)  {
+			throw new IntrospectionException("Bean class must not be null");
+		}
+		this.beanClass = beanClass;
+		this.readMethod = readMethod;
+		this.writeMethod = writeMethod;
+		this.propertyType = propertyType;
+		this.propertyEditorClass = propertyEditorClass;
+	}
+
 
 	public Class<?> getBeanClass() {
 		return this.beanClass;
@@ -138,7 +160,13 @@ final class GenericTypeAwarePropertyDescriptor extends PropertyDescriptor {
 	}
 
 	public MethodParameter getWriteMethodParameter() {
-		return this.writeMethodParameter;
+		MethodParameter writeMethodParameter = this.writeMethodParameter;
+		if (writeMethodParameter == null && this.writeMethod != null) {
+			writeMethodParameter = new MethodParameter(this.writeMethod, 0);
+			GenericTypeResolver.resolveParameterType(writeMethodParameter, this.beanClass);
+			this.writeMethodParameter = writeMethodParameter;
+		}
+		return writeMethodParameter;
 	}
 
 	@Override
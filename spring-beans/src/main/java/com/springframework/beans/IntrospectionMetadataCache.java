@@ -0,0 +1,581 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans;
+
+import com.springframework.util.ClassUtils;
+import com.springframework.util.ConcurrentReferenceHashMap;
+import com.springframework.util.ReflectionUtils;
+import com.springframework.util.ResourceUtils;
+import com.springframework.util.StreamUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache of introspection metadata, allowing {@link CachedIntrospectionResults}
+ * to skip introspection of bean classes already introspected by an earlier JVM run.
+ *
+ * <p>Records the property names, the accessor methods (including the return type
+ * of the read method, telling it apart from bridge methods for covariant or generic
+ * getters) and the resolved property types per bean class, keyed by class name plus fingerprints of the class files
+ * of the class and all of its supertypes: size and last-modified time of the
+ * jar file for a class from a jar, of the class file for a class from a directory,
+ * and a CRC-32 checksum otherwise. A class whose class files have changed since,
+ * or whose class files cannot be found (e.g. a generated class), gets
+ * introspected as usual. Classes of the JDK itself are not digested; the JDK
+ * version is recorded for the cache file as a whole instead.
+ *
+ * <p>The cache file is read once on creation and written back on JVM shutdown,
+ * if any new classes have been introspected. Aimed at short-lived JVMs such as
+ * batch jobs, where introspection makes up a large share of the runtime.
+ *
+ * @see CachedIntrospectionResults#CACHE_FILE_PROPERTY_NAME
+ */
+final class IntrospectionMetadataCache {
+
+	private static final String HEADER = "# introspection metadata v2 " + System.getProperty("java.version");
+
+	private static final String NONE = "-";
+
+	private static final String ENCODING = "UTF-8";
+
+	private static final Log logger = LogFactory.getLog(IntrospectionMetadataCache.class);
+
+
+	private final File file;
+
+	/** Class name --> recorded metadata */
+	private final ConcurrentMap<String, ClassMetadata> entries = new ConcurrentHashMap<String, ClassMetadata>(256);
+
+	/** Class --> digest of its class file, or NONE if not readable */
+	private final ConcurrentMap<Class<?>, String> classFileDigests =
+			new ConcurrentReferenceHashMap<Class<?>, String>(256);
+
+	/** Code source location --> fingerprint of the jar file, or directory as File */
+	private final ConcurrentMap<String, Object> codeSourceRoots = new ConcurrentHashMap<String, Object>(16);
+
+	private volatile boolean modified;
+
+
+	/**
+	 * Create a cache backed by the given file, loading any metadata recorded in it.
+	 * @param file the cache file, which does not need to exist yet
+	 * @see #save()
+	 */
+	IntrospectionMetadataCache(File file) {
+		this.file = file;
+		load();
+	}
+
+
+	/**
+	 * Create a cache backed by the given file, loading any metadata recorded
+	 * in it and writing the metadata back on JVM shutdown.
+	 * @param path the path of the cache file, or {@code null} for none
+	 * @return the cache, or {@code null} if no path has been given
+	 */
+	static IntrospectionMetadataCache forFile(String path) {
+		if (path == null || path.length() == 0) {
+			return null;
+		}
+		final IntrospectionMetadataCache cache = new IntrospectionMetadataCache(new File(path));
+		Runtime.getRuntime().addShutdownHook(new Thread("introspection-metadata-cache") {
+			@Override
+			public void run() {
+				cache.save();
+			}
+		});
+		return cache;
+	}
+
+
+	/**
+	 * Rehydrate the BeanInfo for the given bean class from the recorded metadata,
+	 * looking up the recorded accessor methods directly.
+	 * @param beanClass the bean class
+	 * @return the BeanInfo, or {@code null} if no current metadata is recorded
+	 */
+	BeanInfo getBeanInfo(Class<?> beanClass) {
+		ClassMetadata metadata = this.entries.get(beanClass.getName());
+		if (metadata == null) {
+			return null;
+		}
+		List<Class<?>> hierarchy = getHierarchy(beanClass);
+		if (!metadata.digest.equals(digest(hierarchy))) {
+			return null;
+		}
+		try {
+			Map<String, Class<?>> typesByName = new LinkedHashMap<String, Class<?>>(hierarchy.size() * 2);
+			for (Class<?> type : hierarchy) {
+				typesByName.put(type.getName(), type);
+			}
+			PropertyMetadata[] properties = metadata.getProperties();
+			ClassLoader classLoader = beanClass.getClassLoader();
+			PropertyDescriptor[] pds = new PropertyDescriptor[properties.length];
+			for (int i = 0; i < pds.length; i++) {
+				PropertyMetadata pm = properties[i];
+				Method readMethod = findReadMethod(typesByName, pm.readMethodClass, pm.readMethodName,
+						pm.readMethodReturnType);
+				Method writeMethod = findWriteMethod(typesByName, pm.writeMethodClass, pm.writeMethodName,
+						pm.writeMethodParameterType, classLoader);
+				Class<?> propertyType = (pm.propertyType != null ?
+						ClassUtils.forName(pm.propertyType, classLoader) : null);
+				pds[i] = new GenericTypeAwarePropertyDescriptor(beanClass, pm.name,
+						readMethod, writeMethod, propertyType, null);
+			}
+			return new ReflectiveBeanInfoFactory.ReflectiveBeanInfo(beanClass, pds);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not rehydrate introspection metadata for class [" + beanClass.getName() +
+						"] - introspecting it instead: " + ex);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Record the metadata for the given bean class and its introspected properties.
+	 * @param beanClass the bean class
+	 * @param pds the property descriptors, with generic property types resolved
+	 */
+	void store(Class<?> beanClass, Collection<PropertyDescriptor> pds) {
+		String digest = digest(getHierarchy(beanClass));
+		if (digest == null) {
+			return;
+		}
+		PropertyMetadata[] properties = new PropertyMetadata[pds.size()];
+		int i = 0;
+		for (PropertyDescriptor pd : pds) {
+			if (pd.getPropertyEditorClass() != null) {
+				// Custom editors come from explicit BeanInfo classes: not recorded.
+				return;
+			}
+			Method readMethod = pd.getReadMethod();
+			Method writeMethod = pd.getWriteMethod();
+			properties[i++] = new PropertyMetadata(pd.getName(),
+					(readMethod != null ? readMethod.getDeclaringClass().getName() : null),
+					(readMethod != null ? readMethod.getName() : null),
+					(readMethod != null ? ClassUtils.getQualifiedName(readMethod.getReturnType()) : null),
+					(writeMethod != null ? writeMethod.getDeclaringClass().getName() : null),
+					(writeMethod != null ? writeMethod.getName() : null),
+					(writeMethod != null ? ClassUtils.getQualifiedName(writeMethod.getParameterTypes()[0]) : null),
+					(pd.getPropertyType() != null ? ClassUtils.getQualifiedName(pd.getPropertyType()) : null));
+		}
+		this.entries.put(beanClass.getName(), new ClassMetadata(digest, properties));
+		this.modified = true;
+	}
+
+	/**
+	 * Find the recorded read method among the methods declared by its class,
+	 * matching on the return type: a covariant or generic getter comes with
+	 * a bridge method of the same name and no parameters as well.
+	 */
+	private Method findReadMethod(Map<String, Class<?>> typesByName, String className, String methodName,
+			String returnTypeName) throws ClassNotFoundException, NoSuchMethodException {
+
+		if (className == null) {
+			return null;
+		}
+		Class<?> declaringClass = getDeclaringClass(typesByName, className);
+		for (Method candidate : declaringClass.getDeclaredMethods()) {
+			if (candidate.getName().equals(methodName) && candidate.getParameterTypes().length == 0 &&
+					ClassUtils.getQualifiedName(candidate.getReturnType()).equals(returnTypeName)) {
+				return candidate;
+			}
+		}
+		throw new NoSuchMethodException(className + "." + methodName + "() returning " + returnTypeName);
+	}
+
+	private Method findWriteMethod(Map<String, Class<?>> typesByName, String className, String methodName,
+			String parameterTypeName, ClassLoader classLoader) throws ClassNotFoundException, NoSuchMethodException {
+
+		if (className == null) {
+			return null;
+		}
+		Class<?> declaringClass = getDeclaringClass(typesByName, className);
+		Method method = ReflectionUtils.findMethod(declaringClass, methodName,
+				ClassUtils.forName(parameterTypeName, classLoader));
+		if (method == null) {
+			throw new NoSuchMethodException(className + "." + methodName + "(" + parameterTypeName + ")");
+		}
+		return method;
+	}
+
+	private static Class<?> getDeclaringClass(Map<String, Class<?>> typesByName, String className)
+			throws ClassNotFoundException {
+
+		Class<?> declaringClass = typesByName.get(className);
+		if (declaringClass == null) {
+			throw new ClassNotFoundException(className);
+		}
+		return declaringClass;
+	}
+
+
+	/**
+	 * Return the given class, its superclasses and all of their interfaces.
+	 */
+	private static List<Class<?>> getHierarchy(Class<?> beanClass) {
+		Set<Class<?>> hierarchy = new LinkedHashSet<Class<?>>();
+		for (Class<?> clazz = beanClass; clazz != null; clazz = clazz.getSuperclass()) {
+			hierarchy.add(clazz);
+		}
+		for (Class<?> clazz : new ArrayList<Class<?>>(hierarchy)) {
+			addInterfaces(clazz, hierarchy);
+		}
+		return new ArrayList<Class<?>>(hierarchy);
+	}
+
+	private static void addInterfaces(Class<?> clazz, Set<Class<?>> hierarchy) {
+		for (Class<?> ifc : clazz.getInterfaces()) {
+			if (hierarchy.add(ifc)) {
+				addInterfaces(ifc, hierarchy);
+			}
+		}
+	}
+
+	/**
+	 * Digest the class files of the given types, skipping JDK classes.
+	 * @return the digest, or {@code null} if a class file is not readable
+	 */
+	private String digest(List<Class<?>> hierarchy) {
+		StringBuilder sb = new StringBuilder();
+		for (Class<?> type : hierarchy) {
+			if (type.getClassLoader() == null) {
+				continue;
+			}
+			String classFileDigest = this.classFileDigests.get(type);
+			if (classFileDigest == null) {
+				classFileDigest = digestClassFile(type);
+				this.classFileDigests.put(type, classFileDigest);
+			}
+			if (classFileDigest == NONE) {
+				return null;
+			}
+			if (sb.length() > 0) {
+				sb.append('/');
+			}
+			sb.append(classFileDigest);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Digest the given class file, preferably without locating or reading it:
+	 * a class from a jar is identified by the jar's size and last-modified time,
+	 * a class from a directory by its class file's size and last-modified time.
+	 * Any other class file gets read for computing its CRC-32 checksum.
+	 */
+	private String digestClassFile(Class<?> type) {
+		try {
+			Object codeSource = getCodeSourceRoot(type);
+			if (codeSource instanceof String) {
+				return (String) codeSource;
+			}
+			if (codeSource instanceof File) {
+				File classFile = new File((File) codeSource, type.getName().replace('.', '/') + ClassUtils.CLASS_FILE_SUFFIX);
+				if (classFile.isFile()) {
+					return fingerprint(classFile);
+				}
+			}
+			InputStream is = type.getResourceAsStream(ClassUtils.getClassFileName(type));
+			if (is == null) {
+				return NONE;
+			}
+			try {
+				CRC32 crc = new CRC32();
+				byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+				long length = 0;
+				int bytesRead;
+				while ((bytesRead = is.read(buffer)) != -1) {
+					crc.update(buffer, 0, bytesRead);
+					length += bytesRead;
+				}
+				return Long.toHexString(crc.getValue()) + ':' + Long.toHexString(length);
+			}
+			finally {
+				is.close();
+			}
+		}
+		catch (IOException ex) {
+			return NONE;
+		}
+	}
+
+	/**
+	 * Determine the root the given class has been loaded from.
+	 * @return the fingerprint of the jar file, the directory as File,
+	 * or {@code null} if not loaded from the file system
+	 */
+	private Object getCodeSourceRoot(Class<?> type) throws IOException {
+		URL location;
+		try {
+			ProtectionDomain protectionDomain = type.getProtectionDomain();
+			CodeSource codeSource = (protectionDomain != null ? protectionDomain.getCodeSource() : null);
+			location = (codeSource != null ? codeSource.getLocation() : null);
+		}
+		catch (SecurityException ex) {
+			return null;
+		}
+		if (location == null || !ResourceUtils.isFileURL(location)) {
+			return null;
+		}
+		String key = location.toExternalForm();
+		Object root = this.codeSourceRoots.get(key);
+		if (root == null) {
+			File file = ResourceUtils.getFile(location);
+			root = (file.isFile() ? fingerprint(file) : file);
+			this.codeSourceRoots.put(key, root);
+		}
+		return root;
+	}
+
+	private static String fingerprint(File file) {
+		return Long.toHexString(file.length()) + '@' + Long.toHexString(file.lastModified());
+	}
+
+
+	/**
+	 * Load the metadata recorded in the cache file, if any. A file written
+	 * for another JDK version or in another format gets ignored as a whole.
+	 * <p>The file holds one line per class: the class name, the digest and
+	 * the encoded properties, separated by tabs. The properties only get
+	 * decoded once the class is actually requested.
+	 */
+	private void load() {
+		if (!this.file.isFile()) {
+			return;
+		}
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.file), ENCODING));
+			try {
+				if (!HEADER.equals(reader.readLine())) {
+					if (logger.isInfoEnabled()) {
+						logger.info("Ignoring introspection metadata cache [" + this.file + "] of another version");
+					}
+					return;
+				}
+				String line;
+				while ((line = reader.readLine()) != null) {
+					int nameEnd = line.indexOf('\t');
+					int digestEnd = (nameEnd != -1 ? line.indexOf('\t', nameEnd + 1) : -1);
+					if (digestEnd == -1) {
+						throw new IOException("Malformed line: " + line);
+					}
+					this.entries.put(line.substring(0, nameEnd), new ClassMetadata(
+							line.substring(nameEnd + 1, digestEnd), line.substring(digestEnd + 1)));
+				}
+			}
+			finally {
+				reader.close();
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded introspection metadata for " + this.entries.size() +
+						" classes from [" + this.file + "]");
+			}
+		}
+		catch (IOException ex) {
+			this.entries.clear();
+			if (logger.isWarnEnabled()) {
+				logger.warn("Could not load introspection metadata cache [" + this.file + "]: " + ex);
+			}
+		}
+	}
+
+	/**
+	 * Write all metadata back to the cache file, if any new classes have been
+	 * recorded. Writes to a temporary file first, replacing the cache file once
+	 * complete, so that concurrently starting JVMs never read a partial file.
+	 */
+	void save() {
+		if (!this.modified) {
+			return;
+		}
+		File tempFile = new File(this.file.getPath() + ".tmp");
+		try {
+			File parent = this.file.getAbsoluteFile().getParentFile();
+			if (parent != null && !parent.isDirectory()) {
+				parent.mkdirs();
+			}
+			Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), ENCODING));
+			try {
+				writer.write(HEADER);
+				writer.write('\n');
+				for (Map.Entry<String, ClassMetadata> entry : this.entries.entrySet()) {
+					writer.write(entry.getKey());
+					writer.write('\t');
+					writer.write(entry.getValue().digest);
+					writer.write('\t');
+					writer.write(entry.getValue().getEncodedProperties());
+					writer.write('\n');
+				}
+			}
+			finally {
+				writer.close();
+			}
+			if (!tempFile.renameTo(this.file) && !(this.file.delete() && tempFile.renameTo(this.file))) {
+				throw new IOException("Could not rename [" + tempFile + "] to [" + this.file + "]");
+			}
+			this.modified = false;
+		}
+		catch (IOException ex) {
+			tempFile.delete();
+			if (logger.isWarnEnabled()) {
+				logger.warn("Could not write introspection metadata cache [" + this.file + "]: " + ex);
+			}
+		}
+	}
+
+
+	/**
+	 * Metadata for a bean class, held in encoded form until first requested.
+	 */
+	private static class ClassMetadata {
+
+		private static final String FIELD_SEPARATOR = " ";
+
+		private static final String PROPERTY_SEPARATOR = "\t";
+
+		final String digest;
+
+		private volatile String encodedProperties;
+
+		private volatile PropertyMetadata[] properties;
+
+		ClassMetadata(String digest, String encodedProperties) {
+			this.digest = digest;
+			this.encodedProperties = encodedProperties;
+		}
+
+		ClassMetadata(String digest, PropertyMetadata[] properties) {
+			this.digest = digest;
+			this.properties = properties;
+		}
+
+		PropertyMetadata[] getProperties() throws IOException {
+			PropertyMetadata[] properties = this.properties;
+			if (properties == null) {
+				String[] encoded = (this.encodedProperties.length() > 0 ?
+						this.encodedProperties.split(PROPERTY_SEPARATOR) : new String[0]);
+				properties = new PropertyMetadata[encoded.length];
+				for (int i = 0; i < encoded.length; i++) {
+					String[] fields = encoded[i].split(FIELD_SEPARATOR);
+					if (fields.length != 8) {
+						throw new IOException("Malformed property metadata: " + encoded[i]);
+					}
+					properties[i] = new PropertyMetadata(fields[0], decode(fields[1]), decode(fields[2]),
+							decode(fields[3]), decode(fields[4]), decode(fields[5]), decode(fields[6]),
+							decode(fields[7]));
+				}
+				this.properties = properties;
+			}
+			return properties;
+		}
+
+		String getEncodedProperties() {
+			String encodedProperties = this.encodedProperties;
+			if (encodedProperties == null) {
+				StringBuilder sb = new StringBuilder();
+				for (PropertyMetadata pm : this.properties) {
+					if (sb.length() > 0) {
+						sb.append(PROPERTY_SEPARATOR);
+					}
+					sb.append(pm.name).append(FIELD_SEPARATOR).append(encode(pm.readMethodClass));
+					sb.append(FIELD_SEPARATOR).append(encode(pm.readMethodName));
+					sb.append(FIELD_SEPARATOR).append(encode(pm.readMethodReturnType));
+					sb.append(FIELD_SEPARATOR).append(encode(pm.writeMethodClass));
+					sb.append(FIELD_SEPARATOR).append(encode(pm.writeMethodName));
+					sb.append(FIELD_SEPARATOR).append(encode(pm.writeMethodParameterType));
+					sb.append(FIELD_SEPARATOR).append(encode(pm.propertyType));
+				}
+				encodedProperties = sb.toString();
+				this.encodedProperties = encodedProperties;
+			}
+			return encodedProperties;
+		}
+
+		private static String encode(String value) {
+			return (value != null ? value : NONE);
+		}
+
+		private static String decode(String value) {
+			return (NONE.equals(value) ? null : value);
+		}
+	}
+
+
+	private static class PropertyMetadata {
+
+		final String name;
+
+		final String readMethodClass;
+
+		final String readMethodName;
+
+		final String readMethodReturnType;
+
+		final String writeMethodClass;
+
+		final String writeMethodName;
+
+		final String writeMethodParameterType;
+
+		final String propertyType;
+
+		PropertyMetadata(String name, String readMethodClass, String readMethodName, String readMethodReturnType,
+				String writeMethodClass, String writeMethodName, String writeMethodParameterType, String propertyType) {
+			this.name = name;
+			this.readMethodClass = readMethodClass;
+			this.readMethodName = readMethodName;
+			this.readMethodReturnType = readMethodReturnType;
+			this.writeMethodClass = writeMethodClass;
+			this.writeMethodName = writeMethodName;
+			this.writeMethodParameterType = writeMethodParameterType;
+			this.propertyType = propertyType;
+		}
+	}
+
+}
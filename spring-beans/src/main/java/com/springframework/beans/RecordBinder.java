@@ -0,0 +1,414 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans;
+
+import com.springframework.beans.factory.BeansException;
+import com.springframework.core.convert.ConversionException;
+import com.springframework.core.convert.ConverterNotFoundException;
+import com.springframework.core.convert.Property;
+import com.springframework.core.convert.TypeDescriptor;
+import com.springframework.util.Assert;
+import com.springframework.util.ConcurrentReferenceHashMap;
+import com.springframework.util.ObjectUtils;
+import com.springframework.util.ReflectionUtils;
+import com.springframework.util.StringUtils;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Binds tabular records - rows of String values, for example parsed from
+ * CSV or TSV input - onto new instances of a given bean class, as a bulk
+ * alternative to a {@link BeanWrapperImpl} and a set of property values per row.
+ *
+ * <p>A binder gets compiled once per combination of bean class and header:
+ * each column is resolved to the write method and type of the corresponding
+ * property up front. Binding a row then comes down to instantiating the target
+ * object, converting each cell through the default and config value editors
+ * of a {@link TypeConverterDelegate}, and invoking the write methods - with no
+ * further allocation per row beyond the target object and the converted values
+ * themselves. Cells for String properties get applied as-is.
+ *
+ * <p>Instances are thread-safe. Since PropertyEditors are stateful, single
+ * rows get bound through shared editors, one row at a time, while each call
+ * of a {@code bindAll} method - and each of its parallel tasks - uses editors
+ * of its own.
+ *
+ * <p>Header entries that are {@code null} or empty mark columns to skip.
+ * Missing trailing cells of a row leave the corresponding properties untouched.
+ * {@code null} cells set the corresponding properties to {@code null}, failing
+ * with a {@link TypeMismatchException} for properties of a primitive type.
+ *
+ * @see #forHeader
+ * @see BeanPropertyBinder
+ */
+public final class RecordBinder<T> {
+
+	private static final Object[] NO_ARGS = new Object[0];
+
+	/** (Class, header) --> RecordBinder, softly referenced */
+	private static final ConcurrentMap<HeaderKey, RecordBinder<?>> binderCache =
+			new ConcurrentReferenceHashMap<HeaderKey, RecordBinder<?>>(64);
+
+
+	/**
+	 * Obtain the RecordBinder for the given bean class and header.
+	 * @param beanClass the bean class to create and bind instances of
+	 * @param header the property name for each column, in column order
+	 * ({@code null} or empty for columns to skip)
+	 * @return the corresponding RecordBinder
+	 * @throws NotWritablePropertyException if a column does not correspond to a writable property
+	 * @throws BeanInstantiationException if the bean class has no default constructor
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> RecordBinder<T> forHeader(Class<T> beanClass, String... header) throws BeansException {
+		Assert.notNull(beanClass, "Bean class must not be null");
+		Assert.notNull(header, "Header must not be null");
+		HeaderKey key = new HeaderKey(beanClass, header.clone());
+		RecordBinder<T> binder = (RecordBinder<T>) binderCache.get(key);
+		if (binder == null) {
+			binder = new RecordBinder<T>(beanClass, key.header);
+			RecordBinder<T> existing = (RecordBinder<T>) binderCache.putIfAbsent(key, binder);
+			if (existing != null) {
+				binder = existing;
+			}
+		}
+		return binder;
+	}
+
+
+	private final Class<T> beanClass;
+
+	private final Constructor<T> constructor;
+
+	/** Compiled columns, with {@code null} for columns to skip */
+	private final Column[] columns;
+
+	private final RowConverter sharedConverter = new RowConverter();
+
+
+	private RecordBinder(Class<T> beanClass, String[] header) {
+		if (beanClass.isInterface()) {
+			throw new BeanInstantiationException(beanClass, "Specified class is an interface");
+		}
+		this.beanClass = beanClass;
+		try {
+			this.constructor = beanClass.getDeclaredConstructor();
+		}
+		catch (NoSuchMethodException ex) {
+			throw new BeanInstantiationException(beanClass, "No default constructor found", ex);
+		}
+		CachedIntrospectionResults introspectionResults = CachedIntrospectionResults.forClass(beanClass);
+		this.columns = new Column[header.length];
+		for (int i = 0; i < header.length; i++) {
+			String propertyName = header[i];
+			if (!StringUtils.hasLength(propertyName)) {
+				continue;
+			}
+			PropertyDescriptor pd = introspectionResults.getPropertyDescriptor(propertyName);
+			if (pd == null || pd.getWriteMethod() == null) {
+				PropertyMatches matches = PropertyMatches.forProperty(propertyName, beanClass);
+				throw new NotWritablePropertyException(beanClass, propertyName,
+						matches.buildErrorMessage(), matches.getPossibleMatches());
+			}
+			TypeDescriptor td = introspectionResults.getTypeDescriptor(pd);
+			if (td == null) {
+				td = introspectionResults.addTypeDescriptor(pd, new TypeDescriptor(
+						new Property(beanClass, pd.getReadMethod(), pd.getWriteMethod(), pd.getName())));
+			}
+			this.columns[i] = new Column(propertyName, pd, td);
+		}
+	}
+
+
+	/**
+	 * Return the bean class that this binder creates and binds instances of.
+	 */
+	public Class<T> getBeanClass() {
+		return this.beanClass;
+	}
+
+	/**
+	 * Bind the given row onto a new instance of the bean class.
+	 * @param row the cell values of the row, in column order
+	 * @return the new, populated instance
+	 * @throws BeansException if the instance could not be created or populated
+	 */
+	public T bind(String[] row) throws BeansException {
+		T target = instantiate();
+		bind(row, target);
+		return target;
+	}
+
+	/**
+	 * Bind the given row onto the given target instance.
+	 * @param row the cell values of the row, in column order
+	 * @param target the instance to populate
+	 * @throws BeansException if the instance could not be populated
+	 */
+	public void bind(String[] row, T target) throws BeansException {
+		synchronized (this.sharedConverter) {
+			bindRow(row, target, this.sharedConverter);
+		}
+	}
+
+	/**
+	 * Bind the given rows onto new instances of the bean class.
+	 * @param rows the rows to bind, each with its cell values in column order
+	 * @return the new, populated instances, in the order of the rows
+	 * @throws BeansException if an instance could not be created or populated
+	 */
+	public List<T> bindAll(String[][] rows) throws BeansException {
+		Object[] results = new Object[rows.length];
+		bindRows(rows, 0, rows.length, results);
+		return asList(results);
+	}
+
+	/**
+	 * Bind the given rows onto new instances of the bean class, splitting them
+	 * into contiguous batches that get bound in parallel on the given executor.
+	 * @param rows the rows to bind, each with its cell values in column order
+	 * @param executor the executor to run the batches on
+	 * @param parallelism the number of batches to split the rows into
+	 * @return the new, populated instances, in the order of the rows
+	 * @throws BeansException if an instance could not be created or populated
+	 */
+	public List<T> bindAll(final String[][] rows, ExecutorService executor, int parallelism) throws BeansException {
+		Assert.notNull(executor, "ExecutorService must not be null");
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		final Object[] results = new Object[rows.length];
+		int batchSize = Math.max((rows.length + parallelism - 1) / parallelism, 1);
+		List<Future<?>> futures = new ArrayList<Future<?>>(parallelism);
+		try {
+			for (int start = 0; start < rows.length; start += batchSize) {
+				final int from = start;
+				final int to = Math.min(start + batchSize, rows.length);
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						bindRows(rows, from, to, results);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while binding rows onto instances of [" +
+					this.beanClass.getName() + "]", ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Failed to bind rows onto instances of [" +
+					this.beanClass.getName() + "]", cause);
+		}
+		finally {
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return asList(results);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> asList(Object[] results) {
+		return (List<T>) Arrays.asList(results);
+	}
+
+	/**
+	 * Bind the given range of rows onto new instances, with editors of its own.
+	 */
+	private void bindRows(String[][] rows, int from, int to, Object[] results) {
+		RowConverter converter = new RowConverter();
+		for (int i = from; i < to; i++) {
+			T target = instantiate();
+			bindRow(rows[i], target, converter);
+			results[i] = target;
+		}
+	}
+
+	private T instantiate() {
+		return BeanUtils.instantiateClass(this.constructor, NO_ARGS);
+	}
+
+	private void bindRow(String[] row, T target, RowConverter converter) throws BeansException {
+		Object[] args = converter.args;
+		try {
+			int count = Math.min(row.length, this.columns.length);
+			for (int i = 0; i < count; i++) {
+				Column column = this.columns[i];
+				if (column == null) {
+					continue;
+				}
+				String text = row[i];
+				if (text == null && column.propertyType.isPrimitive()) {
+					PropertyChangeEvent pce = new PropertyChangeEvent(target, column.propertyName, null, null);
+					throw new TypeMismatchException(pce, column.propertyType);
+				}
+				args[0] = (text == null || column.textAssignable ? text : converter.convert(target, column, text));
+				try {
+					column.writeMethod.invoke(target, args);
+				}
+				catch (InvocationTargetException ex) {
+					PropertyChangeEvent pce = new PropertyChangeEvent(target, column.propertyName, null, text);
+					if (ex.getTargetException() instanceof ClassCastException) {
+						throw new TypeMismatchException(pce, column.propertyType, ex.getTargetException());
+					}
+					else {
+						Throwable cause = ex.getTargetException();
+						if (cause instanceof UndeclaredThrowableException) {
+							// May happen e.g. with Groovy-generated methods
+							cause = cause.getCause();
+						}
+						throw new MethodInvocationException(pce, cause);
+					}
+				}
+				catch (Exception ex) {
+					PropertyChangeEvent pce = new PropertyChangeEvent(target, column.propertyName, null, text);
+					throw new MethodInvocationException(pce, ex);
+				}
+			}
+		}
+		finally {
+			args[0] = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "RecordBinder for class [" + this.beanClass.getName() + "]";
+	}
+
+
+	/**
+	 * A compiled column: the property that its cells get bound to.
+	 */
+	private static class Column {
+
+		final String propertyName;
+
+		final Method writeMethod;
+
+		final Class<?> propertyType;
+
+		final TypeDescriptor typeDescriptor;
+
+		/** Whether cell values can get applied without conversion */
+		final boolean textAssignable;
+
+		public Column(String propertyName, PropertyDescriptor pd, TypeDescriptor td) {
+			this.propertyName = propertyName;
+			this.writeMethod = (pd instanceof GenericTypeAwarePropertyDescriptor ?
+					((GenericTypeAwarePropertyDescriptor) pd).getWriteMethodForActualAccess() : pd.getWriteMethod());
+			ReflectionUtils.makeAccessible(this.writeMethod);
+			this.propertyType = td.getType();
+			this.typeDescriptor = td;
+			this.textAssignable = this.propertyType.isAssignableFrom(String.class);
+		}
+	}
+
+
+	/**
+	 * Editors and a reusable argument array for binding rows on a single thread.
+	 */
+	private static class RowConverter extends TypeConverterSupport {
+
+		final Object[] args = new Object[1];
+
+		public RowConverter() {
+			registerDefaultEditors();
+			useConfigValueEditors();
+			this.typeConverterDelegate = new TypeConverterDelegate(this);
+		}
+
+		public Object convert(Object target, Column column, String text) throws TypeMismatchException {
+			try {
+				return this.typeConverterDelegate.convertIfNecessary(
+						column.propertyName, null, text, column.propertyType, column.typeDescriptor);
+			}
+			catch (ConverterNotFoundException ex) {
+				PropertyChangeEvent pce = new PropertyChangeEvent(target, column.propertyName, null, text);
+				throw new ConversionNotSupportedException(pce, column.propertyType, ex);
+			}
+			catch (ConversionException ex) {
+				PropertyChangeEvent pce = new PropertyChangeEvent(target, column.propertyName, null, text);
+				throw new TypeMismatchException(pce, column.propertyType, ex);
+			}
+			catch (IllegalStateException ex) {
+				PropertyChangeEvent pce = new PropertyChangeEvent(target, column.propertyName, null, text);
+				throw new ConversionNotSupportedException(pce, column.propertyType, ex);
+			}
+			catch (IllegalArgumentException ex) {
+				PropertyChangeEvent pce = new PropertyChangeEvent(target, column.propertyName, null, text);
+				throw new TypeMismatchException(pce, column.propertyType, ex);
+			}
+		}
+	}
+
+
+	/**
+	 * Cache key for a combination of bean class and header.
+	 */
+	private static class HeaderKey {
+
+		final Class<?> beanClass;
+
+		final String[] header;
+
+		public HeaderKey(Class<?> beanClass, String[] header) {
+			this.beanClass = beanClass;
+			this.header = header;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof HeaderKey)) {
+				return false;
+			}
+			HeaderKey otherKey = (HeaderKey) other;
+			return (this.beanClass == otherKey.beanClass && Arrays.equals(this.header, otherKey.header));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.beanClass.hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.header);
+		}
+	}
+
+}
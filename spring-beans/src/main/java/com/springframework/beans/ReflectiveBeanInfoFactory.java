@@ -0,0 +1,255 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans;
+
+import com.springframework.core.SpringProperties;
+import com.springframework.util.ClassUtils;
+import com.springframework.util.ReflectionUtils;
+
+import java.beans.BeanDescriptor;
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * {@link BeanInfoFactory} that derives bean properties straight from the getter
+ * and setter methods of a class, as found through {@link ReflectionUtils}' cache
+ * of declared methods, instead of going through the JavaBeans {@link Introspector}.
+ *
+ * <p>Follows the JavaBeans naming conventions for basic properties: {@code getXxx()}
+ * and, for {@code boolean} properties, {@code isXxx()} read methods, and
+ * {@code void setXxx(value)} write methods. A write method is only paired with a
+ * read method if it accepts exactly the read method's type, as with the Introspector.
+ * Bridge read methods are skipped in favor of the methods they bridge to, whereas
+ * bridge write methods take part in that pairing on behalf of the methods they bridge
+ * to, e.g. a {@code setValue(String)} overriding a generic {@code setValue(T)}.
+ * Bridge methods and generic property types then get resolved against the bean
+ * class through {@link GenericTypeAwarePropertyDescriptor}.
+ * Indexed properties, events and method descriptors are not exposed, since
+ * {@link CachedIntrospectionResults} does not need them.
+ *
+ * <p>Unless the {@link CachedIntrospectionResults#IGNORE_BEANINFO_PROPERTY_NAME}
+ * flag is set, classes with an explicit {@code BeanInfo} class of their own or
+ * of one of their superclasses are left to the {@link Introspector}.
+ *
+ * <p>Registered in {@code META-INF/spring.factories}, which makes
+ * {@link CachedIntrospectionResults} consult it before the {@link Introspector}.
+ *
+ * @see CachedIntrospectionResults
+ * @see com.springframework.core.io.support.SpringFactoriesLoader
+ */
+public class ReflectiveBeanInfoFactory implements BeanInfoFactory {
+
+	private static final String BEANINFO_SUFFIX = "BeanInfo";
+
+	private static final boolean ignoreBeaninfoClasses =
+			SpringProperties.getFlag(CachedIntrospectionResults.IGNORE_BEANINFO_PROPERTY_NAME);
+
+
+	@Override
+	public BeanInfo getBeanInfo(Class<?> beanClass) throws IntrospectionException {
+		if (!ignoreBeaninfoClasses && hasExplicitBeanInfo(beanClass)) {
+			return null;
+		}
+		return new ReflectiveBeanInfo(beanClass, determineProperties(beanClass));
+	}
+
+	private boolean hasExplicitBeanInfo(Class<?> beanClass) {
+		for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+			if (ClassUtils.isPresent(clazz.getName() + BEANINFO_SUFFIX, clazz.getClassLoader())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private PropertyDescriptor[] determineProperties(Class<?> beanClass) throws IntrospectionException {
+		PropertyMethodCollector collector = new PropertyMethodCollector();
+		Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+		if (beanClass.isInterface()) {
+			interfaces.add(beanClass);
+			collectInterfaces(beanClass, interfaces);
+		}
+		else {
+			// Most specific declarations first, so that overriding methods win
+			for (Class<?> clazz = beanClass; clazz != null; clazz = clazz.getSuperclass()) {
+				ReflectionUtils.doWithLocalMethods(clazz, collector);
+				collectInterfaces(clazz, interfaces);
+			}
+		}
+		// Abstract methods only declared on interfaces count as well
+		for (Class<?> ifc : interfaces) {
+			ReflectionUtils.doWithLocalMethods(ifc, collector);
+		}
+
+		List<PropertyDescriptor> pds = new ArrayList<PropertyDescriptor>(collector.properties.size());
+		for (Map.Entry<String, PropertyMethods> entry : collector.properties.entrySet()) {
+			PropertyMethods methods = entry.getValue();
+			Method writeMethod = methods.determineWriteMethod();
+			if (methods.readMethod == null && writeMethod == null) {
+				continue;
+			}
+			pds.add(new GenericTypeAwarePropertyDescriptor(beanClass, entry.getKey(),
+					methods.readMethod, writeMethod, null));
+		}
+		return pds.toArray(new PropertyDescriptor[pds.size()]);
+	}
+
+	private static void collectInterfaces(Class<?> clazz, Set<Class<?>> interfaces) {
+		for (Class<?> ifc : clazz.getInterfaces()) {
+			if (interfaces.add(ifc)) {
+				collectInterfaces(ifc, interfaces);
+			}
+		}
+	}
+
+
+	/**
+	 * Collects read and write method candidates per property name,
+	 * ignoring methods overridden by an already collected method.
+	 */
+	private static class PropertyMethodCollector implements ReflectionUtils.MethodCallback {
+
+		/** Sorted by property name, like the JavaBeans Introspector does */
+		final Map<String, PropertyMethods> properties = new TreeMap<String, PropertyMethods>();
+
+		private final Set<String> seenSignatures = new HashSet<String>();
+
+		@Override
+		public void doWith(Method method) {
+			int modifiers = method.getModifiers();
+			if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers)) {
+				return;
+			}
+			String methodName = method.getName();
+			Class<?>[] paramTypes = method.getParameterTypes();
+			Class<?> returnType = method.getReturnType();
+			if (method.isBridge() && paramTypes.length == 0) {
+				return;
+			}
+			if (paramTypes.length == 0) {
+				if (methodName.length() > 3 && methodName.startsWith("get") && returnType != void.class) {
+					if (isNewSignature(methodName, null)) {
+						propertyMethods(methodName.substring(3)).addReadMethod(method, false);
+					}
+				}
+				else if (methodName.length() > 2 && methodName.startsWith("is") && returnType == boolean.class) {
+					if (isNewSignature(methodName, null)) {
+						propertyMethods(methodName.substring(2)).addReadMethod(method, true);
+					}
+				}
+			}
+			else if (paramTypes.length == 1 && returnType == void.class &&
+					methodName.length() > 3 && methodName.startsWith("set")) {
+				if (isNewSignature(methodName, paramTypes[0])) {
+					propertyMethods(methodName.substring(3)).writeMethods.add(method);
+				}
+			}
+		}
+
+		private boolean isNewSignature(String methodName, Class<?> paramType) {
+			return this.seenSignatures.add(paramType != null ? methodName + '(' + paramType.getName() : methodName);
+		}
+
+		private PropertyMethods propertyMethods(String baseName) {
+			String propertyName = Introspector.decapitalize(baseName);
+			PropertyMethods methods = this.properties.get(propertyName);
+			if (methods == null) {
+				methods = new PropertyMethods();
+				this.properties.put(propertyName, methods);
+			}
+			return methods;
+		}
+	}
+
+
+	/**
+	 * Read and write method candidates for a single property.
+	 */
+	private static class PropertyMethods {
+
+		Method readMethod;
+
+		boolean booleanReadMethod;
+
+		final List<Method> writeMethods = new ArrayList<Method>(1);
+
+		void addReadMethod(Method method, boolean isBooleanReadMethod) {
+			// An "is" read method takes precedence over a "get" read method
+			if (this.readMethod == null || (isBooleanReadMethod && !this.booleanReadMethod)) {
+				this.readMethod = method;
+				this.booleanReadMethod = isBooleanReadMethod;
+			}
+		}
+
+		Method determineWriteMethod() {
+			if (this.writeMethods.isEmpty()) {
+				return null;
+			}
+			if (this.readMethod == null) {
+				return this.writeMethods.get(0);
+			}
+			// Like the Introspector, only pair with a write method of exactly the read type
+			Class<?> propertyType = this.readMethod.getReturnType();
+			for (Method writeMethod : this.writeMethods) {
+				if (writeMethod.getParameterTypes()[0] == propertyType) {
+					return writeMethod;
+				}
+			}
+			return null;
+		}
+	}
+
+
+	/**
+	 * BeanInfo exposing the bean descriptor and the properties of a bean class.
+	 */
+	static class ReflectiveBeanInfo extends SimpleBeanInfo {
+
+		private final BeanDescriptor beanDescriptor;
+
+		private final PropertyDescriptor[] propertyDescriptors;
+
+		public ReflectiveBeanInfo(Class<?> beanClass, PropertyDescriptor[] propertyDescriptors) {
+			this.beanDescriptor = new BeanDescriptor(beanClass);
+			this.propertyDescriptors = propertyDescriptors;
+		}
+
+		@Override
+		public BeanDescriptor getBeanDescriptor() {
+			return this.beanDescriptor;
+		}
+
+		@Override
+		public PropertyDescriptor[] getPropertyDescriptors() {
+			return this.propertyDescriptors;
+		}
+	}
+
+}
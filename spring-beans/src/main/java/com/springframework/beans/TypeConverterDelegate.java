@@ -27,8 +27,16 @@ import org.apache.commons.logging.LogFactory;
 import java.beans.PropertyEditor;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Internal helper class for converting property values to target types.
@@ -152,18 +160,18 @@ class TypeConverterDelegate {
 //					}
 //					return (T) convertToTypedArray(convertedValue, propertyName, requiredType.getComponentType());
 //				}
-//				else if (convertedValue instanceof Collection) {
-//					// Convert elements to target type, if determined.
-//					convertedValue = convertToTypedCollection(
-//							(Collection<?>) convertedValue, propertyName, requiredType, typeDescriptor);
-//					standardConversion = true;
-//				}
-//				else if (convertedValue instanceof Map) {
-//					// Convert keys and values to respective target type, if determined.
-//					convertedValue = convertToTypedMap(
-//							(Map<?, ?>) convertedValue, propertyName, requiredType, typeDescriptor);
-//					standardConversion = true;
-//				}
+				if (convertedValue instanceof Collection) {
+					// Convert elements to target type, if determined.
+					convertedValue = convertToTypedCollection(
+							(Collection<?>) convertedValue, propertyName, requiredType, typeDescriptor);
+					standardConversion = true;
+				}
+				else if (convertedValue instanceof Map) {
+					// Convert keys and values to respective target type, if determined.
+					convertedValue = convertToTypedMap(
+							(Map<?, ?>) convertedValue, propertyName, requiredType, typeDescriptor);
+					standardConversion = true;
+				}
 //				if (convertedValue.getClass().isArray() && Array.getLength(convertedValue) == 1) {
 //					convertedValue = Array.get(convertedValue, 0);
 //					standardConversion = true;
@@ -259,6 +267,105 @@ class TypeConverterDelegate {
 		return editor;
 	}
 
+	@SuppressWarnings("unchecked")
+	private Collection<?> convertToTypedCollection(
+			Collection<?> original, String propertyName, Class<?> requiredType, TypeDescriptor typeDescriptor) {
+
+		if (!Collection.class.isAssignableFrom(requiredType) || typeDescriptor == null) {
+			return original;
+		}
+		TypeDescriptor elementType = typeDescriptor.getElementTypeDescriptor();
+		if (elementType == null || Object.class.equals(elementType.getType())) {
+			return original;
+		}
+
+		Collection<Object> convertedCopy;
+		try {
+			if (original instanceof SortedSet || original instanceof Set) {
+				convertedCopy = (original instanceof SortedSet ?
+						new TreeSet<Object>(((SortedSet<Object>) original).comparator()) :
+						new LinkedHashSet<Object>(original.size()));
+			}
+			else {
+				convertedCopy = new ArrayList<Object>(original.size());
+			}
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Cannot create copy of Collection type [" + original.getClass().getName() +
+						"] - injecting original Collection as-is: " + ex);
+			}
+			return original;
+		}
+
+		boolean originalAllowed = requiredType.isInstance(original);
+		int i = 0;
+		for (Object element : original) {
+			String indexedPropertyName = buildIndexedPropertyName(propertyName, i);
+			Object convertedElement = convertIfNecessary(indexedPropertyName, null, element,
+					elementType.getType(), elementType);
+			convertedCopy.add(convertedElement);
+			originalAllowed = originalAllowed && (element == convertedElement);
+			i++;
+		}
+		if (originalAllowed) {
+			return original;
+		}
+		if (!requiredType.isInstance(convertedCopy)) {
+			// e.g. a declared ArrayList or HashSet that the copy above cannot satisfy
+			return original;
+		}
+		return convertedCopy;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<?, ?> convertToTypedMap(
+			Map<?, ?> original, String propertyName, Class<?> requiredType, TypeDescriptor typeDescriptor) {
+
+		if (!Map.class.isAssignableFrom(requiredType) || typeDescriptor == null) {
+			return original;
+		}
+		TypeDescriptor keyType = typeDescriptor.getMapKeyTypeDescriptor();
+		TypeDescriptor valueType = typeDescriptor.getMapValueTypeDescriptor();
+		if ((keyType == null || Object.class.equals(keyType.getType())) &&
+				(valueType == null || Object.class.equals(valueType.getType()))) {
+			return original;
+		}
+
+		Map<Object, Object> convertedCopy = (original instanceof SortedMap ?
+				new TreeMap<Object, Object>(((SortedMap<Object, Object>) original).comparator()) :
+				new LinkedHashMap<Object, Object>(original.size()));
+
+		boolean originalAllowed = requiredType.isInstance(original);
+		for (Map.Entry<?, ?> entry : original.entrySet()) {
+			Object key = entry.getKey();
+			Object value = entry.getValue();
+			String keyedPropertyName = buildKeyedPropertyName(propertyName, key);
+			Object convertedKey = (keyType != null ?
+					convertIfNecessary(keyedPropertyName, null, key, keyType.getType(), keyType) : key);
+			Object convertedValue = (valueType != null ?
+					convertIfNecessary(keyedPropertyName, null, value, valueType.getType(), valueType) : value);
+			convertedCopy.put(convertedKey, convertedValue);
+			originalAllowed = originalAllowed && (key == convertedKey) && (value == convertedValue);
+		}
+		if (originalAllowed || !requiredType.isInstance(convertedCopy)) {
+			return original;
+		}
+		return convertedCopy;
+	}
+
+	private String buildIndexedPropertyName(String propertyName, int index) {
+		return (propertyName != null ?
+				propertyName + PropertyAccessor.PROPERTY_KEY_PREFIX + index + PropertyAccessor.PROPERTY_KEY_SUFFIX :
+				null);
+	}
+
+	private String buildKeyedPropertyName(String propertyName, Object key) {
+		return (propertyName != null ?
+				propertyName + PropertyAccessor.PROPERTY_KEY_PREFIX + key + PropertyAccessor.PROPERTY_KEY_SUFFIX :
+				null);
+	}
+
 	/**
 	 * Convert the value to the required type (if necessary from a String),
 	 * using the given property editor.
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory;
+
+import com.springframework.beans.FatalBeanException;
+
+/**
+ * Exception that indicates an expression evaluation attempt having failed.
+ */
+@SuppressWarnings("serial")
+public class BeanExpressionException extends FatalBeanException {
+
+	/**
+	 * Create a new BeanExpressionException with the specified message.
+	 * @param msg the detail message
+	 */
+	public BeanExpressionException(String msg) {
+		super(msg);
+	}
+
+	/**
+	 * Create a new BeanExpressionException with the specified message
+	 * and root cause.
+	 * @param msg the detail message
+	 * @param cause the root cause
+	 */
+	public BeanExpressionException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2002-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans.factory;
+
+/**
+ * Interface to be implemented by beans that want to release resources
+ * on destruction. A BeanFactory is supposed to invoke the destroy
+ * method if it disposes a cached singleton.
+ *
+ * <p>An alternative to implementing DisposableBean is specifying a custom
+ * destroy-method, for example in an XML bean definition.
+ * For a list of all bean lifecycle methods, see the BeanFactory javadocs.
+ *
+ * @author Juergen Hoeller
+ * @since 12.08.2003
+ * @see com.springframework.beans.factory.support.RootBeanDefinition#getDestroyMethodName
+ * @see com.springframework.beans.factory.config.ConfigurableBeanFactory#destroySingletons
+ */
+public interface DisposableBean {
+
+	/**
+	 * Invoked by a BeanFactory on destruction of a singleton.
+	 * @throws Exception in case of shutdown errors.
+	 * Exceptions will get logged but not rethrown to allow
+	 * other beans to release their resources too.
+	 */
+	void destroy() throws Exception;
+
+}
@@ -4,4 +4,14 @@ package com.springframework.beans.factory;
  * Created by hadoop on 2015/5/6 0006.
  */
 public interface ListableBeanFactory extends BeanFactory {
+
+    /**
+     * Return the names of all beans defined in this factory.
+     * <p>Does not consider any hierarchy this factory may participate in,
+     * and ignores any singleton beans that have been registered by
+     * other means than bean definitions.
+     * @return the names of all beans defined in this factory,
+     * or an empty array if none defined
+     */
+    String[] getBeanDefinitionNames();
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.config;
+
+import com.springframework.beans.factory.BeansException;
+
+/**
+ * Allows for custom modification of an application context's bean definitions,
+ * adapting the bean property values of the context's underlying bean factory.
+ *
+ * <p>A {@code BeanFactoryPostProcessor} may interact with and modify bean
+ * definitions, but never bean instances: it is meant to run after all bean
+ * definitions have been loaded, but before any bean has been instantiated.
+ *
+ * @see PropertyPlaceholderConfigurer
+ */
+public interface BeanFactoryPostProcessor {
+
+	/**
+	 * Modify the bean factory's bean definitions after they have all been
+	 * loaded, but before any bean has been instantiated.
+	 * @param beanFactory the bean factory to post-process
+	 * @throws BeansException in case of errors
+	 */
+	void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException;
+
+}
@@ -7,6 +7,7 @@ import com.springframework.beans.factory.BeanFactory;
 import com.springframework.beans.factory.HierarchicalBeanFactory;
 import com.springframework.beans.factory.NoSuchBeanDefinitionException;
 import com.springframework.core.convert.ConversionService;
+import com.springframework.core.metrics.ApplicationStartup;
 import com.springframework.util.StringValueResolver;
 import sun.plugin.com.TypeConverter;
 
@@ -96,6 +97,32 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory, Single
      */
     boolean isCacheBeanMetadata();
 
+    /**
+     * Specify the resolution strategy for expressions in bean definition values.
+     * <p>There is no expression support active in a BeanFactory by default.
+     * @param resolver the expression resolver to use, or {@code null} for none
+     * @see StandardBeanExpressionResolver
+     */
+    void setBeanExpressionResolver(BeanExpressionResolver resolver);
+
+    /**
+     * Return the resolution strategy for expressions in bean definition values.
+     */
+    BeanExpressionResolver getBeanExpressionResolver();
+
+    /**
+     * Set the {@code ApplicationStartup} for this bean factory.
+     * <p>This allows the application context to record metrics during application startup.
+     * Default is {@link ApplicationStartup#DEFAULT}, which does not record anything.
+     * @param applicationStartup the new application startup
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
+
+    /**
+     * Return the {@code ApplicationStartup} for this bean factory.
+     */
+    ApplicationStartup getApplicationStartup();
+
     /**
      * Add a PropertyEditorRegistrar to be applied to all bean creation processes.
      * <p>Such a registrar creates new PropertyEditor instances and registers them
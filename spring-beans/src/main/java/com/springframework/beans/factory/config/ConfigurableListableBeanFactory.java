@@ -1,6 +1,8 @@
 package com.springframework.beans.factory.config;
 
+import com.springframework.beans.factory.BeansException;
 import com.springframework.beans.factory.ListableBeanFactory;
+import com.springframework.beans.factory.NoSuchBeanDefinitionException;
 
 /**
  * Created by hadoop on 2015/5/6 0006.
@@ -8,4 +10,27 @@ import com.springframework.beans.factory.ListableBeanFactory;
 public interface ConfigurableListableBeanFactory extends
         ListableBeanFactory, AutowireCapableBeanFactory, ConfigurableBeanFactory {
 
+    /**
+     * Return the registered BeanDefinition for the specified bean, allowing access
+     * to its property values and constructor argument value (which can be
+     * modified during bean factory post-processing).
+     * <p>Does not consider any hierarchy this factory may participate in.
+     * @param beanName the name of the bean
+     * @return the registered BeanDefinition
+     * @throws NoSuchBeanDefinitionException if there is no bean with the given name
+     * defined in this factory
+     */
+    BeanDefinition getBeanDefinition(String beanName) throws NoSuchBeanDefinitionException;
+
+    /**
+     * Ensure that all non-lazy-init singletons are instantiated.
+     * Typically invoked at the end of factory setup, if desired.
+     *
+     * @throws BeansException if one of the singleton beans could not be created.
+     * Note: This may have left the factory with some beans already initialized!
+     * Call {@link #destroySingletons()} for full cleanup in this case.
+     * @see #destroySingletons()
+     */
+    void preInstantiateSingletons() throws BeansException;
+
 }
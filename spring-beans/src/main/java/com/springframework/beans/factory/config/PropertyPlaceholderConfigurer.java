@@ -0,0 +1,386 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.config;
+
+import com.springframework.beans.factory.BeanDefinitionStoreException;
+import com.springframework.beans.factory.BeansException;
+import com.springframework.core.env.Environment;
+import com.springframework.core.io.Resource;
+import com.springframework.core.io.support.PropertiesLoaderUtils;
+import com.springframework.util.PropertyPlaceholderHelper;
+import com.springframework.util.PropertyPlaceholderHelper.PlaceholderResolver;
+import com.springframework.util.StringValueResolver;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * {@link BeanFactoryPostProcessor} that resolves <code>${...}</code> placeholders
+ * within bean definition property values, constructor arguments, bean class names,
+ * bean references and other String metadata against local properties, properties
+ * files and system properties.
+ *
+ * <p>Example XML bean definition:
+ *
+ * <pre class="code">
+ * &lt;bean id="dataSource" class="org.apache.commons.dbcp.BasicDataSource"&gt;
+ *   &lt;property name="url" value="${jdbc.url}"/&gt;
+ *   &lt;property name="username" value="${jdbc.username:sa}"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * <p>Each distinct String gets compiled into its placeholder segments only once,
+ * see {@link PropertyPlaceholderHelper}, and gets resolved only once per
+ * post-processing run: bean definitions sharing the same value end up sharing
+ * the same resolved String instance.
+ *
+ * @see BeanDefinitionVisitor
+ * @see PropertyPlaceholderHelper
+ */
+public class PropertyPlaceholderConfigurer implements BeanFactoryPostProcessor {
+
+	/** Default placeholder prefix: {@value} */
+	public static final String DEFAULT_PLACEHOLDER_PREFIX = "${";
+
+	/** Default placeholder suffix: {@value} */
+	public static final String DEFAULT_PLACEHOLDER_SUFFIX = "}";
+
+	/** Default value separator: {@value} */
+	public static final String DEFAULT_VALUE_SEPARATOR = ":";
+
+	/** Never check system properties. */
+	public static final int SYSTEM_PROPERTIES_MODE_NEVER = 0;
+
+	/**
+	 * Check system properties if not resolvable in the specified properties.
+	 * This is the default.
+	 */
+	public static final int SYSTEM_PROPERTIES_MODE_FALLBACK = 1;
+
+	/**
+	 * Check system properties first, before trying the specified properties.
+	 * This allows system properties to override any other property source.
+	 */
+	public static final int SYSTEM_PROPERTIES_MODE_OVERRIDE = 2;
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private Properties[] localProperties;
+
+	private Resource[] locations;
+
+	private boolean localOverride = false;
+
+	private boolean ignoreResourceNotFound = false;
+
+	private String placeholderPrefix = DEFAULT_PLACEHOLDER_PREFIX;
+
+	private String placeholderSuffix = DEFAULT_PLACEHOLDER_SUFFIX;
+
+	private String valueSeparator = DEFAULT_VALUE_SEPARATOR;
+
+	private boolean ignoreUnresolvablePlaceholders = false;
+
+	private int systemPropertiesMode = SYSTEM_PROPERTIES_MODE_FALLBACK;
+
+	private boolean searchSystemEnvironment = true;
+
+	private Environment environment;
+
+
+	/**
+	 * Set local properties, e.g. via the "props" tag in XML bean definitions.
+	 */
+	public void setProperties(Properties properties) {
+		this.localProperties = new Properties[] {properties};
+	}
+
+	/**
+	 * Set local properties, to be merged in the given order.
+	 */
+	public void setPropertiesArray(Properties... propertiesArray) {
+		this.localProperties = propertiesArray;
+	}
+
+	/**
+	 * Set a location of a properties file to be loaded.
+	 */
+	public void setLocation(Resource location) {
+		this.locations = new Resource[] {location};
+	}
+
+	/**
+	 * Set locations of properties files to be loaded.
+	 * <p>Note: Properties defined in later files will override
+	 * properties defined earlier files.
+	 */
+	public void setLocations(Resource... locations) {
+		this.locations = locations;
+	}
+
+	/**
+	 * Set whether local properties override properties from files.
+	 * <p>Default is "false": Properties from files override local defaults.
+	 */
+	public void setLocalOverride(boolean localOverride) {
+		this.localOverride = localOverride;
+	}
+
+	/**
+	 * Set if failure to find the property resource should be ignored.
+	 * <p>Default is "false".
+	 */
+	public void setIgnoreResourceNotFound(boolean ignoreResourceNotFound) {
+		this.ignoreResourceNotFound = ignoreResourceNotFound;
+	}
+
+	/**
+	 * Set the prefix that a placeholder string starts with.
+	 * The default is {@value #DEFAULT_PLACEHOLDER_PREFIX}.
+	 */
+	public void setPlaceholderPrefix(String placeholderPrefix) {
+		this.placeholderPrefix = placeholderPrefix;
+	}
+
+	/**
+	 * Set the suffix that a placeholder string ends with.
+	 * The default is {@value #DEFAULT_PLACEHOLDER_SUFFIX}.
+	 */
+	public void setPlaceholderSuffix(String placeholderSuffix) {
+		this.placeholderSuffix = placeholderSuffix;
+	}
+
+	/**
+	 * Specify the separating character between the placeholder variable
+	 * and the associated default value, or {@code null} if no such
+	 * special character should be processed as a value separator.
+	 * The default is {@value #DEFAULT_VALUE_SEPARATOR}.
+	 */
+	public void setValueSeparator(String valueSeparator) {
+		this.valueSeparator = valueSeparator;
+	}
+
+	/**
+	 * Set whether to ignore unresolvable placeholders.
+	 * <p>Default is "false": An exception will be thrown if a placeholder fails
+	 * to resolve. Switch this flag to "true" in order to preserve the placeholder
+	 * String as-is in such a case, leaving it up to other placeholder configurers
+	 * to resolve it.
+	 */
+	public void setIgnoreUnresolvablePlaceholders(boolean ignoreUnresolvablePlaceholders) {
+		this.ignoreUnresolvablePlaceholders = ignoreUnresolvablePlaceholders;
+	}
+
+	/**
+	 * Set how to check system properties: as fallback, as override, or never.
+	 * The default is {@link #SYSTEM_PROPERTIES_MODE_FALLBACK}.
+	 * @see #SYSTEM_PROPERTIES_MODE_NEVER
+	 * @see #SYSTEM_PROPERTIES_MODE_FALLBACK
+	 * @see #SYSTEM_PROPERTIES_MODE_OVERRIDE
+	 */
+	public void setSystemPropertiesMode(int systemPropertiesMode) {
+		this.systemPropertiesMode = systemPropertiesMode;
+	}
+
+	/**
+	 * Set whether to search for a matching system environment variable
+	 * if no matching system property has been found. Only applied when
+	 * system properties are checked at all.
+	 * <p>Default is "true".
+	 */
+	public void setSearchSystemEnvironment(boolean searchSystemEnvironment) {
+		this.searchSystemEnvironment = searchSystemEnvironment;
+	}
+
+	/**
+	 * Set the {@link Environment} to check instead of plain system properties
+	 * and system environment variables, according to the system properties mode.
+	 * <p>Default is none. An environment caches its lookups, so configurers
+	 * sharing the same environment resolve each key against its property
+	 * sources only once.
+	 * @see com.springframework.core.env.StandardEnvironment
+	 */
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		Map<String, String> properties;
+		try {
+			properties = mergeProperties();
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException("Could not load properties", ex);
+		}
+		StringValueResolver valueResolver = new PlaceholderResolvingStringValueResolver(properties);
+		BeanDefinitionVisitor visitor = new BeanDefinitionVisitor(valueResolver);
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition bd = beanFactory.getBeanDefinition(beanName);
+			try {
+				visitor.visitBeanDefinition(bd);
+			}
+			catch (Exception ex) {
+				throw new BeanDefinitionStoreException(bd.getResourceDescription(), beanName, ex.getMessage(), ex);
+			}
+		}
+		beanFactory.resolveAliases(valueResolver);
+	}
+
+	/**
+	 * Return a merged map of the local properties and the properties
+	 * loaded from the specified locations.
+	 * @throws IOException in case of I/O errors
+	 */
+	protected Map<String, String> mergeProperties() throws IOException {
+		Map<String, String> result = new HashMap<String, String>();
+		if (this.localOverride) {
+			loadProperties(result);
+		}
+		if (this.localProperties != null) {
+			for (Properties localProps : this.localProperties) {
+				for (String key : localProps.stringPropertyNames()) {
+					result.put(key, localProps.getProperty(key));
+				}
+			}
+		}
+		if (!this.localOverride) {
+			loadProperties(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Load properties from the specified locations into the given map.
+	 * @throws IOException in case of I/O errors
+	 */
+	protected void loadProperties(Map<String, String> properties) throws IOException {
+		if (this.locations != null) {
+			for (Resource location : this.locations) {
+				if (logger.isInfoEnabled()) {
+					logger.info("Loading properties file from " + location);
+				}
+				try {
+					PropertiesLoaderUtils.fillPropertiesMap(properties, location);
+				}
+				catch (FileNotFoundException ex) {
+					if (this.ignoreResourceNotFound) {
+						if (logger.isWarnEnabled()) {
+							logger.warn("Could not load properties from " + location + ": " + ex.getMessage());
+						}
+					}
+					else {
+						throw ex;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resolve the given placeholder using the given properties, performing
+	 * a system properties check according to the given mode.
+	 * @param placeholder the placeholder to resolve
+	 * @param properties the merged properties of this configurer
+	 * @param systemPropertiesMode the system properties mode
+	 * @return the resolved value, or {@code null} if none
+	 */
+	protected String resolvePlaceholder(String placeholder, Map<String, String> properties, int systemPropertiesMode) {
+		String propVal = null;
+		if (systemPropertiesMode == SYSTEM_PROPERTIES_MODE_OVERRIDE) {
+			propVal = resolveSystemProperty(placeholder);
+		}
+		if (propVal == null) {
+			propVal = properties.get(placeholder);
+		}
+		if (propVal == null && systemPropertiesMode == SYSTEM_PROPERTIES_MODE_FALLBACK) {
+			propVal = resolveSystemProperty(placeholder);
+		}
+		return propVal;
+	}
+
+	/**
+	 * Resolve the given key as JVM system property, and optionally also as
+	 * system environment variable if no matching system property has been found.
+	 * Resolves against the {@link #setEnvironment Environment} instead, if set.
+	 * @param key the placeholder to resolve as system property key
+	 * @return the system property value, or {@code null} if not found
+	 */
+	protected String resolveSystemProperty(String key) {
+		if (this.environment != null) {
+			return this.environment.getProperty(key);
+		}
+		try {
+			String value = System.getProperty(key);
+			if (value == null && this.searchSystemEnvironment) {
+				value = System.getenv(key);
+			}
+			return value;
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not access system property '" + key + "': " + ex);
+			}
+			return null;
+		}
+	}
+
+
+	/**
+	 * StringValueResolver that resolves each distinct String only once,
+	 * handing out the same resolved String for repeated values.
+	 */
+	private class PlaceholderResolvingStringValueResolver implements StringValueResolver {
+
+		private final PropertyPlaceholderHelper helper;
+
+		private final PlaceholderResolver resolver;
+
+		private final Map<String, String> resolvedValues = new HashMap<String, String>();
+
+		public PlaceholderResolvingStringValueResolver(final Map<String, String> properties) {
+			this.helper = new PropertyPlaceholderHelper(
+					placeholderPrefix, placeholderSuffix, valueSeparator, ignoreUnresolvablePlaceholders);
+			this.resolver = new PlaceholderResolver() {
+				@Override
+				public String resolvePlaceholder(String placeholderName) {
+					return PropertyPlaceholderConfigurer.this.resolvePlaceholder(
+							placeholderName, properties, systemPropertiesMode);
+				}
+			};
+		}
+
+		@Override
+		public String resolveStringValue(String strVal) {
+			String resolved = this.resolvedValues.get(strVal);
+			if (resolved == null) {
+				resolved = this.helper.replacePlaceholders(strVal, this.resolver);
+				this.resolvedValues.put(strVal, resolved);
+			}
+			return resolved;
+		}
+	}
+
+}
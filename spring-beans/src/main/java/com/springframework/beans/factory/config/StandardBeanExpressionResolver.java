@@ -0,0 +1,317 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.config;
+
+import com.springframework.beans.BeanUtils;
+import com.springframework.beans.factory.BeanExpressionException;
+import com.springframework.beans.factory.BeansException;
+import com.springframework.util.Assert;
+import com.springframework.util.ConcurrentReferenceHashMap;
+import com.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Standard implementation of the {@link BeanExpressionResolver} interface,
+ * evaluating <code>#{...}</code> expressions against the beans of the
+ * {@link BeanExpressionContext}'s bean factory and its scope's contextual objects.
+ *
+ * <p>Supported expressions are String literals in single quotes, numbers,
+ * {@code true}, {@code false}, {@code null}, and references to a bean or
+ * contextual object by name, optionally followed by a dot-separated path of
+ * bean properties or {@code Map} keys, e.g. <code>#{dataSource.url}</code>.
+ * Expressions may be embedded in literal text, with each expression's value
+ * getting appended as a String then.
+ *
+ * <p>Values without the expression prefix are returned as-is without further
+ * parsing. All other values get compiled into their literal and expression
+ * parts only once, with the compiled form getting cached for subsequent
+ * evaluations of the same value.
+ *
+ * @see BeanExpressionContext#getObject(String)
+ * @see com.springframework.beans.factory.config.ConfigurableBeanFactory#setBeanExpressionResolver
+ */
+public class StandardBeanExpressionResolver implements BeanExpressionResolver {
+
+	/** Default expression prefix: {@value} */
+	public static final String DEFAULT_EXPRESSION_PREFIX = "#{";
+
+	/** Default expression suffix: {@value} */
+	public static final String DEFAULT_EXPRESSION_SUFFIX = "}";
+
+
+	private String expressionPrefix = DEFAULT_EXPRESSION_PREFIX;
+
+	private String expressionSuffix = DEFAULT_EXPRESSION_SUFFIX;
+
+	private final ConcurrentMap<String, Expression> expressionCache =
+			new ConcurrentReferenceHashMap<String, Expression>(256);
+
+
+	/**
+	 * Set the prefix that an expression string starts with.
+	 * The default is "#{".
+	 * @see #DEFAULT_EXPRESSION_PREFIX
+	 */
+	public void setExpressionPrefix(String expressionPrefix) {
+		Assert.hasText(expressionPrefix, "Expression prefix must not be empty");
+		this.expressionPrefix = expressionPrefix;
+		this.expressionCache.clear();
+	}
+
+	/**
+	 * Set the suffix that an expression string ends with.
+	 * The default is "}".
+	 * @see #DEFAULT_EXPRESSION_SUFFIX
+	 */
+	public void setExpressionSuffix(String expressionSuffix) {
+		Assert.hasText(expressionSuffix, "Expression suffix must not be empty");
+		this.expressionSuffix = expressionSuffix;
+		this.expressionCache.clear();
+	}
+
+
+	@Override
+	public Object evaluate(String value, BeanExpressionContext evalContext) throws BeansException {
+		if (value == null || value.indexOf(this.expressionPrefix) == -1) {
+			return value;
+		}
+		Expression expression = this.expressionCache.get(value);
+		if (expression == null) {
+			expression = parseTemplate(value);
+			this.expressionCache.put(value, expression);
+		}
+		return expression.getValue(evalContext);
+	}
+
+	/**
+	 * Compile the given value into its literal and expression parts.
+	 * @param template the value containing at least one expression prefix
+	 * @return the compiled expression
+	 * @throws BeanExpressionException if the value is not a valid template
+	 */
+	protected Expression parseTemplate(String template) throws BeanExpressionException {
+		List<Expression> parts = new ArrayList<Expression>(4);
+		int pos = 0;
+		int prefixIndex = template.indexOf(this.expressionPrefix);
+		while (prefixIndex != -1) {
+			if (prefixIndex > pos) {
+				parts.add(new LiteralExpression(template.substring(pos, prefixIndex)));
+			}
+			int start = prefixIndex + this.expressionPrefix.length();
+			int suffixIndex = findSuffix(template, start);
+			if (suffixIndex == -1) {
+				throw new BeanExpressionException("No ending suffix '" + this.expressionSuffix +
+						"' for expression starting at character " + prefixIndex + " in [" + template + "]");
+			}
+			parts.add(parseExpression(template.substring(start, suffixIndex).trim(), template));
+			pos = suffixIndex + this.expressionSuffix.length();
+			prefixIndex = template.indexOf(this.expressionPrefix, pos);
+		}
+		if (pos < template.length()) {
+			parts.add(new LiteralExpression(template.substring(pos)));
+		}
+		if (parts.size() == 1) {
+			return parts.get(0);
+		}
+		return new CompositeExpression(parts.toArray(new Expression[parts.size()]));
+	}
+
+	/**
+	 * Find the suffix for the expression starting at the given index,
+	 * skipping any suffix within a String literal.
+	 */
+	private int findSuffix(String template, int start) {
+		boolean inLiteral = false;
+		for (int i = start; i < template.length(); i++) {
+			char c = template.charAt(i);
+			if (c == '\'') {
+				inLiteral = !inLiteral;
+			}
+			else if (!inLiteral && template.startsWith(this.expressionSuffix, i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private Expression parseExpression(String expression, String template) {
+		if (expression.length() == 0) {
+			throw new BeanExpressionException("Empty expression in [" + template + "]");
+		}
+		if (expression.length() > 1 && expression.charAt(0) == '\'' &&
+				expression.charAt(expression.length() - 1) == '\'') {
+			return new LiteralExpression(expression.substring(1, expression.length() - 1).replace("''", "'"));
+		}
+		if ("null".equals(expression)) {
+			return new LiteralExpression(null);
+		}
+		if ("true".equals(expression) || "false".equals(expression)) {
+			return new LiteralExpression(Boolean.valueOf(expression));
+		}
+		char first = expression.charAt(0);
+		if (Character.isDigit(first) || (first == '-' && expression.length() > 1)) {
+			return new LiteralExpression(parseNumber(expression, template));
+		}
+		String[] path = expression.split("\\.", -1);
+		for (String element : path) {
+			if (!isIdentifier(element)) {
+				throw new BeanExpressionException("Unsupported expression '" + expression + "' in [" + template + "]");
+			}
+		}
+		String[] propertyPath = new String[path.length - 1];
+		System.arraycopy(path, 1, propertyPath, 0, propertyPath.length);
+		return new ReferenceExpression(path[0], propertyPath);
+	}
+
+	private Number parseNumber(String expression, String template) {
+		try {
+			if (expression.indexOf('.') == -1 && expression.indexOf('e') == -1 && expression.indexOf('E') == -1) {
+				long value = Long.parseLong(expression);
+				if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+					return (int) value;
+				}
+				return value;
+			}
+			return Double.valueOf(expression);
+		}
+		catch (NumberFormatException ex) {
+			throw new BeanExpressionException("Invalid number '" + expression + "' in [" + template + "]", ex);
+		}
+	}
+
+	private static boolean isIdentifier(String element) {
+		if (element.length() == 0 || !Character.isJavaIdentifierStart(element.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < element.length(); i++) {
+			if (!Character.isJavaIdentifierPart(element.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * A compiled expression, evaluated against a {@link BeanExpressionContext}.
+	 */
+	protected interface Expression {
+
+		Object getValue(BeanExpressionContext evalContext) throws BeansException;
+	}
+
+
+	private static class LiteralExpression implements Expression {
+
+		private final Object value;
+
+		public LiteralExpression(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		public Object getValue(BeanExpressionContext evalContext) {
+			return this.value;
+		}
+	}
+
+
+	private static class CompositeExpression implements Expression {
+
+		private final Expression[] parts;
+
+		public CompositeExpression(Expression[] parts) {
+			this.parts = parts;
+		}
+
+		@Override
+		public Object getValue(BeanExpressionContext evalContext) {
+			StringBuilder sb = new StringBuilder();
+			for (Expression part : this.parts) {
+				Object value = part.getValue(evalContext);
+				if (value != null) {
+					sb.append(value);
+				}
+			}
+			return sb.toString();
+		}
+	}
+
+
+	private static class ReferenceExpression implements Expression {
+
+		private final String name;
+
+		private final String[] propertyPath;
+
+		public ReferenceExpression(String name, String[] propertyPath) {
+			this.name = name;
+			this.propertyPath = propertyPath;
+		}
+
+		@Override
+		public Object getValue(BeanExpressionContext evalContext) {
+			Object value = evalContext.getObject(this.name);
+			if (value == null && !evalContext.containsObject(this.name)) {
+				throw new BeanExpressionException("Cannot resolve reference to '" + this.name +
+						"': no such bean or contextual object");
+			}
+			String path = this.name;
+			for (String property : this.propertyPath) {
+				if (value == null) {
+					throw new BeanExpressionException("Cannot access property '" + property +
+							"' of null value '" + path + "'");
+				}
+				value = getProperty(value, property, path);
+				path = path + "." + property;
+			}
+			return value;
+		}
+
+		private Object getProperty(Object target, String property, String path) {
+			if (target instanceof Map) {
+				return ((Map<?, ?>) target).get(property);
+			}
+			PropertyDescriptor pd = BeanUtils.getPropertyDescriptor(target.getClass(), property);
+			Method readMethod = (pd != null ? pd.getReadMethod() : null);
+			if (readMethod == null) {
+				throw new BeanExpressionException("No readable property '" + property + "' on '" + path +
+						"' of type [" + target.getClass().getName() + "]");
+			}
+			try {
+				ReflectionUtils.makeAccessible(readMethod);
+				return readMethod.invoke(target);
+			}
+			catch (InvocationTargetException ex) {
+				throw new BeanExpressionException("Failed to read property '" + property + "' on '" + path + "'",
+						ex.getTargetException());
+			}
+			catch (Exception ex) {
+				throw new BeanExpressionException("Failed to read property '" + property + "' on '" + path + "'", ex);
+			}
+		}
+	}
+
+}
@@ -3,6 +3,8 @@ package com.springframework.beans.factory.support;
 import com.springframework.beans.*;
 import com.springframework.beans.factory.*;
 import com.springframework.beans.factory.config.*;
+import com.springframework.core.metrics.StartupStep;
+import com.springframework.util.LockContentionProfiler;
 import com.springframework.util.ObjectUtils;
 import com.springframework.util.StringValueResolver;
 
@@ -50,7 +52,13 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
         // Make sure bean class is actually resolved at this point, and
         // clone the bean definition in case of a dynamically resolved Class
         // which cannot be stored in the shared merged bean definition.
-        Class<?> resolvedClass = resolveBeanClass(mbd, beanName);
+        StartupStep resolveClass = getApplicationStartup().start("spring.beans.resolve-class").tag("beanName", beanName);
+        Class<?> resolvedClass;
+        try {
+            resolvedClass = resolveBeanClass(mbd, beanName);
+        } finally {
+            resolveClass.end();
+        }
         if (resolvedClass != null && !mbd.hasBeanClass() && mbd.getBeanClassName() != null) {
             mbdToUse = new RootBeanDefinition(mbd);
             mbdToUse.setBeanClass(resolvedClass);
@@ -96,15 +104,27 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
             instanceWrapper = this.factoryBeanInstanceCache.remove(beanName);
         }
         if (instanceWrapper == null) {
-            instanceWrapper = createBeanInstance(beanName, mbd, args);
+            StartupStep instantiate = getApplicationStartup().start("spring.beans.create-instance").tag("beanName", beanName);
+            try {
+                instanceWrapper = createBeanInstance(beanName, mbd, args);
+            } finally {
+                instantiate.end();
+            }
         }
         final Object bean = (instanceWrapper != null ? instanceWrapper.getWrappedInstance() : null);
         Class<?> beanType = (instanceWrapper != null ? instanceWrapper.getWrappedClass() : null);
 
         // Allow post-processors to modify the merged bean definition.
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
         synchronized (mbd.postProcessingLock) {
+            LockContentionProfiler.afterMonitorEnter(RootBeanDefinition.POST_PROCESSING_LOCK, waitStart);
             if (!mbd.postProcessed) {
-                applyMergedBeanDefinitionPostProcessors(mbd, beanType, beanName);
+                StartupStep postProcess = getApplicationStartup().start("spring.beans.post-process").tag("beanName", beanName);
+                try {
+                    applyMergedBeanDefinitionPostProcessors(mbd, beanType, beanName);
+                } finally {
+                    postProcess.end();
+                }
                 mbd.postProcessed = true;
             }
         }
@@ -129,9 +149,19 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
         // Initialize the bean instance.
         Object exposedObject = bean;
         try {
-            populateBean(beanName, mbd, instanceWrapper);
+            StartupStep populate = getApplicationStartup().start("spring.beans.populate").tag("beanName", beanName);
+            try {
+                populateBean(beanName, mbd, instanceWrapper);
+            } finally {
+                populate.end();
+            }
             if (exposedObject != null) {
-                exposedObject = initializeBean(beanName, exposedObject, mbd);
+                StartupStep initialize = getApplicationStartup().start("spring.beans.initialize").tag("beanName", beanName);
+                try {
+                    exposedObject = initializeBean(beanName, exposedObject, mbd);
+                } finally {
+                    initialize.end();
+                }
             }
         } catch (Throwable ex) {
             if (ex instanceof BeanCreationException && beanName.equals(((BeanCreationException) ex).getBeanName())) {
@@ -265,6 +295,13 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
      * Apply the given property values, resolving any runtime references
      * to other beans in this bean factory. Must use deep copy, so we
      * don't permanently modify this property.
+     * <p>Unless a custom TypeConverter or ConversionService is in place, the values
+     * get bound through the {@link BeanPropertyBinder} shared by all instances of the
+     * bean class, rather than through the given BeanWrapper and a deep copy. The binder
+     * converts with the default and config value editors only.
+     * <p>Bean definitions that opt into field injection get their values applied
+     * through a {@link DirectFieldAccessor} instead, bypassing the bean's setters.
+     * @see AbstractBeanDefinition#isFieldInjection()
      */
     protected void applyPropertyValues(String beanName, BeanDefinition mbd, BeanWrapper bw, PropertyValues pvs) {
         if (pvs == null || pvs.isEmpty()) {
@@ -280,12 +317,28 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
 //            }
 //        }
 
+        TypeConverter converter = getCustomTypeConverter();
+        boolean fieldInjection = (mbd instanceof AbstractBeanDefinition &&
+                ((AbstractBeanDefinition) mbd).isFieldInjection());
+        ConfigurablePropertyAccessor accessor = (fieldInjection ? createFieldAccessor(bw) : bw);
+        // The binder converts with the default and config value editors only, ignoring whatever
+        // initBeanWrapper/registerCustomEditors registered on the BeanWrapper: sufficient as long
+        // as registerCustomEditors does not register custom editors or PropertyEditorRegistrars.
+        BeanPropertyBinder binder = (!fieldInjection && converter == null && bw.getConversionService() == null ?
+                BeanPropertyBinder.forClass(bw.getWrappedClass()) : null);
+        Object bean = bw.getWrappedInstance();
+
         if (pvs instanceof MutablePropertyValues) {
             mpvs = (MutablePropertyValues) pvs;
             if (mpvs.isConverted()) {
                 // Shortcut: use the pre-converted values as-is.
                 try {
-                    bw.setPropertyValues(mpvs);
+                    if (binder != null) {
+                        binder.setPropertyValues(bean, mpvs);
+                    }
+                    else {
+                        accessor.setPropertyValues(mpvs);
+                    }
                     return;
                 }
                 catch (BeansException ex) {
@@ -299,28 +352,39 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
             original = Arrays.asList(pvs.getPropertyValues());
         }
 
-        TypeConverter converter = getCustomTypeConverter();
         if (converter == null) {
-            converter = bw;
+            converter = (binder != null ? binder : accessor);
         }
         BeanDefinitionValueResolver valueResolver = new BeanDefinitionValueResolver(this, beanName, mbd, converter);
 
-        // Create a deep copy, resolving any references for values.
-        List<PropertyValue> deepCopy = new ArrayList<PropertyValue>(original.size());
+        // Create a deep copy, resolving any references for values - or with a binder,
+        // just the values to apply, in the order of the original property values.
+        List<PropertyValue> deepCopy = (binder == null ? new ArrayList<PropertyValue>(original.size()) : null);
+        Object[] valuesToApply = (binder != null ? new Object[original.size()] : null);
         boolean resolveNecessary = false;
-        for (PropertyValue pv : original) {
+        for (int i = 0; i < original.size(); i++) {
+            PropertyValue pv = original.get(i);
             if (pv.isConverted()) {
-                deepCopy.add(pv);
+                if (binder != null) {
+                    valuesToApply[i] = pv.getConvertedValue();
+                }
+                else {
+                    deepCopy.add(pv);
+                }
             }
             else {
                 String propertyName = pv.getName();
                 Object originalValue = pv.getValue();
                 Object resolvedValue = valueResolver.resolveValueIfNecessary(pv, originalValue);
                 Object convertedValue = resolvedValue;
-                boolean convertible = bw.isWritableProperty(propertyName) &&
-                        !PropertyAccessorUtils.isNestedOrIndexedProperty(propertyName);
+                boolean convertible = !PropertyAccessorUtils.isNestedOrIndexedProperty(propertyName) &&
+                        (binder != null ? binder.isWritableProperty(propertyName) : accessor.isWritableProperty(propertyName));
                 if (convertible) {
-                    convertedValue = convertForProperty(resolvedValue, propertyName, bw, converter);
+                    convertedValue = (binder != null ? binder.convertForProperty(bean, resolvedValue, propertyName) :
+                            convertForProperty(resolvedValue, propertyName, accessor, converter));
+                }
+                if (binder != null) {
+                    valuesToApply[i] = convertedValue;
                 }
                 // Possibly store converted value in merged bean definition,
                 // in order to avoid re-conversion for every created bean instance.
@@ -328,17 +392,23 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
                     if (convertible) {
                         pv.setConvertedValue(convertedValue);
                     }
-                    deepCopy.add(pv);
+                    if (deepCopy != null) {
+                        deepCopy.add(pv);
+                    }
                 }
                 else if (convertible && originalValue instanceof TypedStringValue &&
                         !((TypedStringValue) originalValue).isDynamic() &&
                         !(convertedValue instanceof Collection || ObjectUtils.isArray(convertedValue))) {
                     pv.setConvertedValue(convertedValue);
-                    deepCopy.add(pv);
+                    if (deepCopy != null) {
+                        deepCopy.add(pv);
+                    }
                 }
                 else {
                     resolveNecessary = true;
-                    deepCopy.add(new PropertyValue(pv, convertedValue));
+                    if (deepCopy != null) {
+                        deepCopy.add(new PropertyValue(pv, convertedValue));
+                    }
                 }
             }
         }
@@ -348,7 +418,12 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
 
         // Set our (possibly massaged) deep copy.
         try {
-            bw.setPropertyValues(new MutablePropertyValues(deepCopy));
+            if (binder != null) {
+                binder.setPropertyValues(bean, original, valuesToApply);
+            }
+            else {
+                accessor.setPropertyValues(new MutablePropertyValues(deepCopy));
+            }
         }
         catch (BeansException ex) {
             throw new BeanCreationException(
@@ -356,10 +431,31 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
         }
     }
 
+    /**
+     * Create a {@link DirectFieldAccessor} for the bean instance held by the given
+     * BeanWrapper, configured the same way as the BeanWrapper itself.
+     * @param bw the BeanWrapper holding the bean instance
+     * @return the DirectFieldAccessor to inject the bean's fields with
+     * @see #initBeanWrapper
+     */
+    protected DirectFieldAccessor createFieldAccessor(BeanWrapper bw) {
+        DirectFieldAccessor accessor = new DirectFieldAccessor(bw.getWrappedInstance());
+        accessor.setConversionService(bw.getConversionService());
+        registerCustomEditors(accessor);
+        return accessor;
+    }
+
     /**
      * Convert the given value for the specified target property.
      */
-    private Object convertForProperty(Object value, String propertyName, BeanWrapper bw, TypeConverter converter) {
+    private Object convertForProperty(Object value, String propertyName, ConfigurablePropertyAccessor accessor,
+                                      TypeConverter converter) {
+        if (converter instanceof DirectFieldAccessor) {
+            return ((DirectFieldAccessor) converter).convertForProperty(value, propertyName);
+        }
+        else if (accessor instanceof DirectFieldAccessor) {
+            return converter.convertIfNecessary(value, accessor.getPropertyType(propertyName));
+        }
 //        if (converter instanceof BeanWrapperImpl) {
             return ((BeanWrapperImpl) converter).convertForProperty(value, propertyName);
 //        }
@@ -861,21 +957,6 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
         return false;
     }
 
-    @Override
-    public void registerDependentBean(String beanName, String dependentBeanName) {
-
-    }
-
-    @Override
-    public String[] getDependentBeans(String beanName) {
-        return new String[0];
-    }
-
-    @Override
-    public String[] getDependenciesForBean(String beanName) {
-        return new String[0];
-    }
-
     @Override
     public void destroyBean(String beanName, Object beanInstance) {
 
@@ -886,11 +967,6 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
 
     }
 
-    @Override
-    public void destroySingletons() {
-
-    }
-
     @Override
     public BeanFactory getParentBeanFactory() {
         return null;
@@ -937,39 +1013,4 @@ public class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
     public boolean isPrototype(String name) throws NoSuchBeanDefinitionException {
         return false;
     }
-
-    @Override
-    public boolean isTypeMatch(String name, Class<?> typeToMatch) throws NoSuchBeanDefinitionException {
-        return false;
-    }
-
-    @Override
-    public Class<?> getType(String name) throws NoSuchBeanDefinitionException {
-        return null;
-    }
-
-    @Override
-    public void registerSingleton(String beanName, Object singletonObject) {
-
-    }
-
-    @Override
-    public Object getSingleton(String beanName) {
-        return null;
-    }
-
-    @Override
-    public boolean containsSingleton(String beanName) {
-        return false;
-    }
-
-    @Override
-    public String[] getSingletonNames() {
-        return new String[0];
-    }
-
-    @Override
-    public int getSingletonCount() {
-        return 0;
-    }
 }
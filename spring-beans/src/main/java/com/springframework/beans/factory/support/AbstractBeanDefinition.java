@@ -51,6 +51,8 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 
     private boolean lazyInit = false;
 
+    private boolean fieldInjection = false;
+
     private int autowireMode = AUTOWIRE_NO;
 
     private int dependencyCheck = DEPENDENCY_CHECK_NONE;
@@ -142,6 +144,7 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 
             setPrimary(originalAbd.isPrimary());
             setNonPublicAccessAllowed(originalAbd.isNonPublicAccessAllowed());
+            setFieldInjection(originalAbd.isFieldInjection());
             setLenientConstructorResolution(originalAbd.isLenientConstructorResolution());
             setInitMethodName(originalAbd.getInitMethodName());
             setEnforceInitMethod(originalAbd.isEnforceInitMethod());
@@ -203,6 +206,7 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
             setDependencyCheck(otherAbd.getDependencyCheck());
             setDependsOn(otherAbd.getDependsOn());
             setNonPublicAccessAllowed(otherAbd.isNonPublicAccessAllowed());
+            setFieldInjection(otherAbd.isFieldInjection());
             setLenientConstructorResolution(otherAbd.isLenientConstructorResolution());
             if (StringUtils.hasLength(otherAbd.getInitMethodName())) {
                 setInitMethodName(otherAbd.getInitMethodName());
@@ -536,6 +540,26 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
         this.nonPublicAccessAllowed = nonPublicAccessAllowed;
     }
 
+    /**
+     * Specify whether property values get injected directly into the bean's
+     * fields rather than through JavaBean setters.
+     * <p>Default is "false". Switch this on for plain data holders without
+     * setters, or to skip introspection and setter dispatch altogether:
+     * property names then refer to field names.
+     *
+     * @see com.springframework.beans.DirectFieldAccessor
+     */
+    public void setFieldInjection(boolean fieldInjection) {
+        this.fieldInjection = fieldInjection;
+    }
+
+    /**
+     * Return whether property values get injected directly into the bean's fields.
+     */
+    public boolean isFieldInjection() {
+        return this.fieldInjection;
+    }
+
     public boolean isLenientConstructorResolution() {
         return lenientConstructorResolution;
     }
@@ -616,6 +640,7 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
         if (this.primary != that.primary) return false;
 
         if (this.nonPublicAccessAllowed != that.nonPublicAccessAllowed) return false;
+        if (this.fieldInjection != that.fieldInjection) return false;
         if (this.lenientConstructorResolution != that.lenientConstructorResolution) return false;
         if (!ObjectUtils.nullSafeEquals(this.constructorArgumentValues, that.constructorArgumentValues)) return false;
         if (!ObjectUtils.nullSafeEquals(this.propertyValues, that.propertyValues)) return false;
@@ -1,5 +1,7 @@
 package com.springframework.beans.factory.support;
 
+import com.springframework.beans.factory.config.ConfigurableBeanFactory;
+import com.springframework.core.metrics.ApplicationStartup;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -23,4 +25,13 @@ public abstract class AbstractBeanDefinitionReader implements BeanDefinitionRead
     public BeanDefinitionRegistry getRegistry() {
         return this.registry;
     }
+
+    /**
+     * Return the ApplicationStartup to record loading steps with: the one of the
+     * registry if it is a ConfigurableBeanFactory, the no-op default otherwise.
+     */
+    protected ApplicationStartup getApplicationStartup() {
+        return (this.registry instanceof ConfigurableBeanFactory ?
+                ((ConfigurableBeanFactory) this.registry).getApplicationStartup() : ApplicationStartup.DEFAULT);
+    }
 }
@@ -6,12 +6,24 @@ import com.springframework.beans.PropertyEditorRegistrySupport;
 import com.springframework.beans.TypeConverter;
 import com.springframework.beans.factory.*;
 import com.springframework.beans.factory.config.*;
+import com.springframework.core.GenericTypeResolver;
 import com.springframework.core.NamedThreadLocal;
+import com.springframework.core.ResolvableType;
 import com.springframework.core.convert.ConversionService;
+import com.springframework.core.metrics.ApplicationStartup;
+import com.springframework.core.metrics.StartupStep;
+import com.springframework.core.type.classreading.ClassFileMetadata;
+import com.springframework.core.type.classreading.ClassFileMetadataReader;
+import com.springframework.util.Assert;
 import com.springframework.util.ClassUtils;
+import com.springframework.util.LockContentionProfiler;
 import com.springframework.util.ObjectUtils;
+import com.springframework.util.ReflectionUtils;
 import com.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.security.AccessControlContext;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
@@ -26,6 +38,11 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport implements ConfigurableBeanFactory {
 
+    /**
+     * Lock site name of the merged bean definition cache monitor for {@link LockContentionProfiler}
+     */
+    static final String MERGED_BEAN_DEFINITIONS_LOCK = "AbstractBeanFactory.mergedBeanDefinitions";
+
     /**
      * Names of beans that have already been created at least once
      */
@@ -53,6 +70,17 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
      */
     private BeanExpressionResolver beanExpressionResolver;
 
+    /**
+     * Expression context for values outside of any registered scope
+     */
+    private final BeanExpressionContext beanExpressionContext = new BeanExpressionContext(this, null);
+
+    /**
+     * Expression contexts for registered scopes, keyed by Scope instance
+     */
+    private final Map<Scope, BeanExpressionContext> scopedExpressionContexts =
+            new ConcurrentHashMap<Scope, BeanExpressionContext>(8);
+
     /**
      * Spring ConversionService to use instead of PropertyEditors
      */
@@ -63,6 +91,21 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
      */
     private TypeConverter typeConverter;
 
+    /**
+     * Application startup metrics
+     */
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+    /**
+     * getBean statistics, if enabled
+     */
+    private BeanAccessMetrics beanAccessMetrics;
+
+    /**
+     * Reader for predicting bean types from class files, created lazily
+     */
+    private volatile ClassFileMetadataReader classFileMetadataReader;
+
     //---------------------------------------------------------------------
     // Implementation of BeanFactory interface
     //---------------------------------------------------------------------
@@ -96,6 +139,232 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
         return doGetBean(name, requiredType, args, false);
     }
 
+    @Override
+    public boolean isTypeMatch(String name, Class<?> typeToMatch) throws NoSuchBeanDefinitionException {
+        String beanName = transformedBeanName(name);
+        Class<?> typeToCheck = (typeToMatch != null ? typeToMatch : Object.class);
+        boolean factoryDereference = BeanFactoryUtils.isFactoryDereference(name);
+
+        // Check manually registered and already created singletons.
+        Object beanInstance = getSingleton(beanName, false);
+        if (beanInstance != null) {
+            if (beanInstance instanceof FactoryBean && !factoryDereference) {
+                Class<?> type = ((FactoryBean<?>) beanInstance).getObjectType();
+                return (type != null && typeToCheck.isAssignableFrom(type));
+            }
+            return (!factoryDereference || beanInstance instanceof FactoryBean) && typeToCheck.isInstance(beanInstance);
+        }
+
+        RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+        if (mbd.getFactoryMethodName() != null) {
+            // Predict from the declared return type of the factory method.
+            Class<?> factoryMethodType = getTypeForFactoryMethod(beanName, mbd);
+            if (factoryMethodType == null) {
+                return false;
+            }
+            boolean isFactoryBean = FactoryBean.class.isAssignableFrom(factoryMethodType);
+            if (isFactoryBean && !factoryDereference) {
+                Class<?> objectType = getFactoryBeanObjectType(factoryMethodType);
+                return (objectType != null && typeToCheck.isAssignableFrom(objectType));
+            }
+            return (!factoryDereference || isFactoryBean) && typeToCheck.isAssignableFrom(factoryMethodType);
+        }
+
+        // Answer from the class files if the bean class hasn't been loaded yet,
+        // avoiding class loading for beans that turn out not to match.
+        String className = mbd.getBeanClassName();
+        if (!mbd.hasBeanClass() && className != null && className.equals(evaluateBeanDefinitionString(className, mbd))) {
+            ClassFileMetadataReader metadataReader = getClassFileMetadataReader();
+            try {
+                boolean isFactoryBean = metadataReader.isAssignable(className, FactoryBean.class);
+                if (!isFactoryBean || factoryDereference) {
+                    return (!factoryDereference || isFactoryBean) && metadataReader.isAssignable(className, typeToCheck);
+                }
+                String objectTypeName = getFactoryBeanObjectTypeName(className);
+                if (objectTypeName != null) {
+                    return metadataReader.isAssignable(objectTypeName, typeToCheck);
+                }
+                // No plain class type argument declared on FactoryBean itself (type variable,
+                // raw FactoryBean, FactoryBean sub-interface): resolve against the loaded class.
+            } catch (IOException ex) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Could not read class file metadata for bean '" + beanName +
+                            "' - falling back to loading its class: " + ex);
+                }
+            }
+        }
+
+        Class<?> beanClass = resolveBeanClass(mbd, beanName, typeToCheck);
+        boolean isFactoryBean = FactoryBean.class.isAssignableFrom(beanClass);
+        if (isFactoryBean && !factoryDereference) {
+            Class<?> objectType = getFactoryBeanObjectType(beanClass);
+            if (objectType == null) {
+                objectType = getTypeForFactoryBean(beanName, mbd);
+            }
+            return (objectType != null && typeToCheck.isAssignableFrom(objectType));
+        }
+        return (!factoryDereference || isFactoryBean) && typeToCheck.isAssignableFrom(beanClass);
+    }
+
+    @Override
+    public Class<?> getType(String name) throws NoSuchBeanDefinitionException {
+        String beanName = transformedBeanName(name);
+        boolean factoryDereference = BeanFactoryUtils.isFactoryDereference(name);
+
+        // Check manually registered and already created singletons.
+        Object beanInstance = getSingleton(beanName, false);
+        if (beanInstance != null) {
+            if (beanInstance instanceof FactoryBean && !factoryDereference) {
+                return ((FactoryBean<?>) beanInstance).getObjectType();
+            }
+            return beanInstance.getClass();
+        }
+
+        RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+        Class<?> beanClass;
+        if (mbd.getFactoryMethodName() != null) {
+            beanClass = getTypeForFactoryMethod(beanName, mbd);
+            if (beanClass == null) {
+                return null;
+            }
+        }
+        else {
+            // Loads the bean class without initializing it.
+            beanClass = resolveBeanClass(mbd, beanName);
+        }
+        if (FactoryBean.class.isAssignableFrom(beanClass)) {
+            if (factoryDereference) {
+                return beanClass;
+            }
+            Class<?> objectType = getFactoryBeanObjectType(beanClass);
+            return (objectType != null || mbd.getFactoryMethodName() != null ?
+                    objectType : getTypeForFactoryBean(beanName, mbd));
+        }
+        return (!factoryDereference ? beanClass : null);
+    }
+
+    /**
+     * Determine the type of the bean that the factory method of the given
+     * bean definition creates, from the declared return types of the candidate
+     * methods. Overloaded candidates with different return types resolve
+     * to their common ancestor.
+     *
+     * @param beanName the name of the bean (for error handling purposes)
+     * @param mbd      the merged bean definition for the bean
+     * @return the predicted bean type, or {@code null} if not determinable
+     */
+    protected Class<?> getTypeForFactoryMethod(String beanName, RootBeanDefinition mbd) {
+        String factoryBeanName = mbd.getFactoryBeanName();
+        boolean isStatic = (factoryBeanName == null);
+        Class<?> factoryClass;
+        if (isStatic) {
+            factoryClass = resolveBeanClass(mbd, beanName);
+        }
+        else {
+            if (factoryBeanName.equals(beanName)) {
+                return null;
+            }
+            factoryClass = getType(factoryBeanName);
+            if (factoryClass == null) {
+                return null;
+            }
+        }
+        factoryClass = ClassUtils.getUserClass(factoryClass);
+
+        Class<?> returnType = null;
+        boolean found = false;
+        for (Method candidate : ReflectionUtils.getUniqueDeclaredMethods(factoryClass)) {
+            if (Modifier.isStatic(candidate.getModifiers()) == isStatic &&
+                    candidate.getName().equals(mbd.getFactoryMethodName())) {
+                Class<?> candidateType = GenericTypeResolver.resolveReturnType(candidate, factoryClass);
+                returnType = (found ? ClassUtils.determineCommonAncestor(returnType, candidateType) : candidateType);
+                found = true;
+                if (returnType == null) {
+                    break;
+                }
+            }
+        }
+        return (returnType != null && returnType != void.class ? returnType : null);
+    }
+
+    /**
+     * Determine the object type that the given FactoryBean class declares
+     * through its generic {@code FactoryBean} type argument, if any.
+     *
+     * @param factoryBeanClass the FactoryBean implementation class
+     * @return the object type, or {@code null} if not determinable
+     */
+    private Class<?> getFactoryBeanObjectType(Class<?> factoryBeanClass) {
+        return ResolvableType.forClass(factoryBeanClass).as(FactoryBean.class).resolveGeneric();
+    }
+
+    /**
+     * Determine the object type of the given FactoryBean singleton by asking
+     * the FactoryBean instance itself, creating it if necessary. Used when the
+     * object type cannot be derived from the generic declaration of the class,
+     * e.g. for a raw {@code FactoryBean} implementation.
+     *
+     * @param beanName the name of the FactoryBean
+     * @param mbd      the merged bean definition for the FactoryBean
+     * @return the object type, or {@code null} if not determinable
+     * (including FactoryBeans that are not singletons or are currently in creation)
+     */
+    protected Class<?> getTypeForFactoryBean(String beanName, RootBeanDefinition mbd) {
+        if (!mbd.isSingleton() || isSingletonCurrentlyInCreation(beanName)) {
+            return null;
+        }
+        try {
+            FactoryBean<?> factoryBean = (FactoryBean<?>) getBean(FACTORY_BEAN_PREFIX + beanName);
+            return factoryBean.getObjectType();
+        } catch (BeanCreationException ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Ignoring bean creation exception on FactoryBean type check: " + ex);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Determine the name of the object type that the given FactoryBean class
+     * declares through its generic {@code FactoryBean} type argument, reading
+     * the class files of the class and its superclasses.
+     *
+     * @param className the name of the FactoryBean implementation class
+     * @return the object type name, or {@code null} if not determinable
+     */
+    private String getFactoryBeanObjectTypeName(String className) {
+        ClassFileMetadataReader metadataReader = getClassFileMetadataReader();
+        String factoryBeanName = FactoryBean.class.getName();
+        try {
+            while (className != null && !className.startsWith("java.")) {
+                ClassFileMetadata metadata = metadataReader.getMetadata(className);
+                String[] typeArguments = metadata.getTypeArguments(factoryBeanName);
+                if (typeArguments != null) {
+                    return typeArguments[0];
+                }
+                className = metadata.getSuperClassName();
+            }
+        } catch (IOException ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Could not read class file metadata for FactoryBean class [" + className + "]: " + ex);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the reader used to predict bean types from class files,
+     * creating it for the bean class loader on first access.
+     */
+    protected ClassFileMetadataReader getClassFileMetadataReader() {
+        ClassFileMetadataReader metadataReader = this.classFileMetadataReader;
+        if (metadataReader == null) {
+            metadataReader = new ClassFileMetadataReader(getBeanClassLoader());
+            this.classFileMetadataReader = metadataReader;
+        }
+        return metadataReader;
+    }
+
     /**
      * Return an instance, which may be shared or independent, of the specified bean.
      */
@@ -105,11 +374,19 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
             throws BeansException {
 
         final String beanName = transformedBeanName(name);
+        final BeanAccessMetrics metrics = this.beanAccessMetrics;
         Object bean = null;
 
         // Eagerly check singleton cache for manually registered singletons.
         Object sharedInstance = getSingleton(beanName);
         if (sharedInstance != null && args == null) {
+            if (metrics != null) {
+                if (isSingletonCurrentlyInCreation(beanName)) {
+                    metrics.recordEarlyReferenceHit(beanName);
+                } else {
+                    metrics.recordSingletonHit(beanName);
+                }
+            }
             //TODO 从缓存中得到singleton
             bean = getObjectForBeanInstance(sharedInstance, name, beanName, null);
         } else {
@@ -138,6 +415,9 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
                 markBeanAsCreated(beanName);
             }
 
+            StartupStep beanCreation = this.applicationStartup.start("spring.beans.instantiate").tag("beanName", beanName);
+            LockContentionProfiler lockProfiler = LockContentionProfiler.getActiveProfiler();
+            String outerBeanName = (lockProfiler != null ? lockProfiler.beginBeanCreation(beanName) : null);
             try {
                 final RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
                 checkMergedBeanDefinition(mbd, beanName, args);
@@ -157,11 +437,18 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 
                 // Create bean instance.
                 if (mbd.isSingleton()) {
+                    final boolean[] created = new boolean[1];
                     sharedInstance = getSingleton(beanName, new ObjectFactory<Object>() {
                         @Override
                         public Object getObject() throws BeansException {
+                            long startTime = (metrics != null ? System.nanoTime() : 0);
                             try {
-                                return createBean(beanName, mbd, args);
+                                Object beanInstance = createBean(beanName, mbd, args);
+                                created[0] = true;
+                                if (metrics != null) {
+                                    metrics.recordCreation(beanName, System.nanoTime() - startTime);
+                                }
+                                return beanInstance;
                             } catch (BeansException ex) {
                                 // Explicitly remove instance from singleton cache: It might have been put there
                                 // eagerly by the creation process, to allow for circular reference resolution.
@@ -171,6 +458,10 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
                             }
                         }
                     });
+                    if (metrics != null && !created[0]) {
+                        // Another thread created the singleton while this one waited for the lock.
+                        metrics.recordSingletonHit(beanName);
+                    }
                     bean = getObjectForBeanInstance(sharedInstance, name, beanName, mbd);
                 }
 //              else if (mbd.isPrototype()) {
@@ -210,8 +501,17 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 //                    }
 //                }
             } catch (BeansException ex) {
+                if (metrics != null && ex instanceof NoSuchBeanDefinitionException &&
+                        beanName.equals(((NoSuchBeanDefinitionException) ex).getBeanName())) {
+                    metrics.recordMiss(beanName);
+                }
                 cleanupAfterBeanCreationFailure(beanName);
                 throw ex;
+            } finally {
+                if (lockProfiler != null) {
+                    lockProfiler.endBeanCreation(outerBeanName);
+                }
+                beanCreation.end();
             }
 
         }
@@ -245,27 +545,34 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
      */
     protected void registerDisposableBeanIfNecessary(String beanName, Object bean, RootBeanDefinition mbd) {
         AccessControlContext acc = (System.getSecurityManager() != null ? getAccessControlContext() : null);
-//        if (!mbd.isPrototype() && requiresDestruction(bean, mbd)) {
-//            if (mbd.isSingleton()) {
-//                // Register a DisposableBean implementation that performs all destruction
-//                // work for the given bean: DestructionAwareBeanPostProcessors,
-//                // DisposableBean interface, custom destroy method.
-//                registerDisposableBean(beanName,
-//                        new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessors(), acc));
-//            }
-//            else {
-//                // A bean with a custom scope...
-//                Scope scope = this.scopes.get(mbd.getScope());
-//                if (scope == null) {
-//                    throw new IllegalStateException("No Scope registered for scope '" + mbd.getScope() + "'");
-//                }
-//                scope.registerDestructionCallback(beanName,
-//                        new DisposableBeanAdap
-// ter(bean, beanName, mbd, getBeanPostProcessors(), acc));
+        if (mbd.isSingleton() && requiresDestruction(bean, mbd)) {
+            // Register a DisposableBean implementation that performs all destruction
+            // work for the given bean: DisposableBean interface, custom destroy method.
+            registerDisposableBean(beanName, new DisposableBeanAdapter(bean, beanName, mbd, acc));
+        }
+//        else if (!mbd.isPrototype() && requiresDestruction(bean, mbd)) {
+//            // A bean with a custom scope...
+//            Scope scope = this.scopes.get(mbd.getScope());
+//            if (scope == null) {
+//                throw new IllegalStateException("No Scope registered for scope '" + mbd.getScope() + "'");
 //            }
+//            scope.registerDestructionCallback(beanName,
+//                    new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessors(), acc));
 //        }
     }
 
+    /**
+     * Determine whether the given bean requires destruction on shutdown.
+     *
+     * @param bean the bean instance to check
+     * @param mbd  the corresponding bean definition
+     * @see com.springframework.beans.factory.DisposableBean
+     * @see AbstractBeanDefinition#getDestroyMethodName()
+     */
+    protected boolean requiresDestruction(Object bean, RootBeanDefinition mbd) {
+        return (bean != null && DisposableBeanAdapter.hasDestroyMethod(bean, mbd));
+    }
+
     /**
      * Initialize the given BeanWrapper with the custom editors registered
      * with this factory. To be called for BeanWrappers that will create
@@ -457,7 +764,9 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
             String beanName, BeanDefinition bd, BeanDefinition containingBd)
             throws BeanDefinitionStoreException {
 
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
         synchronized (this.mergedBeanDefinitions) {
+            LockContentionProfiler.afterMonitorEnter(MERGED_BEAN_DEFINITIONS_LOCK, waitStart);
             RootBeanDefinition mbd = null;
 
             // Check with full lock now in order to enforce the same merged instance.
@@ -627,7 +936,26 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
             return value;
         }
         Scope scope = (beanDefinition != null ? getRegisteredScope(beanDefinition.getScope()) : null);
-        return this.beanExpressionResolver.evaluate(value, new BeanExpressionContext(this, scope));
+        return this.beanExpressionResolver.evaluate(value, getBeanExpressionContext(scope));
+    }
+
+    /**
+     * Return the expression context for the given scope, creating it once per
+     * Scope instance rather than once per evaluated value.
+     *
+     * @param scope the registered scope of the bean definition, or {@code null} if none
+     * @return the shared expression context
+     */
+    private BeanExpressionContext getBeanExpressionContext(Scope scope) {
+        if (scope == null) {
+            return this.beanExpressionContext;
+        }
+        BeanExpressionContext context = this.scopedExpressionContexts.get(scope);
+        if (context == null) {
+            context = new BeanExpressionContext(this, scope);
+            this.scopedExpressionContexts.put(scope, context);
+        }
+        return context;
     }
 
     /**
@@ -639,6 +967,47 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
     protected abstract Object createBean(String beanName, RootBeanDefinition mbd, Object[] args)
             throws BeanCreationException;
 
+    @Override
+    public void setBeanExpressionResolver(BeanExpressionResolver resolver) {
+        this.beanExpressionResolver = resolver;
+    }
+
+    @Override
+    public BeanExpressionResolver getBeanExpressionResolver() {
+        return this.beanExpressionResolver;
+    }
+
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        Assert.notNull(applicationStartup, "applicationStartup should not be null");
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public ApplicationStartup getApplicationStartup() {
+        return this.applicationStartup;
+    }
+
+    /**
+     * Set the metrics to collect getBean statistics with, e.g. to find beans
+     * that get looked up in hot loops. Default is none.
+     * <p>Lookups are counted as singleton cache hits, early reference
+     * hits, creations of new instances, and misses for unknown bean names.
+     *
+     * @param beanAccessMetrics the metrics to record lookups with, or {@code null} to disable
+     * @see BeanAccessMetrics
+     */
+    public void setBeanAccessMetrics(BeanAccessMetrics beanAccessMetrics) {
+        this.beanAccessMetrics = beanAccessMetrics;
+    }
+
+    /**
+     * Return the metrics collecting getBean statistics, if any.
+     */
+    public BeanAccessMetrics getBeanAccessMetrics() {
+        return this.beanAccessMetrics;
+    }
+
     @Override
     public ConversionService getConversionService() {
         return this.conversionService;
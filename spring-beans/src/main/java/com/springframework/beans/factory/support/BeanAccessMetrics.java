@@ -0,0 +1,235 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.util.LatencyHistogram;
+import com.springframework.util.StripedCounter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects {@code getBean} statistics for an {@link AbstractBeanFactory}: per bean,
+ * the number of singleton cache hits, early reference hits, creations and misses,
+ * plus a histogram of creation times.
+ *
+ * <p>Counters are striped (see {@link StripedCounter}), so that heavily looked up
+ * beans do not turn the metrics into a contention point of their own.
+ * Statistics are available as immutable {@link BeanAccessStatistics} snapshots,
+ * and through JMX: this class is a standard MBean that can be registered with
+ * any {@code MBeanServer}, for example:
+ *
+ * <pre class="code">
+ * BeanAccessMetrics metrics = new BeanAccessMetrics();
+ * beanFactory.setBeanAccessMetrics(metrics);
+ * ManagementFactory.getPlatformMBeanServer().registerMBean(metrics,
+ *     new ObjectName("com.springframework.beans:type=BeanAccessMetrics"));</pre>
+ *
+ * <p>Misses get counted per requested name, so code probing for arbitrary bean
+ * names will grow the statistics accordingly; call {@link #reset()} as needed.
+ *
+ * @see AbstractBeanFactory#setBeanAccessMetrics
+ */
+public class BeanAccessMetrics implements BeanAccessMetricsMBean {
+
+	private static final Comparator<BeanAccessStatistics> LOOKUP_COMPARATOR = new Comparator<BeanAccessStatistics>() {
+		@Override
+		public int compare(BeanAccessStatistics stats1, BeanAccessStatistics stats2) {
+			return compareDescending(stats1.getLookups(), stats2.getLookups());
+		}
+	};
+
+	private static final Comparator<BeanAccessStatistics> CREATION_TIME_COMPARATOR = new Comparator<BeanAccessStatistics>() {
+		@Override
+		public int compare(BeanAccessStatistics stats1, BeanAccessStatistics stats2) {
+			return compareDescending(stats1.getTotalCreationTime(), stats2.getTotalCreationTime());
+		}
+	};
+
+
+	private final ConcurrentMap<String, BeanCounters> beanCounters = new ConcurrentHashMap<String, BeanCounters>(256);
+
+
+	void recordSingletonHit(String beanName) {
+		getBeanCounters(beanName).singletonHits.increment();
+	}
+
+	void recordEarlyReferenceHit(String beanName) {
+		getBeanCounters(beanName).earlyReferenceHits.increment();
+	}
+
+	void recordCreation(String beanName, long nanos) {
+		BeanCounters counters = getBeanCounters(beanName);
+		counters.creations.increment();
+		counters.creationTimes.record(nanos);
+	}
+
+	void recordMiss(String beanName) {
+		getBeanCounters(beanName).misses.increment();
+	}
+
+	private BeanCounters getBeanCounters(String beanName) {
+		BeanCounters counters = this.beanCounters.get(beanName);
+		if (counters == null) {
+			counters = new BeanCounters();
+			BeanCounters existing = this.beanCounters.putIfAbsent(beanName, counters);
+			if (existing != null) {
+				counters = existing;
+			}
+		}
+		return counters;
+	}
+
+
+	/**
+	 * Return a snapshot of the statistics of the given bean.
+	 * @param beanName the name of the bean
+	 * @return the statistics, or {@code null} if the bean has not been looked up
+	 */
+	public BeanAccessStatistics getStatistics(String beanName) {
+		BeanCounters counters = this.beanCounters.get(beanName);
+		return (counters != null ? counters.snapshot(beanName) : null);
+	}
+
+	/**
+	 * Return a snapshot of the statistics of all beans looked up so far,
+	 * most frequently looked up beans first.
+	 */
+	public List<BeanAccessStatistics> getStatistics() {
+		List<BeanAccessStatistics> statistics = new ArrayList<BeanAccessStatistics>(this.beanCounters.size());
+		for (String beanName : this.beanCounters.keySet()) {
+			BeanAccessStatistics beanStatistics = getStatistics(beanName);
+			if (beanStatistics != null) {
+				statistics.add(beanStatistics);
+			}
+		}
+		Collections.sort(statistics, LOOKUP_COMPARATOR);
+		return statistics;
+	}
+
+	@Override
+	public int getBeanCount() {
+		return this.beanCounters.size();
+	}
+
+	@Override
+	public long getSingletonHitCount() {
+		long count = 0;
+		for (BeanCounters counters : this.beanCounters.values()) {
+			count += counters.singletonHits.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public long getEarlyReferenceHitCount() {
+		long count = 0;
+		for (BeanCounters counters : this.beanCounters.values()) {
+			count += counters.earlyReferenceHits.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public long getCreationCount() {
+		long count = 0;
+		for (BeanCounters counters : this.beanCounters.values()) {
+			count += counters.creations.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public long getMissCount() {
+		long count = 0;
+		for (BeanCounters counters : this.beanCounters.values()) {
+			count += counters.misses.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public String[] listMostLookedUpBeans(int limit) {
+		return describe(getStatistics(), limit);
+	}
+
+	@Override
+	public String[] listSlowestCreatedBeans(int limit) {
+		List<BeanAccessStatistics> statistics = getStatistics();
+		Collections.sort(statistics, CREATION_TIME_COMPARATOR);
+		return describe(statistics, limit);
+	}
+
+	@Override
+	public String describeBean(String beanName) {
+		BeanAccessStatistics statistics = getStatistics(beanName);
+		return (statistics != null ? statistics.toString() : null);
+	}
+
+	@Override
+	public void reset() {
+		this.beanCounters.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "BeanAccessMetrics: beans=" + getBeanCount() + ", singletonHits=" + getSingletonHitCount() +
+				", earlyReferenceHits=" + getEarlyReferenceHitCount() + ", creations=" + getCreationCount() +
+				", misses=" + getMissCount();
+	}
+
+
+	private static String[] describe(List<BeanAccessStatistics> statistics, int limit) {
+		int count = Math.max(Math.min(limit, statistics.size()), 0);
+		String[] descriptions = new String[count];
+		for (int i = 0; i < count; i++) {
+			descriptions[i] = statistics.get(i).toString();
+		}
+		return descriptions;
+	}
+
+	private static int compareDescending(long value1, long value2) {
+		return (value1 < value2 ? 1 : (value1 > value2 ? -1 : 0));
+	}
+
+
+	/**
+	 * Live counters for a single bean.
+	 */
+	private static class BeanCounters {
+
+		final StripedCounter singletonHits = new StripedCounter();
+
+		final StripedCounter earlyReferenceHits = new StripedCounter();
+
+		final StripedCounter creations = new StripedCounter();
+
+		final StripedCounter misses = new StripedCounter();
+
+		final LatencyHistogram creationTimes = new LatencyHistogram();
+
+		BeanAccessStatistics snapshot(String beanName) {
+			return new BeanAccessStatistics(beanName, this.singletonHits.sum(), this.earlyReferenceHits.sum(),
+					this.creations.sum(), this.misses.sum(), this.creationTimes);
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans.factory.support;
+
+/**
+ * Management interface of {@link BeanAccessMetrics}, following the JMX
+ * standard MBean conventions.
+ *
+ * @see BeanAccessMetrics
+ */
+public interface BeanAccessMetricsMBean {
+
+	/**
+	 * Return the number of beans that have been looked up so far.
+	 */
+	int getBeanCount();
+
+	/**
+	 * Return the number of lookups served from the singleton cache, across all beans.
+	 */
+	long getSingletonHitCount();
+
+	/**
+	 * Return the number of lookups served with an early singleton reference, across all beans.
+	 */
+	long getEarlyReferenceHitCount();
+
+	/**
+	 * Return the number of lookups that created a new instance, across all beans.
+	 */
+	long getCreationCount();
+
+	/**
+	 * Return the number of lookups for undefined beans, across all bean names.
+	 */
+	long getMissCount();
+
+	/**
+	 * Describe the most frequently looked up beans, most frequent first.
+	 * @param limit the maximum number of beans to describe
+	 */
+	String[] listMostLookedUpBeans(int limit);
+
+	/**
+	 * Describe the beans with the highest total creation time, highest first.
+	 * @param limit the maximum number of beans to describe
+	 */
+	String[] listSlowestCreatedBeans(int limit);
+
+	/**
+	 * Describe the statistics of the given bean, or return {@code null} if it
+	 * has not been looked up.
+	 * @param beanName the name of the bean
+	 */
+	String describeBean(String beanName);
+
+	/**
+	 * Discard all statistics collected so far.
+	 */
+	void reset();
+
+}
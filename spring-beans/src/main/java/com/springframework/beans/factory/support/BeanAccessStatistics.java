@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.util.LatencyHistogram;
+
+/**
+ * Immutable snapshot of the {@code getBean} statistics of a single bean,
+ * as collected by {@link BeanAccessMetrics}.
+ *
+ * <p>Every counted lookup falls into exactly one category: a hit on the
+ * singleton cache, a hit on an early reference to a singleton still in
+ * creation, a creation of a new instance, or a miss for lack of a bean
+ * definition with the requested name.
+ *
+ * @see BeanAccessMetrics#getStatistics(String)
+ */
+public class BeanAccessStatistics {
+
+	private final String beanName;
+
+	private final long singletonHits;
+
+	private final long earlyReferenceHits;
+
+	private final long creations;
+
+	private final long misses;
+
+	private final long[] creationTimeHistogram;
+
+	private final long totalCreationTime;
+
+	private final long maxCreationTime;
+
+
+	BeanAccessStatistics(String beanName, long singletonHits, long earlyReferenceHits, long creations,
+			long misses, LatencyHistogram creationTimes) {
+
+		this.beanName = beanName;
+		this.singletonHits = singletonHits;
+		this.earlyReferenceHits = earlyReferenceHits;
+		this.creations = creations;
+		this.misses = misses;
+		this.creationTimeHistogram = creationTimes.getCounts();
+		this.totalCreationTime = creationTimes.getTotalNanos();
+		this.maxCreationTime = creationTimes.getMaxNanos();
+	}
+
+
+	/**
+	 * Return the canonical name of the bean, with aliases resolved.
+	 */
+	public String getBeanName() {
+		return this.beanName;
+	}
+
+	/**
+	 * Return the number of lookups served from the singleton cache, including
+	 * lookups that waited for another thread to finish creating the singleton.
+	 */
+	public long getSingletonHits() {
+		return this.singletonHits;
+	}
+
+	/**
+	 * Return the number of lookups served with an early reference to a
+	 * singleton still in creation, i.e. resolving a circular reference.
+	 */
+	public long getEarlyReferenceHits() {
+		return this.earlyReferenceHits;
+	}
+
+	/**
+	 * Return the number of lookups that created a new instance.
+	 */
+	public long getCreations() {
+		return this.creations;
+	}
+
+	/**
+	 * Return the number of lookups that failed because no such bean was defined.
+	 */
+	public long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Return the total number of counted lookups.
+	 */
+	public long getLookups() {
+		return this.singletonHits + this.earlyReferenceHits + this.creations + this.misses;
+	}
+
+	/**
+	 * Return the number of creations per histogram bucket: bucket 0 counts creations
+	 * below one microsecond, bucket {@code i} creations from 2<sup>i-1</sup> up to
+	 * 2<sup>i</sup> microseconds, and the last bucket everything beyond.
+	 * @see #getBucketUpperBound(int)
+	 */
+	public long[] getCreationTimeHistogram() {
+		return this.creationTimeHistogram.clone();
+	}
+
+	/**
+	 * Return the total time spent creating instances, in nanoseconds.
+	 * <p>Creation times include the creation of dependencies along the way.
+	 */
+	public long getTotalCreationTime() {
+		return this.totalCreationTime;
+	}
+
+	/**
+	 * Return the longest time spent creating a single instance, in nanoseconds.
+	 */
+	public long getMaxCreationTime() {
+		return this.maxCreationTime;
+	}
+
+	/**
+	 * Return an upper bound in microseconds for the given percentile of creation
+	 * times, based on the histogram buckets; 0 if no instance has been created.
+	 * @param percentile the percentile, between 0 and 100
+	 */
+	public long getCreationTimePercentile(double percentile) {
+		return LatencyHistogram.getPercentile(this.creationTimeHistogram, percentile);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.beanName);
+		sb.append(": lookups=").append(getLookups());
+		sb.append(", singletonHits=").append(this.singletonHits);
+		sb.append(", earlyReferenceHits=").append(this.earlyReferenceHits);
+		sb.append(", creations=").append(this.creations);
+		sb.append(", misses=").append(this.misses);
+		if (this.creations > 0) {
+			sb.append(", maxCreationTime=").append(this.maxCreationTime / 1000).append("us");
+			sb.append(", p99CreationTime<").append(getCreationTimePercentile(99)).append("us");
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Return the exclusive upper bound of the given histogram bucket in
+	 * microseconds, or {@link Long#MAX_VALUE} for the last bucket.
+	 * @see #getCreationTimeHistogram()
+	 */
+	public static long getBucketUpperBound(int bucket) {
+		return LatencyHistogram.getBucketUpperBound(bucket);
+	}
+
+}
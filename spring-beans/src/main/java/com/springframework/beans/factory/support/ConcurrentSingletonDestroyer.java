@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans.factory.support;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Destroys the singletons of a {@link DefaultSingletonBeanRegistry} on a bounded
+ * pool of threads, following the registry's dependent bean relationships in reverse:
+ * a bean only gets destroyed once all beans depending on it have been destroyed,
+ * while beans without such a relationship get destroyed concurrently.
+ *
+ * <p>Beans without destroy callbacks still take part in the ordering, since they
+ * may link a disposable bean to the disposable beans it transitively depends on.
+ * Circular dependencies get broken up in reverse registration order, the same
+ * way as serial destruction does.
+ *
+ * <p>The timeout for a bean starts once its destroy callbacks actually start
+ * running, not while it is still waiting for a free thread. Since a timed-out
+ * destroy callback may keep its thread busy despite being interrupted, the pool
+ * gets an extra thread for each timeout, so that the remaining beans still get
+ * destroyed with the configured concurrency.
+ *
+ * @see DefaultSingletonBeanRegistry#setSingletonDestructionThreads
+ * @see DefaultSingletonBeanRegistry#setSingletonDestructionTimeout
+ */
+class ConcurrentSingletonDestroyer {
+
+	private static final Log logger = LogFactory.getLog(ConcurrentSingletonDestroyer.class);
+
+	private final DefaultSingletonBeanRegistry registry;
+
+	private final int threads;
+
+	private final long timeout;
+
+
+	/**
+	 * Create a new ConcurrentSingletonDestroyer for the given registry.
+	 * @param registry the registry to destroy the singletons of
+	 * @param threads the maximum number of beans to destroy at the same time
+	 * @param timeout the maximum time in milliseconds to wait for a single bean,
+	 * or 0 for no limit
+	 */
+	public ConcurrentSingletonDestroyer(DefaultSingletonBeanRegistry registry, int threads, long timeout) {
+		this.registry = registry;
+		this.threads = threads;
+		this.timeout = timeout;
+	}
+
+
+	/**
+	 * Destroy the given disposable beans.
+	 * @param disposableBeanNames the names of the disposable beans, in registration order
+	 * @param dependentBeanMap bean name --> names of the beans depending on it
+	 * @param dependenciesForBeanMap bean name --> names of the beans it depends on
+	 */
+	public void destroySingletons(String[] disposableBeanNames,
+			Map<String, Set<String>> dependentBeanMap, Map<String, Set<String>> dependenciesForBeanMap) {
+
+		// Registration order, used for the initial ordering and for breaking up cycles.
+		Map<String, Integer> disposableOrder = new HashMap<String, Integer>(disposableBeanNames.length * 2);
+		for (int i = 0; i < disposableBeanNames.length; i++) {
+			disposableOrder.put(disposableBeanNames[i], i);
+		}
+
+		// Number of dependent beans not destroyed yet, per bean.
+		Map<String, Integer> pendingDependents = new LinkedHashMap<String, Integer>();
+		for (int i = disposableBeanNames.length - 1; i >= 0; i--) {
+			pendingDependents.put(disposableBeanNames[i], 0);
+		}
+		for (Map.Entry<String, Set<String>> entry : dependentBeanMap.entrySet()) {
+			int count = 0;
+			for (String dependentBeanName : entry.getValue()) {
+				if (!dependentBeanName.equals(entry.getKey())) {
+					count++;
+					if (!pendingDependents.containsKey(dependentBeanName)) {
+						pendingDependents.put(dependentBeanName, 0);
+					}
+				}
+			}
+			Integer current = pendingDependents.get(entry.getKey());
+			pendingDependents.put(entry.getKey(), (current != null ? current : 0) + count);
+		}
+
+		LinkedList<String> ready = new LinkedList<String>();
+		for (Map.Entry<String, Integer> entry : pendingDependents.entrySet()) {
+			if (entry.getValue() == 0) {
+				ready.add(entry.getKey());
+			}
+		}
+		Set<String> remaining = new HashSet<String>(pendingDependents.keySet());
+		remaining.removeAll(ready);
+
+		ThreadPoolExecutor executor = createExecutor();
+		CompletionService<String> completionService = new ExecutorCompletionService<String>(executor);
+		Map<Future<String>, DestroyTask> inFlight = new HashMap<Future<String>, DestroyTask>();
+		try {
+			while (!ready.isEmpty() || !inFlight.isEmpty() || !remaining.isEmpty()) {
+				while (!ready.isEmpty() && inFlight.size() < this.threads) {
+					final String beanName = ready.removeFirst();
+					if (!disposableOrder.containsKey(beanName)) {
+						// Nothing to call back: just drop it from the cache right away.
+						this.registry.destroySingletonInstance(beanName);
+						release(beanName, dependenciesForBeanMap, pendingDependents, remaining, ready);
+						continue;
+					}
+					DestroyTask task = new DestroyTask(beanName);
+					inFlight.put(completionService.submit(task), task);
+				}
+
+				if (inFlight.isEmpty()) {
+					if (ready.isEmpty() && !remaining.isEmpty()) {
+						String beanName = latestRegistered(remaining, disposableOrder);
+						if (logger.isDebugEnabled()) {
+							logger.debug("Breaking up circular dependency at bean '" + beanName + "'");
+						}
+						remaining.remove(beanName);
+						ready.add(beanName);
+					}
+					continue;
+				}
+
+				Future<String> done;
+				if (this.timeout > 0) {
+					// Tasks that have not started yet time out no earlier than a full timeout from now.
+					long wait = this.timeout;
+					long now = System.currentTimeMillis();
+					for (DestroyTask task : inFlight.values()) {
+						long startTime = task.startTime;
+						if (startTime > 0) {
+							wait = Math.min(wait, startTime + this.timeout - now);
+						}
+					}
+					done = completionService.poll(Math.max(wait, 0), TimeUnit.MILLISECONDS);
+				}
+				else {
+					done = completionService.take();
+				}
+
+				if (done != null) {
+					// Futures that timed out before show up here as well once cancelled.
+					DestroyTask task = inFlight.remove(done);
+					if (task != null) {
+						release(task.beanName, dependenciesForBeanMap, pendingDependents, remaining, ready);
+					}
+				}
+				else {
+					long now = System.currentTimeMillis();
+					for (Iterator<Map.Entry<Future<String>, DestroyTask>> it = inFlight.entrySet().iterator(); it.hasNext();) {
+						Map.Entry<Future<String>, DestroyTask> entry = it.next();
+						DestroyTask task = entry.getValue();
+						long startTime = task.startTime;
+						if (startTime > 0 && startTime + this.timeout <= now) {
+							it.remove();
+							entry.getKey().cancel(true);
+							replaceWorker(executor);
+							logger.warn("Destruction of bean with name '" + task.beanName + "' did not complete within " +
+									this.timeout + " ms - proceeding with the beans it depends on");
+							release(task.beanName, dependenciesForBeanMap, pendingDependents, remaining, ready);
+						}
+					}
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			logger.warn("Interrupted while destroying singletons concurrently - destroying remaining beans serially");
+			for (Future<String> future : inFlight.keySet()) {
+				future.cancel(true);
+			}
+			for (int i = disposableBeanNames.length - 1; i >= 0; i--) {
+				this.registry.destroySingleton(disposableBeanNames[i]);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Mark the given bean as destroyed, making the beans it depends on ready
+	 * once they have no other dependent beans left.
+	 */
+	private void release(String beanName, Map<String, Set<String>> dependenciesForBeanMap,
+			Map<String, Integer> pendingDependents, Set<String> remaining, LinkedList<String> ready) {
+
+		Set<String> dependencies = dependenciesForBeanMap.get(beanName);
+		if (dependencies == null) {
+			return;
+		}
+		for (String dependency : dependencies) {
+			Integer pending = pendingDependents.get(dependency);
+			if (pending != null && !dependency.equals(beanName)) {
+				pendingDependents.put(dependency, pending - 1);
+				if (pending == 1 && remaining.remove(dependency)) {
+					ready.add(dependency);
+				}
+			}
+		}
+	}
+
+	private String latestRegistered(Set<String> candidates, Map<String, Integer> disposableOrder) {
+		String latest = null;
+		int latestIndex = Integer.MIN_VALUE;
+		for (String candidate : candidates) {
+			Integer index = disposableOrder.get(candidate);
+			int order = (index != null ? index : -1);
+			if (latest == null || order > latestIndex) {
+				latest = candidate;
+				latestIndex = order;
+			}
+		}
+		return latest;
+	}
+
+	/**
+	 * Add a thread to the given pool, taking over from a worker that may still
+	 * be stuck in a timed-out destroy callback.
+	 */
+	private void replaceWorker(ThreadPoolExecutor executor) {
+		// Raise the maximum first: the core size must not exceed it.
+		executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+		executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+	}
+
+	private ThreadPoolExecutor createExecutor() {
+		ThreadFactory threadFactory = new ThreadFactory() {
+			private final AtomicInteger threadCount = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "singleton-destruction-" + this.threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		return new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), threadFactory);
+	}
+
+
+	/**
+	 * Destroys a single bean, recording when it started doing so.
+	 */
+	private class DestroyTask implements Callable<String> {
+
+		final String beanName;
+
+		/** Start time in milliseconds, or 0 if not started yet */
+		volatile long startTime;
+
+		public DestroyTask(String beanName) {
+			this.beanName = beanName;
+		}
+
+		@Override
+		public String call() {
+			this.startTime = System.currentTimeMillis();
+			registry.destroySingletonInstance(this.beanName);
+			return this.beanName;
+		}
+	}
+
+}
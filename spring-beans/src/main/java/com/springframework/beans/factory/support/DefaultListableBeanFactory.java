@@ -4,10 +4,14 @@ import com.springframework.beans.PropertyEditorRegistrar;
 import com.springframework.beans.PropertyEditorRegistry;
 import com.springframework.beans.factory.BeanDefinitionStoreException;
 import com.springframework.beans.factory.BeanFactory;
+import com.springframework.beans.factory.BeanFactoryUtils;
 import com.springframework.beans.factory.BeansException;
+import com.springframework.beans.factory.FactoryBean;
 import com.springframework.beans.factory.NoSuchBeanDefinitionException;
 import com.springframework.beans.factory.config.*;
 import com.springframework.util.Assert;
+import com.springframework.util.ClassUtils;
+import com.springframework.util.StringUtils;
 import com.springframework.util.StringValueResolver;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -20,7 +24,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by hadoop on 2015/5/5 0005.
@@ -43,6 +54,16 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      */
     private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<String, BeanDefinition>(64);
 
+    /**
+     * Profile deciding which singletons to instantiate eagerly, if any
+     */
+    private SingletonWarmupProfile singletonWarmupProfile;
+
+    /**
+     * Executor resolving bean classes on registration, if any
+     */
+    private Executor beanClassResolutionExecutor;
+
     @Override
     public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition)
             throws BeanDefinitionStoreException {
@@ -66,11 +87,32 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         if (oldBeanDefinition != null) {
             //TODO 当BeanDefinition存在的时候,spring会根据配置是否允许覆盖BeanDefinition
         } else {
-            this.beanDefinitionNames.add(beanName);
+            synchronized (this.beanDefinitionMap) {
+                this.beanDefinitionNames.add(beanName);
+            }
 //            this.manualSingletonNames.remove(beanName);
 //            this.frozenBeanDefinitionNames = null;
         }
         this.beanDefinitionMap.put(beanName, beanDefinition);
+
+        Executor executor = this.beanClassResolutionExecutor;
+        if (executor != null && beanDefinition instanceof AbstractBeanDefinition &&
+                !((AbstractBeanDefinition) beanDefinition).hasBeanClass()) {
+            final String beanNameToResolve = beanName;
+            final AbstractBeanDefinition bd = (AbstractBeanDefinition) beanDefinition;
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        initializeBeanClass(beanNameToResolve, bd);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                if (this.logger.isDebugEnabled()) {
+                    this.logger.debug("Bean class of bean '" + beanName + "' will be resolved on creation: " + ex);
+                }
+            }
+        }
         //TODO spring在覆盖BeanDefinition的时候，需要充值所有Singleton的Bean实例
 //        if (oldBeanDefinition != null || containsSingleton(beanName)) {
 //            resetBeanDefinition(beanName);
@@ -96,89 +138,245 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     public boolean containsBeanDefinition(String beanName) {
-        return false;
+        Assert.notNull(beanName, "Bean name must not be null");
+        return this.beanDefinitionMap.containsKey(beanName);
     }
 
     @Override
     public String[] getBeanDefinitionNames() {
-        return new String[0];
+        synchronized (this.beanDefinitionMap) {
+            return StringUtils.toStringArray(this.beanDefinitionNames);
+        }
     }
 
     @Override
     public int getBeanDefinitionCount() {
-        return 0;
+        return this.beanDefinitionMap.size();
     }
 
-    @Override
-    public boolean isBeanNameInUse(String beanName) {
-        return false;
+    /**
+     * Set the profile that decides which singletons to instantiate eagerly.
+     * Default is none, instantiating all singletons not marked as lazy-init.
+     * <p>With a profile, only the singletons recorded on the previous run get
+     * instantiated eagerly, or all singletons not marked as lazy-init if nothing
+     * has been recorded yet; singletons marked as lazy-init never are.
+     *
+     * @see SingletonWarmupProfile
+     * @see #preInstantiateSingletons()
+     */
+    public void setSingletonWarmupProfile(SingletonWarmupProfile singletonWarmupProfile) {
+        this.singletonWarmupProfile = singletonWarmupProfile;
     }
 
+    /**
+     * Return the profile that decides which singletons to instantiate eagerly, if any.
+     */
+    public SingletonWarmupProfile getSingletonWarmupProfile() {
+        return this.singletonWarmupProfile;
+    }
 
     @Override
-    public BeanFactory getParentBeanFactory() {
-        return null;
+    public void preInstantiateSingletons() throws BeansException {
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Pre-instantiating singletons in " + this);
+        }
+        SingletonWarmupProfile profile = this.singletonWarmupProfile;
+        Set<String> recordedBeanNames = (profile != null ? profile.loadBeanNames() : null);
+        // Without a usable profile (yet), fall back to warming up all non-lazy singletons.
+        boolean eagerAll = (recordedBeanNames == null || recordedBeanNames.isEmpty());
+
+        // Iterate over a copy to allow for init methods which in turn register new bean definitions.
+        String[] beanNames = getBeanDefinitionNames();
+        List<String> eagerBeanNames = new ArrayList<String>(beanNames.length);
+        for (String beanName : beanNames) {
+            RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+            if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+                if (eagerAll || recordedBeanNames.contains(beanName)) {
+                    eagerBeanNames.add(beanName);
+                }
+            }
+        }
+
+        if (profile != null && eagerBeanNames.size() > 1) {
+            prepareSingletons(eagerBeanNames, profile.getWarmupThreads());
+        }
+        for (String beanName : eagerBeanNames) {
+            getBean(beanName);
+        }
+
+        // Record only what gets requested from now on, not the warm-up itself.
+        if (profile != null) {
+            profile.startRecording();
+        }
     }
 
-    @Override
-    public boolean containsLocalBean(String name) {
-        return false;
+    /**
+     * Resolve and initialize the bean classes of the given singletons concurrently,
+     * ahead of creating the singletons themselves. Class loading and static
+     * initialization are the part of a cold start that parallelizes well, while
+     * singleton creation itself is serialized on the singleton cache.
+     * Failures are left to the subsequent creation of the affected bean.
+     *
+     * @param beanNames the names of the singletons to prepare
+     * @param threads the number of threads to use
+     */
+    private void prepareSingletons(List<String> beanNames, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, beanNames.size()), new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "singleton-warmup-" + this.threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(beanNames.size());
+            for (final String beanName : beanNames) {
+                tasks.add(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        try {
+                            initializeBeanClass(beanName, getMergedLocalBeanDefinition(beanName));
+                        } catch (BeansException ex) {
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Could not prepare bean class for singleton '" + beanName + "'", ex);
+                            }
+                        }
+                        return null;
+                    }
+                });
+            }
+            executor.invokeAll(tasks);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
+    /**
+     * Resolve the bean class of the given bean definition, storing it in the definition,
+     * and run its static initialization. Class names that are dynamically resolved
+     * through {@link #evaluateBeanDefinitionString} are loaded as well, but not stored.
+     * Failures are left to the creation of the bean, which will report them.
+     *
+     * @param beanName the name of the bean
+     * @param bd the bean definition to resolve the class of
+     */
+    private void initializeBeanClass(String beanName, AbstractBeanDefinition bd) {
+        try {
+            Class<?> beanClass;
+            if (bd.hasBeanClass()) {
+                beanClass = bd.getBeanClass();
+            } else {
+                String className = bd.getBeanClassName();
+                if (className == null) {
+                    return;
+                }
+                Object evaluated = evaluateBeanDefinitionString(className, bd);
+                if (className.equals(evaluated)) {
+                    beanClass = bd.resolveBeanClass(getBeanClassLoader());
+                } else if (evaluated instanceof Class) {
+                    beanClass = (Class<?>) evaluated;
+                } else if (evaluated instanceof String) {
+                    beanClass = ClassUtils.forName((String) evaluated, getBeanClassLoader());
+                } else {
+                    return;
+                }
+            }
+            Class.forName(beanClass.getName(), true, beanClass.getClassLoader());
+        } catch (Throwable ex) {
+            if (this.logger.isDebugEnabled()) {
+                this.logger.debug("Could not resolve bean class for bean '" + beanName + "' ahead of creation", ex);
+            }
+        }
+    }
 
-    @Override
-    public boolean containsBean(String name) {
-        return false;
+    /**
+     * Set an executor to resolve and initialize bean classes with as soon as their
+     * bean definitions get registered, instead of lazily on the creating thread.
+     * Default is none.
+     * <p>Bean creation then usually finds the bean class already resolved. Class names
+     * given as expressions get evaluated at registration time, so a custom
+     * {@link com.springframework.beans.factory.config.BeanExpressionResolver} and the
+     * bean class loader need to be set up before registering bean definitions.
+     * <p>The executor is not shut down by this factory.
+     *
+     * @param beanClassResolutionExecutor the executor to use, or {@code null} to resolve lazily
+     */
+    public void setBeanClassResolutionExecutor(Executor beanClassResolutionExecutor) {
+        this.beanClassResolutionExecutor = beanClassResolutionExecutor;
+    }
+
+    /**
+     * Return the executor to resolve bean classes with on registration, if any.
+     */
+    public Executor getBeanClassResolutionExecutor() {
+        return this.beanClassResolutionExecutor;
     }
 
     @Override
-    public boolean isSingleton(String name) throws NoSuchBeanDefinitionException {
-        return false;
+    protected <T> T doGetBean(String name, Class<T> requiredType, Object[] args, boolean typeCheckOnly)
+            throws BeansException {
+
+        SingletonWarmupProfile profile = this.singletonWarmupProfile;
+        if (profile != null && profile.isRecording()) {
+            profile.beanRequested(transformedBeanName(name));
+        }
+        return super.doGetBean(name, requiredType, args, typeCheckOnly);
     }
 
     @Override
-    public boolean isPrototype(String name) throws NoSuchBeanDefinitionException {
-        return false;
+    public void destroySingletons() {
+        SingletonWarmupProfile profile = this.singletonWarmupProfile;
+        if (profile != null) {
+            profile.stopRecording();
+        }
+        super.destroySingletons();
     }
 
     @Override
-    public boolean isTypeMatch(String name, Class<?> typeToMatch) throws NoSuchBeanDefinitionException {
+    public boolean isBeanNameInUse(String beanName) {
         return false;
     }
 
+
     @Override
-    public Class<?> getType(String name) throws NoSuchBeanDefinitionException {
+    public BeanFactory getParentBeanFactory() {
         return null;
     }
 
     @Override
-    public String[] getAliases(String name) {
-        return new String[0];
+    public boolean containsLocalBean(String name) {
+        return false;
     }
 
-    @Override
-    public void registerSingleton(String beanName, Object singletonObject) {
-
-    }
 
     @Override
-    public Object getSingleton(String beanName) {
-        return null;
+    public boolean containsBean(String name) {
+        String beanName = transformedBeanName(name);
+        if (containsSingleton(beanName) || containsBeanDefinition(beanName)) {
+            // A factory dereference only names an existing bean if that bean is a FactoryBean
+            return (!BeanFactoryUtils.isFactoryDereference(name) || isTypeMatch(name, FactoryBean.class));
+        }
+        return false;
     }
 
     @Override
-    public boolean containsSingleton(String beanName) {
+    public boolean isSingleton(String name) throws NoSuchBeanDefinitionException {
         return false;
     }
 
     @Override
-    public String[] getSingletonNames() {
-        return new String[0];
+    public boolean isPrototype(String name) throws NoSuchBeanDefinitionException {
+        return false;
     }
 
     @Override
-    public int getSingletonCount() {
-        return 0;
+    public String[] getAliases(String name) {
+        return new String[0];
     }
 
     @Override
@@ -358,21 +556,6 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         return false;
     }
 
-    @Override
-    public void registerDependentBean(String beanName, String dependentBeanName) {
-
-    }
-
-    @Override
-    public String[] getDependentBeans(String beanName) {
-        return new String[0];
-    }
-
-    @Override
-    public String[] getDependenciesForBean(String beanName) {
-        return new String[0];
-    }
-
     @Override
     public void destroyBean(String beanName, Object beanInstance) {
 
@@ -382,9 +565,4 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     public void destroyScopedBean(String beanName) {
 
     }
-
-    @Override
-    public void destroySingletons() {
-
-    }
 }
@@ -3,10 +3,13 @@ package com.springframework.beans.factory.support;
 import com.springframework.beans.factory.BeanCreationException;
 import com.springframework.beans.factory.BeanCreationNotAllowedException;
 import com.springframework.beans.factory.BeanCurrentlyInCreationException;
+import com.springframework.beans.factory.DisposableBean;
 import com.springframework.beans.factory.ObjectFactory;
 import com.springframework.beans.factory.config.SingletonBeanRegistry;
 import com.springframework.core.SimpleAliasRegistry;
 import com.springframework.util.Assert;
+import com.springframework.util.LockContentionProfiler;
+import com.springframework.util.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -28,11 +31,26 @@ public abstract class DefaultSingletonBeanRegistry extends SimpleAliasRegistry i
      */
     protected static final Object NULL_OBJECT = new Object();
 
+    /**
+     * Lock site name of the singleton cache monitor for {@link LockContentionProfiler}
+     */
+    static final String SINGLETON_OBJECTS_LOCK = "DefaultSingletonBeanRegistry.singletonObjects";
+
     /**
      * Map between dependent bean names: bean name --> Set of dependent bean names
      */
     private final Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<String, Set<String>>(64);
 
+    /**
+     * Map between depending bean names: bean name --> Set of bean names for the bean's dependencies
+     */
+    private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<String, Set<String>>(64);
+
+    /**
+     * Disposable bean instances: bean name --> disposable instance
+     */
+    private final Map<String, Object> disposableBeans = new LinkedHashMap<String, Object>();
+
     /**
      * Cache of singleton objects: bean name --> bean instance
      */
@@ -52,6 +70,16 @@ public abstract class DefaultSingletonBeanRegistry extends SimpleAliasRegistry i
      */
     private boolean singletonsCurrentlyInDestruction = false;
 
+    /**
+     * Number of threads used to destroy independent singletons; 1 means serial destruction
+     */
+    private int singletonDestructionThreads = 1;
+
+    /**
+     * Maximum time in milliseconds to wait for a single bean's destruction; 0 means no limit
+     */
+    private long singletonDestructionTimeout = 0;
+
     /**
      * List of suppressed Exceptions, available for associating related causes
      */
@@ -69,6 +97,77 @@ public abstract class DefaultSingletonBeanRegistry extends SimpleAliasRegistry i
     private final Set<String> singletonsCurrentlyInCreation =
             Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(16));
 
+    @Override
+    public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
+        Assert.notNull(beanName, "'beanName' must not be null");
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
+        synchronized (this.singletonObjects) {
+            LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
+            Object oldObject = this.singletonObjects.get(beanName);
+            if (oldObject != null) {
+                throw new IllegalStateException("Could not register object [" + singletonObject +
+                        "] under bean name '" + beanName + "': there is already object [" + oldObject + "] bound");
+            }
+            addSingleton(beanName, singletonObject);
+        }
+    }
+
+    @Override
+    public Object getSingleton(String beanName) {
+        return getSingleton(beanName, true);
+    }
+
+    /**
+     * Return the (raw) singleton object registered under the given name.
+     * <p>Checks already instantiated singletons and also allows for an early
+     * reference to a currently created singleton (resolving a circular reference).
+     * @param beanName the name of the bean to look for
+     * @param allowEarlyReference whether early references should be created or not
+     * @return the registered singleton object, or {@code null} if none found
+     */
+    protected Object getSingleton(String beanName, boolean allowEarlyReference) {
+        Object singletonObject = this.singletonObjects.get(beanName);
+        if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+            long waitStart = LockContentionProfiler.beforeMonitorEnter();
+            synchronized (this.singletonObjects) {
+                LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
+                singletonObject = this.earlySingletonObjects.get(beanName);
+                if (singletonObject == null && allowEarlyReference) {
+                    ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+                    if (singletonFactory != null) {
+                        singletonObject = singletonFactory.getObject();
+                        this.earlySingletonObjects.put(beanName, singletonObject);
+                        this.singletonFactories.remove(beanName);
+                    }
+                }
+            }
+        }
+        return (singletonObject != NULL_OBJECT ? singletonObject : null);
+    }
+
+    @Override
+    public boolean containsSingleton(String beanName) {
+        return this.singletonObjects.containsKey(beanName);
+    }
+
+    @Override
+    public String[] getSingletonNames() {
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
+        synchronized (this.singletonObjects) {
+            LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
+            return StringUtils.toStringArray(this.registeredSingletons);
+        }
+    }
+
+    @Override
+    public int getSingletonCount() {
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
+        synchronized (this.singletonObjects) {
+            LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
+            return this.registeredSingletons.size();
+        }
+    }
+
     /**
      * Return the (raw) singleton object registered under the given name,
      * creating and registering a new one if none registered yet.
@@ -80,7 +179,9 @@ public abstract class DefaultSingletonBeanRegistry extends SimpleAliasRegistry i
      */
     public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
         Assert.notNull(beanName, "'beanName' must not be null");
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
         synchronized (this.singletonObjects) {
+            LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
             Object singletonObject = this.singletonObjects.get(beanName);
             if (singletonObject == null) {
                 if (this.singletonsCurrentlyInDestruction) {
@@ -146,7 +247,9 @@ public abstract class DefaultSingletonBeanRegistry extends SimpleAliasRegistry i
      */
     protected void addSingletonFactory(String beanName, ObjectFactory<?> singletonFactory) {
         Assert.notNull(singletonFactory, "Singleton factory must not be null");
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
         synchronized (this.singletonObjects) {
+            LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
             if (!this.singletonObjects.containsKey(beanName)) {
                 this.singletonFactories.put(beanName, singletonFactory);
                 this.earlySingletonObjects.remove(beanName);
@@ -202,22 +305,6 @@ public abstract class DefaultSingletonBeanRegistry extends SimpleAliasRegistry i
         }
     }
 
-    /**
-     * Destroy the given bean. Delegates to {@code destroyBean}
-     * if a corresponding disposable bean instance is found.
-     */
-    public void destroySingleton(String beanName) {
-//        // Remove a registered singleton of the given name, if any.
-//        removeSingleton(beanName);
-//
-//        // Destroy the corresponding DisposableBean instance.
-//        DisposableBean disposableBean;
-//        synchronized (this.disposableBeans) {
-//            disposableBean = (DisposableBean) this.disposableBeans.remove(beanName);
-//        }
-//        destroyBean(beanName, disposableBean);
-    }
-
     /**
      * Callback after singleton creation.
      * <p>The default implementation marks the singleton as not in creation anymore.
@@ -237,7 +324,9 @@ public abstract class DefaultSingletonBeanRegistry extends SimpleAliasRegistry i
      * @param singletonObject the singleton object
      */
     protected void addSingleton(String beanName, Object singletonObject) {
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
         synchronized (this.singletonObjects) {
+            LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
             this.singletonObjects.put(beanName, (singletonObject != null ? singletonObject : NULL_OBJECT));
             this.singletonFactories.remove(beanName);
             this.earlySingletonObjects.remove(beanName);
@@ -245,4 +334,282 @@ public abstract class DefaultSingletonBeanRegistry extends SimpleAliasRegistry i
         }
     }
 
+    /**
+     * Remove the bean with the given name from the singleton cache of this factory,
+     * to be able to clean up eager registration of a singleton if creation failed.
+     * @param beanName the name of the bean
+     */
+    protected void removeSingleton(String beanName) {
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
+        synchronized (this.singletonObjects) {
+            LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
+            this.singletonObjects.remove(beanName);
+            this.singletonFactories.remove(beanName);
+            this.earlySingletonObjects.remove(beanName);
+            this.registeredSingletons.remove(beanName);
+        }
+    }
+
+    /**
+     * Add the given bean to the list of disposable beans in this registry.
+     * <p>Disposable beans usually correspond to registered singletons,
+     * matching the bean name but potentially being a different instance
+     * (for example, a DisposableBean adapter for a singleton that does not
+     * naturally implement Spring's DisposableBean interface).
+     * @param beanName the name of the bean
+     * @param bean the bean instance
+     */
+    public void registerDisposableBean(String beanName, DisposableBean bean) {
+        synchronized (this.disposableBeans) {
+            this.disposableBeans.put(beanName, bean);
+        }
+    }
+
+    /**
+     * Register a dependent bean for the given bean,
+     * to be destroyed before the given bean is destroyed.
+     * @param beanName the name of the bean
+     * @param dependentBeanName the name of the dependent bean
+     */
+    public void registerDependentBean(String beanName, String dependentBeanName) {
+        // A quick check for an existing entry upfront, avoiding synchronization...
+        String canonicalName = canonicalName(beanName);
+        Set<String> dependentBeans = this.dependentBeanMap.get(canonicalName);
+        if (dependentBeans != null && dependentBeans.contains(dependentBeanName)) {
+            return;
+        }
+
+        // No entry yet -> fully synchronized manipulation of the dependentBeans Set
+        synchronized (this.dependentBeanMap) {
+            dependentBeans = this.dependentBeanMap.get(canonicalName);
+            if (dependentBeans == null) {
+                dependentBeans = new LinkedHashSet<String>(8);
+                this.dependentBeanMap.put(canonicalName, dependentBeans);
+            }
+            dependentBeans.add(dependentBeanName);
+        }
+        synchronized (this.dependenciesForBeanMap) {
+            Set<String> dependenciesForBean = this.dependenciesForBeanMap.get(dependentBeanName);
+            if (dependenciesForBean == null) {
+                dependenciesForBean = new LinkedHashSet<String>(8);
+                this.dependenciesForBeanMap.put(dependentBeanName, dependenciesForBean);
+            }
+            dependenciesForBean.add(canonicalName);
+        }
+    }
+
+    /**
+     * Determine whether a dependent bean has been registered for the given name.
+     * @param beanName the name of the bean to check
+     */
+    protected boolean hasDependentBean(String beanName) {
+        return this.dependentBeanMap.containsKey(beanName);
+    }
+
+    /**
+     * Return the names of all beans which depend on the specified bean, if any.
+     * @param beanName the name of the bean
+     * @return the array of dependent bean names, or an empty array if none
+     */
+    public String[] getDependentBeans(String beanName) {
+        Set<String> dependentBeans = this.dependentBeanMap.get(beanName);
+        if (dependentBeans == null) {
+            return new String[0];
+        }
+        synchronized (this.dependentBeanMap) {
+            return StringUtils.toStringArray(dependentBeans);
+        }
+    }
+
+    /**
+     * Return the names of all beans that the specified bean depends on, if any.
+     * @param beanName the name of the bean
+     * @return the array of names of beans which the bean depends on,
+     * or an empty array if none
+     */
+    public String[] getDependenciesForBean(String beanName) {
+        Set<String> dependenciesForBean = this.dependenciesForBeanMap.get(beanName);
+        if (dependenciesForBean == null) {
+            return new String[0];
+        }
+        synchronized (this.dependenciesForBeanMap) {
+            return StringUtils.toStringArray(dependenciesForBean);
+        }
+    }
+
+    /**
+     * Set the number of threads to destroy singletons with on shutdown.
+     * <p>Default is 1, destroying all singletons serially in reverse registration
+     * order. With a higher value, beans that do not depend on each other get
+     * destroyed concurrently on a bounded pool, while every bean is still only
+     * destroyed after all of its dependent beans.
+     * @see #destroySingletons()
+     */
+    public void setSingletonDestructionThreads(int singletonDestructionThreads) {
+        Assert.isTrue(singletonDestructionThreads > 0, "'singletonDestructionThreads' must be positive");
+        this.singletonDestructionThreads = singletonDestructionThreads;
+    }
+
+    /**
+     * Return the number of threads to destroy singletons with on shutdown.
+     */
+    public int getSingletonDestructionThreads() {
+        return this.singletonDestructionThreads;
+    }
+
+    /**
+     * Set the maximum time in milliseconds to wait for a single bean's destroy
+     * callbacks when destroying singletons concurrently, counted from when they
+     * start running. A bean exceeding it gets interrupted and abandoned, so that
+     * its dependencies can proceed.
+     * <p>Default is 0, waiting as long as it takes.
+     * @see #setSingletonDestructionThreads
+     */
+    public void setSingletonDestructionTimeout(long singletonDestructionTimeout) {
+        Assert.isTrue(singletonDestructionTimeout >= 0, "'singletonDestructionTimeout' must not be negative");
+        this.singletonDestructionTimeout = singletonDestructionTimeout;
+    }
+
+    /**
+     * Return the maximum time in milliseconds to wait for a single bean's destruction.
+     */
+    public long getSingletonDestructionTimeout() {
+        return this.singletonDestructionTimeout;
+    }
+
+    /**
+     * Destroy all singletons in this registry, dependent beans before the beans
+     * they depend on.
+     * @see #setSingletonDestructionThreads
+     */
+    public void destroySingletons() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Destroying singletons in " + this);
+        }
+        long waitStart = LockContentionProfiler.beforeMonitorEnter();
+        synchronized (this.singletonObjects) {
+            LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
+            this.singletonsCurrentlyInDestruction = true;
+        }
+
+        String[] disposableBeanNames;
+        synchronized (this.disposableBeans) {
+            disposableBeanNames = StringUtils.toStringArray(this.disposableBeans.keySet());
+        }
+        if (this.singletonDestructionThreads > 1 && disposableBeanNames.length > 1) {
+            Map<String, Set<String>> dependentBeans = copyDependencyMap(this.dependentBeanMap);
+            Map<String, Set<String>> dependenciesForBeans = copyDependencyMap(this.dependenciesForBeanMap);
+            new ConcurrentSingletonDestroyer(this, this.singletonDestructionThreads, this.singletonDestructionTimeout)
+                    .destroySingletons(disposableBeanNames, dependentBeans, dependenciesForBeans);
+        }
+        else {
+            for (int i = disposableBeanNames.length - 1; i >= 0; i--) {
+                destroySingleton(disposableBeanNames[i]);
+            }
+        }
+
+        this.dependentBeanMap.clear();
+        this.dependenciesForBeanMap.clear();
+        waitStart = LockContentionProfiler.beforeMonitorEnter();
+        synchronized (this.singletonObjects) {
+            LockContentionProfiler.afterMonitorEnter(SINGLETON_OBJECTS_LOCK, waitStart);
+            this.singletonObjects.clear();
+            this.singletonFactories.clear();
+            this.earlySingletonObjects.clear();
+            this.registeredSingletons.clear();
+            this.singletonsCurrentlyInDestruction = false;
+        }
+    }
+
+    private Map<String, Set<String>> copyDependencyMap(Map<String, Set<String>> dependencyMap) {
+        synchronized (dependencyMap) {
+            Map<String, Set<String>> copy = new HashMap<String, Set<String>>(dependencyMap.size());
+            for (Map.Entry<String, Set<String>> entry : dependencyMap.entrySet()) {
+                copy.put(entry.getKey(), new LinkedHashSet<String>(entry.getValue()));
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Destroy the given bean. Delegates to {@code destroyBean}
+     * if a corresponding disposable bean instance is found.
+     * @param beanName the name of the bean
+     * @see #destroyBean
+     */
+    public void destroySingleton(String beanName) {
+        // Remove a registered singleton of the given name, if any.
+        removeSingleton(beanName);
+
+        // Destroy the corresponding DisposableBean instance.
+        DisposableBean disposableBean;
+        synchronized (this.disposableBeans) {
+            disposableBean = (DisposableBean) this.disposableBeans.remove(beanName);
+        }
+        destroyBean(beanName, disposableBean);
+    }
+
+    /**
+     * Destroy the given bean alone, without touching its dependent beans or the
+     * dependency bookkeeping. Used for concurrent destruction, where the caller
+     * takes care of the ordering.
+     * @param beanName the name of the bean
+     */
+    void destroySingletonInstance(String beanName) {
+        removeSingleton(beanName);
+        DisposableBean disposableBean;
+        synchronized (this.disposableBeans) {
+            disposableBean = (DisposableBean) this.disposableBeans.remove(beanName);
+        }
+        invokeDestroy(beanName, disposableBean);
+    }
+
+    /**
+     * Destroy the given bean. Must destroy beans that depend on the given
+     * bean before the bean itself. Should not throw any exceptions.
+     * @param beanName the name of the bean
+     * @param bean the bean instance to destroy
+     */
+    protected void destroyBean(String beanName, DisposableBean bean) {
+        // Trigger destruction of dependent beans first...
+        Set<String> dependencies = this.dependentBeanMap.remove(beanName);
+        if (dependencies != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Retrieved dependent beans for bean '" + beanName + "': " + dependencies);
+            }
+            for (String dependentBeanName : dependencies) {
+                destroySingleton(dependentBeanName);
+            }
+        }
+
+        // Actually destroy the bean now...
+        invokeDestroy(beanName, bean);
+
+        // Remove destroyed bean from other beans' dependencies.
+        synchronized (this.dependentBeanMap) {
+            for (Iterator<Map.Entry<String, Set<String>>> it = this.dependentBeanMap.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String, Set<String>> entry = it.next();
+                Set<String> dependenciesToClean = entry.getValue();
+                dependenciesToClean.remove(beanName);
+                if (dependenciesToClean.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+
+        // Remove destroyed bean's prepared dependency information.
+        this.dependenciesForBeanMap.remove(beanName);
+    }
+
+    private void invokeDestroy(String beanName, DisposableBean bean) {
+        if (bean != null) {
+            try {
+                bean.destroy();
+            }
+            catch (Throwable ex) {
+                logger.error("Destroy method on bean with name '" + beanName + "' threw an exception", ex);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.beans.BeanUtils;
+import com.springframework.beans.factory.DisposableBean;
+import com.springframework.util.Assert;
+import com.springframework.util.ReflectionUtils;
+import com.springframework.util.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.security.AccessControlContext;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+
+/**
+ * Adapter that implements the {@link DisposableBean} and {@link Runnable} interfaces
+ * performing various destruction steps on a given bean instance:
+ * <ul>
+ * <li>DisposableBean's own {@code destroy} method;
+ * <li>a custom destroy method specified on the bean definition.
+ * </ul>
+ *
+ * @author Juergen Hoeller
+ * @since 2.0
+ * @see AbstractBeanFactory
+ * @see com.springframework.beans.factory.DisposableBean
+ * @see AbstractBeanDefinition#getDestroyMethodName()
+ */
+class DisposableBeanAdapter implements DisposableBean, Runnable {
+
+	private static final Log logger = LogFactory.getLog(DisposableBeanAdapter.class);
+
+	private final Object bean;
+
+	private final String beanName;
+
+	private final boolean invokeDisposableBean;
+
+	private final AccessControlContext acc;
+
+	private String destroyMethodName;
+
+	private Method destroyMethod;
+
+
+	/**
+	 * Create a new DisposableBeanAdapter for the given bean.
+	 * @param bean the bean instance (never {@code null})
+	 * @param beanName the name of the bean
+	 * @param beanDefinition the merged bean definition
+	 * @param acc the access control context to run the destroy callbacks in, if any
+	 */
+	public DisposableBeanAdapter(Object bean, String beanName, RootBeanDefinition beanDefinition,
+			AccessControlContext acc) {
+
+		Assert.notNull(bean, "Disposable bean must not be null");
+		this.bean = bean;
+		this.beanName = beanName;
+		this.invokeDisposableBean = (this.bean instanceof DisposableBean);
+		this.acc = acc;
+		String destroyMethodName = beanDefinition.getDestroyMethodName();
+		if (destroyMethodName != null && !(this.invokeDisposableBean && "destroy".equals(destroyMethodName))) {
+			this.destroyMethodName = destroyMethodName;
+			this.destroyMethod = determineDestroyMethod();
+			if (this.destroyMethod == null) {
+				if (beanDefinition.isEnforceDestroyMethod()) {
+					throw new BeanDefinitionValidationException("Couldn't find a destroy method named '" +
+							destroyMethodName + "' on bean with name '" + beanName + "'");
+				}
+			}
+			else if (this.destroyMethod.getParameterTypes().length > 0) {
+				throw new BeanDefinitionValidationException("Method '" + destroyMethodName + "' of bean '" +
+						beanName + "' must not have parameters");
+			}
+		}
+	}
+
+
+	/**
+	 * Check whether the given bean has any kind of destroy method to call.
+	 * @param bean the bean instance
+	 * @param beanDefinition the corresponding bean definition
+	 */
+	public static boolean hasDestroyMethod(Object bean, RootBeanDefinition beanDefinition) {
+		return (bean instanceof DisposableBean || StringUtils.hasLength(beanDefinition.getDestroyMethodName()));
+	}
+
+
+	@Override
+	public void run() {
+		destroy();
+	}
+
+	@Override
+	public void destroy() {
+		if (this.invokeDisposableBean) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Invoking destroy() on bean with name '" + this.beanName + "'");
+			}
+			try {
+				if (System.getSecurityManager() != null) {
+					AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
+						@Override
+						public Object run() throws Exception {
+							((DisposableBean) bean).destroy();
+							return null;
+						}
+					}, this.acc);
+				}
+				else {
+					((DisposableBean) this.bean).destroy();
+				}
+			}
+			catch (Throwable ex) {
+				String msg = "Invocation of destroy method failed on bean with name '" + this.beanName + "'";
+				if (logger.isDebugEnabled()) {
+					logger.warn(msg, ex);
+				}
+				else {
+					logger.warn(msg + ": " + ex);
+				}
+			}
+		}
+
+		if (this.destroyMethod != null) {
+			invokeCustomDestroyMethod(this.destroyMethod);
+		}
+	}
+
+
+	private Method determineDestroyMethod() {
+		try {
+			if (System.getSecurityManager() != null) {
+				return AccessController.doPrivileged(new PrivilegedAction<Method>() {
+					@Override
+					public Method run() {
+						return findDestroyMethod();
+					}
+				});
+			}
+			else {
+				return findDestroyMethod();
+			}
+		}
+		catch (IllegalArgumentException ex) {
+			throw new BeanDefinitionValidationException("Couldn't find a unique destroy method on bean with name '" +
+					this.beanName + ": " + ex.getMessage());
+		}
+	}
+
+	private Method findDestroyMethod() {
+		return BeanUtils.findMethodWithMinimalParameters(this.bean.getClass(), this.destroyMethodName);
+	}
+
+	/**
+	 * Invoke the specified custom destroy method on the given bean.
+	 * <p>Logs any exception instead of rethrowing it, so that other
+	 * beans still get the chance to release their resources.
+	 */
+	private void invokeCustomDestroyMethod(final Method destroyMethod) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Invoking destroy method '" + this.destroyMethodName +
+					"' on bean with name '" + this.beanName + "'");
+		}
+		try {
+			if (System.getSecurityManager() != null) {
+				AccessController.doPrivileged(new PrivilegedAction<Object>() {
+					@Override
+					public Object run() {
+						ReflectionUtils.makeAccessible(destroyMethod);
+						return null;
+					}
+				});
+				try {
+					AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
+						@Override
+						public Object run() throws Exception {
+							destroyMethod.invoke(bean);
+							return null;
+						}
+					}, this.acc);
+				}
+				catch (PrivilegedActionException pax) {
+					throw (InvocationTargetException) pax.getException();
+				}
+			}
+			else {
+				ReflectionUtils.makeAccessible(destroyMethod);
+				destroyMethod.invoke(this.bean);
+			}
+		}
+		catch (InvocationTargetException ex) {
+			String msg = "Invocation of destroy method '" + this.destroyMethodName +
+					"' failed on bean with name '" + this.beanName + "'";
+			if (logger.isDebugEnabled()) {
+				logger.warn(msg, ex.getTargetException());
+			}
+			else {
+				logger.warn(msg + ": " + ex.getTargetException());
+			}
+		}
+		catch (Throwable ex) {
+			logger.error("Couldn't invoke destroy method '" + this.destroyMethodName +
+					"' on bean with name '" + this.beanName + "'", ex);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "DisposableBeanAdapter for bean '" + this.beanName + "'";
+	}
+
+}
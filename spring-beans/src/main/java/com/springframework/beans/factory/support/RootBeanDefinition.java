@@ -7,6 +7,11 @@ import com.springframework.beans.factory.config.BeanDefinitionHolder;
  * Created by hadoop on 2015/5/8 0008.
  */
 public class RootBeanDefinition extends AbstractBeanDefinition {
+    /** Lock site names for {@link com.springframework.util.LockContentionProfiler} */
+    static final String CONSTRUCTOR_ARGUMENT_LOCK = "RootBeanDefinition.constructorArgumentLock";
+
+    static final String POST_PROCESSING_LOCK = "RootBeanDefinition.postProcessingLock";
+
     boolean allowCaching = true;
 
     private BeanDefinitionHolder decoratedDefinition;
@@ -21,6 +21,7 @@ import com.springframework.beans.BeanInstantiationException;
 import com.springframework.beans.BeanUtils;
 import com.springframework.beans.factory.BeanFactory;
 import com.springframework.beans.factory.BeansException;
+import com.springframework.util.LockContentionProfiler;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
@@ -47,7 +48,9 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 		// Don't override the class with CGLIB if no overrides.
 //		if (bd.getMethodOverrides().isEmpty()) {
 			Constructor<?> constructorToUse=null;
+			long waitStart = LockContentionProfiler.beforeMonitorEnter();
 			synchronized (bd.constructorArgumentLock) {
+				LockContentionProfiler.afterMonitorEnter(RootBeanDefinition.CONSTRUCTOR_ARGUMENT_LOCK, waitStart);
 				constructorToUse = (Constructor<?>) bd.resolvedConstructorOrFactoryMethod;
 
 				if (constructorToUse == null) {
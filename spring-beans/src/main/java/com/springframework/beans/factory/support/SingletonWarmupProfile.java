@@ -0,0 +1,265 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.util.Assert;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Profile of the singletons an application actually requests shortly after
+ * startup, persisted to a file and used by {@link DefaultListableBeanFactory}
+ * to decide which singletons to instantiate eagerly.
+ *
+ * <p>After warming up, the factory records every bean requested during the
+ * {@linkplain #setRecordingPeriod recording period}, including the dependencies
+ * resolved along the way, and replaces the profile with them. On the next
+ * startup, exactly the recorded singletons get warmed up, while all others stay
+ * lazy; beans that are no longer requested drop out of the profile again.
+ * Without a profile file, or with an empty or unreadable one, all singletons
+ * not marked as lazy-init get warmed up, just like without a profile.
+ *
+ * <p>Note that singletons which are expected to start work on their own,
+ * without ever being requested, will not be instantiated once a profile
+ * has been recorded.
+ *
+ * @see DefaultListableBeanFactory#setSingletonWarmupProfile
+ * @see DefaultListableBeanFactory#preInstantiateSingletons()
+ */
+public class SingletonWarmupProfile {
+
+	private static final String CHARSET = "UTF-8";
+
+	private static final Log logger = LogFactory.getLog(SingletonWarmupProfile.class);
+
+	private final File file;
+
+	private long recordingPeriod = 30000;
+
+	private int warmupThreads = Runtime.getRuntime().availableProcessors();
+
+	private final Set<String> requestedBeanNames =
+			Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(256));
+
+	private volatile boolean recording;
+
+	private boolean recordingStarted;
+
+	private Timer recordingTimer;
+
+
+	/**
+	 * Create a new SingletonWarmupProfile backed by the given file.
+	 * @param file the file to load the profile from and to store it in
+	 */
+	public SingletonWarmupProfile(File file) {
+		Assert.notNull(file, "Profile file must not be null");
+		this.file = file;
+	}
+
+
+	/**
+	 * Return the file backing this profile.
+	 */
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Set the time in milliseconds after startup during which requested beans
+	 * get recorded. Default is 30 seconds.
+	 */
+	public void setRecordingPeriod(long recordingPeriod) {
+		Assert.isTrue(recordingPeriod > 0, "'recordingPeriod' must be positive");
+		this.recordingPeriod = recordingPeriod;
+	}
+
+	/**
+	 * Return the time in milliseconds after startup during which requested beans get recorded.
+	 */
+	public long getRecordingPeriod() {
+		return this.recordingPeriod;
+	}
+
+	/**
+	 * Set the number of threads to prepare the recorded singletons with on startup.
+	 * Default is the number of available processors.
+	 */
+	public void setWarmupThreads(int warmupThreads) {
+		Assert.isTrue(warmupThreads > 0, "'warmupThreads' must be positive");
+		this.warmupThreads = warmupThreads;
+	}
+
+	/**
+	 * Return the number of threads to prepare the recorded singletons with on startup.
+	 */
+	public int getWarmupThreads() {
+		return this.warmupThreads;
+	}
+
+
+	/**
+	 * Load the names of the beans recorded on a previous run.
+	 * @return the recorded bean names, or {@code null} if there is no profile yet
+	 * (or it cannot be read)
+	 */
+	public Set<String> loadBeanNames() {
+		if (!this.file.isFile()) {
+			return null;
+		}
+		Set<String> beanNames = new LinkedHashSet<String>();
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.file), CHARSET));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.length() > 0 && !line.startsWith("#")) {
+					beanNames.add(line);
+				}
+			}
+			return beanNames;
+		}
+		catch (IOException ex) {
+			logger.warn("Could not read singleton warm-up profile from " + this.file + ": " + ex);
+			return null;
+		}
+		finally {
+			closeQuietly(reader);
+		}
+	}
+
+	/**
+	 * Start recording requested beans for the configured recording period.
+	 * Once stopped, the recorded bean names replace the stored profile.
+	 */
+	public synchronized void startRecording() {
+		if (this.recordingStarted) {
+			return;
+		}
+		this.recordingStarted = true;
+		this.recording = true;
+		this.recordingTimer = new Timer("singleton-warmup-profile", true);
+		this.recordingTimer.schedule(new TimerTask() {
+			@Override
+			public void run() {
+				stopRecording();
+			}
+		}, this.recordingPeriod);
+	}
+
+	/**
+	 * Record a request for the given bean, if currently recording.
+	 * @param beanName the name of the requested bean
+	 */
+	public void beanRequested(String beanName) {
+		if (this.recording) {
+			this.requestedBeanNames.add(beanName);
+		}
+	}
+
+	/**
+	 * Return whether requested beans are currently being recorded.
+	 */
+	public boolean isRecording() {
+		return this.recording;
+	}
+
+	/**
+	 * Stop recording and store the recorded bean names, if currently recording.
+	 */
+	public void stopRecording() {
+		if (!this.recording) {
+			return;
+		}
+		synchronized (this) {
+			if (!this.recording) {
+				return;
+			}
+			this.recording = false;
+			this.recordingTimer.cancel();
+			this.recordingTimer = null;
+		}
+		store();
+	}
+
+	private void store() {
+		File parent = this.file.getAbsoluteFile().getParentFile();
+		File tempFile = new File(parent, this.file.getName() + ".tmp");
+		Writer writer = null;
+		try {
+			if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+				throw new IOException("Could not create directory " + parent);
+			}
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), CHARSET));
+			writer.write("# Singletons requested within " + this.recordingPeriod + " ms after startup\n");
+			for (String beanName : this.requestedBeanNames) {
+				writer.write(beanName);
+				writer.write('\n');
+			}
+			writer.close();
+			writer = null;
+			if (!tempFile.renameTo(this.file) && (!this.file.delete() || !tempFile.renameTo(this.file))) {
+				throw new IOException("Could not rename " + tempFile + " to " + this.file);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Stored " + this.requestedBeanNames.size() + " bean names in singleton warm-up profile " +
+						this.file);
+			}
+		}
+		catch (IOException ex) {
+			logger.warn("Could not store singleton warm-up profile in " + this.file + ": " + ex);
+		}
+		finally {
+			closeQuietly(writer);
+		}
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SingletonWarmupProfile [" + this.file + "]";
+	}
+
+}
@@ -73,6 +73,8 @@ public class BeanDefinitionParserDelegate {
 
     public static final String LAZY_INIT_ATTRIBUTE = "lazy-init";
 
+    public static final String FIELD_INJECTION_ATTRIBUTE = "field-injection";
+
     public static final String CONSTRUCTOR_ARG_ELEMENT = "constructor-arg";
 
     public static final String PROPERTY_ELEMENT = "property";
@@ -486,6 +488,10 @@ public class BeanDefinitionParserDelegate {
         }
         bd.setLazyInit(TRUE_VALUE.equals(lazyInit));
 
+        if (element.attribute(FIELD_INJECTION_ATTRIBUTE) != null) {
+            bd.setFieldInjection(TRUE_VALUE.equals(element.attributeValue(FIELD_INJECTION_ATTRIBUTE)));
+        }
+
         if(element.attribute(AUTOWIRE_ATTRIBUTE)!=null){
             bd.setAutowireMode(getAutowireMode(element.attributeValue(AUTOWIRE_ATTRIBUTE)));
         }
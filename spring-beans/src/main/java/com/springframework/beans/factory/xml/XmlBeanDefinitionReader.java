@@ -6,6 +6,7 @@ import com.springframework.beans.factory.support.BeanDefinitionRegistry;
 import com.springframework.core.NamedThreadLocal;
 import com.springframework.core.io.Resource;
 import com.springframework.core.io.support.EncodedResource;
+import com.springframework.core.metrics.StartupStep;
 import com.springframework.util.Assert;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
@@ -22,7 +23,7 @@ import java.util.Set;
  */
 public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 
-    private ThreadLocal<Set<EncodedResource>> currentLoadingResources = new NamedThreadLocal<Set<EncodedResource>>("XML bean definition resources currently being loaded");
+    private final ThreadLocal<Set<EncodedResource>> currentLoadingResources = new NamedThreadLocal<Set<EncodedResource>>("XML bean definition resources currently being loaded");
 
     public XmlBeanDefinitionReader(BeanDefinitionRegistry registry) {
         super(registry);
@@ -44,8 +45,10 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
                     "Detected cyclic loading of " + encodedResource + " - check your import definitions!");
         }
 
+        StartupStep loadStep = getApplicationStartup().start("spring.beans.load-definitions")
+                .tag("resource", encodedResource.getResource().getDescription());
         try {
-            InputStream inputStream = encodedResource.getResource().getInputStream();
+            InputStream inputStream = encodedResource.getInputStream();
             try {
                 InputSource inputSource = new InputSource(inputStream);
                 if (encodedResource.getEncoding() != null) {
@@ -61,8 +64,9 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
         }finally {
             currentResources.remove(encodedResource);
             if(currentResources.isEmpty()){
-                currentLoadingResources=null;
+                currentLoadingResources.remove();
             }
+            loadStep.end();
         }
     }
 
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans;
+
+import com.springframework.beans.factory.config.MutablePropertyValues;
+import com.springframework.tests.sample.beans.TestBean;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link BeanPropertyBinder}.
+ */
+public class BeanPropertyBinderTests {
+
+	@Test
+	public void forClassReturnsSharedBinder() {
+		assertSame(BeanPropertyBinder.forClass(TestBean.class), BeanPropertyBinder.forClass(TestBean.class));
+		assertEquals(TestBean.class, BeanPropertyBinder.forClass(TestBean.class).getBeanClass());
+	}
+
+	@Test
+	public void isWritableProperty() {
+		BeanPropertyBinder binder = BeanPropertyBinder.forClass(TestBean.class);
+		assertTrue(binder.isWritableProperty("name"));
+		assertFalse(binder.isWritableProperty("class"));
+		assertFalse(binder.isWritableProperty("nonExistent"));
+	}
+
+	@Test
+	public void setPropertyValuesWithConversion() {
+		TestBean bean = new TestBean();
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("name", "tony");
+		pvs.add("age", "42");
+		BeanPropertyBinder.forClass(TestBean.class).setPropertyValues(bean, pvs);
+
+		assertEquals("tony", bean.getName());
+		assertEquals(42, bean.getAge());
+	}
+
+	@Test
+	public void conversionNecessaryGetsRemembered() {
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("name", "tony");
+		pvs.add("age", "42");
+		BeanPropertyBinder.forClass(TestBean.class).setPropertyValues(new TestBean(), pvs);
+
+		assertEquals(Boolean.FALSE, pvs.getPropertyValue("name").conversionNecessary);
+		assertEquals(Boolean.TRUE, pvs.getPropertyValue("age").conversionNecessary);
+	}
+
+	@Test
+	public void setNestedPropertyValueDelegatesToBeanWrapper() {
+		TestBean bean = new TestBean();
+		bean.setSpouse(new TestBean());
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("spouse.age", "7");
+		BeanPropertyBinder.forClass(TestBean.class).setPropertyValues(bean, pvs);
+
+		assertEquals(7, bean.getSpouse().getAge());
+	}
+
+	@Test
+	public void convertForPropertyWithTypeMismatch() {
+		try {
+			BeanPropertyBinder.forClass(TestBean.class).convertForProperty(new TestBean(), "old", "age");
+			fail("Should have thrown TypeMismatchException");
+		}
+		catch (TypeMismatchException ex) {
+			assertEquals("age", ex.getPropertyName());
+			assertEquals(int.class, ex.getRequiredType());
+		}
+	}
+
+	@Test(expected = InvalidPropertyException.class)
+	public void convertForUnknownProperty() {
+		BeanPropertyBinder.forClass(TestBean.class).convertForProperty(new TestBean(), "value", "nonExistent");
+	}
+
+	@Test(expected = NotWritablePropertyException.class)
+	public void setUnknownProperty() {
+		BeanPropertyBinder.forClass(TestBean.class).setPropertyValue(
+				new TestBean(), new PropertyValue("nonExistent", "value"), "value");
+	}
+
+	@Test
+	public void setUnknownOptionalPropertyIsIgnored() {
+		PropertyValue pv = new PropertyValue("nonExistent", "value");
+		pv.setOptional(true);
+		BeanPropertyBinder.forClass(TestBean.class).setPropertyValue(new TestBean(), pv, "value");
+	}
+
+	@Test
+	public void setterExceptionsAreCollected() {
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("failing", "a");
+		pvs.add("name", "b");
+		FailingBean bean = new FailingBean();
+		try {
+			BeanPropertyBinder.forClass(FailingBean.class).setPropertyValues(bean, pvs);
+			fail("Should have thrown PropertyBatchUpdateException");
+		}
+		catch (PropertyBatchUpdateException ex) {
+			assertEquals(1, ex.getPropertyAccessExceptions().length);
+			assertTrue(ex.getPropertyAccessException("failing") instanceof MethodInvocationException);
+			assertEquals("b", bean.getName());
+		}
+	}
+
+	@Test
+	public void convertIfNecessary() {
+		BeanPropertyBinder binder = BeanPropertyBinder.forClass(TestBean.class);
+		assertEquals(Integer.valueOf(3), binder.convertIfNecessary("3", Integer.class));
+		try {
+			binder.convertIfNecessary("three", Integer.class);
+			fail("Should have thrown TypeMismatchException");
+		}
+		catch (TypeMismatchException ex) {
+			assertEquals(Integer.class, ex.getRequiredType());
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void convertIfNecessaryIntoGenericCollectionField() throws Exception {
+		Field field = NumbersBean.class.getDeclaredField("numbers");
+		List<Integer> numbers = (List<Integer>) BeanPropertyBinder.forClass(NumbersBean.class).convertIfNecessary(
+				Arrays.asList("1", "2"), List.class, field);
+		assertEquals(Arrays.asList(1, 2), numbers);
+		assertTrue(numbers.get(0) instanceof Integer);
+	}
+
+	@Test
+	public void concurrentConversion() throws Exception {
+		final BeanPropertyBinder binder = BeanPropertyBinder.forClass(TestBean.class);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 8; t++) {
+				final int offset = t * 10000;
+				futures.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int i = offset; i < offset + 2000; i++) {
+							TestBean bean = new TestBean();
+							MutablePropertyValues pvs = new MutablePropertyValues();
+							pvs.add("age", String.valueOf(i));
+							binder.setPropertyValues(bean, pvs);
+							if (bean.getAge() != i) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> future : futures) {
+				assertTrue(future.get());
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	public static class NumbersBean {
+
+		public List<Integer> numbers;
+	}
+
+
+	public static class FailingBean {
+
+		private String name;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getFailing() {
+			return null;
+		}
+
+		public void setFailing(String failing) {
+			throw new IllegalStateException("failing");
+		}
+	}
+
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans;
+
+import com.springframework.beans.factory.config.MutablePropertyValues;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for indexed and keyed property access and auto-growing
+ * in {@link BeanWrapperImpl}.
+ */
+public class BeanWrapperImplTests {
+
+	@Test
+	public void setArrayElement() {
+		IndexedBean bean = new IndexedBean();
+		bean.setNames(new String[] {"a", "b"});
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+
+		bw.setPropertyValue("names[1]", "c");
+		assertArrayEquals(new String[] {"a", "c"}, bean.getNames());
+		assertEquals("c", bw.getPropertyValue("names[1]"));
+	}
+
+	@Test
+	public void setArrayElementBeyondEndGrowsArray() {
+		IndexedBean bean = new IndexedBean();
+		bean.setNames(new String[] {"a"});
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+
+		bw.setPropertyValue("names[2]", "c");
+		assertArrayEquals(new String[] {"a", null, "c"}, bean.getNames());
+	}
+
+	@Test
+	public void setPrimitiveArrayElementWithConversion() {
+		IndexedBean bean = new IndexedBean();
+		bean.setInts(new int[2]);
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+
+		bw.setPropertyValue("ints[0]", 5);
+		bw.setPropertyValue("ints[3]", "7");
+		assertArrayEquals(new int[] {5, 0, 0, 7}, bean.getInts());
+	}
+
+	@Test
+	public void setSeveralArrayElementsBeyondEndInOneBatch() {
+		IndexedBean bean = new IndexedBean();
+		bean.ints = new int[0];
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		for (int i = 0; i < 100; i++) {
+			pvs.add("ints[" + i + "]", i);
+		}
+		bw.setPropertyValues(pvs);
+		assertEquals(100, bean.getInts().length);
+		assertEquals(99, bean.getInts()[99]);
+		assertEquals(1, bean.intsSetterCalls);
+	}
+
+	@Test
+	public void setListElement() {
+		IndexedBean bean = new IndexedBean();
+		bean.setList(new ArrayList<String>(Arrays.asList("a", "b")));
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+
+		bw.setPropertyValue("list[0]", "c");
+		bw.setPropertyValue("list[3]", "d");
+		assertEquals(Arrays.asList("c", "b", null, "d"), bean.getList());
+		assertEquals("d", bw.getPropertyValue("list[3]"));
+	}
+
+	@Test
+	public void setMapEntry() {
+		IndexedBean bean = new IndexedBean();
+		bean.setMap(new TreeMap<String, String>());
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+
+		bw.setPropertyValue("map['key']", "value");
+		bw.setPropertyValue("map[other]", "otherValue");
+		assertEquals("value", bean.getMap().get("key"));
+		assertEquals("otherValue", bean.getMap().get("other"));
+		assertEquals("value", bw.getPropertyValue("map[key]"));
+	}
+
+	@Test
+	public void setIndexedValueOfNullPropertyWithoutAutoGrowFails() {
+		BeanWrapperImpl bw = new BeanWrapperImpl(new IndexedBean());
+		try {
+			bw.setPropertyValue("list[0]", "a");
+			fail("Should have thrown NullValueInNestedPathException");
+		}
+		catch (NullValueInNestedPathException ex) {
+			assertEquals("list[0]", ex.getPropertyName());
+		}
+	}
+
+	@Test
+	public void autoGrowNestedPath() {
+		IndexedBean bean = new IndexedBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+		bw.setAutoGrowNestedPaths(true);
+
+		bw.setPropertyValue("child.child.name", "grandchild");
+		assertEquals("grandchild", bean.getChild().getChild().getName());
+	}
+
+	@Test
+	public void autoGrowCollectionsAndMaps() {
+		IndexedBean bean = new IndexedBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+		bw.setAutoGrowNestedPaths(true);
+
+		bw.setPropertyValue("list[1]", "a");
+		bw.setPropertyValue("map['key']", "value");
+		bw.setPropertyValue("sortedMap['key']", "value");
+		bw.setPropertyValue("children[1].name", "second");
+		assertEquals(Arrays.asList(null, "a"), bean.getList());
+		assertEquals("value", bean.getMap().get("key"));
+		assertTrue(bean.getSortedMap() instanceof TreeMap);
+		assertEquals(2, bean.getChildren().size());
+		assertEquals("second", bean.getChildren().get(1).getName());
+	}
+
+	@Test
+	public void autoGrowListOnRead() {
+		IndexedBean bean = new IndexedBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+		bw.setAutoGrowNestedPaths(true);
+
+		assertNull(bw.getPropertyValue("children[2].name"));
+		assertEquals(3, bean.getChildren().size());
+	}
+
+	@Test
+	public void autoGrowTwoDimensionalArray() {
+		IndexedBean bean = new IndexedBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+		bw.setAutoGrowNestedPaths(true);
+
+		bw.setPropertyValue("matrix[1][2]", "x");
+		assertEquals(2, bean.getMatrix().length);
+		assertArrayEquals(new String[] {null, null, "x"}, bean.getMatrix()[1]);
+	}
+
+	@Test
+	public void autoGrowArrayOfAnyDimension() {
+		IndexedBean bean = new IndexedBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+		bw.setAutoGrowNestedPaths(true);
+
+		bw.setPropertyValue("cube[1][2][3]", "x");
+		bw.setPropertyValue("tesseract[0][0][0][1]", 4);
+		assertEquals("x", bean.getCube()[1][2][3]);
+		assertEquals("x", bw.getPropertyValue("cube[1][2][3]"));
+		assertEquals(0, bean.getCube()[0][0].length);
+		assertArrayEquals(new int[] {0, 4}, bean.getTesseract()[0][0][0]);
+	}
+
+	@Test
+	public void autoGrowCollectionLimit() {
+		IndexedBean bean = new IndexedBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+		bw.setAutoGrowNestedPaths(true);
+		bw.setAutoGrowCollectionLimit(2);
+		assertEquals(2, bw.getAutoGrowCollectionLimit());
+
+		bw.setPropertyValue("list[1]", "a");
+		try {
+			bw.setPropertyValue("list[2]", "b");
+			fail("Should have thrown InvalidPropertyException");
+		}
+		catch (InvalidPropertyException ex) {
+			assertEquals(2, bean.getList().size());
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class IndexedBean {
+
+		private String name;
+
+		private String[] names;
+
+		private int[] ints;
+
+		private int intsSetterCalls;
+
+		private String[][] matrix;
+
+		private String[][][] cube;
+
+		private int[][][][] tesseract;
+
+		private List<String> list;
+
+		private Map<String, String> map;
+
+		private SortedMap<String, String> sortedMap;
+
+		private IndexedBean child;
+
+		private List<IndexedBean> children;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String[] getNames() {
+			return this.names;
+		}
+
+		public void setNames(String[] names) {
+			this.names = names;
+		}
+
+		public int[] getInts() {
+			return this.ints;
+		}
+
+		public void setInts(int[] ints) {
+			this.ints = ints;
+			this.intsSetterCalls++;
+		}
+
+		public String[][] getMatrix() {
+			return this.matrix;
+		}
+
+		public void setMatrix(String[][] matrix) {
+			this.matrix = matrix;
+		}
+
+		public String[][][] getCube() {
+			return this.cube;
+		}
+
+		public void setCube(String[][][] cube) {
+			this.cube = cube;
+		}
+
+		public int[][][][] getTesseract() {
+			return this.tesseract;
+		}
+
+		public void setTesseract(int[][][][] tesseract) {
+			this.tesseract = tesseract;
+		}
+
+		public List<String> getList() {
+			return this.list;
+		}
+
+		public void setList(List<String> list) {
+			this.list = list;
+		}
+
+		public Map<String, String> getMap() {
+			return this.map;
+		}
+
+		public void setMap(Map<String, String> map) {
+			this.map = map;
+		}
+
+		public SortedMap<String, String> getSortedMap() {
+			return this.sortedMap;
+		}
+
+		public void setSortedMap(SortedMap<String, String> sortedMap) {
+			this.sortedMap = sortedMap;
+		}
+
+		public IndexedBean getChild() {
+			return this.child;
+		}
+
+		public void setChild(IndexedBean child) {
+			this.child = child;
+		}
+
+		public List<IndexedBean> getChildren() {
+			return this.children;
+		}
+
+		public void setChildren(List<IndexedBean> children) {
+			this.children = children;
+		}
+	}
+
+}
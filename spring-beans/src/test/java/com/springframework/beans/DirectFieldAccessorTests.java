@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link DirectFieldAccessor}.
+ */
+public class DirectFieldAccessorTests {
+
+	@Test
+	public void setFieldWithoutSetter() {
+		FieldBean bean = new FieldBean();
+		DirectFieldAccessor accessor = new DirectFieldAccessor(bean);
+
+		accessor.setPropertyValue("name", "value");
+		accessor.setPropertyValue("age", "42");
+		assertEquals("value", bean.name);
+		assertEquals(42, bean.age);
+		assertEquals("value", accessor.getPropertyValue("name"));
+		assertEquals(int.class, accessor.getPropertyType("age"));
+	}
+
+	@Test
+	public void finalFieldIsRejected() {
+		DirectFieldAccessor accessor = new DirectFieldAccessor(new FieldBean());
+		assertTrue(accessor.isReadableProperty("constant"));
+		assertFalse(accessor.isWritableProperty("constant"));
+		try {
+			accessor.setPropertyValue("constant", "changed");
+			fail("Should have thrown NotWritablePropertyException");
+		}
+		catch (NotWritablePropertyException ex) {
+			assertEquals("constant", ex.getPropertyName());
+		}
+		assertEquals("constant", accessor.getPropertyValue("constant"));
+	}
+
+	@Test
+	public void unknownFieldIsRejected() {
+		DirectFieldAccessor accessor = new DirectFieldAccessor(new FieldBean());
+		assertFalse(accessor.isWritableProperty("nonExistent"));
+		try {
+			accessor.setPropertyValue("nonExistent", "value");
+			fail("Should have thrown NotWritablePropertyException");
+		}
+		catch (NotWritablePropertyException ex) {
+			assertEquals("nonExistent", ex.getPropertyName());
+		}
+	}
+
+	@Test
+	public void subclassFieldShadowsSuperclassField() {
+		SubFieldBean bean = new SubFieldBean();
+		DirectFieldAccessor accessor = new DirectFieldAccessor(bean);
+
+		accessor.setPropertyValue("name", 7);
+		assertEquals(Integer.valueOf(7), bean.name);
+		assertNull(((FieldBean) bean).name);
+		assertEquals(Integer.class, accessor.getPropertyType("name"));
+
+		accessor.setPropertyValue("age", 3);
+		assertEquals(3, ((FieldBean) bean).age);
+	}
+
+	@Test
+	public void setNestedFieldWithAutoGrow() {
+		FieldBean bean = new FieldBean();
+		DirectFieldAccessor accessor = new DirectFieldAccessor(bean);
+		accessor.setAutoGrowNestedPaths(true);
+
+		accessor.setPropertyValue("child.child.name", "grandchild");
+		assertEquals("grandchild", bean.child.child.name);
+		assertEquals("grandchild", accessor.getPropertyValue("child.child.name"));
+	}
+
+	@Test
+	public void setNestedFieldOfNullWithoutAutoGrowFails() {
+		DirectFieldAccessor accessor = new DirectFieldAccessor(new FieldBean());
+		try {
+			accessor.setPropertyValue("child.name", "value");
+			fail("Should have thrown NullValueInNestedPathException");
+		}
+		catch (NullValueInNestedPathException ex) {
+			assertEquals("child", ex.getPropertyName());
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class FieldBean {
+
+		private final String constant = "constant";
+
+		private String name;
+
+		private int age;
+
+		private FieldBean child;
+	}
+
+
+	public static class SubFieldBean extends FieldBean {
+
+		private Integer name;
+	}
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans;
+
+import com.springframework.util.StreamUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link IntrospectionMetadataCache}, checking rehydrated
+ * BeanInfo against fresh introspection.
+ */
+public class IntrospectionMetadataCacheTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File cacheFile;
+
+
+	@Before
+	public void setUp() {
+		this.cacheFile = new File(this.temporaryFolder.getRoot(), "introspection.cache");
+	}
+
+
+	@Test
+	public void roundTrip() throws Exception {
+		store(SimpleBean.class);
+
+		assertSameAsIntrospected(SimpleBean.class, new IntrospectionMetadataCache(this.cacheFile).getBeanInfo(SimpleBean.class));
+	}
+
+	@Test
+	public void covariantGetter() throws Exception {
+		store(CovariantBean.class);
+
+		BeanInfo beanInfo = new IntrospectionMetadataCache(this.cacheFile).getBeanInfo(CovariantBean.class);
+		assertSameAsIntrospected(CovariantBean.class, beanInfo);
+		PropertyDescriptor pd = getPropertyDescriptor(beanInfo, "value");
+		assertFalse(pd.getReadMethod().isBridge());
+		assertEquals(String.class, pd.getReadMethod().getReturnType());
+		assertEquals(String.class, pd.getPropertyType());
+	}
+
+	@Test
+	public void genericProperty() throws Exception {
+		store(StringHolder.class);
+
+		BeanInfo beanInfo = new IntrospectionMetadataCache(this.cacheFile).getBeanInfo(StringHolder.class);
+		assertSameAsIntrospected(StringHolder.class, beanInfo);
+		PropertyDescriptor pd = getPropertyDescriptor(beanInfo, "item");
+		assertFalse(pd.getReadMethod().isBridge());
+		assertEquals(String.class, pd.getReadMethod().getReturnType());
+		assertEquals(String.class, pd.getWriteMethod().getParameterTypes()[0]);
+	}
+
+	@Test
+	public void unknownClass() throws Exception {
+		store(SimpleBean.class);
+
+		assertNull(new IntrospectionMetadataCache(this.cacheFile).getBeanInfo(CovariantBean.class));
+	}
+
+	@Test
+	public void changedDigest() throws Exception {
+		store(SimpleBean.class);
+		String content = read();
+		int digestStart = content.indexOf('\t') + 1;
+		int digestEnd = content.indexOf('\t', digestStart);
+		write(content.substring(0, digestStart) + "0@0" + content.substring(digestEnd));
+
+		assertNull(new IntrospectionMetadataCache(this.cacheFile).getBeanInfo(SimpleBean.class));
+	}
+
+	@Test
+	public void changedClassFile() throws Exception {
+		store(SimpleBean.class);
+		File classFile = new File(SimpleBean.class.getResource("IntrospectionMetadataCacheTests$SimpleBean.class").toURI());
+		long lastModified = classFile.lastModified();
+		assertTrue(classFile.setLastModified(lastModified - 60000));
+		try {
+			assertNull(new IntrospectionMetadataCache(this.cacheFile).getBeanInfo(SimpleBean.class));
+		}
+		finally {
+			classFile.setLastModified(lastModified);
+		}
+	}
+
+	@Test
+	public void otherVersion() throws Exception {
+		store(SimpleBean.class);
+		String content = read();
+		write(content.replaceFirst("metadata v\\d+", "metadata v0"));
+
+		assertNull(new IntrospectionMetadataCache(this.cacheFile).getBeanInfo(SimpleBean.class));
+	}
+
+	@Test
+	public void corruptedFile() throws Exception {
+		store(SimpleBean.class);
+		String content = read();
+		write(content + "garbage without tabs\n");
+
+		assertNull(new IntrospectionMetadataCache(this.cacheFile).getBeanInfo(SimpleBean.class));
+	}
+
+	@Test
+	public void corruptedPropertyMetadata() throws Exception {
+		store(SimpleBean.class);
+		String content = read();
+		int headerEnd = content.indexOf('\n') + 1;
+		write(content.substring(0, headerEnd) + content.substring(headerEnd).replace(" ", "  "));
+
+		IntrospectionMetadataCache cache = new IntrospectionMetadataCache(this.cacheFile);
+		assertNull(cache.getBeanInfo(SimpleBean.class));
+	}
+
+	@Test
+	public void missingMethod() throws Exception {
+		store(SimpleBean.class);
+		String content = read();
+		write(content.replace("getName", "getMissing"));
+
+		assertNull(new IntrospectionMetadataCache(this.cacheFile).getBeanInfo(SimpleBean.class));
+	}
+
+
+	private void store(Class<?> beanClass) throws Exception {
+		IntrospectionMetadataCache cache = new IntrospectionMetadataCache(this.cacheFile);
+		cache.store(beanClass, introspect(beanClass));
+		cache.save();
+		assertTrue(this.cacheFile.isFile());
+	}
+
+	private List<PropertyDescriptor> introspect(Class<?> beanClass) throws Exception {
+		List<PropertyDescriptor> pds = new ArrayList<PropertyDescriptor>();
+		for (PropertyDescriptor pd : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+			if (!"class".equals(pd.getName())) {
+				pds.add(pd);
+			}
+		}
+		return pds;
+	}
+
+	private void assertSameAsIntrospected(Class<?> beanClass, BeanInfo beanInfo) throws Exception {
+		assertNotNull("No rehydrated BeanInfo for " + beanClass, beanInfo);
+		List<PropertyDescriptor> expected = introspect(beanClass);
+		PropertyDescriptor[] actual = beanInfo.getPropertyDescriptors();
+		assertEquals(expected.size(), actual.length);
+		for (PropertyDescriptor expectedPd : expected) {
+			PropertyDescriptor actualPd = getPropertyDescriptor(beanInfo, expectedPd.getName());
+			assertEquals(expectedPd.getReadMethod(), actualPd.getReadMethod());
+			assertEquals(expectedPd.getWriteMethod(), actualPd.getWriteMethod());
+			assertEquals(expectedPd.getPropertyType(), actualPd.getPropertyType());
+		}
+	}
+
+	private PropertyDescriptor getPropertyDescriptor(BeanInfo beanInfo, String name) {
+		for (PropertyDescriptor pd : beanInfo.getPropertyDescriptors()) {
+			if (pd.getName().equals(name)) {
+				return pd;
+			}
+		}
+		fail("No property '" + name + "' in " + Arrays.asList(beanInfo.getPropertyDescriptors()));
+		return null;
+	}
+
+	private String read() throws IOException {
+		FileInputStream in = new FileInputStream(this.cacheFile);
+		try {
+			return new String(StreamUtils.copyToByteArray(in), "UTF-8");
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private void write(String content) throws IOException {
+		FileOutputStream out = new FileOutputStream(this.cacheFile);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		}
+		finally {
+			out.close();
+		}
+	}
+
+
+	public static class SimpleBean {
+
+		private String name;
+
+		private int age;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public boolean isActive() {
+			return true;
+		}
+	}
+
+
+	public abstract static class ValueSource {
+
+		public abstract Object getValue();
+	}
+
+
+	public static class CovariantBean extends ValueSource {
+
+		@Override
+		public String getValue() {
+			return "value";
+		}
+	}
+
+
+	public static class GenericHolder<T> {
+
+		private T item;
+
+		public T getItem() {
+			return this.item;
+		}
+
+		public void setItem(T item) {
+			this.item = item;
+		}
+	}
+
+
+	public static class StringHolder extends GenericHolder<String> {
+
+		@Override
+		public String getItem() {
+			return super.getItem();
+		}
+
+		@Override
+		public void setItem(String item) {
+			super.setItem(item);
+		}
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans;
+
+import com.springframework.tests.sample.beans.ITestBean;
+import com.springframework.tests.sample.beans.TestBean;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link RecordBinder}.
+ */
+public class RecordBinderTests {
+
+	@Test
+	public void bindWithConversion() {
+		TestBean bean = RecordBinder.forHeader(TestBean.class, "name", "age").bind(new String[] {"tony", "42"});
+		assertEquals("tony", bean.getName());
+		assertEquals(42, bean.getAge());
+	}
+
+	@Test
+	public void forHeaderReturnsCachedBinder() {
+		assertSame(RecordBinder.forHeader(TestBean.class, "name", "age"),
+				RecordBinder.forHeader(TestBean.class, new String[] {"name", "age"}));
+		assertNotSame(RecordBinder.forHeader(TestBean.class, "name", "age"),
+				RecordBinder.forHeader(TestBean.class, "age", "name"));
+	}
+
+	@Test
+	public void nullAndEmptyHeaderEntriesAreSkipped() {
+		TestBean bean = RecordBinder.forHeader(TestBean.class, null, "name", "", "age")
+				.bind(new String[] {"ignored", "tony", "ignored", "42"});
+		assertEquals("tony", bean.getName());
+		assertEquals(42, bean.getAge());
+	}
+
+	@Test
+	public void shortRowLeavesTrailingPropertiesUntouched() {
+		TestBean bean = new TestBean();
+		bean.setName("old");
+		bean.setAge(7);
+		RecordBinder.forHeader(TestBean.class, "name", "age").bind(new String[] {"new"}, bean);
+		assertEquals("new", bean.getName());
+		assertEquals(7, bean.getAge());
+	}
+
+	@Test
+	public void nullCellSetsNull() {
+		TestBean bean = new TestBean();
+		bean.setName("old");
+		RecordBinder.forHeader(TestBean.class, "name").bind(new String[] {null}, bean);
+		assertNull(bean.getName());
+	}
+
+	@Test
+	public void nullCellForPrimitiveProperty() {
+		try {
+			RecordBinder.forHeader(TestBean.class, "name", "age").bind(new String[] {"tony", null});
+			fail("Should have thrown TypeMismatchException");
+		}
+		catch (TypeMismatchException ex) {
+			assertEquals("age", ex.getPropertyName());
+			assertEquals(int.class, ex.getRequiredType());
+			assertNull(ex.getValue());
+		}
+	}
+
+	@Test
+	public void unconvertibleCell() {
+		try {
+			RecordBinder.forHeader(TestBean.class, "age").bind(new String[] {"old"});
+			fail("Should have thrown TypeMismatchException");
+		}
+		catch (TypeMismatchException ex) {
+			assertEquals("age", ex.getPropertyName());
+			assertEquals(int.class, ex.getRequiredType());
+			assertEquals("old", ex.getValue());
+		}
+	}
+
+	@Test
+	public void setterException() {
+		try {
+			RecordBinder.forHeader(FailingBean.class, "failing").bind(new String[] {"value"});
+			fail("Should have thrown MethodInvocationException");
+		}
+		catch (MethodInvocationException ex) {
+			assertEquals("failing", ex.getPropertyName());
+			assertTrue(ex.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test(expected = NotWritablePropertyException.class)
+	public void unknownHeaderEntry() {
+		RecordBinder.forHeader(TestBean.class, "name", "nonExistent");
+	}
+
+	@Test(expected = BeanInstantiationException.class)
+	public void interfaceBeanClass() {
+		RecordBinder.forHeader(ITestBean.class, "name");
+	}
+
+	@Test
+	public void bindAllPreservesOrder() {
+		List<TestBean> beans = RecordBinder.forHeader(TestBean.class, "name", "age").bindAll(createRows(10));
+		assertBeans(beans, 10);
+	}
+
+	@Test
+	public void bindAllInParallelPreservesOrder() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			RecordBinder<TestBean> binder = RecordBinder.forHeader(TestBean.class, "name", "age");
+			assertBeans(binder.bindAll(createRows(1001), executor, 4), 1001);
+			assertBeans(binder.bindAll(createRows(3), executor, 8), 3);
+			assertBeans(binder.bindAll(createRows(0), executor, 4), 0);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void bindAllInParallelPropagatesBindingErrors() {
+		String[][] rows = createRows(100);
+		rows[57][1] = "fifty-seven";
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			RecordBinder.forHeader(TestBean.class, "name", "age").bindAll(rows, executor, 4);
+			fail("Should have thrown TypeMismatchException");
+		}
+		catch (TypeMismatchException ex) {
+			assertEquals("fifty-seven", ex.getValue());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	private String[][] createRows(int count) {
+		String[][] rows = new String[count][];
+		for (int i = 0; i < count; i++) {
+			rows[i] = new String[] {"name" + i, String.valueOf(i)};
+		}
+		return rows;
+	}
+
+	private void assertBeans(List<TestBean> beans, int count) {
+		assertEquals(count, beans.size());
+		for (int i = 0; i < count; i++) {
+			assertEquals("name" + i, beans.get(i).getName());
+			assertEquals(i, beans.get(i).getAge());
+		}
+	}
+
+
+	public static class FailingBean {
+
+		public String getFailing() {
+			return null;
+		}
+
+		public void setFailing(String failing) {
+			throw new IllegalStateException("failing");
+		}
+	}
+
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans;
+
+import com.springframework.tests.sample.beans.ITestBean;
+import com.springframework.tests.sample.beans.TestBean;
+import org.junit.Test;
+
+import java.beans.BeanInfo;
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ReflectiveBeanInfoFactory}, checked against the
+ * properties that the JavaBeans {@link Introspector} determines.
+ */
+public class ReflectiveBeanInfoFactoryTests {
+
+	private final ReflectiveBeanInfoFactory factory = new ReflectiveBeanInfoFactory();
+
+
+	@Test
+	public void simpleBean() throws Exception {
+		assertSameAsIntrospector(TestBean.class);
+	}
+
+	@Test
+	public void interfaceBean() throws Exception {
+		assertSameAsIntrospector(ITestBean.class);
+	}
+
+	@Test
+	public void booleanProperties() throws Exception {
+		Map<String, PropertyDescriptor> pds = assertSameAsIntrospector(BooleanBean.class);
+		assertEquals("isActive", pds.get("active").getReadMethod().getName());
+		assertEquals("getWrapped", pds.get("wrapped").getReadMethod().getName());
+	}
+
+	@Test
+	public void covariantGetterSkipsBridgeMethod() throws Exception {
+		Map<String, PropertyDescriptor> pds = assertSameAsIntrospector(CovariantBean.class);
+		PropertyDescriptor pd = pds.get("value");
+		assertFalse(pd.getReadMethod().isBridge());
+		assertEquals(String.class, pd.getReadMethod().getReturnType());
+		assertEquals(String.class, pd.getPropertyType());
+	}
+
+	@Test
+	public void genericSetter() throws Exception {
+		Map<String, PropertyDescriptor> pds = assertSameAsIntrospector(StringHolder.class);
+		PropertyDescriptor pd = pds.get("value");
+		assertFalse(pd.getWriteMethod().isBridge());
+		assertEquals(String.class, pd.getPropertyType());
+	}
+
+	@Test
+	public void genericSetterOverriddenInSubclass() throws Exception {
+		Map<String, PropertyDescriptor> pds = assertSameAsIntrospector(OverridingStringHolder.class);
+		PropertyDescriptor pd = pds.get("value");
+		assertEquals(OverridingStringHolder.class, pd.getWriteMethod().getDeclaringClass());
+		assertEquals(String.class, pd.getWriteMethod().getParameterTypes()[0]);
+		assertEquals(String.class, pd.getPropertyType());
+	}
+
+	@Test
+	public void overloadedSetters() throws Exception {
+		Map<String, PropertyDescriptor> pds = assertSameAsIntrospector(OverloadedBean.class);
+		assertEquals(int.class, pds.get("count").getWriteMethod().getParameterTypes()[0]);
+		assertNull("No setter of exactly the getter's type", pds.get("amount").getWriteMethod());
+	}
+
+	@Test
+	public void genericSetterOnlyOverriddenInSubclass() throws Exception {
+		Map<String, PropertyDescriptor> pds = assertSameAsIntrospector(SetterOverridingStringHolder.class);
+		PropertyDescriptor pd = pds.get("value");
+		assertEquals(Holder.class, pd.getReadMethod().getDeclaringClass());
+		assertFalse(pd.getWriteMethod().isBridge());
+		assertEquals(String.class, pd.getPropertyType());
+	}
+
+	@Test
+	public void setterNotMatchingGetter() throws Exception {
+		Map<String, PropertyDescriptor> pds = assertSameAsIntrospector(MismatchedBean.class);
+		assertNotNull(pds.get("name").getReadMethod());
+		// Only paired through the single-setter fallback of GenericTypeAwarePropertyDescriptor
+		assertEquals(int.class, pds.get("name").getWriteMethod().getParameterTypes()[0]);
+	}
+
+	@Test
+	public void indexedProperties() throws Exception {
+		BeanInfo introspected = Introspector.getBeanInfo(IndexedBean.class);
+		Map<String, PropertyDescriptor> pds = getPropertyDescriptors(this.factory.getBeanInfo(IndexedBean.class));
+
+		// Array properties with indexed accessors get exposed through their array accessors only
+		PropertyDescriptor items = getPropertyDescriptors(introspected).get("items");
+		assertTrue(items instanceof IndexedPropertyDescriptor);
+		assertEquals(items.getReadMethod(), pds.get("items").getReadMethod());
+		assertEquals(items.getWriteMethod(), pds.get("items").getWriteMethod());
+		assertEquals(String[].class, pds.get("items").getPropertyType());
+		assertFalse(pds.get("items") instanceof IndexedPropertyDescriptor);
+
+		// Purely indexed properties are not exposed at all
+		assertTrue(getPropertyDescriptors(introspected).get("entry") instanceof IndexedPropertyDescriptor);
+		assertFalse(pds.containsKey("entry"));
+	}
+
+	@Test
+	public void explicitBeanInfoLeftToIntrospector() throws Exception {
+		assertNull(this.factory.getBeanInfo(ExplicitBean.class));
+	}
+
+
+	/**
+	 * Assert that the factory exposes the same non-indexed properties, with the
+	 * same read and write methods and property types, as the Introspector does
+	 * once its descriptors get wrapped like {@link CachedIntrospectionResults} does.
+	 */
+	private Map<String, PropertyDescriptor> assertSameAsIntrospector(Class<?> beanClass) throws Exception {
+		Map<String, PropertyDescriptor> expected = new TreeMap<String, PropertyDescriptor>();
+		for (PropertyDescriptor pd : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+			if (!(pd instanceof IndexedPropertyDescriptor)) {
+				expected.put(pd.getName(), new GenericTypeAwarePropertyDescriptor(beanClass, pd.getName(),
+						pd.getReadMethod(), pd.getWriteMethod(), pd.getPropertyEditorClass()));
+			}
+		}
+		BeanInfo beanInfo = this.factory.getBeanInfo(beanClass);
+		assertNotNull(beanInfo);
+		assertEquals(beanClass, beanInfo.getBeanDescriptor().getBeanClass());
+		Map<String, PropertyDescriptor> actual = getPropertyDescriptors(beanInfo);
+		assertEquals(expected.keySet(), actual.keySet());
+		for (PropertyDescriptor pd : expected.values()) {
+			PropertyDescriptor actualPd = actual.get(pd.getName());
+			assertEquals(pd.getName() + " read method", pd.getReadMethod(), actualPd.getReadMethod());
+			assertEquals(pd.getName() + " write method", pd.getWriteMethod(), actualPd.getWriteMethod());
+			assertEquals(pd.getName() + " property type", pd.getPropertyType(), actualPd.getPropertyType());
+		}
+		return actual;
+	}
+
+	private static Map<String, PropertyDescriptor> getPropertyDescriptors(BeanInfo beanInfo) {
+		Map<String, PropertyDescriptor> pds = new TreeMap<String, PropertyDescriptor>();
+		for (PropertyDescriptor pd : beanInfo.getPropertyDescriptors()) {
+			pds.put(pd.getName(), pd);
+		}
+		return pds;
+	}
+
+
+	public static class BooleanBean {
+
+		public boolean isActive() {
+			return true;
+		}
+
+		public boolean getActive() {
+			return true;
+		}
+
+		public void setActive(boolean active) {
+		}
+
+		public Boolean getWrapped() {
+			return Boolean.TRUE;
+		}
+
+		public void setWrapped(Boolean wrapped) {
+		}
+	}
+
+
+	public static class ObjectBean {
+
+		public Object getValue() {
+			return null;
+		}
+	}
+
+
+	public static class CovariantBean extends ObjectBean {
+
+		@Override
+		public String getValue() {
+			return "value";
+		}
+	}
+
+
+	public static class Holder<T> {
+
+		private T value;
+
+		public T getValue() {
+			return this.value;
+		}
+
+		public void setValue(T value) {
+			this.value = value;
+		}
+	}
+
+
+	public static class StringHolder extends Holder<String> {
+	}
+
+
+	public static class OverridingStringHolder extends Holder<String> {
+
+		@Override
+		public String getValue() {
+			return super.getValue();
+		}
+
+		@Override
+		public void setValue(String value) {
+			super.setValue(value);
+		}
+	}
+
+
+	public static class SetterOverridingStringHolder extends Holder<String> {
+
+		@Override
+		public void setValue(String value) {
+			super.setValue(value);
+		}
+	}
+
+
+	public static class OverloadedBean {
+
+		public int getCount() {
+			return 0;
+		}
+
+		public void setCount(String count) {
+		}
+
+		public void setCount(int count) {
+		}
+
+		public Integer getAmount() {
+			return 0;
+		}
+
+		public void setAmount(Number amount) {
+		}
+
+		public void setAmount(String amount) {
+		}
+	}
+
+
+	public static class MismatchedBean {
+
+		public String getName() {
+			return null;
+		}
+
+		public void setName(int name) {
+		}
+	}
+
+
+	public static class IndexedBean {
+
+		public String[] getItems() {
+			return new String[0];
+		}
+
+		public void setItems(String[] items) {
+		}
+
+		public String getItems(int index) {
+			return null;
+		}
+
+		public void setItems(int index, String item) {
+		}
+
+		public String getEntry(int index) {
+			return null;
+		}
+
+		public void setEntry(int index, String entry) {
+		}
+	}
+
+
+	public static class ExplicitBean {
+	}
+
+
+	public static class ExplicitBeanBeanInfo extends SimpleBeanInfo {
+	}
+
+}
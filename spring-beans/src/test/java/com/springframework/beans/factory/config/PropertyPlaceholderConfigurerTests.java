@@ -0,0 +1,235 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.config;
+
+import com.springframework.beans.factory.BeanDefinitionStoreException;
+import com.springframework.beans.factory.support.DefaultListableBeanFactory;
+import com.springframework.beans.factory.support.GenericBeanDefinition;
+import com.springframework.core.env.MapPropertySource;
+import com.springframework.core.env.StandardEnvironment;
+import com.springframework.tests.sample.beans.TestBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PropertyPlaceholderConfigurer}.
+ */
+public class PropertyPlaceholderConfigurerTests {
+
+	private static final String SYSTEM_PROPERTY = "ppc.test.name";
+
+	private DefaultListableBeanFactory factory;
+
+	private PropertyPlaceholderConfigurer configurer;
+
+
+	@Before
+	public void setUp() {
+		this.factory = new DefaultListableBeanFactory();
+		this.configurer = new PropertyPlaceholderConfigurer();
+	}
+
+	@After
+	public void clearSystemProperty() {
+		System.clearProperty(SYSTEM_PROPERTY);
+	}
+
+
+	@Test
+	public void localProperties() {
+		registerTestBean("tb", "${name}", "${age}");
+		this.configurer.setProperties(properties("name", "Rod", "age", "42"));
+
+		assertTestBean("Rod", 42);
+	}
+
+	@Test
+	public void nestedPlaceholders() {
+		registerTestBean("tb", "${name.${env}}", "${age}");
+		this.configurer.setProperties(properties("env", "prod", "name.prod", "${first} ${last}",
+				"first", "Juergen", "last", "Hoeller", "age", "${ageValue}", "ageValue", "37"));
+
+		assertTestBean("Juergen Hoeller", 37);
+	}
+
+	@Test
+	public void defaultValues() {
+		registerTestBean("tb", "${name:Rob}", "${age:${defaultAge}}");
+		this.configurer.setProperties(properties("defaultAge", "29"));
+
+		assertTestBean("Rob", 29);
+	}
+
+	@Test
+	public void customValueSeparatorAndPrefix() {
+		registerTestBean("tb", "#[name|Rob]", "#[age]");
+		this.configurer.setPlaceholderPrefix("#[");
+		this.configurer.setPlaceholderSuffix("]");
+		this.configurer.setValueSeparator("|");
+		this.configurer.setProperties(properties("age", "5"));
+
+		assertTestBean("Rob", 5);
+	}
+
+	@Test
+	public void unresolvablePlaceholderRejected() {
+		registerTestBean("tb", "${missing}", "1");
+		this.configurer.setSystemPropertiesMode(PropertyPlaceholderConfigurer.SYSTEM_PROPERTIES_MODE_NEVER);
+		try {
+			this.configurer.postProcessBeanFactory(this.factory);
+			fail("Should have thrown BeanDefinitionStoreException");
+		}
+		catch (BeanDefinitionStoreException ex) {
+			assertTrue(ex.getMessage().contains("Could not resolve placeholder 'missing'"));
+		}
+	}
+
+	@Test
+	public void unresolvablePlaceholderIgnored() {
+		registerTestBean("tb", "${name} and ${missing}", "1");
+		this.configurer.setProperties(properties("name", "Rod"));
+		this.configurer.setSystemPropertiesMode(PropertyPlaceholderConfigurer.SYSTEM_PROPERTIES_MODE_NEVER);
+		this.configurer.setIgnoreUnresolvablePlaceholders(true);
+
+		assertTestBean("Rod and ${missing}", 1);
+	}
+
+	@Test
+	public void unresolvablePlaceholderLeftForNextConfigurer() {
+		registerTestBean("tb", "${name} [other]", "1");
+		this.configurer.setProperties(properties("name", "Rod"));
+		this.configurer.setSystemPropertiesMode(PropertyPlaceholderConfigurer.SYSTEM_PROPERTIES_MODE_NEVER);
+		this.configurer.setIgnoreUnresolvablePlaceholders(true);
+		this.configurer.postProcessBeanFactory(this.factory);
+
+		PropertyPlaceholderConfigurer other = new PropertyPlaceholderConfigurer();
+		other.setPlaceholderPrefix("[");
+		other.setPlaceholderSuffix("]");
+		other.setProperties(properties("other", "Juergen"));
+
+		assertTestBean(other, "Rod Juergen", 1);
+	}
+
+	@Test
+	public void circularReference() {
+		registerTestBean("tb", "${a}", "1");
+		this.configurer.setProperties(properties("a", "${b}", "b", "${a}"));
+		this.configurer.setIgnoreUnresolvablePlaceholders(true);
+		try {
+			this.configurer.postProcessBeanFactory(this.factory);
+			fail("Should have thrown BeanDefinitionStoreException");
+		}
+		catch (BeanDefinitionStoreException ex) {
+			assertTrue(ex.getMessage().contains("Circular placeholder reference"));
+		}
+	}
+
+	@Test
+	public void systemPropertiesModeNever() {
+		System.setProperty(SYSTEM_PROPERTY, "System");
+		registerTestBean("tb", "${" + SYSTEM_PROPERTY + ":none}", "1");
+		this.configurer.setSystemPropertiesMode(PropertyPlaceholderConfigurer.SYSTEM_PROPERTIES_MODE_NEVER);
+
+		assertTestBean("none", 1);
+	}
+
+	@Test
+	public void systemPropertiesModeFallback() {
+		System.setProperty(SYSTEM_PROPERTY, "System");
+		registerTestBean("tb", "${" + SYSTEM_PROPERTY + "}", "1");
+
+		assertTestBean("System", 1);
+
+		setUp();
+		registerTestBean("tb", "${" + SYSTEM_PROPERTY + "}", "1");
+		this.configurer.setProperties(properties(SYSTEM_PROPERTY, "Local"));
+		this.configurer.setSystemPropertiesMode(PropertyPlaceholderConfigurer.SYSTEM_PROPERTIES_MODE_FALLBACK);
+
+		assertTestBean("Local", 1);
+	}
+
+	@Test
+	public void systemPropertiesModeOverride() {
+		System.setProperty(SYSTEM_PROPERTY, "System");
+		registerTestBean("tb", "${" + SYSTEM_PROPERTY + "}", "${age}");
+		this.configurer.setProperties(properties(SYSTEM_PROPERTY, "Local", "age", "3"));
+		this.configurer.setSystemPropertiesMode(PropertyPlaceholderConfigurer.SYSTEM_PROPERTIES_MODE_OVERRIDE);
+
+		assertTestBean("System", 3);
+	}
+
+	@Test
+	public void systemPropertiesThroughEnvironment() {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new MapPropertySource("test",
+				Collections.<String, Object>singletonMap(SYSTEM_PROPERTY, "Environment")));
+		registerTestBean("tb", "${" + SYSTEM_PROPERTY + "}", "1");
+		this.configurer.setProperties(properties(SYSTEM_PROPERTY, "Local"));
+		this.configurer.setSystemPropertiesMode(PropertyPlaceholderConfigurer.SYSTEM_PROPERTIES_MODE_OVERRIDE);
+		this.configurer.setEnvironment(environment);
+
+		assertTestBean("Environment", 1);
+	}
+
+	@Test
+	public void beanClassNameResolved() {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClassName("${beanClass}");
+		this.factory.registerBeanDefinition("tb", bd);
+		this.configurer.setProperties(properties("beanClass", TestBean.class.getName()));
+		this.configurer.postProcessBeanFactory(this.factory);
+
+		assertEquals(TestBean.class.getName(), this.factory.getBeanDefinition("tb").getBeanClassName());
+		assertTrue(this.factory.getBean("tb") instanceof TestBean);
+	}
+
+
+	private void registerTestBean(String beanName, String name, String age) {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(TestBean.class);
+		bd.getPropertyValues().addPropertyValue("name", name);
+		bd.getPropertyValues().addPropertyValue("age", age);
+		this.factory.registerBeanDefinition(beanName, bd);
+	}
+
+	private void assertTestBean(String name, int age) {
+		assertTestBean(this.configurer, name, age);
+	}
+
+	private void assertTestBean(PropertyPlaceholderConfigurer configurer, String name, int age) {
+		configurer.postProcessBeanFactory(this.factory);
+		TestBean tb = (TestBean) this.factory.getBean("tb");
+		assertEquals(name, tb.getName());
+		assertEquals(age, tb.getAge());
+	}
+
+	private static Properties properties(String... keysAndValues) {
+		Properties props = new Properties();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			props.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return props;
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.config;
+
+import com.springframework.beans.factory.BeanExpressionException;
+import com.springframework.beans.factory.FactoryBean;
+import com.springframework.beans.factory.support.DefaultListableBeanFactory;
+import com.springframework.beans.factory.support.GenericBeanDefinition;
+import com.springframework.tests.sample.beans.TestBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StandardBeanExpressionResolver}, and for the bean lookups
+ * of {@link DefaultListableBeanFactory} that expressions rely on.
+ */
+public class StandardBeanExpressionResolverTests {
+
+	private final StandardBeanExpressionResolver resolver = new StandardBeanExpressionResolver();
+
+	private DefaultListableBeanFactory factory;
+
+	private BeanExpressionContext context;
+
+
+	@Before
+	public void setUp() {
+		this.factory = new DefaultListableBeanFactory();
+		TestBean spouse = new TestBean();
+		spouse.setName("Kerry");
+		spouse.setAge(34);
+		TestBean rod = new TestBean();
+		rod.setName("Rod");
+		rod.setSpouse(spouse);
+		this.factory.registerSingleton("rod", rod);
+		this.factory.registerSingleton("settings", Collections.singletonMap("timeout", 30));
+		this.context = new BeanExpressionContext(this.factory, null);
+	}
+
+
+	@Test
+	public void valueWithoutExpression() {
+		assertEquals("plain", evaluate("plain"));
+		assertEquals("#notAnExpression", evaluate("#notAnExpression"));
+		assertNull(this.resolver.evaluate(null, this.context));
+	}
+
+	@Test
+	public void stringLiterals() {
+		assertEquals("hello", evaluate("#{'hello'}"));
+		assertEquals("", evaluate("#{''}"));
+		assertEquals("it's", evaluate("#{'it''s'}"));
+		assertEquals("a}b", evaluate("#{'a}b'}"));
+	}
+
+	@Test
+	public void nullLiteral() {
+		assertNull(evaluate("#{null}"));
+		assertEquals("x", evaluate("x#{null}"));
+	}
+
+	@Test
+	public void booleanLiterals() {
+		assertEquals(Boolean.TRUE, evaluate("#{true}"));
+		assertEquals(Boolean.FALSE, evaluate("#{ false }"));
+	}
+
+	@Test
+	public void numberLiterals() {
+		assertEquals(42, evaluate("#{42}"));
+		assertEquals(-7, evaluate("#{-7}"));
+		assertEquals(10000000000L, evaluate("#{10000000000}"));
+		assertEquals(1.5d, evaluate("#{1.5}"));
+		assertEquals(2.0e3d, evaluate("#{2e3}"));
+	}
+
+	@Test
+	public void literalTextWithExpressions() {
+		assertEquals("Rod is married to Kerry (34)",
+				evaluate("#{rod.name} is married to #{rod.spouse.name} (#{rod.spouse.age})"));
+	}
+
+	@Test
+	public void beanReference() {
+		assertSame(this.factory.getBean("rod"), evaluate("#{rod}"));
+	}
+
+	@Test
+	public void beanPropertyNavigation() {
+		assertEquals("Rod", evaluate("#{rod.name}"));
+		assertEquals("Kerry", evaluate("#{rod.spouse.name}"));
+		assertEquals(34, evaluate("#{rod.spouse.age}"));
+	}
+
+	@Test
+	public void mapKeyNavigation() {
+		assertEquals(30, evaluate("#{settings.timeout}"));
+		assertNull(evaluate("#{settings.missing}"));
+	}
+
+	@Test
+	public void beanDefinitionReference() {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(TestBean.class);
+		bd.getPropertyValues().addPropertyValue("name", "Juergen");
+		this.factory.registerBeanDefinition("juergen", bd);
+
+		assertFalse(this.factory.containsSingleton("juergen"));
+		assertEquals("Juergen", evaluate("#{juergen.name}"));
+		assertTrue(this.factory.containsSingleton("juergen"));
+	}
+
+	@Test
+	public void unknownBean() {
+		try {
+			evaluate("#{nobody.name}");
+			fail("Should have thrown BeanExpressionException");
+		}
+		catch (BeanExpressionException ex) {
+			assertTrue(ex.getMessage().contains("Cannot resolve reference to 'nobody'"));
+		}
+	}
+
+	@Test
+	public void unknownProperty() {
+		try {
+			evaluate("#{rod.nickname}");
+			fail("Should have thrown BeanExpressionException");
+		}
+		catch (BeanExpressionException ex) {
+			assertTrue(ex.getMessage().contains("No readable property 'nickname'"));
+		}
+	}
+
+	@Test
+	public void propertyOfNullValue() {
+		((TestBean) this.factory.getBean("rod")).setSpouse(null);
+		try {
+			evaluate("#{rod.spouse.name}");
+			fail("Should have thrown BeanExpressionException");
+		}
+		catch (BeanExpressionException ex) {
+			assertTrue(ex.getMessage().contains("of null value 'rod.spouse'"));
+		}
+	}
+
+	@Test
+	public void malformedExpressions() {
+		assertMalformed("#{rod.name");
+		assertMalformed("#{}");
+		assertMalformed("#{ }");
+		assertMalformed("#{rod..name}");
+		assertMalformed("#{rod.}");
+		assertMalformed("#{rod + 1}");
+		assertMalformed("#{1x}");
+		assertMalformed("#{'unterminated}");
+	}
+
+	@Test
+	public void compiledExpressionReevaluated() {
+		assertEquals("Rod", evaluate("#{rod.name}"));
+		((TestBean) this.factory.getBean("rod")).setName("Roderick");
+		assertEquals("Roderick", evaluate("#{rod.name}"));
+	}
+
+	@Test
+	public void customPrefixAndSuffix() {
+		this.resolver.setExpressionPrefix("${");
+		this.resolver.setExpressionSuffix("}$");
+
+		assertEquals("Rod", evaluate("${rod.name}$"));
+		assertEquals("#{rod.name}", evaluate("#{rod.name}"));
+	}
+
+	@Test
+	public void expressionInBeanDefinition() {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(TestBean.class);
+		bd.getPropertyValues().addPropertyValue("name", "#{rod.spouse.name}");
+		bd.getPropertyValues().addPropertyValue("age", "#{rod.spouse.age}");
+		this.factory.registerBeanDefinition("kerry", bd);
+		this.factory.setBeanExpressionResolver(this.resolver);
+
+		TestBean kerry = (TestBean) this.factory.getBean("kerry");
+		assertEquals("Kerry", kerry.getName());
+		assertEquals(34, kerry.getAge());
+	}
+
+	@Test
+	public void containsBean() {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(TestBean.class);
+		this.factory.registerBeanDefinition("defined", bd);
+		GenericBeanDefinition fbd = new GenericBeanDefinition();
+		fbd.setBeanClass(TestBeanFactoryBean.class);
+		this.factory.registerBeanDefinition("factoryBean", fbd);
+
+		assertTrue("Singleton", this.factory.containsBean("rod"));
+		assertTrue("Bean definition", this.factory.containsBean("defined"));
+		assertTrue("FactoryBean product", this.factory.containsBean("factoryBean"));
+		assertTrue("FactoryBean itself", this.factory.containsBean("&factoryBean"));
+		assertFalse("Unknown bean", this.factory.containsBean("nobody"));
+		assertFalse("Dereference of a plain bean", this.factory.containsBean("&defined"));
+		assertFalse("Dereference of a plain singleton", this.factory.containsBean("&rod"));
+	}
+
+
+	private Object evaluate(String value) {
+		return this.resolver.evaluate(value, this.context);
+	}
+
+	private void assertMalformed(String value) {
+		try {
+			evaluate(value);
+			fail("Should have thrown BeanExpressionException for " + value);
+		}
+		catch (BeanExpressionException ex) {
+			// expected
+		}
+	}
+
+
+	public static class TestBeanFactoryBean implements FactoryBean<TestBean> {
+
+		@Override
+		public TestBean getObject() {
+			return new TestBean();
+		}
+
+		@Override
+		public Class<?> getObjectType() {
+			return TestBean.class;
+		}
+
+		@Override
+		public boolean isSingleton() {
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.beans.factory.NoSuchBeanDefinitionException;
+import com.springframework.beans.factory.config.RuntimeBeanReference;
+import com.springframework.tests.sample.beans.TestBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link BeanAccessMetrics} recording {@code getBean} lookups
+ * of an {@link AbstractBeanFactory}.
+ */
+public class BeanAccessMetricsTests {
+
+	private DefaultListableBeanFactory factory;
+
+	private BeanAccessMetrics metrics;
+
+
+	@Before
+	public void setUp() {
+		this.factory = new DefaultListableBeanFactory();
+		this.metrics = new BeanAccessMetrics();
+		this.factory.setBeanAccessMetrics(this.metrics);
+	}
+
+
+	@Test
+	public void creationAndSingletonHits() {
+		register("tb", TestBean.class);
+		this.factory.getBean("tb");
+		this.factory.getBean("tb");
+		this.factory.getBean("tb");
+
+		BeanAccessStatistics statistics = this.metrics.getStatistics("tb");
+		assertEquals("tb", statistics.getBeanName());
+		assertEquals(1, statistics.getCreations());
+		assertEquals(2, statistics.getSingletonHits());
+		assertEquals(0, statistics.getEarlyReferenceHits());
+		assertEquals(0, statistics.getMisses());
+		assertEquals(3, statistics.getLookups());
+		assertTrue(statistics.getMaxCreationTime() > 0);
+		assertTrue(statistics.getTotalCreationTime() >= statistics.getMaxCreationTime());
+		assertEquals(1, sum(statistics.getCreationTimeHistogram()));
+	}
+
+	@Test
+	public void misses() {
+		for (int i = 0; i < 2; i++) {
+			try {
+				this.factory.getBean("missing");
+				fail("Should have thrown NoSuchBeanDefinitionException");
+			}
+			catch (NoSuchBeanDefinitionException ex) {
+				// expected
+			}
+		}
+		assertEquals(2, this.metrics.getStatistics("missing").getMisses());
+		assertEquals(2, this.metrics.getMissCount());
+		assertEquals(0, this.metrics.getStatistics("missing").getCreations());
+	}
+
+	@Test
+	public void earlyReferenceHit() {
+		GenericBeanDefinition bd1 = new GenericBeanDefinition();
+		bd1.setBeanClass(TestBean.class);
+		bd1.getPropertyValues().addPropertyValue("spouse", new RuntimeBeanReference("tb2"));
+		this.factory.registerBeanDefinition("tb1", bd1);
+		GenericBeanDefinition bd2 = new GenericBeanDefinition();
+		bd2.setBeanClass(TestBean.class);
+		bd2.getPropertyValues().addPropertyValue("spouse", new RuntimeBeanReference("tb1"));
+		this.factory.registerBeanDefinition("tb2", bd2);
+
+		TestBean tb1 = (TestBean) this.factory.getBean("tb1");
+		assertSame(tb1, tb1.getSpouse().getSpouse());
+
+		assertEquals(1, this.metrics.getStatistics("tb1").getCreations());
+		assertEquals(1, this.metrics.getStatistics("tb1").getEarlyReferenceHits());
+		assertEquals(1, this.metrics.getStatistics("tb2").getCreations());
+		assertEquals(0, this.metrics.getStatistics("tb2").getEarlyReferenceHits());
+		assertEquals(1, this.metrics.getEarlyReferenceHitCount());
+	}
+
+	@Test
+	public void lookupWaitingForSingletonCreatedByOtherThreadCountsAsHit() throws Exception {
+		register("blocking", BlockingBean.class);
+		BlockingBean.entered = new CountDownLatch(1);
+		BlockingBean.release = new CountDownLatch(1);
+		try {
+			Thread creator = new Thread() {
+				@Override
+				public void run() {
+					factory.getBean("blocking");
+				}
+			};
+			creator.start();
+			assertTrue(BlockingBean.entered.await(10, TimeUnit.SECONDS));
+
+			Thread waiter = new Thread() {
+				@Override
+				public void run() {
+					factory.getBean("blocking");
+				}
+			};
+			waiter.start();
+			long deadline = System.currentTimeMillis() + 10000;
+			while (waiter.getState() != Thread.State.BLOCKED) {
+				assertTrue("Lookup did not wait for the singleton lock", System.currentTimeMillis() < deadline);
+				Thread.sleep(1);
+			}
+			BlockingBean.release.countDown();
+			creator.join(10000);
+			waiter.join(10000);
+		}
+		finally {
+			BlockingBean.release.countDown();
+		}
+
+		BeanAccessStatistics statistics = this.metrics.getStatistics("blocking");
+		assertEquals(1, statistics.getCreations());
+		assertEquals(1, statistics.getSingletonHits());
+		assertEquals(2, statistics.getLookups());
+	}
+
+	@Test
+	public void snapshotIsNotAffectedByLaterLookups() {
+		register("tb", TestBean.class);
+		this.factory.getBean("tb");
+		BeanAccessStatistics statistics = this.metrics.getStatistics("tb");
+		long[] histogram = statistics.getCreationTimeHistogram();
+		histogram[0] = 100;
+
+		this.factory.getBean("tb");
+		assertEquals(1, statistics.getLookups());
+		assertEquals(0, statistics.getSingletonHits());
+		assertEquals(1, sum(statistics.getCreationTimeHistogram()));
+		assertEquals(2, this.metrics.getStatistics("tb").getLookups());
+	}
+
+	@Test
+	public void statisticsSortedByLookups() {
+		register("once", TestBean.class);
+		register("twice", TestBean.class);
+		register("never", TestBean.class);
+		this.factory.getBean("once");
+		this.factory.getBean("twice");
+		this.factory.getBean("twice");
+
+		List<BeanAccessStatistics> statistics = this.metrics.getStatistics();
+		assertEquals(2, statistics.size());
+		assertEquals("twice", statistics.get(0).getBeanName());
+		assertEquals("once", statistics.get(1).getBeanName());
+		assertNull(this.metrics.getStatistics("never"));
+
+		String[] mostLookedUp = this.metrics.listMostLookedUpBeans(1);
+		assertEquals(1, mostLookedUp.length);
+		assertTrue(mostLookedUp[0].startsWith("twice: lookups=2, singletonHits=1"));
+		assertEquals(2, this.metrics.listSlowestCreatedBeans(5).length);
+		assertEquals(0, this.metrics.listMostLookedUpBeans(-1).length);
+	}
+
+	@Test
+	public void reset() {
+		register("tb", TestBean.class);
+		this.factory.getBean("tb");
+		this.metrics.reset();
+
+		assertEquals(0, this.metrics.getBeanCount());
+		assertNull(this.metrics.getStatistics("tb"));
+		this.factory.getBean("tb");
+		assertEquals(1, this.metrics.getStatistics("tb").getSingletonHits());
+		assertEquals(0, this.metrics.getStatistics("tb").getCreations());
+	}
+
+	@Test
+	public void mbeanAttributesAndOperations() throws Exception {
+		register("tb", TestBean.class);
+		this.factory.getBean("tb");
+		this.factory.getBean("tb");
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = new ObjectName("com.springframework.beans:type=BeanAccessMetrics,name=test");
+		server.registerMBean(this.metrics, objectName);
+		try {
+			assertEquals(1, server.getAttribute(objectName, "BeanCount"));
+			assertEquals(1L, server.getAttribute(objectName, "SingletonHitCount"));
+			assertEquals(0L, server.getAttribute(objectName, "EarlyReferenceHitCount"));
+			assertEquals(1L, server.getAttribute(objectName, "CreationCount"));
+			assertEquals(0L, server.getAttribute(objectName, "MissCount"));
+			assertEquals(this.metrics.getStatistics("tb").toString(), server.invoke(objectName, "describeBean",
+					new Object[] {"tb"}, new String[] {String.class.getName()}));
+			String[] beans = (String[]) server.invoke(objectName, "listMostLookedUpBeans",
+					new Object[] {10}, new String[] {int.class.getName()});
+			assertEquals(1, beans.length);
+
+			server.invoke(objectName, "reset", null, null);
+			assertEquals(0, server.getAttribute(objectName, "BeanCount"));
+		}
+		finally {
+			server.unregisterMBean(objectName);
+		}
+	}
+
+
+	private void register(String beanName, Class<?> beanClass) {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(beanClass);
+		this.factory.registerBeanDefinition(beanName, bd);
+	}
+
+	private static long sum(long[] counts) {
+		long sum = 0;
+		for (long count : counts) {
+			sum += count;
+		}
+		return sum;
+	}
+
+
+	public static class BlockingBean {
+
+		static volatile CountDownLatch entered;
+
+		static volatile CountDownLatch release;
+
+		public BlockingBean() throws InterruptedException {
+			entered.countDown();
+			assertTrue(release.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.beans.factory.FactoryBean;
+import com.springframework.beans.factory.config.RuntimeBeanReference;
+import com.springframework.core.metrics.RecordingApplicationStartup;
+import com.springframework.core.metrics.RecordingApplicationStartup.RecordedStep;
+import com.springframework.tests.sample.beans.TestBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the "spring.beans.instantiate" startup steps recorded by an
+ * {@link AbstractBeanFactory} with a {@link RecordingApplicationStartup}.
+ */
+public class BeanCreationStartupStepTests {
+
+	private final RecordingApplicationStartup startup = new RecordingApplicationStartup();
+
+	private DefaultListableBeanFactory factory;
+
+
+	@Before
+	public void setUp() {
+		this.factory = new DefaultListableBeanFactory();
+		this.factory.setApplicationStartup(this.startup);
+	}
+
+
+	@Test
+	public void dependencyCreationNestedInDependentStep() throws Exception {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(TestBean.class);
+		bd.getPropertyValues().addPropertyValue("spouse", new RuntimeBeanReference("spouse"));
+		this.factory.registerBeanDefinition("tb", bd);
+		register("spouse", TestBean.class);
+		this.factory.getBean("tb");
+		this.factory.getBean("tb");
+
+		List<RecordedStep> steps = getInstantiateSteps();
+		assertEquals(2, steps.size());
+		RecordedStep spouseStep = steps.get(0);
+		RecordedStep tbStep = steps.get(1);
+		assertEquals("spouse", spouseStep.getTags().get("beanName"));
+		assertEquals("tb", tbStep.getTags().get("beanName"));
+		assertNull(tbStep.getParentId());
+		RecordedStep populateStep = getRecordedStep(spouseStep.getParentId());
+		assertEquals("spring.beans.populate", populateStep.getName());
+		assertEquals("tb", populateStep.getTags().get("beanName"));
+		assertEquals(Long.valueOf(tbStep.getId()), populateStep.getParentId());
+
+		StringWriter writer = new StringWriter();
+		this.startup.exportFoldedStacks(writer);
+		List<String> stacks = new ArrayList<String>();
+		for (String line : writer.toString().split("\n")) {
+			assertTrue(line, line.matches("\\S+ \\d+"));
+			stacks.add(line.substring(0, line.lastIndexOf(' ')));
+		}
+		assertEquals(new HashSet<String>(stacks).size(), stacks.size());
+		assertTrue(stacks.contains("spring.beans.instantiate[tb]"));
+		assertTrue(stacks.contains("spring.beans.instantiate[tb];spring.beans.populate[tb]"));
+		assertTrue(stacks.contains(
+				"spring.beans.instantiate[tb];spring.beans.populate[tb];spring.beans.instantiate[spouse]"));
+		assertEquals("spring.beans.instantiate[tb]", stacks.get(stacks.size() - 1));
+	}
+
+	@Test
+	public void factoryBeanDereferenceTaggedWithCanonicalBeanName() {
+		register("factoryBean", TestBeanFactoryBean.class);
+		assertTrue(this.factory.getBean("&factoryBean") instanceof TestBeanFactoryBean);
+
+		List<RecordedStep> steps = getInstantiateSteps();
+		assertEquals(1, steps.size());
+		assertEquals("factoryBean", steps.get(0).getTags().get("beanName"));
+	}
+
+
+	private List<RecordedStep> getInstantiateSteps() {
+		List<RecordedStep> steps = new ArrayList<RecordedStep>();
+		for (RecordedStep step : this.startup.getRecordedSteps()) {
+			if (step.getName().equals("spring.beans.instantiate")) {
+				steps.add(step);
+			}
+		}
+		return steps;
+	}
+
+	private RecordedStep getRecordedStep(Long id) {
+		for (RecordedStep step : this.startup.getRecordedSteps()) {
+			if (id != null && step.getId() == id) {
+				return step;
+			}
+		}
+		fail("No step recorded with id " + id);
+		return null;
+	}
+
+	private void register(String beanName, Class<?> beanClass) {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(beanClass);
+		this.factory.registerBeanDefinition(beanName, bd);
+	}
+
+
+	public static class TestBeanFactoryBean implements FactoryBean<TestBean> {
+
+		@Override
+		public TestBean getObject() {
+			return new TestBean();
+		}
+
+		@Override
+		public Class<?> getObjectType() {
+			return TestBean.class;
+		}
+
+		@Override
+		public boolean isSingleton() {
+			return true;
+		}
+	}
+
+}
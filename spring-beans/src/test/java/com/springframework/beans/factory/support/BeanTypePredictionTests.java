@@ -0,0 +1,243 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.beans.factory.FactoryBean;
+import com.springframework.tests.sample.beans.ITestBean;
+import com.springframework.tests.sample.beans.TestBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for bean type prediction through {@link AbstractBeanFactory#isTypeMatch}
+ * and {@link AbstractBeanFactory#getType}, before any bean has been created.
+ */
+public class BeanTypePredictionTests {
+
+	private DefaultListableBeanFactory factory;
+
+
+	@Before
+	public void setUp() {
+		this.factory = new DefaultListableBeanFactory();
+	}
+
+
+	@Test
+	public void plainBeanClass() {
+		register("bean", TestBean.class);
+
+		assertTrue(this.factory.isTypeMatch("bean", ITestBean.class));
+		assertFalse(this.factory.isTypeMatch("bean", String.class));
+		assertFalse(this.factory.isTypeMatch("&bean", TestBean.class));
+		assertEquals(TestBean.class, this.factory.getType("bean"));
+		assertFalse(this.factory.containsSingleton("bean"));
+	}
+
+	@Test
+	public void factoryBeanWithClassTypeArgument() {
+		register("factory", TestBeanFactoryBean.class);
+
+		assertTrue(this.factory.isTypeMatch("factory", ITestBean.class));
+		assertFalse(this.factory.isTypeMatch("factory", String.class));
+		assertTrue(this.factory.isTypeMatch("&factory", FactoryBean.class));
+		assertEquals(TestBean.class, this.factory.getType("factory"));
+		assertEquals(TestBeanFactoryBean.class, this.factory.getType("&factory"));
+		assertFalse(this.factory.containsSingleton("factory"));
+	}
+
+	@Test
+	public void factoryBeanWithTypeVariableBoundInSubclass() {
+		register("factory", StringFactoryBean.class);
+
+		assertTrue(this.factory.isTypeMatch("factory", String.class));
+		assertFalse(this.factory.isTypeMatch("factory", ITestBean.class));
+		assertEquals(String.class, this.factory.getType("factory"));
+		assertFalse(this.factory.containsSingleton("factory"));
+	}
+
+	@Test
+	public void factoryBeanThroughSubInterface() {
+		register("factory", SubInterfaceFactoryBean.class);
+
+		assertTrue(this.factory.isTypeMatch("factory", ITestBean.class));
+		assertEquals(TestBean.class, this.factory.getType("factory"));
+		assertFalse(this.factory.containsSingleton("factory"));
+	}
+
+	@Test
+	public void rawFactoryBeanGetsAskedForItsObjectType() {
+		register("factory", RawFactoryBean.class);
+
+		assertTrue(this.factory.isTypeMatch("factory", ITestBean.class));
+		assertFalse(this.factory.isTypeMatch("factory", String.class));
+		assertEquals(TestBean.class, this.factory.getType("factory"));
+	}
+
+	@Test
+	public void staticFactoryMethod() {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(TestBeanFactory.class);
+		bd.setFactoryMethodName("createTestBean");
+		this.factory.registerBeanDefinition("bean", bd);
+
+		assertTrue(this.factory.isTypeMatch("bean", ITestBean.class));
+		assertFalse(this.factory.isTypeMatch("bean", TestBeanFactory.class));
+		assertEquals(TestBean.class, this.factory.getType("bean"));
+	}
+
+	@Test
+	public void instanceFactoryMethod() {
+		register("testBeanFactory", TestBeanFactory.class);
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setFactoryBeanName("testBeanFactory");
+		bd.setFactoryMethodName("createName");
+		this.factory.registerBeanDefinition("name", bd);
+
+		assertTrue(this.factory.isTypeMatch("name", String.class));
+		assertFalse(this.factory.isTypeMatch("name", ITestBean.class));
+		assertEquals(String.class, this.factory.getType("name"));
+	}
+
+	@Test
+	public void overloadedFactoryMethodsResolveToCommonAncestor() {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(TestBeanFactory.class);
+		bd.setFactoryMethodName("createNumber");
+		this.factory.registerBeanDefinition("number", bd);
+
+		assertTrue(this.factory.isTypeMatch("number", Number.class));
+		assertFalse(this.factory.isTypeMatch("number", Integer.class));
+		assertEquals(Number.class, this.factory.getType("number"));
+	}
+
+
+	private void register(String beanName, Class<?> beanClass) {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClassName(beanClass.getName());
+		this.factory.registerBeanDefinition(beanName, bd);
+	}
+
+
+	public static class TestBeanFactoryBean implements FactoryBean<TestBean> {
+
+		@Override
+		public TestBean getObject() {
+			return new TestBean();
+		}
+
+		@Override
+		public Class<?> getObjectType() {
+			return TestBean.class;
+		}
+
+		@Override
+		public boolean isSingleton() {
+			return true;
+		}
+	}
+
+
+	public abstract static class AbstractGenericFactoryBean<T> implements FactoryBean<T> {
+
+		@Override
+		public boolean isSingleton() {
+			return true;
+		}
+	}
+
+
+	public static class StringFactoryBean extends AbstractGenericFactoryBean<String> {
+
+		@Override
+		public String getObject() {
+			return "value";
+		}
+
+		@Override
+		public Class<?> getObjectType() {
+			return String.class;
+		}
+	}
+
+
+	public interface TestBeanFactoryBeanInterface<T extends ITestBean> extends FactoryBean<T> {
+	}
+
+
+	public static class SubInterfaceFactoryBean implements TestBeanFactoryBeanInterface<TestBean> {
+
+		@Override
+		public TestBean getObject() {
+			return new TestBean();
+		}
+
+		@Override
+		public Class<?> getObjectType() {
+			return TestBean.class;
+		}
+
+		@Override
+		public boolean isSingleton() {
+			return true;
+		}
+	}
+
+
+	@SuppressWarnings("rawtypes")
+	public static class RawFactoryBean implements FactoryBean {
+
+		@Override
+		public Object getObject() {
+			return new TestBean();
+		}
+
+		@Override
+		public Class<?> getObjectType() {
+			return TestBean.class;
+		}
+
+		@Override
+		public boolean isSingleton() {
+			return true;
+		}
+	}
+
+
+	public static class TestBeanFactory {
+
+		public static TestBean createTestBean() {
+			return new TestBean();
+		}
+
+		public static Integer createNumber() {
+			return 1;
+		}
+
+		public static Long createNumber(long value) {
+			return value;
+		}
+
+		public String createName() {
+			return "name";
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.beans.factory.DisposableBean;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ConcurrentSingletonDestroyer}.
+ */
+public class ConcurrentSingletonDestroyerTests {
+
+	private final Set<String> destroyed = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private volatile boolean released;
+
+
+	@Test
+	public void hangingDestroyMethodDoesNotSkipQueuedBeans() throws Exception {
+		DefaultListableBeanFactory registry = new DefaultListableBeanFactory();
+		registry.setSingletonDestructionThreads(2);
+		registry.setSingletonDestructionTimeout(200);
+		for (int i = 0; i < 6; i++) {
+			registry.registerDisposableBean("bean" + i, new SlowBean("bean" + i, 150));
+		}
+		// Registered last, so destroyed first.
+		registry.registerDisposableBean("hanging", new HangingBean());
+		try {
+			registry.destroySingletons();
+		}
+		finally {
+			this.released = true;
+		}
+		for (int i = 0; i < 6; i++) {
+			assertTrue("bean" + i + " not destroyed", this.destroyed.contains("bean" + i));
+		}
+		assertFalse(this.destroyed.contains("hanging"));
+	}
+
+	private class SlowBean implements DisposableBean {
+
+		private final String name;
+
+		private final long millis;
+
+		SlowBean(String name, long millis) {
+			this.name = name;
+			this.millis = millis;
+		}
+
+		@Override
+		public void destroy() throws Exception {
+			Thread.sleep(this.millis);
+			destroyed.add(this.name);
+		}
+	}
+
+
+	/**
+	 * Destroy method that ignores interruption, keeping its thread busy.
+	 */
+	private class HangingBean implements DisposableBean {
+
+		@Override
+		public void destroy() {
+			while (!released) {
+				try {
+					Thread.sleep(10);
+				}
+				catch (InterruptedException ex) {
+					// Keep hanging.
+				}
+			}
+			destroyed.add("hanging");
+		}
+	}
+
+}
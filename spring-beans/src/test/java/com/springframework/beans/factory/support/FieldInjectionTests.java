@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import com.springframework.core.io.ClassPathResource;
+import com.springframework.core.io.support.EncodedResource;
+import com.springframework.tests.sample.beans.ITestBean;
+import com.springframework.tests.sample.beans.TestBean;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for bean definitions with {@link AbstractBeanDefinition#isFieldInjection() field injection}.
+ */
+public class FieldInjectionTests {
+
+	@Test
+	public void fieldInjectionAttribute() {
+		DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+		new XmlBeanDefinitionReader(factory).loadBeanDefinitions(new EncodedResource(
+				new ClassPathResource(getClass().getSimpleName() + "-context.xml", getClass())));
+
+		assertTrue(((AbstractBeanDefinition) factory.getBeanDefinition("fieldInjected")).isFieldInjection());
+		assertFalse(((AbstractBeanDefinition) factory.getBeanDefinition("setterInjected")).isFieldInjection());
+
+		FieldBean fieldInjected = (FieldBean) factory.getBean("fieldInjected");
+		assertEquals("fields", fieldInjected.name);
+		assertEquals(27, fieldInjected.age);
+		assertSame(factory.getBean("spouse"), fieldInjected.spouse);
+		assertEquals(0, fieldInjected.setterCalls);
+
+		FieldBean setterInjected = (FieldBean) factory.getBean("setterInjected");
+		assertEquals("setters", setterInjected.name);
+		assertEquals(1, setterInjected.setterCalls);
+	}
+
+	@Test
+	public void copyConstructorsCopyFieldInjection() {
+		GenericBeanDefinition original = new GenericBeanDefinition();
+		original.setBeanClass(TestBean.class);
+		original.setFieldInjection(true);
+
+		assertTrue(new GenericBeanDefinition(original).isFieldInjection());
+		assertTrue(new RootBeanDefinition(original).isFieldInjection());
+	}
+
+	@Test
+	public void overrideFromCopiesFieldInjection() {
+		GenericBeanDefinition other = new GenericBeanDefinition();
+		other.setBeanClass(TestBean.class);
+		other.setFieldInjection(true);
+
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.overrideFrom(other);
+		assertTrue(bd.isFieldInjection());
+
+		other.setFieldInjection(false);
+		bd.overrideFrom(other);
+		assertFalse(bd.isFieldInjection());
+	}
+
+	@Test
+	public void equalsConsidersFieldInjection() {
+		GenericBeanDefinition bd1 = new GenericBeanDefinition();
+		bd1.setBeanClass(TestBean.class);
+		GenericBeanDefinition bd2 = new GenericBeanDefinition(bd1);
+		assertEquals(bd1, bd2);
+
+		bd2.setFieldInjection(true);
+		assertFalse(bd1.equals(bd2));
+	}
+
+
+	public static class FieldBean {
+
+		private String name;
+
+		private int age;
+
+		private ITestBean spouse;
+
+		private int setterCalls;
+
+		public void setName(String name) {
+			this.name = name;
+			this.setterCalls++;
+		}
+	}
+
+}
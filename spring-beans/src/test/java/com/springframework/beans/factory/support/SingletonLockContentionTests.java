@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.tests.sample.beans.TestBean;
+import com.springframework.util.LockContentionProfiler;
+import com.springframework.util.LockSiteStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link LockContentionProfiler} recording acquisitions of the
+ * singleton lock of a {@link DefaultSingletonBeanRegistry}.
+ */
+public class SingletonLockContentionTests {
+
+	private static final long CONTENTION_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private static final long HOLD_TIME = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private final LockContentionProfiler profiler = new LockContentionProfiler();
+
+	private DefaultListableBeanFactory factory;
+
+
+	@Before
+	public void setUp() {
+		this.factory = new DefaultListableBeanFactory();
+		register("blocking", BlockingBean.class);
+		register("tb", TestBean.class);
+		this.profiler.setContentionThreshold(CONTENTION_THRESHOLD);
+		LockContentionProfiler.install(this.profiler);
+	}
+
+	@After
+	public void uninstall() {
+		LockContentionProfiler.uninstall();
+	}
+
+
+	@Test
+	public void uncontendedAcquisitionsAttributedToBeanInCreation() {
+		this.factory.getBean("tb");
+
+		LockSiteStatistics statistics = this.profiler.getStatistics(DefaultSingletonBeanRegistry.SINGLETON_OBJECTS_LOCK);
+		assertTrue(statistics.getAcquisitions() > 0);
+		assertEquals(0, statistics.getContendedAcquisitions());
+		assertEquals(statistics.getAcquisitions(), sum(statistics.getWaitTimeHistogram()));
+		assertEquals(statistics.getAcquisitions(), statistics.getAcquisitionsByBean().get("tb").longValue());
+	}
+
+	@Test
+	public void contendedAcquisitionOfSingletonLock() throws Exception {
+		BlockingBean.entered = new CountDownLatch(1);
+		BlockingBean.release = new CountDownLatch(1);
+		Thread creator = new Thread() {
+			@Override
+			public void run() {
+				factory.getBean("blocking");
+			}
+		};
+		Thread waiter = new Thread() {
+			@Override
+			public void run() {
+				factory.getBean("tb");
+			}
+		};
+		try {
+			creator.start();
+			assertTrue(BlockingBean.entered.await(10, TimeUnit.SECONDS));
+			waiter.start();
+			long deadline = System.currentTimeMillis() + 10000;
+			while (waiter.getState() != Thread.State.BLOCKED) {
+				assertTrue("Lookup did not wait for the singleton lock", System.currentTimeMillis() < deadline);
+				Thread.sleep(1);
+			}
+			Thread.sleep(TimeUnit.NANOSECONDS.toMillis(HOLD_TIME));
+		}
+		finally {
+			BlockingBean.release.countDown();
+		}
+		creator.join(10000);
+		waiter.join(10000);
+
+		LockSiteStatistics statistics = this.profiler.getStatistics(DefaultSingletonBeanRegistry.SINGLETON_OBJECTS_LOCK);
+		assertEquals(1, statistics.getContendedAcquisitions());
+		assertTrue(statistics.getMaxWaitTime() >= HOLD_TIME);
+		assertTrue(statistics.getTotalWaitTime() >= statistics.getMaxWaitTime());
+		assertEquals(statistics.getAcquisitions(), sum(statistics.getWaitTimeHistogram()));
+		assertTrue(statistics.getWaitTimePercentile(100) >= TimeUnit.NANOSECONDS.toMicros(HOLD_TIME));
+		assertTrue(statistics.getAcquisitionsByBean().containsKey("blocking"));
+		assertTrue(statistics.getAcquisitionsByBean().containsKey("tb"));
+		assertEquals(statistics.getAcquisitions(), statistics.getAcquisitionsByBean().get("blocking") +
+				statistics.getAcquisitionsByBean().get("tb"));
+		assertTrue(statistics.toString().startsWith(
+				DefaultSingletonBeanRegistry.SINGLETON_OBJECTS_LOCK + ": acquisitions=" + statistics.getAcquisitions() +
+				", contended=1"));
+		assertEquals(statistics.getLockSite(), this.profiler.getStatistics().get(0).getLockSite());
+	}
+
+
+	private void register(String beanName, Class<?> beanClass) {
+		GenericBeanDefinition bd = new GenericBeanDefinition();
+		bd.setBeanClass(beanClass);
+		this.factory.registerBeanDefinition(beanName, bd);
+	}
+
+	private static long sum(long[] counts) {
+		long sum = 0;
+		for (long count : counts) {
+			sum += count;
+		}
+		return sum;
+	}
+
+
+	public static class BlockingBean {
+
+		static volatile CountDownLatch entered;
+
+		static volatile CountDownLatch release;
+
+		public BlockingBean() throws InterruptedException {
+			entered.countDown();
+			assertTrue(release.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+}
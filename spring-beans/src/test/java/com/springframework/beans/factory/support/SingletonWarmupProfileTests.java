@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.beans.factory.support;
+
+import com.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import com.springframework.core.io.ClassPathResource;
+import com.springframework.core.io.support.EncodedResource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SingletonWarmupProfile} driving
+ * {@link DefaultListableBeanFactory#preInstantiateSingletons()}.
+ */
+public class SingletonWarmupProfileTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File profileFile;
+
+
+	@Before
+	public void setUp() throws IOException {
+		this.profileFile = new File(this.temporaryFolder.getRoot(), "warmup.profile");
+	}
+
+
+	@Test
+	public void withoutProfileFileAllNonLazySingletonsAreCreatedEagerly() throws Exception {
+		DefaultListableBeanFactory factory = createFactory();
+		factory.preInstantiateSingletons();
+
+		assertTrue(factory.containsSingleton("a"));
+		assertTrue(factory.containsSingleton("b"));
+		assertFalse(factory.containsSingleton("lazy"));
+
+		factory.getBean("b");
+		factory.destroySingletons();
+		assertEquals(new HashSet<String>(Arrays.asList("b")), new SingletonWarmupProfile(this.profileFile).loadBeanNames());
+	}
+
+	@Test
+	public void withEmptyProfileFileAllNonLazySingletonsAreCreatedEagerly() throws Exception {
+		writeProfile("# nothing recorded\n");
+		DefaultListableBeanFactory factory = createFactory();
+		factory.preInstantiateSingletons();
+
+		assertTrue(factory.containsSingleton("a"));
+		assertTrue(factory.containsSingleton("b"));
+		assertFalse(factory.containsSingleton("lazy"));
+		factory.destroySingletons();
+	}
+
+	@Test
+	public void withProfileFileOnlyRecordedSingletonsAreCreatedEagerly() throws Exception {
+		writeProfile("a\n");
+		DefaultListableBeanFactory factory = createFactory();
+		factory.preInstantiateSingletons();
+
+		assertTrue(factory.containsSingleton("a"));
+		assertFalse(factory.containsSingleton("b"));
+		assertFalse(factory.containsSingleton("lazy"));
+		factory.destroySingletons();
+	}
+
+	@Test
+	public void lazyInitAttributeWinsOverProfile() throws Exception {
+		writeProfile("a\nlazy\n");
+		DefaultListableBeanFactory factory = createFactory();
+		factory.preInstantiateSingletons();
+
+		assertTrue(factory.containsSingleton("a"));
+		assertFalse(factory.containsSingleton("lazy"));
+		factory.destroySingletons();
+	}
+
+	@Test
+	public void profileIsReplacedByBeansRequestedInCurrentWindow() throws Exception {
+		writeProfile("a\n");
+		DefaultListableBeanFactory factory = createFactory();
+		factory.preInstantiateSingletons();
+
+		factory.getBean("b");
+		factory.destroySingletons();
+		assertEquals(new HashSet<String>(Arrays.asList("b")), new SingletonWarmupProfile(this.profileFile).loadBeanNames());
+	}
+
+
+	private DefaultListableBeanFactory createFactory() {
+		DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+		new XmlBeanDefinitionReader(factory).loadBeanDefinitions(new EncodedResource(
+				new ClassPathResource(getClass().getSimpleName() + "-context.xml", getClass())));
+		factory.setSingletonWarmupProfile(new SingletonWarmupProfile(this.profileFile));
+		return factory;
+	}
+
+	private void writeProfile(String content) throws IOException {
+		FileOutputStream out = new FileOutputStream(this.profileFile);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		}
+		finally {
+			out.close();
+		}
+	}
+
+}
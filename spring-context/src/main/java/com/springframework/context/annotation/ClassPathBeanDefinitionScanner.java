@@ -0,0 +1,571 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.context.annotation;
+
+import com.springframework.beans.factory.BeanDefinitionStoreException;
+import com.springframework.beans.factory.config.BeanDefinition;
+import com.springframework.beans.factory.support.BeanDefinitionRegistry;
+import com.springframework.beans.factory.support.GenericBeanDefinition;
+import com.springframework.core.type.classreading.ClassFileMetadata;
+import com.springframework.core.type.classreading.ClassFileMetadataReader;
+import com.springframework.stereotype.Component;
+import com.springframework.util.Assert;
+import com.springframework.util.ClassUtils;
+import com.springframework.util.ResourceUtils;
+import com.springframework.util.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.beans.Introspector;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * A bean definition scanner that detects candidate components on the classpath,
+ * registering a {@link GenericBeanDefinition} for each of them with a given
+ * {@link BeanDefinitionRegistry}.
+ *
+ * <p>Candidate components get detected through their class files, without loading
+ * the classes: concrete top-level classes carrying {@link Component @Component} or
+ * any other {@linkplain #addIncludeAnnotationType include annotation type} anywhere
+ * {@link com.springframework.core.annotation.AnnotationUtils#findAnnotation(Class, Class)}
+ * would find it, i.e. directly, as a meta-annotation, or on an interface or superclass.
+ * Class directories and jars get listed in parallel, and their class files get read
+ * in parallel as well.
+ *
+ * <p>Bean names are taken from the String {@code value} of the component annotation,
+ * falling back to the decapitalized short class name.
+ *
+ * <p>With a {@linkplain #setComponentIndex component index}, the components found in
+ * each jar get stored along with the jar's size and modification time, so that later
+ * scans skip unchanged jars entirely. Since a jar's components may depend on supertypes
+ * and meta-annotations elsewhere, the whole index gets discarded once any classpath root
+ * has changed. Class directories always get scanned.
+ *
+ * <p>Note that jars need to contain directory entries for the base packages for
+ * their components to be found, as with {@link ClassLoader#getResources}.
+ */
+public class ClassPathBeanDefinitionScanner {
+
+	/** Number of class files to read per scan task */
+	private static final int BATCH_SIZE = 64;
+
+	private static final Log logger = LogFactory.getLog(ClassPathBeanDefinitionScanner.class);
+
+	private final BeanDefinitionRegistry registry;
+
+	private final List<String> includeAnnotationTypes = new ArrayList<String>();
+
+	private ClassFileMetadataReader metadataReader = new ClassFileMetadataReader();
+
+	private int scanThreads = Runtime.getRuntime().availableProcessors();
+
+	private File componentIndex;
+
+
+	/**
+	 * Create a new ClassPathBeanDefinitionScanner for the given registry,
+	 * detecting classes annotated with {@link Component @Component}.
+	 * @param registry the registry to load bean definitions into
+	 */
+	public ClassPathBeanDefinitionScanner(BeanDefinitionRegistry registry) {
+		this(registry, true);
+	}
+
+	/**
+	 * Create a new ClassPathBeanDefinitionScanner for the given registry.
+	 * @param registry the registry to load bean definitions into
+	 * @param useDefaultFilters whether to detect classes annotated with
+	 * {@link Component @Component}; otherwise, include annotation types
+	 * need to be added explicitly
+	 * @see #addIncludeAnnotationType
+	 */
+	public ClassPathBeanDefinitionScanner(BeanDefinitionRegistry registry, boolean useDefaultFilters) {
+		Assert.notNull(registry, "BeanDefinitionRegistry must not be null");
+		this.registry = registry;
+		if (useDefaultFilters) {
+			this.includeAnnotationTypes.add(Component.class.getName());
+		}
+	}
+
+
+	/**
+	 * Return the registry that bean definitions get loaded into.
+	 */
+	public final BeanDefinitionRegistry getRegistry() {
+		return this.registry;
+	}
+
+	/**
+	 * Add an annotation type that identifies candidate components.
+	 * @param annotationType the annotation type
+	 */
+	public void addIncludeAnnotationType(Class<? extends Annotation> annotationType) {
+		Assert.notNull(annotationType, "Annotation type must not be null");
+		this.includeAnnotationTypes.add(annotationType.getName());
+	}
+
+	/**
+	 * Set the ClassLoader to locate class files with.
+	 * Default is the thread context class loader.
+	 */
+	public void setClassLoader(ClassLoader classLoader) {
+		this.metadataReader = new ClassFileMetadataReader(classLoader);
+	}
+
+	/**
+	 * Set the number of threads to list and read class files with.
+	 * Default is the number of available processors.
+	 */
+	public void setScanThreads(int scanThreads) {
+		Assert.isTrue(scanThreads > 0, "'scanThreads' must be positive");
+		this.scanThreads = scanThreads;
+	}
+
+	/**
+	 * Set the file to keep the component index in. Default is none.
+	 * <p>The index gets read before scanning and updated afterwards
+	 * whenever jars have changed.
+	 */
+	public void setComponentIndex(File componentIndex) {
+		this.componentIndex = componentIndex;
+	}
+
+
+	/**
+	 * Perform a scan within the given base packages, registering
+	 * a bean definition for each component found.
+	 * @param basePackages the packages to check for components
+	 * @return the number of bean definitions registered
+	 */
+	public int scan(String... basePackages) {
+		Map<String, String> components = findCandidateComponents(basePackages);
+		int count = 0;
+		for (Map.Entry<String, String> entry : components.entrySet()) {
+			String className = entry.getKey();
+			String beanName = entry.getValue();
+			if (checkCandidate(beanName, className)) {
+				GenericBeanDefinition beanDefinition = new GenericBeanDefinition();
+				beanDefinition.setBeanClassName(className);
+				beanDefinition.setResourceDescription("class path component [" + className + "]");
+				this.registry.registerBeanDefinition(beanName, beanDefinition);
+				count++;
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Registered " + count + " components found in " + Arrays.asList(basePackages));
+		}
+		return count;
+	}
+
+	/**
+	 * Scan the given base packages for candidate components.
+	 * @param basePackages the packages to check for components
+	 * @return component class name --> bean name
+	 */
+	public Map<String, String> findCandidateComponents(String... basePackages) {
+		Assert.notEmpty(basePackages, "At least one base package must be specified");
+		Map<String, ScanRoot> roots = findScanRoots(basePackages);
+		ComponentIndex index = (this.componentIndex != null ?
+				ComponentIndex.load(this.componentIndex, buildScanKey(basePackages),
+						ComponentIndex.fingerprintClassPath(this.metadataReader.getClassLoader())) : null);
+
+		// Root URL --> components found in it, in classpath order
+		Map<String, Map<String, String>> rootComponents = new LinkedHashMap<String, Map<String, String>>();
+		List<ScanRoot> rootsToScan = new ArrayList<ScanRoot>();
+		for (ScanRoot root : roots.values()) {
+			Map<String, String> indexed = (index != null && root.jarFile != null ?
+					index.getComponents(root.url, root.jarFile) : null);
+			rootComponents.put(root.url, indexed);
+			if (indexed == null) {
+				rootsToScan.add(root);
+			}
+		}
+		if (!rootsToScan.isEmpty()) {
+			scanRoots(rootsToScan, rootComponents);
+		}
+
+		if (index != null) {
+			index.retainRoots(roots.keySet());
+			for (ScanRoot root : rootsToScan) {
+				if (root.jarFile != null) {
+					index.putComponents(root.url, root.jarFile, rootComponents.get(root.url));
+				}
+			}
+			index.storeIfModified(this.componentIndex);
+		}
+
+		Map<String, String> components = new LinkedHashMap<String, String>();
+		for (Map<String, String> candidates : rootComponents.values()) {
+			for (Map.Entry<String, String> candidate : candidates.entrySet()) {
+				if (!components.containsKey(candidate.getKey())) {
+					components.put(candidate.getKey(), candidate.getValue());
+				}
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Found " + components.size() + " components in " + roots.size() + " classpath roots, " +
+					rootsToScan.size() + " of them scanned");
+		}
+		return components;
+	}
+
+	/**
+	 * Check the given candidate's bean name, determining whether the corresponding
+	 * bean definition needs to be registered or conflicts with an existing one.
+	 * @param beanName the bean name of the candidate
+	 * @param className the component class name of the candidate
+	 * @return {@code true} if the bean can be registered as-is;
+	 * {@code false} if it should be skipped because there is an
+	 * existing, compatible bean definition for the specified name
+	 * @throws IllegalStateException if an existing, incompatible
+	 * bean definition has been found for the specified name
+	 */
+	protected boolean checkCandidate(String beanName, String className) throws IllegalStateException {
+		if (!this.registry.containsBeanDefinition(beanName)) {
+			return true;
+		}
+		BeanDefinition existing = this.registry.getBeanDefinition(beanName);
+		if (className.equals(existing.getBeanClassName())) {
+			return false;
+		}
+		throw new IllegalStateException("Annotation-specified bean name '" + beanName + "' for bean class [" +
+				className + "] conflicts with existing, non-compatible bean definition of same name and class [" +
+				existing.getBeanClassName() + "]");
+	}
+
+
+	private String buildScanKey(String[] basePackages) {
+		String[] sortedPackages = basePackages.clone();
+		Arrays.sort(sortedPackages);
+		return StringUtils.arrayToCommaDelimitedString(sortedPackages) + ";" +
+				StringUtils.collectionToCommaDelimitedString(this.includeAnnotationTypes);
+	}
+
+	private Map<String, ScanRoot> findScanRoots(String[] basePackages) {
+		Map<String, ScanRoot> roots = new LinkedHashMap<String, ScanRoot>();
+		for (String basePackage : basePackages) {
+			String packagePath = ClassUtils.convertClassNameToResourcePath(basePackage.trim()) + "/";
+			try {
+				Enumeration<URL> urls = this.metadataReader.getClassLoader().getResources(packagePath);
+				while (urls.hasMoreElements()) {
+					URL url = urls.nextElement();
+					String key = url.toString();
+					if (roots.containsKey(key)) {
+						continue;
+					}
+					if (ResourceUtils.isFileURL(url)) {
+						roots.put(key, new ScanRoot(key, packagePath, ResourceUtils.getFile(url), null, null));
+						continue;
+					}
+					if (ResourceUtils.isJarURL(url)) {
+						URL jarFileUrl = ResourceUtils.extractJarFileURL(url);
+						if (ResourceUtils.isFileURL(jarFileUrl)) {
+							String entryPrefix = key.substring(key.indexOf(ResourceUtils.JAR_URL_SEPARATOR) +
+									ResourceUtils.JAR_URL_SEPARATOR.length());
+							roots.put(key, new ScanRoot(key, packagePath, null, ResourceUtils.getFile(jarFileUrl), entryPrefix));
+							continue;
+						}
+					}
+					logger.warn("Skipping unsupported classpath root " + url);
+				}
+			}
+			catch (IOException ex) {
+				throw new BeanDefinitionStoreException("I/O failure while locating package '" + basePackage + "'", ex);
+			}
+		}
+		return roots;
+	}
+
+	private void scanRoots(List<ScanRoot> roots, Map<String, Map<String, String>> rootComponents) {
+		ExecutorService executor = createExecutor();
+		try {
+			// First list the class files of all roots, then read them in batches.
+			List<Callable<List<String>>> listTasks = new ArrayList<Callable<List<String>>>(roots.size());
+			for (final ScanRoot root : roots) {
+				listTasks.add(new Callable<List<String>>() {
+					@Override
+					public List<String> call() throws IOException {
+						return root.listClassNames();
+					}
+				});
+			}
+			List<List<String>> classNames = invokeAll(executor, listTasks);
+
+			List<Callable<Map<String, String>>> readTasks = new ArrayList<Callable<Map<String, String>>>();
+			List<ScanRoot> readTaskRoots = new ArrayList<ScanRoot>();
+			for (int i = 0; i < roots.size(); i++) {
+				final ScanRoot root = roots.get(i);
+				List<String> rootClassNames = classNames.get(i);
+				for (int start = 0; start < rootClassNames.size(); start += BATCH_SIZE) {
+					final List<String> batch =
+							rootClassNames.subList(start, Math.min(start + BATCH_SIZE, rootClassNames.size()));
+					readTasks.add(new Callable<Map<String, String>>() {
+						@Override
+						public Map<String, String> call() {
+							return findComponents(root, batch);
+						}
+					});
+					readTaskRoots.add(root);
+				}
+				rootComponents.put(root.url, new TreeMap<String, String>());
+			}
+			List<Map<String, String>> found = invokeAll(executor, readTasks);
+			for (int i = 0; i < found.size(); i++) {
+				rootComponents.get(readTaskRoots.get(i).url).putAll(found.get(i));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+			for (ScanRoot root : roots) {
+				root.close();
+			}
+		}
+	}
+
+	private Map<String, String> findComponents(ScanRoot root, List<String> classNames) {
+		Map<String, String> components = new LinkedHashMap<String, String>();
+		for (String className : classNames) {
+			try {
+				ClassFileMetadata metadata = root.readMetadata(this.metadataReader, className);
+				if (isCandidateComponent(metadata)) {
+					components.put(className, determineBeanName(metadata));
+				}
+			}
+			catch (IOException ex) {
+				throw new BeanDefinitionStoreException(
+						"Failed to read candidate component class [" + className + "] in " + root.url, ex);
+			}
+		}
+		return components;
+	}
+
+	private boolean isCandidateComponent(ClassFileMetadata metadata) throws IOException {
+		if (!metadata.isConcrete()) {
+			return false;
+		}
+		for (String annotationType : this.includeAnnotationTypes) {
+			if (this.metadataReader.hasAnnotation(metadata, annotationType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Use the String {@code value} of a directly present include annotation, or of an
+	 * annotation meta-annotated with one, falling back to the short class name.
+	 */
+	private String determineBeanName(ClassFileMetadata metadata) throws IOException {
+		for (String annotationType : metadata.getAnnotationTypes()) {
+			String value = metadata.getAnnotationValue(annotationType);
+			if (StringUtils.hasLength(value) && isComponentAnnotation(annotationType)) {
+				return value;
+			}
+		}
+		return Introspector.decapitalize(ClassUtils.getShortName(metadata.getClassName()));
+	}
+
+	private boolean isComponentAnnotation(String annotationType) throws IOException {
+		if (this.includeAnnotationTypes.contains(annotationType)) {
+			return true;
+		}
+		ClassFileMetadata annotationMetadata;
+		try {
+			annotationMetadata = this.metadataReader.getMetadata(annotationType);
+		}
+		catch (FileNotFoundException ex) {
+			return false;
+		}
+		for (String includeAnnotationType : this.includeAnnotationTypes) {
+			if (this.metadataReader.hasAnnotation(annotationMetadata, includeAnnotationType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) {
+		try {
+			List<T> results = new ArrayList<T>(tasks.size());
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanDefinitionStoreException("Interrupted during classpath scanning", ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new BeanDefinitionStoreException("I/O failure during classpath scanning", cause);
+		}
+	}
+
+	private ExecutorService createExecutor() {
+		ThreadFactory threadFactory = new ThreadFactory() {
+			private final AtomicInteger threadCount = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "classpath-scan-" + this.threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		return new ThreadPoolExecutor(this.scanThreads, this.scanThreads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), threadFactory);
+	}
+
+
+	/**
+	 * A package location within a class directory or a jar.
+	 */
+	private static class ScanRoot {
+
+		private final String url;
+
+		private final String packagePath;
+
+		private final File directory;
+
+		private final File jarFile;
+
+		private final String entryPrefix;
+
+		private volatile JarFile openJarFile;
+
+		public ScanRoot(String url, String packagePath, File directory, File jarFile, String entryPrefix) {
+			this.url = url;
+			this.packagePath = packagePath;
+			this.directory = directory;
+			this.jarFile = jarFile;
+			this.entryPrefix = entryPrefix;
+		}
+
+		/**
+		 * List the names of the top-level classes within the root, including subpackages.
+		 * Nested classes are no candidates and get skipped right away.
+		 */
+		public List<String> listClassNames() throws IOException {
+			List<String> classNames = new ArrayList<String>();
+			if (this.directory != null) {
+				listClassNames(this.directory, this.packagePath, classNames);
+			}
+			else {
+				JarFile jar = new JarFile(this.jarFile);
+				this.openJarFile = jar;
+				for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+					String entryName = entries.nextElement().getName();
+					if (entryName.startsWith(this.entryPrefix) && isTopLevelClassFile(entryName)) {
+						classNames.add(ClassUtils.convertResourcePathToClassName(
+								this.packagePath + entryName.substring(this.entryPrefix.length(),
+										entryName.length() - ClassUtils.CLASS_FILE_SUFFIX.length())));
+					}
+				}
+			}
+			return classNames;
+		}
+
+		private void listClassNames(File dir, String path, List<String> classNames) {
+			File[] files = dir.listFiles();
+			if (files == null) {
+				return;
+			}
+			for (File file : files) {
+				String name = file.getName();
+				if (file.isDirectory()) {
+					listClassNames(file, path + name + "/", classNames);
+				}
+				else if (isTopLevelClassFile(name)) {
+					classNames.add(ClassUtils.convertResourcePathToClassName(
+							path + name.substring(0, name.length() - ClassUtils.CLASS_FILE_SUFFIX.length())));
+				}
+			}
+		}
+
+		private static boolean isTopLevelClassFile(String path) {
+			return (path.endsWith(ClassUtils.CLASS_FILE_SUFFIX) && path.indexOf('$') == -1 &&
+					!path.endsWith("package-info.class") && !path.endsWith("module-info.class"));
+		}
+
+		public ClassFileMetadata readMetadata(ClassFileMetadataReader metadataReader, String className)
+				throws IOException {
+
+			String relativePath = ClassUtils.convertClassNameToResourcePath(className).substring(
+					this.packagePath.length()) + ClassUtils.CLASS_FILE_SUFFIX;
+			InputStream in;
+			if (this.directory != null) {
+				in = new FileInputStream(new File(this.directory, relativePath));
+			}
+			else {
+				JarFile jar = this.openJarFile;
+				in = jar.getInputStream(jar.getEntry(this.entryPrefix + relativePath));
+			}
+			try {
+				return metadataReader.getMetadata(in, this.url + relativePath);
+			}
+			finally {
+				in.close();
+			}
+		}
+
+		public void close() {
+			JarFile jar = this.openJarFile;
+			if (jar != null) {
+				this.openJarFile = null;
+				try {
+					jar.close();
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.context.annotation;
+
+import com.springframework.util.ClassUtils;
+import com.springframework.util.ResourceUtils;
+import com.springframework.util.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent index of the components found in jars by a
+ * {@link ClassPathBeanDefinitionScanner}, keyed by classpath root URL and
+ * recorded together with each jar's size and modification time.
+ *
+ * <p>An index is only valid for the base packages and annotation types it
+ * was built for; an index built for a different scan gets ignored. Since the
+ * supertypes and meta-annotations that make a class a component may live in
+ * any classpath root, the index also records a {@linkplain #fingerprintClassPath
+ * fingerprint of the whole classpath} and gets ignored as a whole once any
+ * root has changed.
+ */
+class ComponentIndex {
+
+	private static final String CHARSET = "UTF-8";
+
+	private static final String SCAN_PREFIX = "scan\t";
+
+	private static final String CLASSPATH_PREFIX = "classpath\t";
+
+	private static final String ROOT_PREFIX = "root\t";
+
+	private static final Log logger = LogFactory.getLog(ComponentIndex.class);
+
+	private final String scanKey;
+
+	private final String classPathKey;
+
+	/** Root URL --> indexed root */
+	private final Map<String, IndexedRoot> roots = new LinkedHashMap<String, IndexedRoot>();
+
+	private boolean modified;
+
+
+	private ComponentIndex(String scanKey, String classPathKey) {
+		this.scanKey = scanKey;
+		this.classPathKey = classPathKey;
+	}
+
+
+	/**
+	 * Load the index from the given file.
+	 * @param file the index file
+	 * @param scanKey the key identifying the scan the index is expected to be built for
+	 * @param classPathKey the fingerprint of the current classpath
+	 * @return the index, empty if there is no file yet, if it was built for a
+	 * different scan or classpath, or if it cannot be read
+	 * @see #fingerprintClassPath
+	 */
+	public static ComponentIndex load(File file, String scanKey, String classPathKey) {
+		ComponentIndex index = new ComponentIndex(scanKey, classPathKey);
+		if (!file.isFile()) {
+			return index;
+		}
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), CHARSET));
+			IndexedRoot currentRoot = null;
+			boolean scanMatched = false;
+			boolean classPathMatched = false;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.length() == 0 || line.startsWith("#")) {
+					continue;
+				}
+				if (line.startsWith(SCAN_PREFIX)) {
+					if (!line.substring(SCAN_PREFIX.length()).equals(scanKey)) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Ignoring component index " + file + " built for a different scan");
+						}
+						return new ComponentIndex(scanKey, classPathKey);
+					}
+					scanMatched = true;
+					continue;
+				}
+				if (line.startsWith(CLASSPATH_PREFIX)) {
+					if (!line.substring(CLASSPATH_PREFIX.length()).equals(classPathKey)) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Ignoring component index " + file + " built for a different classpath");
+						}
+						return new ComponentIndex(scanKey, classPathKey);
+					}
+					classPathMatched = true;
+					continue;
+				}
+				String[] fields = line.split("\t");
+				if (!scanMatched || !classPathMatched) {
+					throw new IOException("Missing scan or classpath header");
+				}
+				if (line.startsWith(ROOT_PREFIX) && fields.length == 4) {
+					currentRoot = new IndexedRoot(Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+					index.roots.put(fields[1], currentRoot);
+				}
+				else if (currentRoot != null && fields.length == 2) {
+					currentRoot.components.put(fields[0], fields[1]);
+				}
+				else {
+					throw new IOException("Malformed line: " + line);
+				}
+			}
+			return index;
+		}
+		catch (IOException ex) {
+			logger.warn("Could not read component index from " + file + ": " + ex);
+			return new ComponentIndex(scanKey, classPathKey);
+		}
+		catch (NumberFormatException ex) {
+			logger.warn("Could not read component index from " + file + ": " + ex);
+			return new ComponentIndex(scanKey, classPathKey);
+		}
+		finally {
+			closeQuietly(reader);
+		}
+	}
+
+
+	/**
+	 * Return the components indexed for the given root, provided that the
+	 * root's jar is unchanged since.
+	 * @param rootUrl the URL of the classpath root
+	 * @param jarFile the jar containing the root
+	 * @return component class name --> bean name, or {@code null} if the root
+	 * is not indexed or has changed since
+	 */
+	public Map<String, String> getComponents(String rootUrl, File jarFile) {
+		IndexedRoot root = this.roots.get(rootUrl);
+		if (root == null || root.length != jarFile.length() || root.lastModified != jarFile.lastModified()) {
+			return null;
+		}
+		return root.components;
+	}
+
+	/**
+	 * Index the given components for the given root.
+	 * @param rootUrl the URL of the classpath root
+	 * @param jarFile the jar containing the root, as scanned
+	 * @param components component class name --> bean name
+	 */
+	public void putComponents(String rootUrl, File jarFile, Map<String, String> components) {
+		IndexedRoot root = new IndexedRoot(jarFile.length(), jarFile.lastModified());
+		root.components.putAll(components);
+		this.roots.put(rootUrl, root);
+		this.modified = true;
+	}
+
+	/**
+	 * Drop all roots other than the given ones from the index.
+	 * @param rootUrls the URLs of the classpath roots to keep
+	 */
+	public void retainRoots(Collection<String> rootUrls) {
+		for (Iterator<String> it = this.roots.keySet().iterator(); it.hasNext();) {
+			if (!rootUrls.contains(it.next())) {
+				it.remove();
+				this.modified = true;
+			}
+		}
+	}
+
+	/**
+	 * Store the index in the given file, if modified since it was loaded.
+	 * Failures get logged rather than thrown, since the index is an optimization only.
+	 * @param file the index file
+	 */
+	public void storeIfModified(File file) {
+		if (!this.modified) {
+			return;
+		}
+		File parent = file.getAbsoluteFile().getParentFile();
+		File tempFile = new File(parent, file.getName() + ".tmp");
+		Writer writer = null;
+		try {
+			if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+				throw new IOException("Could not create directory " + parent);
+			}
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), CHARSET));
+			writer.write("# Components found in jars by classpath scanning\n");
+			writer.write(SCAN_PREFIX + this.scanKey + "\n");
+			writer.write(CLASSPATH_PREFIX + this.classPathKey + "\n");
+			for (Map.Entry<String, IndexedRoot> entry : this.roots.entrySet()) {
+				IndexedRoot root = entry.getValue();
+				writer.write(ROOT_PREFIX + entry.getKey() + "\t" + root.length + "\t" + root.lastModified + "\n");
+				for (Map.Entry<String, String> component : root.components.entrySet()) {
+					writer.write(component.getKey() + "\t" + component.getValue() + "\n");
+				}
+			}
+			writer.close();
+			writer = null;
+			if (!tempFile.renameTo(file) && (!file.delete() || !tempFile.renameTo(file))) {
+				throw new IOException("Could not rename " + tempFile + " to " + file);
+			}
+			this.modified = false;
+			if (logger.isDebugEnabled()) {
+				logger.debug("Stored component index for " + this.roots.size() + " jars in " + file);
+			}
+		}
+		catch (IOException ex) {
+			logger.warn("Could not store component index in " + file + ": " + ex);
+		}
+		finally {
+			closeQuietly(writer);
+		}
+	}
+
+	/**
+	 * Compute a fingerprint of all classpath roots visible to the given class loader:
+	 * the URLs of any {@link URLClassLoader} in its hierarchy, plus the entries of
+	 * {@code java.class.path} for the system class loader. Jars contribute their size
+	 * and modification time; class directories the size and modification time of
+	 * every class file within them.
+	 * @param classLoader the class loader that components get scanned with
+	 * @return the fingerprint, as a hex String
+	 */
+	public static String fingerprintClassPath(ClassLoader classLoader) {
+		Set<File> roots = new LinkedHashSet<File>();
+		ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+		for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+			if (cl instanceof URLClassLoader) {
+				for (URL url : ((URLClassLoader) cl).getURLs()) {
+					if (ResourceUtils.isFileURL(url)) {
+						try {
+							roots.add(ResourceUtils.getFile(url).getAbsoluteFile());
+						}
+						catch (IOException ex) {
+							// not resolvable in the file system - skip
+						}
+					}
+				}
+			}
+			if (cl == systemClassLoader) {
+				for (String path : StringUtils.delimitedListToStringArray(
+						System.getProperty("java.class.path"), File.pathSeparator)) {
+					if (path.length() > 0) {
+						roots.add(new File(path).getAbsoluteFile());
+					}
+				}
+			}
+		}
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("MD5 not supported", ex);
+		}
+		StringBuilder buffer = new StringBuilder();
+		for (File root : roots) {
+			buffer.setLength(0);
+			buffer.append(root.getPath());
+			if (root.isDirectory()) {
+				appendClassFiles(root, "", buffer);
+			}
+			else if (root.isFile()) {
+				buffer.append('\t').append(root.length()).append('\t').append(root.lastModified());
+			}
+			buffer.append('\n');
+			try {
+				digest.update(buffer.toString().getBytes(CHARSET));
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	private static void appendClassFiles(File dir, String path, StringBuilder buffer) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		// Sorted for a fingerprint that does not depend on the file system's listing order
+		Arrays.sort(files);
+		for (File file : files) {
+			if (file.isDirectory()) {
+				appendClassFiles(file, path + file.getName() + "/", buffer);
+			}
+			else if (file.getName().endsWith(ClassUtils.CLASS_FILE_SUFFIX)) {
+				buffer.append('\t').append(path).append(file.getName()).append(':').append(file.length())
+						.append(':').append(file.lastModified());
+			}
+		}
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+	}
+
+
+	private static class IndexedRoot {
+
+		private final long length;
+
+		private final long lastModified;
+
+		/** Component class name --> bean name */
+		private final Map<String, String> components = new LinkedHashMap<String, String>();
+
+		public IndexedRoot(long length, long lastModified) {
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+	}
+
+}
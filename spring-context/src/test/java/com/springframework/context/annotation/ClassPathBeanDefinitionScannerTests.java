@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.context.annotation;
+
+import com.springframework.beans.factory.support.DefaultListableBeanFactory;
+import com.springframework.context.annotation.scan.AbstractBaseComponent;
+import com.springframework.context.annotation.scan.InheritedComponent;
+import com.springframework.context.annotation.scan.MarkerComponent;
+import com.springframework.context.annotation.scan.MetaAnnotatedComponent;
+import com.springframework.context.annotation.scan.PlainClass;
+import com.springframework.util.ClassUtils;
+import com.springframework.util.StreamUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ClassPathBeanDefinitionScanner} and its {@link ComponentIndex}.
+ */
+public class ClassPathBeanDefinitionScannerTests {
+
+	private static final String BASE_PACKAGE = "com.springframework.context.annotation.scan";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+	@Test
+	public void scanClassDirectory() {
+		DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+		ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(factory);
+
+		assertEquals(2, scanner.scan(BASE_PACKAGE));
+		assertEquals(MetaAnnotatedComponent.class.getName(), factory.getBeanDefinition("meta").getBeanClassName());
+		assertEquals(InheritedComponent.class.getName(),
+				factory.getBeanDefinition("inheritedComponent").getBeanClassName());
+	}
+
+	@Test
+	public void metaAnnotatedAndInheritedComponentsAcrossJars() throws Exception {
+		File componentJar = createJar("components.jar", MetaAnnotatedComponent.class, InheritedComponent.class, PlainClass.class);
+		File annotationJar = createJar("annotations.jar", MarkerComponent.class, AbstractBaseComponent.class);
+
+		Map<String, String> components = findCandidateComponents(null, componentJar, annotationJar);
+		assertEquals(2, components.size());
+		assertEquals("meta", components.get(MetaAnnotatedComponent.class.getName()));
+		assertEquals("inheritedComponent", components.get(InheritedComponent.class.getName()));
+	}
+
+	@Test
+	public void indexReusedForUnchangedClassPath() throws Exception {
+		File componentJar = createJar("components.jar", MetaAnnotatedComponent.class, InheritedComponent.class);
+		File annotationJar = createJar("annotations.jar", MarkerComponent.class, AbstractBaseComponent.class);
+		File indexFile = new File(this.temporaryFolder.getRoot(), "components.idx");
+
+		Map<String, String> components = findCandidateComponents(indexFile, componentJar, annotationJar);
+		assertTrue(indexFile.isFile());
+		assertTrue(readIndex(indexFile).contains(MetaAnnotatedComponent.class.getName() + "\tmeta\n"));
+		assertTrue(indexFile.setLastModified(1000L));
+
+		assertEquals(components, findCandidateComponents(indexFile, componentJar, annotationJar));
+		assertEquals("Index unchanged, so not rewritten", 1000L, indexFile.lastModified());
+	}
+
+	@Test
+	public void indexDiscardedWhenOtherRootChanges() throws Exception {
+		File componentJar = createJar("components.jar", MetaAnnotatedComponent.class, InheritedComponent.class);
+		File annotationJar = createJar("annotations.jar", MarkerComponent.class, AbstractBaseComponent.class);
+		File indexFile = new File(this.temporaryFolder.getRoot(), "components.idx");
+		assertEquals(2, findCandidateComponents(indexFile, componentJar, annotationJar).size());
+
+		// The component jar stays as it is, but the stereotype it relies on is gone
+		assertTrue(annotationJar.delete());
+		createJar("annotations.jar", AbstractBaseComponent.class);
+
+		Map<String, String> components = findCandidateComponents(indexFile, componentJar, annotationJar);
+		assertEquals(1, components.size());
+		assertEquals("inheritedComponent", components.get(InheritedComponent.class.getName()));
+	}
+
+	@Test
+	public void classPathFingerprint() throws Exception {
+		File jar = createJar("components.jar", PlainClass.class);
+		ClassLoader classLoader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, null);
+		String fingerprint = ComponentIndex.fingerprintClassPath(classLoader);
+
+		assertEquals(fingerprint, ComponentIndex.fingerprintClassPath(classLoader));
+		assertTrue(jar.setLastModified(jar.lastModified() - 10000L));
+		assertFalse(fingerprint.equals(ComponentIndex.fingerprintClassPath(classLoader)));
+	}
+
+
+	private Map<String, String> findCandidateComponents(File indexFile, File... jars) throws IOException {
+		URL[] urls = new URL[jars.length];
+		for (int i = 0; i < jars.length; i++) {
+			urls[i] = jars[i].toURI().toURL();
+		}
+		// No parent, so that the scan sees the jars only rather than the test class directory
+		URLClassLoader classLoader = new URLClassLoader(urls, null);
+		try {
+			ClassPathBeanDefinitionScanner scanner =
+					new ClassPathBeanDefinitionScanner(new DefaultListableBeanFactory());
+			scanner.setClassLoader(classLoader);
+			scanner.setScanThreads(2);
+			scanner.setComponentIndex(indexFile);
+			return scanner.findCandidateComponents(BASE_PACKAGE);
+		}
+		finally {
+			classLoader.close();
+		}
+	}
+
+	private String readIndex(File indexFile) throws IOException {
+		InputStream in = new FileInputStream(indexFile);
+		try {
+			return StreamUtils.copyToString(in, Charset.forName("UTF-8"));
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private File createJar(String name, Class<?>... classes) throws IOException {
+		File jar = new File(this.temporaryFolder.getRoot(), name);
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			String path = "";
+			for (String segment : ClassUtils.convertClassNameToResourcePath(BASE_PACKAGE).split("/")) {
+				path += segment + "/";
+				out.putNextEntry(new JarEntry(path));
+				out.closeEntry();
+			}
+			for (Class<?> clazz : classes) {
+				String resourcePath = ClassUtils.convertClassNameToResourcePath(clazz.getName()) + ClassUtils.CLASS_FILE_SUFFIX;
+				out.putNextEntry(new JarEntry(resourcePath));
+				InputStream in = clazz.getClassLoader().getResourceAsStream(resourcePath);
+				try {
+					StreamUtils.copy(in, out);
+				}
+				finally {
+					in.close();
+				}
+				out.closeEntry();
+			}
+		}
+		finally {
+			out.close();
+		}
+		return jar;
+	}
+
+}
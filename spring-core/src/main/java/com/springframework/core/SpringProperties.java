@@ -22,6 +22,9 @@ import org.apache.commons.logging.LogFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -37,6 +40,12 @@ import java.util.Properties;
  * where JVM system properties are locked on the target platform (e.g. WebSphere).
  * See {@link #setFlag} for a convenient way to locally set such flags to "true".
  *
+ * <p>Local entries get read from an immutable snapshot that is replaced on every
+ * {@link #setProperty} and {@link #setFlag} call, so that code reading flags on hot
+ * paths does not contend on the lock of the local {@link Properties} object. System
+ * properties are checked on every lookup, picking up changes at any time. Values are
+ * returned as defined, without resolving {@code ${...}} placeholders.
+ *
  * @author Juergen Hoeller
  * @since 3.2.7
  */
@@ -48,6 +57,9 @@ public abstract class SpringProperties {
 
 	private static final Properties localProperties = new Properties();
 
+	/** Snapshot of the local properties, replaced on every change */
+	private static volatile Map<String, String> localPropertyValues = Collections.emptyMap();
+
 
 	static {
 		try {
@@ -70,6 +82,8 @@ public abstract class SpringProperties {
 				logger.info("Could not load 'spring.properties' file from local classpath: " + ex);
 			}
 		}
+
+		refreshLocalPropertyValues();
 	}
 
 
@@ -79,13 +93,14 @@ public abstract class SpringProperties {
 	 * @param key the property key
 	 * @param value the associated property value, or {@code null} to reset it
 	 */
-	public static void setProperty(String key, String value) {
+	public static synchronized void setProperty(String key, String value) {
 		if (value != null) {
 			localProperties.setProperty(key, value);
 		}
 		else {
 			localProperties.remove(key);
 		}
+		refreshLocalPropertyValues();
 	}
 
 	/**
@@ -95,7 +110,7 @@ public abstract class SpringProperties {
 	 * @return the associated property value, or {@code null} if none found
 	 */
 	public static String getProperty(String key) {
-		String value = localProperties.getProperty(key);
+		String value = localPropertyValues.get(key);
 		if (value == null) {
 			try {
 				value = System.getProperty(key);
@@ -114,8 +129,9 @@ public abstract class SpringProperties {
 	 * entry in the {@code spring.properties} file (if any).
 	 * @param key the property key
 	 */
-	public static void setFlag(String key) {
+	public static synchronized void setFlag(String key) {
 		localProperties.put(key, Boolean.TRUE.toString());
+		refreshLocalPropertyValues();
 	}
 
 	/**
@@ -128,4 +144,15 @@ public abstract class SpringProperties {
 		return Boolean.parseBoolean(getProperty(key));
 	}
 
+	/**
+	 * Replace the snapshot of the local properties read by {@link #getProperty}.
+	 */
+	private static void refreshLocalPropertyValues() {
+		Map<String, String> values = new HashMap<String, String>();
+		for (String name : localProperties.stringPropertyNames()) {
+			values.put(name, localProperties.getProperty(name));
+		}
+		localPropertyValues = values;
+	}
+
 }
@@ -25,6 +25,7 @@ import com.springframework.util.ClassUtils;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -87,12 +88,12 @@ public class TypeDescriptor implements Serializable {
      * <p>Use this constructor when a source or target conversion point is a field.
      * @param field the field
      */
-//    public TypeDescriptor(Field field) {
-//        Assert.notNull(field, "Field must not be null");
-//        this.resolvableType = ResolvableType.forField(field);
-//        this.type = this.resolvableType.resolve(field.getType());
-//        this.annotations = nullSafeAnnotations(field.getAnnotations());
-//    }
+    public TypeDescriptor(Field field) {
+        Assert.notNull(field, "Field must not be null");
+        this.resolvableType = ResolvableType.forField(field);
+        this.type = this.resolvableType.resolve(field.getType());
+        this.annotations = nullSafeAnnotations(field.getAnnotations());
+    }
 
     /**
      * Create a new type descriptor from a {@link Property}.
@@ -153,4 +154,71 @@ public class TypeDescriptor implements Serializable {
     public Class<?> getType() {
         return this.type;
     }
+
+    /**
+     * Return the underlying {@link ResolvableType}.
+     */
+    public ResolvableType getResolvableType() {
+        return this.resolvableType;
+    }
+
+    /**
+     * Is this type a {@link Collection} type?
+     */
+    public boolean isCollection() {
+        return Collection.class.isAssignableFrom(getType());
+    }
+
+    /**
+     * Is this type a {@link Map} type?
+     */
+    public boolean isMap() {
+        return Map.class.isAssignableFrom(getType());
+    }
+
+    /**
+     * If this type is a {@link Collection}, returns the collection's element type.
+     * <p>Returns {@code null} if this type is not a collection or if its element
+     * type is not parameterized.
+     * @return the collection element type, or {@code null} if not resolvable
+     */
+    public TypeDescriptor getElementTypeDescriptor() {
+        if (!isCollection()) {
+            return null;
+        }
+        return getRelatedIfResolvable(this.resolvableType.asCollection().getGeneric(0));
+    }
+
+    /**
+     * If this type is a {@link Map}, returns the map's key type.
+     * <p>Returns {@code null} if this type is not a map or if its key type
+     * is not parameterized.
+     * @return the map key type, or {@code null} if not resolvable
+     */
+    public TypeDescriptor getMapKeyTypeDescriptor() {
+        if (!isMap()) {
+            return null;
+        }
+        return getRelatedIfResolvable(this.resolvableType.asMap().getGeneric(0));
+    }
+
+    /**
+     * If this type is a {@link Map}, returns the map's value type.
+     * <p>Returns {@code null} if this type is not a map or if its value type
+     * is not parameterized.
+     * @return the map value type, or {@code null} if not resolvable
+     */
+    public TypeDescriptor getMapValueTypeDescriptor() {
+        if (!isMap()) {
+            return null;
+        }
+        return getRelatedIfResolvable(this.resolvableType.asMap().getGeneric(1));
+    }
+
+    private TypeDescriptor getRelatedIfResolvable(ResolvableType type) {
+        if (type.resolve() == null) {
+            return null;
+        }
+        return new TypeDescriptor(type, null, this.annotations);
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.env;
+
+/**
+ * Interface representing the environment in which the current application is running,
+ * giving access to its properties: system properties, system environment variables,
+ * properties files, and any other {@link PropertySource} registered with it.
+ *
+ * @see StandardEnvironment
+ */
+public interface Environment extends PropertyResolver {
+
+	/**
+	 * Return the {@link PropertySource}s of this environment in mutable form,
+	 * allowing for adding, replacing and removing sources, which invalidates
+	 * any cached property lookups.
+	 */
+	MutablePropertySources getPropertySources();
+
+}
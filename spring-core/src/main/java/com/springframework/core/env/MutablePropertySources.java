@@ -0,0 +1,246 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.env;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holder containing one or more {@link PropertySource} objects, searched in
+ * order of precedence by a {@link PropertySourcesPropertyResolver}.
+ *
+ * <p>Allows manipulation of contained property sources through methods such as
+ * {@link #addFirst}, {@link #addLast}, {@link #addBefore}, {@link #addAfter} and
+ * {@link #replace}. Each such change increments a modification count, which lets
+ * resolvers on top of this holder invalidate their cached lookups.
+ *
+ * <p>Iteration works on a snapshot of the contained sources and is safe
+ * against concurrent modification.
+ *
+ * @see PropertySourcesPropertyResolver
+ */
+public class MutablePropertySources implements Iterable<PropertySource<?>> {
+
+	private final List<PropertySource<?>> propertySourceList = new CopyOnWriteArrayList<PropertySource<?>>();
+
+	private volatile int modificationCount;
+
+
+	/**
+	 * Create a new {@link MutablePropertySources} object.
+	 */
+	public MutablePropertySources() {
+	}
+
+	/**
+	 * Create a new {@code MutablePropertySources} from the given propertySources
+	 * object, preserving the original order of contained {@code PropertySource} objects.
+	 */
+	public MutablePropertySources(MutablePropertySources propertySources) {
+		this();
+		for (PropertySource<?> propertySource : propertySources) {
+			addLast(propertySource);
+		}
+	}
+
+
+	/**
+	 * Return whether a property source with the given name is contained.
+	 * @param name the {@linkplain PropertySource#getName() name of the property source} to find
+	 */
+	public boolean contains(String name) {
+		return (get(name) != null);
+	}
+
+	/**
+	 * Return the property source with the given name, {@code null} if not found.
+	 * @param name the {@linkplain PropertySource#getName() name of the property source} to find
+	 */
+	public PropertySource<?> get(String name) {
+		for (PropertySource<?> propertySource : this.propertySourceList) {
+			if (propertySource.getName().equals(name)) {
+				return propertySource;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Iterator<PropertySource<?>> iterator() {
+		return this.propertySourceList.iterator();
+	}
+
+	/**
+	 * Add the given property source object with highest precedence.
+	 */
+	public void addFirst(PropertySource<?> propertySource) {
+		synchronized (this.propertySourceList) {
+			removeIfPresent(propertySource);
+			this.propertySourceList.add(0, propertySource);
+			this.modificationCount++;
+		}
+	}
+
+	/**
+	 * Add the given property source object with lowest precedence.
+	 */
+	public void addLast(PropertySource<?> propertySource) {
+		synchronized (this.propertySourceList) {
+			removeIfPresent(propertySource);
+			this.propertySourceList.add(propertySource);
+			this.modificationCount++;
+		}
+	}
+
+	/**
+	 * Add the given property source object with precedence immediately higher
+	 * than the named relative property source.
+	 */
+	public void addBefore(String relativePropertySourceName, PropertySource<?> propertySource) {
+		assertLegalRelativeAddition(relativePropertySourceName, propertySource);
+		synchronized (this.propertySourceList) {
+			removeIfPresent(propertySource);
+			int index = assertPresentAndGetIndex(relativePropertySourceName);
+			this.propertySourceList.add(index, propertySource);
+			this.modificationCount++;
+		}
+	}
+
+	/**
+	 * Add the given property source object with precedence immediately lower
+	 * than the named relative property source.
+	 */
+	public void addAfter(String relativePropertySourceName, PropertySource<?> propertySource) {
+		assertLegalRelativeAddition(relativePropertySourceName, propertySource);
+		synchronized (this.propertySourceList) {
+			removeIfPresent(propertySource);
+			int index = assertPresentAndGetIndex(relativePropertySourceName);
+			this.propertySourceList.add(index + 1, propertySource);
+			this.modificationCount++;
+		}
+	}
+
+	/**
+	 * Return the precedence of the given property source, {@code -1} if not found.
+	 */
+	public int precedenceOf(PropertySource<?> propertySource) {
+		return this.propertySourceList.indexOf(propertySource);
+	}
+
+	/**
+	 * Remove and return the property source with the given name, {@code null} if not found.
+	 * @param name the name of the property source to find and remove
+	 */
+	public PropertySource<?> remove(String name) {
+		synchronized (this.propertySourceList) {
+			PropertySource<?> propertySource = get(name);
+			if (propertySource != null) {
+				this.propertySourceList.remove(propertySource);
+				this.modificationCount++;
+			}
+			return propertySource;
+		}
+	}
+
+	/**
+	 * Replace the property source with the given name with the given property source object.
+	 * @param name the name of the property source to find and replace
+	 * @param propertySource the replacement property source
+	 * @throws IllegalArgumentException if no property source with the given name is present
+	 * @see #contains
+	 */
+	public void replace(String name, PropertySource<?> propertySource) {
+		synchronized (this.propertySourceList) {
+			int index = assertPresentAndGetIndex(name);
+			this.propertySourceList.set(index, propertySource);
+			this.modificationCount++;
+		}
+	}
+
+	/**
+	 * Return the number of {@link PropertySource} objects contained.
+	 */
+	public int size() {
+		return this.propertySourceList.size();
+	}
+
+	/**
+	 * Return the number of changes made to the contained property sources so far.
+	 * Resolvers compare this count against the count their cached lookups were
+	 * made with, discarding the cache once the property sources changed.
+	 */
+	int getModificationCount() {
+		return this.modificationCount;
+	}
+
+	@Override
+	public String toString() {
+		return this.propertySourceList.toString();
+	}
+
+
+	/**
+	 * Ensure that the given property source is not being added relative to itself.
+	 */
+	protected void assertLegalRelativeAddition(String relativePropertySourceName, PropertySource<?> propertySource) {
+		String newPropertySourceName = propertySource.getName();
+		if (relativePropertySourceName.equals(newPropertySourceName)) {
+			throw new IllegalArgumentException(
+					"PropertySource named '" + newPropertySourceName + "' cannot be added relative to itself");
+		}
+	}
+
+	/**
+	 * Remove the given property source if it is present.
+	 */
+	protected void removeIfPresent(PropertySource<?> propertySource) {
+		this.propertySourceList.remove(propertySource);
+	}
+
+	/**
+	 * Assert that the named property source is present and return its index.
+	 * @param name {@linkplain PropertySource#getName() name of the property source} to find
+	 * @throws IllegalArgumentException if the named property source is not present
+	 */
+	private int assertPresentAndGetIndex(String name) {
+		int index = this.propertySourceList.indexOf(new NamedPropertySource(name));
+		if (index == -1) {
+			throw new IllegalArgumentException("PropertySource named '" + name + "' does not exist");
+		}
+		return index;
+	}
+
+
+	/**
+	 * Stand-in for looking up a property source by name, relying on
+	 * {@link PropertySource#equals} being based on the name only.
+	 */
+	private static class NamedPropertySource extends PropertySource<Object> {
+
+		public NamedPropertySource(String name) {
+			super(name, new Object());
+		}
+
+		@Override
+		public Object getProperty(String name) {
+			return null;
+		}
+	}
+
+}
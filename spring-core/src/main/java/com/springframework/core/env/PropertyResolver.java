@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.env;
+
+/**
+ * Interface for resolving properties against any underlying source.
+ *
+ * @see Environment
+ * @see PropertySourcesPropertyResolver
+ */
+public interface PropertyResolver {
+
+	/**
+	 * Return whether the given property key is available for resolution,
+	 * i.e. if the value for the given key is not {@code null}.
+	 */
+	boolean containsProperty(String key);
+
+	/**
+	 * Return the property value associated with the given key,
+	 * or {@code null} if the key cannot be resolved.
+	 * @param key the property name to resolve
+	 * @see #getProperty(String, String)
+	 * @see #getRequiredProperty(String)
+	 */
+	String getProperty(String key);
+
+	/**
+	 * Return the property value associated with the given key, or
+	 * {@code defaultValue} if the key cannot be resolved.
+	 * @param key the property name to resolve
+	 * @param defaultValue the default value to return if no value is found
+	 * @see #getRequiredProperty(String)
+	 */
+	String getProperty(String key, String defaultValue);
+
+	/**
+	 * Return the property value associated with the given key (never {@code null}).
+	 * @throws IllegalStateException if the key cannot be resolved
+	 * @see #getProperty(String)
+	 */
+	String getRequiredProperty(String key) throws IllegalStateException;
+
+	/**
+	 * Resolve ${...} placeholders in the given text, replacing them with corresponding
+	 * property values as resolved by {@link #getProperty}. Unresolvable placeholders with
+	 * no default value are ignored and passed through unchanged.
+	 * @param text the String to resolve
+	 * @return the resolved String (never {@code null})
+	 * @throws IllegalArgumentException if given text is {@code null}
+	 * @see #resolveRequiredPlaceholders
+	 */
+	String resolvePlaceholders(String text);
+
+	/**
+	 * Resolve ${...} placeholders in the given text, replacing them with corresponding
+	 * property values as resolved by {@link #getProperty}. Unresolvable placeholders with
+	 * no default value will cause an IllegalArgumentException to be thrown.
+	 * @return the resolved String (never {@code null})
+	 * @throws IllegalArgumentException if given text is {@code null}
+	 * or if any placeholders are unresolvable
+	 */
+	String resolveRequiredPlaceholders(String text) throws IllegalArgumentException;
+
+}
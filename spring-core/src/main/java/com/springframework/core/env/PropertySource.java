@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.env;
+
+import com.springframework.util.Assert;
+import com.springframework.util.ObjectUtils;
+
+/**
+ * Abstract base class representing a source of name/value property pairs.
+ * The underlying {@linkplain #getSource() source object} may be of any type
+ * {@code T} that encapsulates properties, e.g. a {@link java.util.Map} or
+ * {@link java.util.Properties} object.
+ *
+ * <p>{@code PropertySource} objects are usually not used in isolation, but
+ * rather through a {@link PropertySourcesPropertyResolver}, which searches an
+ * ordered set of sources. Equality is based on the name of a property source
+ * only, making it possible to identify sources in a {@link MutablePropertySources}
+ * collection by name.
+ *
+ * @param <T> the source type
+ * @see MutablePropertySources
+ * @see PropertySourcesPropertyResolver
+ */
+public abstract class PropertySource<T> {
+
+	protected final String name;
+
+	protected final T source;
+
+
+	/**
+	 * Create a new {@code PropertySource} with the given name and source object.
+	 * @param name the associated name
+	 * @param source the source object
+	 */
+	public PropertySource(String name, T source) {
+		Assert.hasText(name, "Property source name must contain at least one character");
+		Assert.notNull(source, "Property source must not be null");
+		this.name = name;
+		this.source = source;
+	}
+
+
+	/**
+	 * Return the name of this {@code PropertySource}.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Return the underlying source object for this {@code PropertySource}.
+	 */
+	public T getSource() {
+		return this.source;
+	}
+
+	/**
+	 * Return whether this {@code PropertySource} contains the given name.
+	 * <p>This implementation simply checks for a {@code null} return value
+	 * from {@link #getProperty(String)}. Subclasses may wish to implement
+	 * a more efficient algorithm if possible.
+	 * @param name the property name to find
+	 */
+	public boolean containsProperty(String name) {
+		return (getProperty(name) != null);
+	}
+
+	/**
+	 * Return the value associated with the given name,
+	 * or {@code null} if not found.
+	 * @param name the property to find
+	 */
+	public abstract Object getProperty(String name);
+
+
+	/**
+	 * This {@code PropertySource} object is equal to the given object if
+	 * both are {@code PropertySource} instances with the same name.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof PropertySource &&
+				ObjectUtils.nullSafeEquals(this.name, ((PropertySource<?>) other).name)));
+	}
+
+	/**
+	 * Return a hash code derived from the {@code name} property
+	 * of this {@code PropertySource} object.
+	 */
+	@Override
+	public int hashCode() {
+		return ObjectUtils.nullSafeHashCode(this.name);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {name='" + this.name + "'}";
+	}
+
+}
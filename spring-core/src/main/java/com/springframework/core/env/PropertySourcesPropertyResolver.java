@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.env;
+
+import com.springframework.util.Assert;
+import com.springframework.util.PropertyPlaceholderHelper;
+import com.springframework.util.PropertyPlaceholderHelper.PlaceholderResolver;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link PropertyResolver} implementation that resolves property values against
+ * an underlying set of {@link PropertySource PropertySources}, the first source
+ * containing a key winning.
+ *
+ * <p>Raw values are cached per key, including misses, in a lock-free map that
+ * gets discarded as soon as a property source is added, replaced or removed
+ * through the {@link MutablePropertySources} holder. Repeated lookups therefore
+ * neither walk the property sources again nor contend on the locks of sources
+ * such as {@link System#getProperties()}. Changes made to the contents of an
+ * existing source are not detected: call {@link #clearCache()} after changing
+ * a source in place, e.g. through {@link System#setProperty}.
+ *
+ * <p>Property values containing ${...} placeholders are resolved against this
+ * resolver as well, using the compiled templates of {@link PropertyPlaceholderHelper}.
+ *
+ * @see MutablePropertySources
+ * @see StandardEnvironment
+ */
+public class PropertySourcesPropertyResolver implements PropertyResolver {
+
+	/** Default placeholder prefix: {@value} */
+	public static final String PLACEHOLDER_PREFIX = "${";
+
+	/** Default placeholder suffix: {@value} */
+	public static final String PLACEHOLDER_SUFFIX = "}";
+
+	/** Default value separator: {@value} */
+	public static final String VALUE_SEPARATOR = ":";
+
+	/** Marker for keys not contained in any property source */
+	private static final Object NO_VALUE = new Object();
+
+	private static final Log logger = LogFactory.getLog(PropertySourcesPropertyResolver.class);
+
+
+	private final MutablePropertySources propertySources;
+
+	private final PropertyPlaceholderHelper nonStrictHelper =
+			new PropertyPlaceholderHelper(PLACEHOLDER_PREFIX, PLACEHOLDER_SUFFIX, VALUE_SEPARATOR, true);
+
+	private final PropertyPlaceholderHelper strictHelper =
+			new PropertyPlaceholderHelper(PLACEHOLDER_PREFIX, PLACEHOLDER_SUFFIX, VALUE_SEPARATOR, false);
+
+	private final PlaceholderResolver rawValueResolver = new PlaceholderResolver() {
+		@Override
+		public String resolvePlaceholder(String placeholderName) {
+			return getRawProperty(placeholderName);
+		}
+	};
+
+	private boolean ignoreUnresolvableNestedPlaceholders = false;
+
+	private volatile ResolvedKeyCache resolvedKeyCache = new ResolvedKeyCache(-1);
+
+
+	/**
+	 * Create a new resolver against the given property sources.
+	 * @param propertySources the set of {@link PropertySource} objects to use
+	 */
+	public PropertySourcesPropertyResolver(MutablePropertySources propertySources) {
+		Assert.notNull(propertySources, "PropertySources must not be null");
+		this.propertySources = propertySources;
+	}
+
+
+	/**
+	 * Set whether to throw an exception when encountering an unresolvable placeholder
+	 * nested within the value of a given property. A {@code false} value indicates strict
+	 * resolution, i.e. that an exception will be thrown. A {@code true} value indicates
+	 * that unresolvable nested placeholders should be passed through in their unresolved
+	 * ${...} form.
+	 * <p>The default is {@code false}.
+	 */
+	public void setIgnoreUnresolvableNestedPlaceholders(boolean ignoreUnresolvableNestedPlaceholders) {
+		this.ignoreUnresolvableNestedPlaceholders = ignoreUnresolvableNestedPlaceholders;
+	}
+
+
+	@Override
+	public boolean containsProperty(String key) {
+		return (getRawProperty(key) != null);
+	}
+
+	@Override
+	public String getProperty(String key) {
+		String value = getRawProperty(key);
+		if (value != null && value.contains(PLACEHOLDER_PREFIX)) {
+			value = (this.ignoreUnresolvableNestedPlaceholders ? this.nonStrictHelper : this.strictHelper)
+					.replacePlaceholders(value, this.rawValueResolver);
+		}
+		return value;
+	}
+
+	@Override
+	public String getProperty(String key, String defaultValue) {
+		String value = getProperty(key);
+		return (value != null ? value : defaultValue);
+	}
+
+	@Override
+	public String getRequiredProperty(String key) throws IllegalStateException {
+		String value = getProperty(key);
+		if (value == null) {
+			throw new IllegalStateException("Required key '" + key + "' not found");
+		}
+		return value;
+	}
+
+	@Override
+	public String resolvePlaceholders(String text) {
+		Assert.notNull(text, "Text must not be null");
+		return this.nonStrictHelper.replacePlaceholders(text, this.rawValueResolver);
+	}
+
+	@Override
+	public String resolveRequiredPlaceholders(String text) throws IllegalArgumentException {
+		Assert.notNull(text, "Text must not be null");
+		return this.strictHelper.replacePlaceholders(text, this.rawValueResolver);
+	}
+
+	/**
+	 * Discard all cached lookups, e.g. after the contents of a property source
+	 * changed. Adding, replacing or removing property sources does not require
+	 * this call.
+	 */
+	public void clearCache() {
+		this.resolvedKeyCache = new ResolvedKeyCache(this.propertySources.getModificationCount());
+	}
+
+	/**
+	 * Return the value of the given key as found in the first property source
+	 * containing it, without resolving any placeholders in it.
+	 * @param key the property name to resolve
+	 * @return the raw value, or {@code null} if not found
+	 */
+	protected String getRawProperty(String key) {
+		int modificationCount = this.propertySources.getModificationCount();
+		ResolvedKeyCache cache = this.resolvedKeyCache;
+		if (cache.modificationCount != modificationCount) {
+			cache = new ResolvedKeyCache(modificationCount);
+			this.resolvedKeyCache = cache;
+		}
+		Object value = cache.values.get(key);
+		if (value == null) {
+			value = findProperty(key);
+			// A concurrent change of the property sources leaves this entry in a
+			// cache that is going to be discarded on the next lookup.
+			cache.values.put(key, (value != null ? value : NO_VALUE));
+		}
+		return (value != NO_VALUE ? (String) value : null);
+	}
+
+	private String findProperty(String key) {
+		for (PropertySource<?> propertySource : this.propertySources) {
+			Object value = propertySource.getProperty(key);
+			if (value != null) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Found key '" + key + "' in PropertySource '" + propertySource.getName() + "'");
+				}
+				return value.toString();
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Lookups made against a given state of the property sources.
+	 */
+	private static class ResolvedKeyCache {
+
+		final int modificationCount;
+
+		final ConcurrentMap<String, Object> values = new ConcurrentHashMap<String, Object>(64);
+
+		ResolvedKeyCache(int modificationCount) {
+			this.modificationCount = modificationCount;
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.env;
+
+import com.springframework.core.SpringProperties;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * {@link Environment} implementation suitable for use in 'standard' (i.e. non-web)
+ * applications.
+ *
+ * <p>Comes with two default {@link PropertySource} objects, searched in the
+ * following order:
+ * <ul>
+ * <li>{@linkplain #SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME system properties}
+ * <li>{@linkplain #SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME system environment variables}
+ * </ul>
+ * Further sources such as properties files and maps can be added through
+ * {@link #getPropertySources()}. Lookups get cached until the property sources
+ * change, see {@link PropertySourcesPropertyResolver}.
+ *
+ * @see SystemEnvironmentPropertySource
+ */
+public class StandardEnvironment implements Environment {
+
+	/** System environment property source name: {@value} */
+	public static final String SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME = "systemEnvironment";
+
+	/** JVM system properties property source name: {@value} */
+	public static final String SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME = "systemProperties";
+
+	/**
+	 * System property that instructs Spring to ignore system environment variables,
+	 * i.e. to never attempt to retrieve such a variable via {@link System#getenv()}.
+	 * <p>The default is "false", falling back to system environment variable checks if a
+	 * Spring environment property (e.g. a placeholder in a configuration String) isn't
+	 * resolvable otherwise. Consider switching this flag to "true" if you experience
+	 * log warnings from {@code getenv} calls coming from Spring, e.g. on WebSphere
+	 * with strict SecurityManager settings and AccessControlExceptions warnings.
+	 */
+	public static final String IGNORE_GETENV_PROPERTY_NAME = "spring.getenv.ignore";
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final MutablePropertySources propertySources = new MutablePropertySources();
+
+	private final PropertySourcesPropertyResolver propertyResolver =
+			new PropertySourcesPropertyResolver(this.propertySources);
+
+
+	/**
+	 * Create a new {@code StandardEnvironment} instance with the default property sources.
+	 * @see #customizePropertySources(MutablePropertySources)
+	 */
+	public StandardEnvironment() {
+		customizePropertySources(this.propertySources);
+	}
+
+
+	/**
+	 * Customize the set of property sources this environment starts out with,
+	 * adding the system properties and system environment variables by default.
+	 * Subclasses may add further sources before or after these.
+	 * @param propertySources the property sources of this environment
+	 */
+	protected void customizePropertySources(MutablePropertySources propertySources) {
+		propertySources.addLast(new MapPropertySource(SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME, getSystemProperties()));
+		propertySources.addLast(new SystemEnvironmentPropertySource(SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
+				getSystemEnvironment()));
+	}
+
+	@Override
+	public MutablePropertySources getPropertySources() {
+		return this.propertySources;
+	}
+
+	/**
+	 * Return the JVM system properties as a Map, or an empty Map
+	 * if access to them is not allowed.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public Map<String, Object> getSystemProperties() {
+		try {
+			return (Map) System.getProperties();
+		}
+		catch (SecurityException ex) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Caught SecurityException when accessing system properties: " + ex);
+			}
+			return Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * Return the system environment variables as a Map, or an empty Map if
+	 * access to them is not allowed or the {@link #IGNORE_GETENV_PROPERTY_NAME}
+	 * flag is set.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public Map<String, Object> getSystemEnvironment() {
+		if (SpringProperties.getFlag(IGNORE_GETENV_PROPERTY_NAME)) {
+			return Collections.emptyMap();
+		}
+		try {
+			return (Map) System.getenv();
+		}
+		catch (SecurityException ex) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Caught SecurityException when accessing system environment: " + ex);
+			}
+			return Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * Discard all cached property lookups, e.g. after changing system properties
+	 * that have been looked up through this environment before.
+	 * @see PropertySourcesPropertyResolver#clearCache()
+	 */
+	public void clearCache() {
+		this.propertyResolver.clearCache();
+	}
+
+
+	//---------------------------------------------------------------------
+	// Implementation of PropertyResolver interface
+	//---------------------------------------------------------------------
+
+	@Override
+	public boolean containsProperty(String key) {
+		return this.propertyResolver.containsProperty(key);
+	}
+
+	@Override
+	public String getProperty(String key) {
+		return this.propertyResolver.getProperty(key);
+	}
+
+	@Override
+	public String getProperty(String key, String defaultValue) {
+		return this.propertyResolver.getProperty(key, defaultValue);
+	}
+
+	@Override
+	public String getRequiredProperty(String key) throws IllegalStateException {
+		return this.propertyResolver.getRequiredProperty(key);
+	}
+
+	@Override
+	public String resolvePlaceholders(String text) {
+		return this.propertyResolver.resolvePlaceholders(text);
+	}
+
+	@Override
+	public String resolveRequiredPlaceholders(String text) throws IllegalArgumentException {
+		return this.propertyResolver.resolveRequiredPlaceholders(text);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {propertySources=" + this.propertySources + "}";
+	}
+
+}
@@ -3,12 +3,17 @@ package com.springframework.core.io;
 import com.springframework.util.ResourceUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.jar.JarEntry;
 
 /**
  * Created by hadoop on 2015/5/6 0006.
@@ -57,6 +62,10 @@ public abstract class AbstractFileResolvingResource extends AbstractResource {
                 // Proceed with file system resolution...
                 return getFile().exists();
             }
+            else if (JarFilePool.isPoolable(url)) {
+                // Look up the entry in the pooled jar file...
+                return (JarFilePool.getSharedInstance().getEntry(url) != null);
+            }
             else {
                 // Try a URL connection content-length header...
                 URLConnection con = url.openConnection();
@@ -111,6 +120,37 @@ public abstract class AbstractFileResolvingResource extends AbstractResource {
         }
     }
 
+    /**
+     * This implementation opens a FileChannel for a resource in the file system,
+     * falling back to a channel over the resource's InputStream otherwise.
+     */
+    @Override
+    public ReadableByteChannel readableChannel() throws IOException {
+        URL url = getURL();
+        if (ResourceUtils.isFileURL(url)) {
+            return new FileInputStream(getFile()).getChannel();
+        }
+        else {
+            return super.readableChannel();
+        }
+    }
+
+    /**
+     * This implementation maps a resource in the file system into memory,
+     * falling back to reading its content into a heap buffer otherwise.
+     * @see FileSystemResource#getByteBuffer()
+     */
+    @Override
+    public ByteBuffer getByteBuffer() throws IOException {
+        URL url = getURL();
+        if (ResourceUtils.isFileURL(url)) {
+            return new FileSystemResource(getFile()).getByteBuffer();
+        }
+        else {
+            return super.getByteBuffer();
+        }
+    }
+
     @Override
     public long contentLength() throws IOException {
         URL url = getURL();
@@ -118,6 +158,15 @@ public abstract class AbstractFileResolvingResource extends AbstractResource {
             // Proceed with file system resolution...
             return getFile().length();
         }
+        else if (JarFilePool.isPoolable(url)) {
+            // Take the size from the pooled jar file's central directory...
+            JarEntry entry = JarFilePool.getSharedInstance().getEntry(url);
+            if (entry == null) {
+                throw new FileNotFoundException(getDescription() +
+                        " cannot be resolved in its jar file for resolving its content length");
+            }
+            return entry.getSize();
+        }
         else {
             // Try a URL connection content-length header...
             URLConnection con = url.openConnection();
@@ -2,6 +2,7 @@ package com.springframework.core.io;
 
 import com.springframework.util.Assert;
 import com.springframework.util.ResourceUtils;
+import com.springframework.util.StreamUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -10,6 +11,9 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * Created by hadoop on 2015/5/5 0005.
@@ -88,6 +92,31 @@ public abstract class AbstractResource implements Resource {
         throw new FileNotFoundException(getDescription() + " cannot be resolved to absolute file path");
     }
 
+    /**
+     * This implementation returns {@link Channels#newChannel(InputStream)}
+     * with the result of {@link #getInputStream()}.
+     */
+    @Override
+    public ReadableByteChannel readableChannel() throws IOException {
+        return Channels.newChannel(getInputStream());
+    }
+
+    /**
+     * This implementation reads the content of {@link #readableChannel()}
+     * into a heap buffer.
+     * @see StreamUtils#copyToByteBuffer
+     */
+    @Override
+    public ByteBuffer getByteBuffer() throws IOException {
+        ReadableByteChannel channel = readableChannel();
+        try {
+            return StreamUtils.copyToByteBuffer(channel);
+        }
+        finally {
+            channel.close();
+        }
+    }
+
     /**
      * This implementation reads the entire InputStream to calculate the
      * content length. Subclasses will almost always be able to provide
@@ -46,35 +46,61 @@ public class ClassPathResource extends AbstractFileResolvingResource {
 
     /**
      * Resolves a URL for the underlying class path resource.
+     * <p>Lookups get cached per ClassLoader, including lookups of
+     * resources that do not exist.
+     * @see #clearCache(ClassLoader)
      */
     protected URL resolveURL() {
         if (this.clazz != null) {
-            return this.clazz.getResource(this.path);
-        }
-        else if (this.classLoader != null) {
-            return this.classLoader.getResource(this.path);
+            ClassLoader cl = this.clazz.getClassLoader();
+            if (cl == null) {
+                return this.clazz.getResource(this.path);
+            }
+            return ClassPathResourceCache.getResource(cl, resolveClassRelativePath());
         }
         else {
-            return ClassLoader.getSystemResource(this.path);
+            return ClassPathResourceCache.getResource(this.classLoader, this.path);
         }
     }
 
+    /**
+     * Resolve the path relative to the given class into an absolute
+     * resource name, the same way {@link Class#getResource} does.
+     */
+    private String resolveClassRelativePath() {
+        if (this.path.startsWith("/")) {
+            return this.path.substring(1);
+        }
+        String packagePath = ClassUtils.classPackageAsResourcePath(this.clazz);
+        return (packagePath.length() > 0 ? packagePath + "/" + this.path : this.path);
+    }
+
+    /**
+     * Clear the cached class path lookups for the given ClassLoader, e.g.
+     * after resources have been added to its class path at runtime.
+     * @param classLoader the ClassLoader to clear the lookups for,
+     * or {@code null} to clear the lookups for all ClassLoaders
+     */
+    public static void clearCache(ClassLoader classLoader) {
+        ClassPathResourceCache.clear(classLoader);
+    }
+
 
+    /**
+     * This implementation opens the URL resolved for the underlying
+     * class path resource, reading entries of jar files through the
+     * shared {@link JarFilePool}.
+     */
     @Override
     public InputStream getInputStream() throws IOException {
-        InputStream is;
-        if(clazz!=null){
-            is = clazz.getResourceAsStream(path);
-        }else if(classLoader!=null){
-            is = classLoader.getResourceAsStream(path);
-        }
-        else {
-            is = ClassLoader.getSystemResourceAsStream(this.path);
-        }
-        if (is == null) {
+        URL url = resolveURL();
+        if (url == null) {
             throw new FileNotFoundException(getDescription() + " cannot be opened because it does not exist");
         }
-        return is;
+        if (JarFilePool.isPoolable(url)) {
+            return JarFilePool.getSharedInstance().getInputStream(url);
+        }
+        return url.openStream();
     }
 
     @Override
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of class path resource lookups, per {@link ClassLoader}: remembers
+ * the {@link URL} a resource name resolved to, as well as resource names
+ * that did not resolve at all.
+ *
+ * <p>ClassLoaders are held weakly, so the cached lookups go away together
+ * with a discarded ClassLoader. Since a miss gets cached as well, resources
+ * added to the class path later on only become visible after a call to
+ * {@link #clear(ClassLoader)}.
+ *
+ * @see ClassPathResource#clearCache(ClassLoader)
+ */
+final class ClassPathResourceCache {
+
+	private static final Object NOT_FOUND = new Object();
+
+	private static final Map<ClassLoader, ConcurrentMap<String, Object>> cache =
+			Collections.synchronizedMap(new WeakHashMap<ClassLoader, ConcurrentMap<String, Object>>());
+
+
+	private ClassPathResourceCache() {
+	}
+
+
+	/**
+	 * Resolve the given resource name against the given ClassLoader,
+	 * reusing the result of an earlier lookup if possible.
+	 * @param classLoader the ClassLoader to resolve against
+	 * ({@code null} indicating the system ClassLoader)
+	 * @param name the absolute resource name, without leading slash
+	 * @return the resource URL, or {@code null} if not found
+	 */
+	public static URL getResource(ClassLoader classLoader, String name) {
+		if (classLoader == null) {
+			classLoader = ClassLoader.getSystemClassLoader();
+			if (classLoader == null) {
+				return ClassLoader.getSystemResource(name);
+			}
+		}
+		ConcurrentMap<String, Object> resources = cache.get(classLoader);
+		if (resources == null) {
+			synchronized (cache) {
+				resources = cache.get(classLoader);
+				if (resources == null) {
+					resources = new ConcurrentHashMap<String, Object>(64);
+					cache.put(classLoader, resources);
+				}
+			}
+		}
+		Object url = resources.get(name);
+		if (url == null) {
+			url = classLoader.getResource(name);
+			if (url == null) {
+				url = NOT_FOUND;
+			}
+			resources.put(name, url);
+		}
+		return (url != NOT_FOUND ? (URL) url : null);
+	}
+
+	/**
+	 * Clear the cached lookups for the given ClassLoader.
+	 * @param classLoader the ClassLoader to clear the cache for,
+	 * or {@code null} to clear the entire cache
+	 */
+	public static void clear(ClassLoader classLoader) {
+		if (classLoader != null) {
+			cache.remove(classLoader);
+		}
+		else {
+			cache.clear();
+		}
+	}
+
+}
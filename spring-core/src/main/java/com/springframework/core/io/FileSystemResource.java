@@ -0,0 +1,262 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io;
+
+import com.springframework.util.Assert;
+import com.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * {@link Resource} implementation for {@code java.io.File} handles.
+ * Supports resolution as a {@code File} and also as a {@code URL}.
+ *
+ * <p>Content length and last-modified timestamp come straight from the
+ * file's attributes, without opening the file. Content is available as
+ * a stream, as a {@link FileChannel}, and as a memory-mapped
+ * {@link ByteBuffer} view.
+ *
+ * @see java.io.File
+ */
+public class FileSystemResource extends AbstractResource {
+
+	private final File file;
+
+	private final String path;
+
+
+	/**
+	 * Create a new {@code FileSystemResource} from a {@link File} handle.
+	 * <p>Note: When building relative resources via {@link #createRelative},
+	 * the relative path will apply <i>at the same directory level</i>:
+	 * e.g. new File("C:/dir1"), relative path "dir2" -> "C:/dir2"!
+	 * If you prefer to have relative paths built underneath the given root
+	 * directory, use the {@link #FileSystemResource(String) constructor with a file path}
+	 * to append a trailing slash to the root path: "C:/dir1/", which
+	 * indicates this directory as root for all relative paths.
+	 * @param file a File handle
+	 */
+	public FileSystemResource(File file) {
+		Assert.notNull(file, "File must not be null");
+		this.file = file;
+		this.path = StringUtils.cleanPath(file.getPath());
+	}
+
+	/**
+	 * Create a new {@code FileSystemResource} from a file path.
+	 * <p>Note: When building relative resources via {@link #createRelative},
+	 * it makes a difference whether the specified resource base path here
+	 * ends with a slash or not. In the case of "C:/dir1/", relative paths
+	 * will be built underneath that root: e.g. relative path "dir2" ->
+	 * "C:/dir1/dir2". In the case of "C:/dir1", relative paths will apply
+	 * at the same directory level: relative path "dir2" -> "C:/dir2".
+	 * @param path a file path
+	 */
+	public FileSystemResource(String path) {
+		Assert.notNull(path, "Path must not be null");
+		this.file = new File(path);
+		this.path = StringUtils.cleanPath(path);
+	}
+
+
+	/**
+	 * Return the file path for this resource.
+	 */
+	public final String getPath() {
+		return this.path;
+	}
+
+	/**
+	 * This implementation returns whether the underlying file exists.
+	 * @see java.io.File#exists()
+	 */
+	@Override
+	public boolean exists() {
+		return this.file.exists();
+	}
+
+	/**
+	 * This implementation checks whether the underlying file is marked as readable
+	 * (and corresponds to an actual file with content, not to a directory).
+	 * @see java.io.File#canRead()
+	 * @see java.io.File#isDirectory()
+	 */
+	@Override
+	public boolean isReadable() {
+		return (this.file.canRead() && !this.file.isDirectory());
+	}
+
+	/**
+	 * This implementation opens a FileInputStream for the underlying file.
+	 * @see java.io.FileInputStream
+	 */
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return new FileInputStream(this.file);
+	}
+
+	/**
+	 * This implementation opens a FileChannel for the underlying file.
+	 * @see java.nio.channels.FileChannel
+	 */
+	@Override
+	public ReadableByteChannel readableChannel() throws IOException {
+		return new FileInputStream(this.file).getChannel();
+	}
+
+	/**
+	 * Return a read-only, memory-mapped view of the underlying file's content.
+	 * <p>The mapping stays valid after this method returns and until the buffer
+	 * gets garbage-collected; note that some platforms do not allow for deleting
+	 * or replacing a mapped file in the meantime.
+	 * <p>A single buffer cannot address more than {@link Integer#MAX_VALUE} bytes;
+	 * files of that size or larger need to be read through {@link #getInputStream()}
+	 * or {@link #readableChannel()} instead.
+	 * @throws FileNotFoundException if the file does not exist
+	 * @throws IOException if the file could not be mapped, including files
+	 * larger than {@link Integer#MAX_VALUE} bytes
+	 * @see FileChannel#map
+	 */
+	@Override
+	public ByteBuffer getByteBuffer() throws IOException {
+		FileInputStream in = new FileInputStream(this.file);
+		try {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File [" + this.path + "] is too large to be mapped into a single buffer: " +
+						size + " bytes - read it through getInputStream() or readableChannel() instead");
+			}
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * This implementation returns a URL for the underlying file.
+	 * @see java.io.File#toURI()
+	 */
+	@Override
+	public URL getURL() throws IOException {
+		return this.file.toURI().toURL();
+	}
+
+	/**
+	 * This implementation returns a URI for the underlying file.
+	 * @see java.io.File#toURI()
+	 */
+	@Override
+	public URI getURI() throws IOException {
+		return this.file.toURI();
+	}
+
+	/**
+	 * This implementation returns the underlying File reference.
+	 */
+	@Override
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * This implementation returns the underlying File's length,
+	 * without opening the file.
+	 */
+	@Override
+	public long contentLength() throws IOException {
+		long length = this.file.length();
+		if (length == 0L && !this.file.exists()) {
+			throw new FileNotFoundException(getDescription() +
+					" cannot be resolved in the file system for resolving its content length");
+		}
+		return length;
+	}
+
+	/**
+	 * This implementation returns the underlying File's timestamp.
+	 */
+	@Override
+	public long lastModified() throws IOException {
+		long lastModified = this.file.lastModified();
+		if (lastModified == 0L) {
+			throw new FileNotFoundException(getDescription() +
+					" cannot be resolved in the file system for resolving its last-modified timestamp");
+		}
+		return lastModified;
+	}
+
+	/**
+	 * This implementation creates a FileSystemResource, applying the given path
+	 * relative to the path of the underlying file of this resource descriptor.
+	 * @see com.springframework.util.StringUtils#applyRelativePath(String, String)
+	 */
+	@Override
+	public Resource createRelative(String relativePath) {
+		String pathToUse = StringUtils.applyRelativePath(this.path, relativePath);
+		return new FileSystemResource(pathToUse);
+	}
+
+	/**
+	 * This implementation returns the name of the file.
+	 * @see java.io.File#getName()
+	 */
+	@Override
+	public String getFilename() {
+		return this.file.getName();
+	}
+
+	/**
+	 * This implementation returns a description that includes the absolute
+	 * path of the file.
+	 * @see java.io.File#getAbsolutePath()
+	 */
+	@Override
+	public String getDescription() {
+		return "file [" + this.file.getAbsolutePath() + "]";
+	}
+
+
+	/**
+	 * This implementation compares the underlying File references.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return (obj == this ||
+			(obj instanceof FileSystemResource && this.path.equals(((FileSystemResource) obj).path)));
+	}
+
+	/**
+	 * This implementation returns the hash code of the underlying File reference.
+	 */
+	@Override
+	public int hashCode() {
+		return this.path.hashCode();
+	}
+
+}
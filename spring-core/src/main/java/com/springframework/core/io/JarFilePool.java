@@ -0,0 +1,371 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io;
+
+import com.springframework.core.SpringProperties;
+import com.springframework.util.ResourceUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Pool of open {@link JarFile} handles for resources behind "jar:" URLs,
+ * so that reading many entries out of the same jar file does not parse
+ * the jar's central directory over and over again.
+ *
+ * <p>Handles are reference-counted: a handle stays open while any stream
+ * obtained from it is still open. Idle handles get closed in least-recently-used
+ * order once more than {@link #POOL_SIZE_PROPERTY_NAME} jar files are open.
+ * A jar file that changed in the file system gets reopened on next access.
+ *
+ * <p>Only covers jar files in the file system, addressed through a single
+ * {@code "!/"} separator; other jar URLs are left to {@link java.net.URLConnection}.
+ *
+ * @see UrlResource#getInputStream()
+ * @see AbstractFileResolvingResource#exists()
+ */
+final class JarFilePool {
+
+	/**
+	 * System property that sets the maximum number of idle jar files to keep
+	 * open: "spring.jarfile.pool.size", with a default of 32. A value of 0
+	 * closes each jar file as soon as it is not in use anymore.
+	 */
+	public static final String POOL_SIZE_PROPERTY_NAME = "spring.jarfile.pool.size";
+
+	private static final int DEFAULT_POOL_SIZE = 32;
+
+	private static final Log logger = LogFactory.getLog(JarFilePool.class);
+
+	private static final JarFilePool sharedInstance = new JarFilePool(determinePoolSize());
+
+
+	private final int poolSize;
+
+	/** Absolute jar file path --> handle, in least-recently-used order */
+	private final Map<String, Handle> handles = new LinkedHashMap<String, Handle>(16, 0.75f, true);
+
+
+	JarFilePool(int poolSize) {
+		this.poolSize = poolSize;
+	}
+
+
+	/**
+	 * Return the pool shared by all resources.
+	 */
+	public static JarFilePool getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Determine whether the given URL points to an entry of a jar file
+	 * in the file system that this pool is able to serve.
+	 */
+	public static boolean isPoolable(URL url) {
+		if (!ResourceUtils.URL_PROTOCOL_JAR.equals(url.getProtocol())) {
+			return false;
+		}
+		String urlFile = url.getFile();
+		int separatorIndex = urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR);
+		return (separatorIndex != -1 && urlFile.startsWith(ResourceUtils.FILE_URL_PREFIX) &&
+				separatorIndex + ResourceUtils.JAR_URL_SEPARATOR.length() < urlFile.length() &&
+				urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR, separatorIndex + 1) == -1);
+	}
+
+
+	/**
+	 * Look up the jar entry that the given URL points to.
+	 * @param url a poolable jar URL
+	 * @return the jar entry, or {@code null} if the jar file does not contain it
+	 * @throws IOException if the jar file could not be opened
+	 * @see #isPoolable(URL)
+	 */
+	public JarEntry getEntry(URL url) throws IOException {
+		Handle handle = acquire(getJarFile(url));
+		try {
+			return handle.jarFile.getJarEntry(getEntryName(url));
+		}
+		finally {
+			release(handle);
+		}
+	}
+
+	/**
+	 * Open a stream for the jar entry that the given URL points to.
+	 * The underlying jar file stays open until the stream gets closed.
+	 * @param url a poolable jar URL
+	 * @return the entry's content stream
+	 * @throws FileNotFoundException if the jar file does not contain the entry
+	 * @throws IOException if the jar file could not be opened
+	 * @see #isPoolable(URL)
+	 */
+	public InputStream getInputStream(URL url) throws IOException {
+		Handle handle = acquire(getJarFile(url));
+		try {
+			JarEntry entry = handle.jarFile.getJarEntry(getEntryName(url));
+			if (entry == null) {
+				throw new FileNotFoundException("JAR entry " + getEntryName(url) + " not found in " +
+						handle.jarFile.getName());
+			}
+			return new PooledEntryInputStream(handle.jarFile.getInputStream(entry), handle);
+		}
+		catch (IOException ex) {
+			release(handle);
+			throw ex;
+		}
+		catch (RuntimeException ex) {
+			release(handle);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Close all idle jar files, e.g. on application shutdown.
+	 * Jar files still in use get closed once released.
+	 */
+	public void clear() {
+		synchronized (this.handles) {
+			for (Iterator<Handle> it = this.handles.values().iterator(); it.hasNext();) {
+				Handle handle = it.next();
+				it.remove();
+				handle.retired = true;
+				if (handle.refCount == 0) {
+					handle.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the number of jar files currently in this pool, in use or idle.
+	 * Jar files that got retired while still in use are not included.
+	 */
+	int size() {
+		synchronized (this.handles) {
+			return this.handles.size();
+		}
+	}
+
+	/**
+	 * Determine whether the given jar file is currently in this pool.
+	 */
+	boolean contains(File jarFile) {
+		synchronized (this.handles) {
+			return this.handles.containsKey(jarFile.getAbsolutePath());
+		}
+	}
+
+
+	private Handle acquire(File file) throws IOException {
+		String key = file.getAbsolutePath();
+		long lastModified = file.lastModified();
+		long length = file.length();
+		synchronized (this.handles) {
+			Handle handle = getCurrentHandle(key, lastModified, length);
+			if (handle != null) {
+				handle.refCount++;
+				return handle;
+			}
+		}
+		// Open the jar file outside of the lock: reading its central directory
+		// must not block lookups for other jar files.
+		JarFile jarFile = new JarFile(file);
+		Handle handle;
+		synchronized (this.handles) {
+			handle = getCurrentHandle(key, lastModified, length);
+			if (handle == null) {
+				handle = new Handle(jarFile, lastModified, length);
+				this.handles.put(key, handle);
+				jarFile = null;
+			}
+			handle.refCount++;
+			evictIdleHandles();
+		}
+		if (jarFile != null) {
+			// Another thread opened the same jar file in the meantime: use its handle.
+			try {
+				jarFile.close();
+			}
+			catch (IOException ex) {
+				logger.debug("Could not close jar file " + jarFile.getName(), ex);
+			}
+		}
+		return handle;
+	}
+
+	/**
+	 * Return the pooled handle for the given jar file, retiring it if the
+	 * jar file has changed since it got opened. Must be called with the lock held.
+	 */
+	private Handle getCurrentHandle(String key, long lastModified, long length) {
+		Handle handle = this.handles.get(key);
+		if (handle != null && (handle.lastModified != lastModified || handle.length != length)) {
+			// Jar file has changed in the meantime: reopen it.
+			this.handles.remove(key);
+			handle.retired = true;
+			if (handle.refCount == 0) {
+				handle.close();
+			}
+			handle = null;
+		}
+		return handle;
+	}
+
+	private void release(Handle handle) {
+		synchronized (this.handles) {
+			handle.refCount--;
+			if (handle.refCount == 0) {
+				if (handle.retired) {
+					handle.close();
+				}
+				else {
+					evictIdleHandles();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Close idle handles in least-recently-used order until the pool
+	 * is within its size again. Must be called with the lock held.
+	 */
+	private void evictIdleHandles() {
+		int excess = this.handles.size() - this.poolSize;
+		for (Iterator<Handle> it = this.handles.values().iterator(); excess > 0 && it.hasNext();) {
+			Handle handle = it.next();
+			if (handle.refCount == 0) {
+				it.remove();
+				handle.retired = true;
+				handle.close();
+				excess--;
+			}
+		}
+	}
+
+
+	private static File getJarFile(URL url) throws IOException {
+		return ResourceUtils.getFile(ResourceUtils.extractJarFileURL(url), "Jar URL");
+	}
+
+	private static String getEntryName(URL url) {
+		String urlFile = url.getFile();
+		String entryName = urlFile.substring(
+				urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR) + ResourceUtils.JAR_URL_SEPARATOR.length());
+		if (entryName.indexOf('%') != -1) {
+			try {
+				entryName = URLDecoder.decode(entryName.replace("+", "%2B"), "UTF-8");
+			}
+			catch (UnsupportedEncodingException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+		return entryName;
+	}
+
+	private static int determinePoolSize() {
+		String size = SpringProperties.getProperty(POOL_SIZE_PROPERTY_NAME);
+		if (size != null) {
+			try {
+				return Math.max(Integer.parseInt(size.trim()), 0);
+			}
+			catch (NumberFormatException ex) {
+				logger.warn("Ignoring invalid value for " + POOL_SIZE_PROPERTY_NAME + ": " + size);
+			}
+		}
+		return DEFAULT_POOL_SIZE;
+	}
+
+
+	/**
+	 * An open jar file, together with the file attributes it got opened with.
+	 * Guarded by the pool's lock.
+	 */
+	private static class Handle {
+
+		final JarFile jarFile;
+
+		final long lastModified;
+
+		final long length;
+
+		int refCount;
+
+		boolean retired;
+
+		Handle(JarFile jarFile, long lastModified, long length) {
+			this.jarFile = jarFile;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		void close() {
+			try {
+				this.jarFile.close();
+			}
+			catch (IOException ex) {
+				logger.debug("Could not close jar file " + this.jarFile.getName(), ex);
+			}
+		}
+	}
+
+
+	/**
+	 * Entry stream that releases its jar file handle once closed.
+	 */
+	private class PooledEntryInputStream extends FilterInputStream {
+
+		private Handle handle;
+
+		PooledEntryInputStream(InputStream in, Handle handle) {
+			super(in);
+			this.handle = handle;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				Handle handleToRelease;
+				synchronized (this) {
+					handleToRelease = this.handle;
+					this.handle = null;
+				}
+				if (handleToRelease != null) {
+					release(handleToRelease);
+				}
+			}
+		}
+	}
+
+}
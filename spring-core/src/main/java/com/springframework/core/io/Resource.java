@@ -4,6 +4,8 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * Created by hadoop on 2015/5/5 0005.
@@ -58,6 +60,27 @@ public interface Resource extends InputStreamSource {
      */
     File getFile() throws IOException;
 
+    /**
+     * Return a {@link ReadableByteChannel} for the content of this resource.
+     * <p>It is expected that each call creates a <i>fresh</i> channel.
+     * @throws java.io.FileNotFoundException if the underlying resource doesn't exist
+     * @throws IOException if the content channel could not be opened
+     * @see #getInputStream()
+     */
+    ReadableByteChannel readableChannel() throws IOException;
+
+    /**
+     * Return the content of this resource as a read-only {@link ByteBuffer}.
+     * <p>File-backed resources may return a memory-mapped view of the file
+     * instead of copying its content to the heap.
+     * <p>A buffer holds at most {@link Integer#MAX_VALUE} bytes; larger content
+     * needs to be read through {@link #getInputStream()} or {@link #readableChannel()}.
+     * @throws java.io.FileNotFoundException if the underlying resource doesn't exist
+     * @throws IOException if the content could not be read or does not fit into a buffer
+     * @see #readableChannel()
+     */
+    ByteBuffer getByteBuffer() throws IOException;
+
     /**
      * Determine the content length for this resource.
      * @throws IOException if the resource cannot be resolved
@@ -149,14 +149,18 @@ public class UrlResource extends AbstractFileResolvingResource {
 
 	/**
 	 * This implementation opens an InputStream for the given URL.
-	 * <p>It sets the {@code useCaches} flag to {@code false},
-	 * mainly to avoid jar file locking on Windows.
+	 * <p>Entries of jar files in the file system get read through the shared
+	 * {@link JarFilePool}. For other URLs, it sets the {@code useCaches} flag
+	 * to {@code false}, mainly to avoid jar file locking on Windows.
 	 * @see java.net.URL#openConnection()
 	 * @see java.net.URLConnection#setUseCaches(boolean)
 	 * @see java.net.URLConnection#getInputStream()
 	 */
 	@Override
 	public InputStream getInputStream() throws IOException {
+		if (JarFilePool.isPoolable(this.url)) {
+			return JarFilePool.getSharedInstance().getInputStream(this.url);
+		}
 		URLConnection con = this.url.openConnection();
 		ResourceUtils.useCachesIfNecessary(con);
 		try {
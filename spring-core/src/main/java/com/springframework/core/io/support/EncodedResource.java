@@ -1,19 +1,30 @@
 package com.springframework.core.io.support;
 
+import com.springframework.core.io.FileSystemResource;
 import com.springframework.core.io.InputStreamSource;
 import com.springframework.core.io.Resource;
+import com.springframework.util.ByteBufferInputStream;
 import com.springframework.util.ObjectUtils;
+import com.springframework.util.StreamUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 /**
  * Created by hadoop on 2015/5/6 0006.
  */
 public class EncodedResource implements InputStreamSource {
+
+    /**
+     * Size from which {@link FileSystemResource}s get read from a memory-mapped
+     * view instead of through a {@code FileInputStream}: 64 KB
+     */
+    static final long MAPPED_READ_THRESHOLD = 64 * 1024;
+
     private final Resource resource;
     private final Charset charset;
     private final String encoding;
@@ -55,9 +66,52 @@ public class EncodedResource implements InputStreamSource {
         return encoding;
     }
 
+    /**
+     * Open an {@code java.io.InputStream} for the specified resource, ignoring any
+     * specified {@link #getCharset() Charset} or {@linkplain #getEncoding() encoding}.
+     * <p>Large files in the file system get read straight from a memory-mapped view.
+     * @throws IOException if opening the InputStream failed
+     * @see FileSystemResource#getByteBuffer()
+     */
     @Override
     public InputStream getInputStream() throws IOException {
-        return null;
+        if (isMappable()) {
+            return new ByteBufferInputStream(((FileSystemResource) this.resource).getByteBuffer());
+        }
+        return this.resource.getInputStream();
+    }
+
+    /**
+     * Return the content of the specified resource as a {@code ByteBuffer}, ignoring
+     * any specified {@link #getCharset() Charset} or {@linkplain #getEncoding() encoding}.
+     * <p>Large files in the file system get mapped into memory, like for
+     * {@link #getInputStream()}; other content gets read into a heap buffer.
+     * @throws IOException if reading the content failed
+     */
+    ByteBuffer getByteBuffer() throws IOException {
+        if (isMappable()) {
+            return ((FileSystemResource) this.resource).getByteBuffer();
+        }
+        InputStream is = this.resource.getInputStream();
+        try {
+            return ByteBuffer.wrap(StreamUtils.copyToByteArray(is));
+        }
+        finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Whether the content gets read from a memory-mapped view: files in the file
+     * system from {@link #MAPPED_READ_THRESHOLD} up to the largest size a single
+     * buffer can address.
+     */
+    private boolean isMappable() throws IOException {
+        if (!(this.resource instanceof FileSystemResource)) {
+            return false;
+        }
+        long contentLength = this.resource.contentLength();
+        return (contentLength >= MAPPED_READ_THRESHOLD && contentLength <= Integer.MAX_VALUE);
     }
 
     @Override
@@ -82,13 +136,13 @@ public class EncodedResource implements InputStreamSource {
      */
     public Reader getReader() throws IOException {
         if (this.charset != null) {
-            return new InputStreamReader(this.resource.getInputStream(), this.charset);
+            return new InputStreamReader(getInputStream(), this.charset);
         }
         else if (this.encoding != null) {
-            return new InputStreamReader(this.resource.getInputStream(), this.encoding);
+            return new InputStreamReader(getInputStream(), this.encoding);
         }
         else {
-            return new InputStreamReader(this.resource.getInputStream());
+            return new InputStreamReader(getInputStream());
         }
     }
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io.support;
+
+import com.springframework.util.ConcurrentReferenceHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Sorted index of the entry names in a jar file, so that the entries
+ * below a given path can be found without enumerating the whole jar.
+ *
+ * <p>Indexes of jar files in the file system get shared across all
+ * {@link PathMatchingResourcePatternResolver} instances, keyed by jar path
+ * and rebuilt only once the jar's modification time or size changes.
+ * Cached indexes are softly referenced and may get rebuilt under memory pressure.
+ */
+final class JarEntryIndex {
+
+	/** Absolute jar file path --> index, softly referenced */
+	private static final Map<String, JarEntryIndex> indexCache =
+			new ConcurrentReferenceHashMap<String, JarEntryIndex>(64);
+
+
+	private final long lastModified;
+
+	private final long length;
+
+	private final String[] entryNames;
+
+
+	private JarEntryIndex(long lastModified, long length, String[] entryNames) {
+		this.lastModified = lastModified;
+		this.length = length;
+		this.entryNames = entryNames;
+	}
+
+
+	/**
+	 * Return the index for the given jar file, building it if the jar has not
+	 * been indexed yet or has changed since.
+	 * @param jarFile the jar file in the file system
+	 * @return the index
+	 * @throws IOException if the jar could not be read
+	 */
+	public static JarEntryIndex forJarFile(File jarFile) throws IOException {
+		String key = jarFile.getAbsolutePath();
+		long lastModified = jarFile.lastModified();
+		long length = jarFile.length();
+		JarEntryIndex index = indexCache.get(key);
+		if (index == null || index.lastModified != lastModified || index.length != length) {
+			JarFile jar = new JarFile(jarFile);
+			try {
+				index = new JarEntryIndex(lastModified, length, readEntryNames(jar));
+			}
+			finally {
+				jar.close();
+			}
+			indexCache.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Build an index for the given open jar, without caching it.
+	 * @param jar a jar that is not backed by a file of its own, e.g. a nested jar
+	 * @return the index
+	 */
+	public static JarEntryIndex forOpenJar(JarFile jar) {
+		return new JarEntryIndex(0, 0, readEntryNames(jar));
+	}
+
+	/**
+	 * Drop all cached jar indexes.
+	 */
+	public static void clearCache() {
+		indexCache.clear();
+	}
+
+	private static String[] readEntryNames(JarFile jar) {
+		List<String> entryNames = new ArrayList<String>(jar.size());
+		for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+			entryNames.add(entries.nextElement().getName());
+		}
+		String[] sortedNames = entryNames.toArray(new String[entryNames.size()]);
+		Arrays.sort(sortedNames);
+		return sortedNames;
+	}
+
+
+	/**
+	 * Return the names of all entries starting with the given prefix, in
+	 * lexicographical order.
+	 * @param prefix the entry name prefix, e.g. {@code "META-INF/"}
+	 * @return the matching entry names
+	 */
+	public List<String> getEntryNames(String prefix) {
+		int start = Arrays.binarySearch(this.entryNames, prefix);
+		if (start < 0) {
+			start = -start - 1;
+		}
+		int end = start;
+		while (end < this.entryNames.length && this.entryNames[end].startsWith(prefix)) {
+			end++;
+		}
+		if (start == end) {
+			return Collections.emptyList();
+		}
+		return Arrays.asList(this.entryNames).subList(start, end);
+	}
+
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io.support;
+
+import com.springframework.core.io.DefaultResourceLoader;
+import com.springframework.core.io.FileSystemResource;
+import com.springframework.core.io.Resource;
+import com.springframework.core.io.ResourceLoader;
+import com.springframework.core.io.UrlResource;
+import com.springframework.util.AntPathMatcher;
+import com.springframework.util.Assert;
+import com.springframework.util.PathMatcher;
+import com.springframework.util.ResourceUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.jar.JarFile;
+
+/**
+ * A {@link ResourcePatternResolver} implementation that is able to resolve a
+ * specified resource location path into one or more matching Resources.
+ * The source path may be a simple path which has a one-to-one mapping to a
+ * target {@link Resource}, or alternatively may contain the special
+ * "{@code classpath*:}" prefix and/or internal Ant-style path patterns
+ * (matched using Spring's {@link AntPathMatcher} utility).
+ * Both of the latter are effectively wildcards.
+ *
+ * <p><b>Ant-style Patterns:</b>
+ *
+ * <p>When the path location contains an Ant-style pattern, e.g.:
+ * <pre class="code">
+ * /WEB-INF/*-context.xml
+ * com/mycompany/**&#47;applicationContext.xml
+ * file:C:/some/path/*-context.xml
+ * classpath:com/mycompany/**&#47;applicationContext.xml</pre>
+ * the resolver follows a fairly complex but defined procedure to try to resolve
+ * the wildcard. It produces a {@code Resource} for the path up to the last
+ * non-wildcard segment and obtains a {@code URL} from it. If this URL is
+ * not a "{@code jar:}" URL, a {@code java.io.File} is obtained from it, and
+ * used to resolve the wildcard by walking the filesystem. In the case of a
+ * jar URL, the resolver looks up the entries below the root path in a
+ * {@link JarEntryIndex} of the jar and matches them against the pattern.
+ *
+ * <p>Jar indexes get built once per jar and shared across all resolver
+ * instances, until the jar's modification time or size changes, so that
+ * repeated lookups do not reopen and enumerate every jar on the classpath.
+ *
+ * <p><b>{@code classpath*:} Prefix:</b>
+ *
+ * <p>There is special support for retrieving multiple class path resources with
+ * the same name, via the "{@code classpath*:}" prefix. For example,
+ * "{@code classpath*:META-INF/beans.xml}" will find all "beans.xml"
+ * files in the class path, be it in "classes" directories or in JAR files.
+ * The "{@code classpath*:}" prefix can also be combined with a PathMatcher
+ * pattern in the rest of the location path, for example
+ * "{@code classpath*:META-INF/*-beans.xml}".
+ *
+ * <p><b>WARNING:</b> Note that "{@code classpath*:}" when combined with
+ * Ant-style patterns will only work reliably with at least one root directory
+ * before the pattern starts, unless the actual target files reside in the file
+ * system. This means that a pattern like "{@code classpath*:*.xml}" will
+ * <i>not</i> retrieve files from the root of jar files but rather only from the
+ * root of expanded directories, as with {@link ClassLoader#getResources}.
+ *
+ * @see #CLASSPATH_ALL_URL_PREFIX
+ * @see com.springframework.util.AntPathMatcher
+ * @see ClassLoader#getResources(String)
+ */
+public class PathMatchingResourcePatternResolver implements ResourcePatternResolver {
+
+	private static final Log logger = LogFactory.getLog(PathMatchingResourcePatternResolver.class);
+
+	private final ResourceLoader resourceLoader;
+
+	private PathMatcher pathMatcher = new AntPathMatcher();
+
+
+	/**
+	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
+	 * <p>ClassLoader access will happen via the thread context class loader.
+	 * @see com.springframework.core.io.DefaultResourceLoader
+	 */
+	public PathMatchingResourcePatternResolver() {
+		this.resourceLoader = new DefaultResourceLoader();
+	}
+
+	/**
+	 * Create a new PathMatchingResourcePatternResolver.
+	 * <p>ClassLoader access will happen via the thread context class loader.
+	 * @param resourceLoader the ResourceLoader to load root directories and
+	 * actual resources with
+	 */
+	public PathMatchingResourcePatternResolver(ResourceLoader resourceLoader) {
+		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
+		this.resourceLoader = resourceLoader;
+	}
+
+	/**
+	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
+	 * @param classLoader the ClassLoader to load classpath resources with,
+	 * or {@code null} for using the thread context class loader
+	 * at the time of actual resource access
+	 * @see com.springframework.core.io.DefaultResourceLoader
+	 */
+	public PathMatchingResourcePatternResolver(ClassLoader classLoader) {
+		this.resourceLoader = new DefaultResourceLoader(classLoader);
+	}
+
+
+	/**
+	 * Return the ResourceLoader that this pattern resolver works with.
+	 */
+	public ResourceLoader getResourceLoader() {
+		return this.resourceLoader;
+	}
+
+	@Override
+	public ClassLoader getClassLoader() {
+		return getResourceLoader().getClassLoader();
+	}
+
+	/**
+	 * Set the PathMatcher implementation to use for this
+	 * resource pattern resolver. Default is AntPathMatcher.
+	 * @see com.springframework.util.AntPathMatcher
+	 */
+	public void setPathMatcher(PathMatcher pathMatcher) {
+		Assert.notNull(pathMatcher, "PathMatcher must not be null");
+		this.pathMatcher = pathMatcher;
+	}
+
+	/**
+	 * Return the PathMatcher that this resource pattern resolver uses.
+	 */
+	public PathMatcher getPathMatcher() {
+		return this.pathMatcher;
+	}
+
+
+	@Override
+	public Resource getResource(String location) {
+		return getResourceLoader().getResource(location);
+	}
+
+	@Override
+	public Resource[] getResources(String locationPattern) throws IOException {
+		Assert.notNull(locationPattern, "Location pattern must not be null");
+		if (locationPattern.startsWith(CLASSPATH_ALL_URL_PREFIX)) {
+			// a class path resource (multiple resources for same name possible)
+			if (getPathMatcher().isPattern(locationPattern.substring(CLASSPATH_ALL_URL_PREFIX.length()))) {
+				// a class path resource pattern
+				return findPathMatchingResources(locationPattern);
+			}
+			else {
+				// all class path resources with the given name
+				return findAllClassPathResources(locationPattern.substring(CLASSPATH_ALL_URL_PREFIX.length()));
+			}
+		}
+		else {
+			// Only look for a pattern after a prefix here
+			// (to not get fooled by a pattern symbol in a strange prefix).
+			int prefixEnd = locationPattern.indexOf(":") + 1;
+			if (getPathMatcher().isPattern(locationPattern.substring(prefixEnd))) {
+				// a file pattern
+				return findPathMatchingResources(locationPattern);
+			}
+			else {
+				// a single resource with the given name
+				return new Resource[] {getResourceLoader().getResource(locationPattern)};
+			}
+		}
+	}
+
+	/**
+	 * Find all class location resources with the given location via the ClassLoader.
+	 * @param location the absolute path within the classpath
+	 * @return the result as Resource array
+	 * @throws IOException in case of I/O errors
+	 * @see java.lang.ClassLoader#getResources
+	 */
+	protected Resource[] findAllClassPathResources(String location) throws IOException {
+		String path = location;
+		if (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+		ClassLoader cl = getClassLoader();
+		Enumeration<URL> resourceUrls = (cl != null ? cl.getResources(path) : ClassLoader.getSystemResources(path));
+		Set<Resource> result = new LinkedHashSet<Resource>(16);
+		while (resourceUrls.hasMoreElements()) {
+			result.add(new UrlResource(resourceUrls.nextElement()));
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Resolved classpath location [" + location + "] to resources " + result);
+		}
+		return result.toArray(new Resource[result.size()]);
+	}
+
+	/**
+	 * Find all resources that match the given location pattern via the
+	 * Ant-style PathMatcher. Supports resources in jar files and in
+	 * the file system.
+	 * @param locationPattern the location pattern to match
+	 * @return the result as Resource array
+	 * @throws IOException in case of I/O errors
+	 * @see #doFindPathMatchingJarResources
+	 * @see #doFindPathMatchingFileResources
+	 */
+	protected Resource[] findPathMatchingResources(String locationPattern) throws IOException {
+		String rootDirPath = determineRootDir(locationPattern);
+		String subPattern = locationPattern.substring(rootDirPath.length());
+		Resource[] rootDirResources = getResources(rootDirPath);
+		Set<Resource> result = new LinkedHashSet<Resource>(16);
+		for (Resource rootDirResource : rootDirResources) {
+			URL rootDirUrl = rootDirResource.getURL();
+			if (ResourceUtils.isJarURL(rootDirUrl)) {
+				result.addAll(doFindPathMatchingJarResources(rootDirUrl, subPattern));
+			}
+			else {
+				result.addAll(doFindPathMatchingFileResources(rootDirResource, subPattern));
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Resolved location pattern [" + locationPattern + "] to resources " + result);
+		}
+		return result.toArray(new Resource[result.size()]);
+	}
+
+	/**
+	 * Determine the root directory for the given location.
+	 * <p>Used for determining the starting point for file matching,
+	 * resolving the root directory location to a {@code java.io.File}
+	 * and passing it into {@code retrieveMatchingFiles}, with the
+	 * remainder of the location as pattern.
+	 * <p>Will return "/WEB-INF/" for the pattern "/WEB-INF/*.xml",
+	 * for example.
+	 * @param location the location to check
+	 * @return the part of the location that denotes the root directory
+	 */
+	protected String determineRootDir(String location) {
+		int prefixEnd = location.indexOf(":") + 1;
+		int rootDirEnd = location.length();
+		while (rootDirEnd > prefixEnd && getPathMatcher().isPattern(location.substring(prefixEnd, rootDirEnd))) {
+			rootDirEnd = location.lastIndexOf('/', rootDirEnd - 2) + 1;
+		}
+		if (rootDirEnd == 0) {
+			rootDirEnd = prefixEnd;
+		}
+		return location.substring(0, rootDirEnd);
+	}
+
+	/**
+	 * Find all resources in jar files that match the given location pattern
+	 * via the Ant-style PathMatcher, looking up the entries below the root
+	 * directory in the jar's {@link JarEntryIndex}.
+	 * @param rootDirUrl the pre-resolved root directory URL
+	 * @param subPattern the sub pattern to match (below the root directory)
+	 * @return a mutable Set of matching Resource instances
+	 * @throws IOException in case of I/O errors
+	 */
+	protected Set<Resource> doFindPathMatchingJarResources(URL rootDirUrl, String subPattern) throws IOException {
+		String urlString = rootDirUrl.toString();
+		int separatorIndex = urlString.indexOf(ResourceUtils.JAR_URL_SEPARATOR);
+		String rootEntryPath = (separatorIndex != -1 ?
+				urlString.substring(separatorIndex + ResourceUtils.JAR_URL_SEPARATOR.length()) : "");
+		if (rootEntryPath.length() > 0 && !rootEntryPath.endsWith("/")) {
+			// Root entry path must end with slash to allow for proper matching.
+			rootEntryPath = rootEntryPath + "/";
+		}
+
+		JarEntryIndex index;
+		URL jarFileUrl = ResourceUtils.extractJarFileURL(rootDirUrl);
+		if (ResourceUtils.isFileURL(jarFileUrl)) {
+			index = JarEntryIndex.forJarFile(ResourceUtils.getFile(jarFileUrl));
+		}
+		else {
+			// No jar file of its own, e.g. a nested jar: index it for this lookup only.
+			URLConnection con = rootDirUrl.openConnection();
+			if (!(con instanceof JarURLConnection)) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Skipping [" + rootDirUrl + "] because it does not denote a jar file");
+				}
+				return Collections.emptySet();
+			}
+			JarURLConnection jarCon = (JarURLConnection) con;
+			ResourceUtils.useCachesIfNecessary(jarCon);
+			JarFile jarFile = jarCon.getJarFile();
+			try {
+				index = JarEntryIndex.forOpenJar(jarFile);
+			}
+			finally {
+				if (!jarCon.getUseCaches()) {
+					jarFile.close();
+				}
+			}
+		}
+
+		UrlResource rootDirResource = new UrlResource(rootDirUrl);
+		Set<Resource> result = new LinkedHashSet<Resource>(8);
+		for (String entryPath : index.getEntryNames(rootEntryPath)) {
+			String relativePath = entryPath.substring(rootEntryPath.length());
+			if (getPathMatcher().match(subPattern, relativePath)) {
+				result.add(rootDirResource.createRelative(relativePath));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Find all resources in the file system that match the given location pattern
+	 * via the Ant-style PathMatcher.
+	 * @param rootDirResource the root directory as Resource
+	 * @param subPattern the sub pattern to match (below the root directory)
+	 * @return a mutable Set of matching Resource instances
+	 * @throws IOException in case of I/O errors
+	 * @see #retrieveMatchingFiles
+	 */
+	protected Set<Resource> doFindPathMatchingFileResources(Resource rootDirResource, String subPattern)
+			throws IOException {
+
+		File rootDir;
+		try {
+			rootDir = rootDirResource.getFile().getAbsoluteFile();
+		}
+		catch (IOException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Cannot search for matching files underneath " + rootDirResource +
+						" because it does not correspond to a directory in the file system", ex);
+			}
+			return Collections.emptySet();
+		}
+		Set<File> matchingFiles = retrieveMatchingFiles(rootDir, subPattern);
+		Set<Resource> result = new LinkedHashSet<Resource>(matchingFiles.size());
+		for (File file : matchingFiles) {
+			result.add(new FileSystemResource(file));
+		}
+		return result;
+	}
+
+	/**
+	 * Retrieve files that match the given path pattern,
+	 * checking the given directory and its subdirectories.
+	 * @param rootDir the directory to start from
+	 * @param pattern the pattern to match against, relative to the root directory
+	 * @return a mutable Set of matching Resource instances
+	 */
+	protected Set<File> retrieveMatchingFiles(File rootDir, String pattern) {
+		if (!rootDir.exists()) {
+			// Silently skip non-existing directories.
+			if (logger.isDebugEnabled()) {
+				logger.debug("Skipping [" + rootDir.getAbsolutePath() + "] because it does not exist");
+			}
+			return Collections.emptySet();
+		}
+		if (!rootDir.isDirectory()) {
+			// Complain louder if it exists but is no directory.
+			if (logger.isWarnEnabled()) {
+				logger.warn("Skipping [" + rootDir.getAbsolutePath() + "] because it does not denote a directory");
+			}
+			return Collections.emptySet();
+		}
+		Set<File> result = new LinkedHashSet<File>(8);
+		doRetrieveMatchingFiles(pattern, rootDir, "", result);
+		return result;
+	}
+
+	/**
+	 * Recursively retrieve files that match the given pattern, only descending
+	 * into directories that the pattern may still match files in.
+	 * @param pattern the pattern to match against, relative to the root directory
+	 * @param dir the current directory
+	 * @param relativePath the path of the current directory relative to the root
+	 * directory, empty or ending with a slash
+	 * @param result the Set of matching File instances to add to
+	 */
+	protected void doRetrieveMatchingFiles(String pattern, File dir, String relativePath, Set<File> result) {
+		File[] dirContents = dir.listFiles();
+		if (dirContents == null) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Could not retrieve contents of directory [" + dir.getAbsolutePath() + "]");
+			}
+			return;
+		}
+		for (File content : dirContents) {
+			String currPath = relativePath + content.getName();
+			if (content.isDirectory() && getPathMatcher().matchStart(pattern, currPath + "/")) {
+				if (!content.canRead()) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Skipping subdirectory [" + dir.getAbsolutePath() +
+								"] because the application is not allowed to read the directory");
+					}
+				}
+				else {
+					doRetrieveMatchingFiles(pattern, content, currPath + "/", result);
+				}
+			}
+			if (getPathMatcher().match(pattern, currPath)) {
+				result.add(content);
+			}
+		}
+	}
+
+}
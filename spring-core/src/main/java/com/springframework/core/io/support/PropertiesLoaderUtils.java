@@ -18,6 +18,7 @@ package com.springframework.core.io.support;
 
 
 import com.springframework.core.io.Resource;
+import com.springframework.core.io.UrlResource;
 import com.springframework.util.*;
 
 import java.io.IOException;
@@ -25,8 +26,22 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Convenient utility methods for loading of {@code java.util.Properties},
@@ -35,6 +50,11 @@ import java.util.Properties;
  * <p>For more configurable properties loading, including the option of a
  * customized encoding, consider using the PropertiesLoaderSupport class.
  *
+ * <p>Non-XML properties files get parsed by {@link PropertiesParser}, straight
+ * from a memory-mapped view for large files in the file system. Properties can
+ * also be loaded into a plain {@code String}-to-{@code String} map, bypassing
+ * the synchronized {@code Properties} table altogether.
+ *
  * @author Juergen Hoeller
  * @author Rob Harrop
  * @since 2.0
@@ -126,18 +146,52 @@ public abstract class PropertiesLoaderUtils {
 	 * @throws IOException if loading failed
 	 */
 	public static void fillProperties(Properties props, Resource resource) throws IOException {
-		InputStream is = resource.getInputStream();
-		try {
-			String filename = resource.getFilename();
-			if (filename != null && filename.endsWith(XML_FILE_EXTENSION)) {
+		String filename = resource.getFilename();
+		if (filename != null && filename.endsWith(XML_FILE_EXTENSION)) {
+			InputStream is = new EncodedResource(resource).getInputStream();
+			try {
 				props.loadFromXML(is);
 			}
-			else {
-				props.load(is);
+			finally {
+				is.close();
 			}
 		}
-		finally {
-			is.close();
+		else {
+			props.putAll(loadPropertiesMap(resource));
+		}
+	}
+
+	/**
+	 * Load properties from the given resource (in ISO-8859-1 encoding)
+	 * into a plain map, preserving the order of the properties in the file.
+	 * @param resource the resource to load from
+	 * @return the populated map
+	 * @throws IOException if loading failed
+	 * @see #fillPropertiesMap(Map, Resource)
+	 */
+	public static Map<String, String> loadPropertiesMap(Resource resource) throws IOException {
+		Map<String, String> map = new LinkedHashMap<String, String>();
+		fillPropertiesMap(map, resource);
+		return map;
+	}
+
+	/**
+	 * Fill the given map from the given resource (in ISO-8859-1 encoding).
+	 * @param map the map to fill
+	 * @param resource the resource to load from
+	 * @throws IOException if loading failed
+	 */
+	public static void fillPropertiesMap(Map<String, String> map, Resource resource) throws IOException {
+		String filename = resource.getFilename();
+		if (filename != null && filename.endsWith(XML_FILE_EXTENSION)) {
+			Properties props = new Properties();
+			fillProperties(props, resource);
+			for (String key : props.stringPropertyNames()) {
+				map.put(key, props.getProperty(key));
+			}
+		}
+		else {
+			PropertiesParser.parse(new EncodedResource(resource).getByteBuffer(), map);
 		}
 	}
 
@@ -158,7 +212,8 @@ public abstract class PropertiesLoaderUtils {
 	 * Load all properties from the specified class path resource
 	 * (in ISO-8859-1 encoding), using the given class loader.
 	 * <p>Merges properties if more than one resource of the same name
-	 * found in the class path.
+	 * found in the class path, with later resources taking precedence.
+	 * Multiple non-XML resources get parsed in parallel.
 	 * @param resourceName the name of the class path resource
 	 * @param classLoader the ClassLoader to use for loading
 	 * (or {@code null} to use the default class loader)
@@ -174,24 +229,92 @@ public abstract class PropertiesLoaderUtils {
 		Enumeration<URL> urls = (classLoaderToUse != null ? classLoaderToUse.getResources(resourceName) :
 				ClassLoader.getSystemResources(resourceName));
 		Properties props = new Properties();
-		while (urls.hasMoreElements()) {
-			URL url = urls.nextElement();
-			URLConnection con = url.openConnection();
-			ResourceUtils.useCachesIfNecessary(con);
-			InputStream is = con.getInputStream();
-			try {
-				if (resourceName != null && resourceName.endsWith(XML_FILE_EXTENSION)) {
+		if (resourceName.endsWith(XML_FILE_EXTENSION)) {
+			while (urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				URLConnection con = url.openConnection();
+				ResourceUtils.useCachesIfNecessary(con);
+				InputStream is = con.getInputStream();
+				try {
 					props.loadFromXML(is);
 				}
-				else {
-					props.load(is);
+				finally {
+					is.close();
 				}
 			}
-			finally {
-				is.close();
+		}
+		else {
+			for (Map<String, String> map : loadPropertiesMaps(Collections.list(urls))) {
+				props.putAll(map);
 			}
 		}
 		return props;
 	}
 
+	/**
+	 * Parse the properties behind the given URLs, in parallel if there is
+	 * more than one of them.
+	 * @return one map per URL, in the order of the given URLs
+	 */
+	private static List<Map<String, String>> loadPropertiesMaps(List<URL> urls) throws IOException {
+		List<Map<String, String>> result = new ArrayList<Map<String, String>>(urls.size());
+		int threads = Math.min(urls.size(), Runtime.getRuntime().availableProcessors());
+		if (threads <= 1) {
+			for (URL url : urls) {
+				result.add(loadPropertiesMap(new UrlResource(url)));
+			}
+			return result;
+		}
+		ExecutorService executor = createExecutor(threads);
+		try {
+			List<Future<Map<String, String>>> futures = new ArrayList<Future<Map<String, String>>>(urls.size());
+			for (final URL url : urls) {
+				futures.add(executor.submit(new Callable<Map<String, String>>() {
+					@Override
+					public Map<String, String> call() throws IOException {
+						return loadPropertiesMap(new UrlResource(url));
+					}
+				}));
+			}
+			for (Future<Map<String, String>> future : futures) {
+				result.add(future.get());
+			}
+			return result;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading properties", ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException("Failed to load properties", cause);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static ExecutorService createExecutor(int threads) {
+		ThreadFactory threadFactory = new ThreadFactory() {
+			private final AtomicInteger threadCount = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "properties-loading-" + this.threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), threadFactory);
+	}
+
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io.support;
+
+import com.springframework.core.env.MapPropertySource;
+import com.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Subclass of {@link MapPropertySource} that loads a properties file from a
+ * given {@link Resource}, in either the regular or the XML properties format.
+ *
+ * <p>The file gets parsed once, straight into the map backing this property
+ * source, see {@link PropertiesLoaderUtils#fillPropertiesMap}.
+ *
+ * @see com.springframework.core.env.MutablePropertySources
+ */
+public class ResourcePropertySource extends MapPropertySource {
+
+	/**
+	 * Create a PropertySource having the given name based on Properties
+	 * loaded from the given resource.
+	 */
+	public ResourcePropertySource(String name, Resource resource) throws IOException {
+		super(name, loadProperties(resource));
+	}
+
+	/**
+	 * Create a PropertySource based on Properties loaded from the given resource.
+	 * The name of the PropertySource will be generated based on the
+	 * {@link Resource#getDescription() description} of the given resource.
+	 */
+	public ResourcePropertySource(Resource resource) throws IOException {
+		this(resource.getDescription(), resource);
+	}
+
+
+	private static Map<String, Object> loadProperties(Resource resource) throws IOException {
+		return new LinkedHashMap<String, Object>(PropertiesLoaderUtils.loadPropertiesMap(resource));
+	}
+
+}
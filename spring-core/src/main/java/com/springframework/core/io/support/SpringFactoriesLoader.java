@@ -20,6 +20,7 @@ import com.springframework.core.annotation.AnnotationAwareOrderComparator;
 import com.springframework.core.io.UrlResource;
 import com.springframework.util.Assert;
 import com.springframework.util.ClassUtils;
+import com.springframework.util.ConcurrentReferenceHashMap;
 import com.springframework.util.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -27,6 +28,8 @@ import org.apache.commons.logging.LogFactory;
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * General purpose factory loading mechanism for internal use within the framework.
@@ -43,6 +46,11 @@ import java.util.*;
  * where {@code example.MyService} is the name of the interface, and {@code MyServiceImpl1}
  * and {@code MyServiceImpl2} are two implementations.
  *
+ * <p>All {@code spring.factories} files visible to a ClassLoader get parsed in a
+ * single pass, with the result cached per ClassLoader (held weakly) until
+ * {@link #clearCache(ClassLoader)} gets called. {@link #loadFactorySingletons}
+ * additionally reuses the factory instances across calls.
+ *
  * @author Arjen Poutsma
  * @author Juergen Hoeller
  * @author Sam Brannen
@@ -58,6 +66,18 @@ public abstract class SpringFactoriesLoader {
 	 */
 	public static final String FACTORIES_RESOURCE_LOCATION = "META-INF/spring.factories";
 
+	/** ClassLoader --> (factory type name --> implementation class names), ClassLoader weakly held */
+	private static final Map<ClassLoader, Map<String, List<String>>> factoryNamesCache =
+			Collections.synchronizedMap(new WeakHashMap<ClassLoader, Map<String, List<String>>>());
+
+	/** ClassLoader --> (factory type --> factory instances), for cache-safe ClassLoaders */
+	private static final ConcurrentMap<ClassLoader, ConcurrentMap<Class<?>, List<?>>> strongSingletonCache =
+			new ConcurrentHashMap<ClassLoader, ConcurrentMap<Class<?>, List<?>>>(4);
+
+	/** ClassLoader --> (factory type --> factory instances), softly held for other ClassLoaders */
+	private static final ConcurrentMap<ClassLoader, ConcurrentMap<Class<?>, List<?>>> softSingletonCache =
+			new ConcurrentReferenceHashMap<ClassLoader, ConcurrentMap<Class<?>, List<?>>>(16);
+
 
 	/**
 	 * Load and instantiate the factory implementations of the given type from
@@ -100,23 +120,131 @@ public abstract class SpringFactoriesLoader {
 	 * @throws IllegalArgumentException if an error occurs while loading factory names
 	 */
 	public static List<String> loadFactoryNames(Class<?> factoryClass, ClassLoader classLoader) {
-		String factoryClassName = factoryClass.getName();
+		List<String> factoryNames = loadSpringFactories(classLoader).get(factoryClass.getName());
+		return (factoryNames != null ? new ArrayList<String>(factoryNames) : new ArrayList<String>());
+	}
+
+	/**
+	 * Load and instantiate the factory implementations of the given type, like
+	 * {@link #loadFactories}, but instantiate them only once per ClassLoader:
+	 * subsequent calls return the same factory instances.
+	 * <p>Factories from ClassLoaders other than the one that loaded this class
+	 * (or its parents) are held softly, so they do not keep their ClassLoader alive.
+	 * @param factoryClass the interface or abstract class representing the factory
+	 * @param classLoader the ClassLoader to use for loading (can be {@code null} to use the default)
+	 * @return an unmodifiable, sorted list of the factory instances
+	 * @throws IllegalArgumentException if any factory implementation class cannot
+	 * be loaded or if an error occurs while instantiating any factory
+	 * @see #loadFactories
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> List<T> loadFactorySingletons(Class<T> factoryClass, ClassLoader classLoader) {
+		Assert.notNull(factoryClass, "'factoryClass' must not be null");
+		ClassLoader classLoaderToUse = classLoader;
+		if (classLoaderToUse == null) {
+			classLoaderToUse = SpringFactoriesLoader.class.getClassLoader();
+		}
+		ConcurrentMap<ClassLoader, ConcurrentMap<Class<?>, List<?>>> cacheToUse =
+				(isCacheSafe(classLoaderToUse) ? strongSingletonCache : softSingletonCache);
+		ConcurrentMap<Class<?>, List<?>> singletons = cacheToUse.get(classLoaderToUse);
+		if (singletons == null) {
+			singletons = new ConcurrentHashMap<Class<?>, List<?>>(16);
+			ConcurrentMap<Class<?>, List<?>> existing = cacheToUse.putIfAbsent(classLoaderToUse, singletons);
+			if (existing != null) {
+				singletons = existing;
+			}
+		}
+		List<?> factories = singletons.get(factoryClass);
+		if (factories == null) {
+			factories = Collections.unmodifiableList(loadFactories(factoryClass, classLoaderToUse));
+			List<?> existing = singletons.putIfAbsent(factoryClass, factories);
+			if (existing != null) {
+				factories = existing;
+			}
+		}
+		return (List<T>) factories;
+	}
+
+	/**
+	 * Clear the parsed factory names and the factory singletons cached for
+	 * the given ClassLoader, e.g. after its class path has changed.
+	 * @param classLoader the ClassLoader to clear the cache for,
+	 * or {@code null} to clear the entire cache
+	 */
+	public static void clearCache(ClassLoader classLoader) {
+		if (classLoader != null) {
+			factoryNamesCache.remove(classLoader);
+			strongSingletonCache.remove(classLoader);
+			softSingletonCache.remove(classLoader);
+		}
+		else {
+			factoryNamesCache.clear();
+			strongSingletonCache.clear();
+			softSingletonCache.clear();
+		}
+	}
+
+
+	/**
+	 * Parse all {@value #FACTORIES_RESOURCE_LOCATION} files visible to the given
+	 * ClassLoader into one map, reusing the result of an earlier call if possible.
+	 */
+	private static Map<String, List<String>> loadSpringFactories(ClassLoader classLoader) {
+		ClassLoader cacheKey = (classLoader != null ? classLoader : ClassLoader.getSystemClassLoader());
+		Map<String, List<String>> result = (cacheKey != null ? factoryNamesCache.get(cacheKey) : null);
+		if (result != null) {
+			return result;
+		}
 		try {
 			Enumeration<URL> urls = (classLoader != null ? classLoader.getResources(FACTORIES_RESOURCE_LOCATION) :
 					ClassLoader.getSystemResources(FACTORIES_RESOURCE_LOCATION));
-			List<String> result = new ArrayList<String>();
+			Map<String, List<String>> factories = new HashMap<String, List<String>>();
 			while (urls.hasMoreElements()) {
 				URL url = urls.nextElement();
 				Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(url));
-				String factoryClassNames = properties.getProperty(factoryClassName);
-				result.addAll(Arrays.asList(StringUtils.commaDelimitedListToStringArray(factoryClassNames)));
+				for (Map.Entry<?, ?> entry : properties.entrySet()) {
+					String factoryClassName = ((String) entry.getKey()).trim();
+					List<String> factoryNames = factories.get(factoryClassName);
+					if (factoryNames == null) {
+						factoryNames = new ArrayList<String>();
+						factories.put(factoryClassName, factoryNames);
+					}
+					for (String factoryName : StringUtils.commaDelimitedListToStringArray((String) entry.getValue())) {
+						String trimmed = factoryName.trim();
+						if (trimmed.length() > 0) {
+							factoryNames.add(trimmed);
+						}
+					}
+				}
+			}
+			result = new HashMap<String, List<String>>(factories.size() * 2);
+			for (Map.Entry<String, List<String>> entry : factories.entrySet()) {
+				result.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+			}
+			if (cacheKey != null) {
+				factoryNamesCache.put(cacheKey, result);
 			}
 			return result;
 		}
 		catch (IOException ex) {
-			throw new IllegalArgumentException("Unable to load [" + factoryClass.getName() +
-					"] factories from location [" + FACTORIES_RESOURCE_LOCATION + "]", ex);
+			throw new IllegalArgumentException("Unable to load factories from location [" +
+					FACTORIES_RESOURCE_LOCATION + "]", ex);
+		}
+	}
+
+	/**
+	 * Check whether factories loaded through the given ClassLoader may be held
+	 * strongly, i.e. whether it is the ClassLoader of this class or a parent of it.
+	 */
+	private static boolean isCacheSafe(ClassLoader classLoader) {
+		ClassLoader current = SpringFactoriesLoader.class.getClassLoader();
+		while (current != null) {
+			if (current == classLoader) {
+				return true;
+			}
+			current = current.getParent();
 		}
+		return false;
 	}
 
 	@SuppressWarnings("unchecked")
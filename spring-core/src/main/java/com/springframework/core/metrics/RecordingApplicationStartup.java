@@ -0,0 +1,263 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.metrics;
+
+import com.springframework.core.NamedThreadLocal;
+import com.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ApplicationStartup} implementation that records every ended step in memory,
+ * including its parent/child relationship and timing.
+ *
+ * <p>Recorded steps can be retrieved through {@link #getRecordedSteps()} or
+ * exported in the "folded stacks" format understood by flame graph tools through
+ * {@link #exportFoldedStacks(Writer)}. Subclasses may forward ended steps to
+ * another event system, e.g. Flight Recorder, by overriding {@link #stepEnded}.
+ *
+ * <p>Parent steps are tracked per thread: a step started while another step is
+ * in progress on the same thread becomes a child of that step.
+ *
+ * @see com.springframework.beans.factory.config.ConfigurableBeanFactory#setApplicationStartup
+ */
+public class RecordingApplicationStartup implements ApplicationStartup {
+
+	private final ThreadLocal<RecordedStep> currentStep =
+			new NamedThreadLocal<RecordedStep>("Current startup step");
+
+	private final AtomicLong idGenerator = new AtomicLong();
+
+	private final Queue<RecordedStep> recordedSteps = new ConcurrentLinkedQueue<RecordedStep>();
+
+
+	@Override
+	public StartupStep start(String name) {
+		Assert.notNull(name, "Step name must not be null");
+		RecordedStep parent = this.currentStep.get();
+		RecordedStep step = new RecordedStep(this.idGenerator.incrementAndGet(), name, parent);
+		this.currentStep.set(step);
+		return step;
+	}
+
+	/**
+	 * Return all steps ended so far, in the order they ended.
+	 */
+	public List<RecordedStep> getRecordedSteps() {
+		return Collections.unmodifiableList(new ArrayList<RecordedStep>(this.recordedSteps));
+	}
+
+	/**
+	 * Discard all steps recorded so far.
+	 */
+	public void clear() {
+		this.recordedSteps.clear();
+	}
+
+	/**
+	 * Write the recorded steps in "folded stacks" format: one line per distinct
+	 * stack of step names, separated by semicolons and followed by the time in
+	 * microseconds spent in the innermost step itself, i.e. excluding its children.
+	 * @param writer the writer to export to (not closed by this method)
+	 * @throws IOException in case of I/O errors
+	 */
+	public void exportFoldedStacks(Writer writer) throws IOException {
+		Map<String, Long> selfTimes = new LinkedHashMap<String, Long>();
+		for (RecordedStep step : this.recordedSteps) {
+			String stack = step.getStack();
+			Long time = selfTimes.get(stack);
+			long selfTime = TimeUnit.NANOSECONDS.toMicros(step.getSelfTime());
+			selfTimes.put(stack, (time != null ? time + selfTime : selfTime));
+		}
+		for (Map.Entry<String, Long> entry : selfTimes.entrySet()) {
+			writer.write(entry.getKey());
+			writer.write(' ');
+			writer.write(Long.toString(entry.getValue()));
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Template method called whenever a step ended, after it has been recorded.
+	 * <p>The default implementation is empty.
+	 * @param step the ended step
+	 */
+	protected void stepEnded(RecordedStep step) {
+	}
+
+	private void onEnd(RecordedStep step) {
+		if (this.currentStep.get() == step) {
+			if (step.parent != null) {
+				this.currentStep.set(step.parent);
+			}
+			else {
+				this.currentStep.remove();
+			}
+		}
+		this.recordedSteps.add(step);
+		stepEnded(step);
+	}
+
+
+	/**
+	 * A {@link StartupStep} recorded by a {@link RecordingApplicationStartup}.
+	 */
+	public class RecordedStep implements StartupStep {
+
+		private final long id;
+
+		private final String name;
+
+		private final RecordedStep parent;
+
+		private final long startTime;
+
+		private Map<String, String> tags;
+
+		private long childTime;
+
+		private volatile long duration = -1;
+
+		RecordedStep(long id, String name, RecordedStep parent) {
+			this.id = id;
+			this.name = name;
+			this.parent = parent;
+			this.startTime = System.nanoTime();
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.id : null);
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.state(this.duration < 0, "StartupStep has already ended");
+			if (this.tags == null) {
+				this.tags = new LinkedHashMap<String, String>(4);
+			}
+			this.tags.put(key, value);
+			return this;
+		}
+
+		/**
+		 * Return the tags of this step, in the order they were added.
+		 */
+		public Map<String, String> getTags() {
+			return (this.tags != null ? Collections.unmodifiableMap(this.tags) : Collections.<String, String>emptyMap());
+		}
+
+		/**
+		 * Return the {@link System#nanoTime()} value at which this step started.
+		 */
+		public long getStartTime() {
+			return this.startTime;
+		}
+
+		/**
+		 * Return the duration of this step in nanoseconds, or -1 if it did not end yet.
+		 */
+		public long getDuration() {
+			return this.duration;
+		}
+
+		/**
+		 * Return the duration of this step in nanoseconds, minus the time spent in its child steps.
+		 */
+		public long getSelfTime() {
+			return Math.max(this.duration - this.childTime, 0);
+		}
+
+		@Override
+		public void end() {
+			if (this.duration >= 0) {
+				return;
+			}
+			this.duration = System.nanoTime() - this.startTime;
+			if (this.parent != null) {
+				this.parent.childTime += this.duration;
+			}
+			onEnd(this);
+		}
+
+		/**
+		 * Return the semicolon-separated frames from the root step down to this step.
+		 */
+		String getStack() {
+			LinkedList<String> frames = new LinkedList<String>();
+			for (RecordedStep step = this; step != null; step = step.parent) {
+				frames.addFirst(step.getFrame());
+			}
+			StringBuilder sb = new StringBuilder();
+			for (String frame : frames) {
+				if (sb.length() > 0) {
+					sb.append(';');
+				}
+				sb.append(frame);
+			}
+			return sb.toString();
+		}
+
+		private String getFrame() {
+			StringBuilder sb = new StringBuilder(this.name);
+			if (this.tags != null) {
+				sb.append('[');
+				boolean first = true;
+				for (String value : this.tags.values()) {
+					if (!first) {
+						sb.append(',');
+					}
+					sb.append(value);
+					first = false;
+				}
+				sb.append(']');
+			}
+			// Semicolons separate frames and the last space separates the value.
+			return sb.toString().replace(';', '_').replace(' ', '_');
+		}
+
+		@Override
+		public String toString() {
+			return "StartupStep '" + this.name + "' " + getTags() + (this.duration >= 0 ?
+					" took " + TimeUnit.NANOSECONDS.toMicros(this.duration) + " us" : " (in progress)");
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.core.metrics;
+
+/**
+ * Step recording metrics about a particular phase or action happening during startup.
+ *
+ * <p>A {@code StartupStep} has a lifecycle: it starts when created through
+ * {@link ApplicationStartup#start(String)} and ends with {@link #end()}.
+ * A step started while another one is in progress on the same thread becomes
+ * a child of that step, so steps form a tree per thread.
+ *
+ * @see ApplicationStartup
+ */
+public interface StartupStep {
+
+	/**
+	 * Return the name of the startup step.
+	 * <p>A step name describes the current action or phase. This technical
+	 * name should be "." namespaced and can be reused to describe other instances of
+	 * similar steps during startup.
+	 */
+	String getName();
+
+	/**
+	 * Return the unique id for this step within the application startup.
+	 */
+	long getId();
+
+	/**
+	 * Return, if available, the id of the parent step.
+	 * <p>The parent step is the step that was most recently started
+	 * when the current step was created.
+	 */
+	Long getParentId();
+
+	/**
+	 * Add a key/value tag to the step, describing its execution context.
+	 * @param key tag key
+	 * @param value tag value
+	 */
+	StartupStep tag(String key, String value);
+
+	/**
+	 * Record the state of the step and possibly other metrics like execution time.
+	 * <p>Once ended, changes on the step state are not allowed.
+	 */
+	void end();
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.core.type.classreading;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable metadata of a class, read from its class file without loading the class.
+ *
+ * <p>Class names are exposed in their binary form as returned by
+ * {@link Class#getName()}, e.g. {@code com.example.Outer$Inner}.
+ *
+ * @see ClassFileMetadataReader
+ */
+public class ClassFileMetadata {
+
+	private static final int ACC_FINAL = 0x0010;
+
+	private static final int ACC_INTERFACE = 0x0200;
+
+	private static final int ACC_ABSTRACT = 0x0400;
+
+	private static final int ACC_ANNOTATION = 0x2000;
+
+
+	private final String className;
+
+	private final int accessFlags;
+
+	private final String superClassName;
+
+	private final String[] interfaceNames;
+
+	private final String[] annotationTypes;
+
+	private final Map<String, String> annotationValues;
+
+	private final String genericSignature;
+
+
+	ClassFileMetadata(String className, int accessFlags, String superClassName, String[] interfaceNames,
+			String[] annotationTypes, Map<String, String> annotationValues, String genericSignature) {
+
+		this.className = className;
+		this.accessFlags = accessFlags;
+		this.superClassName = superClassName;
+		this.interfaceNames = interfaceNames;
+		this.annotationTypes = annotationTypes;
+		this.annotationValues = annotationValues;
+		this.genericSignature = genericSignature;
+	}
+
+
+	/**
+	 * Return the name of the class.
+	 */
+	public String getClassName() {
+		return this.className;
+	}
+
+	/**
+	 * Return whether the class is an interface (including annotation types).
+	 */
+	public boolean isInterface() {
+		return ((this.accessFlags & ACC_INTERFACE) != 0);
+	}
+
+	/**
+	 * Return whether the class is an annotation type.
+	 */
+	public boolean isAnnotation() {
+		return ((this.accessFlags & ACC_ANNOTATION) != 0);
+	}
+
+	/**
+	 * Return whether the class is abstract (including interfaces).
+	 */
+	public boolean isAbstract() {
+		return ((this.accessFlags & ACC_ABSTRACT) != 0);
+	}
+
+	/**
+	 * Return whether the class is a concrete class, i.e. neither an interface nor abstract.
+	 */
+	public boolean isConcrete() {
+		return !(isInterface() || isAbstract());
+	}
+
+	/**
+	 * Return whether the class is final.
+	 */
+	public boolean isFinal() {
+		return ((this.accessFlags & ACC_FINAL) != 0);
+	}
+
+	/**
+	 * Return the name of the superclass, or {@code null} for {@code java.lang.Object}.
+	 * Interfaces report {@code java.lang.Object}, as in the class file.
+	 */
+	public String getSuperClassName() {
+		return this.superClassName;
+	}
+
+	/**
+	 * Return the names of the interfaces the class directly implements.
+	 */
+	public String[] getInterfaceNames() {
+		return this.interfaceNames.clone();
+	}
+
+	/**
+	 * Return the names of the runtime-visible annotations directly present on the class.
+	 */
+	public String[] getAnnotationTypes() {
+		return this.annotationTypes.clone();
+	}
+
+	/**
+	 * Return whether the given runtime-visible annotation is directly present on the class.
+	 * @param annotationType the name of the annotation type
+	 */
+	public boolean hasAnnotation(String annotationType) {
+		for (String candidate : this.annotationTypes) {
+			if (candidate.equals(annotationType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return the String {@code value} attribute of the given annotation,
+	 * if directly present on the class and declared with an explicit value.
+	 * @param annotationType the name of the annotation type
+	 * @return the attribute value, or {@code null} if not declared
+	 */
+	public String getAnnotationValue(String annotationType) {
+		return this.annotationValues.get(annotationType);
+	}
+
+	/**
+	 * Return the generic signature of the class, as found in the class file's
+	 * {@code Signature} attribute, or {@code null} if the class declares no
+	 * generic types.
+	 */
+	public String getGenericSignature() {
+		return this.genericSignature;
+	}
+
+	/**
+	 * Return the type arguments that the class declares for the given direct
+	 * superclass or interface, according to its generic signature.
+	 * <p>For example, for a class declared as {@code class Foo implements
+	 * FactoryBean<Bar>}, {@code getTypeArguments("...FactoryBean")} returns
+	 * {@code ["...Bar"]}. Arguments which are not plain class types (type
+	 * variables, wildcards, arrays) are reported as {@code null} elements.
+	 * @param superTypeName the name of the direct superclass or interface
+	 * @return the type argument names, or {@code null} if the class does not
+	 * declare any type arguments for the given type
+	 */
+	public String[] getTypeArguments(String superTypeName) {
+		if (this.genericSignature == null) {
+			return null;
+		}
+		SignatureParser parser = new SignatureParser(this.genericSignature);
+		parser.skipTypeParameters();
+		while (parser.hasMore()) {
+			List<String> arguments = new ArrayList<String>();
+			String typeName = parser.readClassTypeSignature(arguments);
+			if (superTypeName.equals(typeName)) {
+				return (arguments.isEmpty() ? null : arguments.toArray(new String[arguments.size()]));
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return "ClassFileMetadata for " + this.className + ": superclass=" + this.superClassName +
+				", interfaces=" + Arrays.asList(this.interfaceNames) +
+				", annotations=" + Arrays.asList(this.annotationTypes);
+	}
+
+
+	/**
+	 * Minimal parser for class signatures as defined by JVMS 4.7.9.1,
+	 * extracting the top-level type arguments of the supertypes.
+	 */
+	private static class SignatureParser {
+
+		private final String signature;
+
+		private int index;
+
+		SignatureParser(String signature) {
+			this.signature = signature;
+		}
+
+		boolean hasMore() {
+			return (this.index < this.signature.length());
+		}
+
+		void skipTypeParameters() {
+			if (this.signature.charAt(0) != '<') {
+				return;
+			}
+			int depth = 0;
+			do {
+				char c = this.signature.charAt(this.index++);
+				if (c == '<') {
+					depth++;
+				}
+				else if (c == '>') {
+					depth--;
+				}
+			}
+			while (depth > 0);
+		}
+
+		/**
+		 * Read a class type signature starting at the current position, collecting the
+		 * type arguments of its innermost class into the given list.
+		 * @return the binary name of the type
+		 */
+		String readClassTypeSignature(List<String> arguments) {
+			// Skip the leading 'L'
+			this.index++;
+			StringBuilder name = new StringBuilder();
+			while (true) {
+				char c = this.signature.charAt(this.index++);
+				if (c == ';') {
+					return name.toString();
+				}
+				else if (c == '<') {
+					arguments.clear();
+					readTypeArguments(arguments);
+				}
+				else if (c == '.') {
+					name.append('$');
+				}
+				else if (c == '/') {
+					name.append('.');
+				}
+				else {
+					name.append(c);
+				}
+			}
+		}
+
+		private void readTypeArguments(List<String> arguments) {
+			while (true) {
+				char c = this.signature.charAt(this.index);
+				if (c == '>') {
+					this.index++;
+					return;
+				}
+				if (c == 'L') {
+					arguments.add(readClassTypeSignature(new ArrayList<String>()));
+				}
+				else {
+					skipTypeArgument();
+					arguments.add(null);
+				}
+			}
+		}
+
+		private void skipTypeArgument() {
+			char c = this.signature.charAt(this.index++);
+			if (c == '*') {
+				return;
+			}
+			if (c == '+' || c == '-' || c == '[') {
+				skipTypeArgument();
+			}
+			else if (c == 'L') {
+				this.index--;
+				readClassTypeSignature(new ArrayList<String>());
+			}
+			else if (c == 'T') {
+				this.index = this.signature.indexOf(';', this.index) + 1;
+			}
+			// else: primitive array component, already consumed
+		}
+	}
+
+}
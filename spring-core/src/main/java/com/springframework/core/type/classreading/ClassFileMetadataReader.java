@@ -0,0 +1,257 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.core.type.classreading;
+
+import com.springframework.util.ClassUtils;
+import com.springframework.util.ConcurrentReferenceHashMap;
+import com.springframework.util.ResourceUtils;
+import com.springframework.util.StreamUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads {@link ClassFileMetadata} for classes visible to a given {@link ClassLoader},
+ * straight from their class files and without defining the classes.
+ * Metadata gets cached per class name, softly referenced so that the cache
+ * does not pin metadata of every class ever checked.
+ *
+ * <p>Class files in the file system get memory-mapped; class files in jars
+ * and other locations get read through their URL.
+ *
+ * @see ClassFileMetadata
+ */
+public class ClassFileMetadataReader {
+
+	private final ClassLoader classLoader;
+
+	private final Map<String, ClassFileMetadata> metadataCache =
+			new ConcurrentReferenceHashMap<String, ClassFileMetadata>(256);
+
+
+	/**
+	 * Create a new ClassFileMetadataReader for the default class loader.
+	 * @see ClassUtils#getDefaultClassLoader()
+	 */
+	public ClassFileMetadataReader() {
+		this(ClassUtils.getDefaultClassLoader());
+	}
+
+	/**
+	 * Create a new ClassFileMetadataReader for the given class loader.
+	 * @param classLoader the class loader to locate class files with
+	 */
+	public ClassFileMetadataReader(ClassLoader classLoader) {
+		this.classLoader = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+	}
+
+
+	/**
+	 * Return the class loader that class files get located with.
+	 */
+	public ClassLoader getClassLoader() {
+		return this.classLoader;
+	}
+
+	/**
+	 * Return the metadata of the given class.
+	 * @param className the binary name of the class, e.g. {@code com.example.Outer$Inner}
+	 * @return the metadata
+	 * @throws FileNotFoundException if there is no class file for the given class
+	 * @throws IOException if the class file could not be read
+	 */
+	public ClassFileMetadata getMetadata(String className) throws IOException {
+		ClassFileMetadata metadata = this.metadataCache.get(className);
+		if (metadata == null) {
+			String resourcePath = ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX;
+			URL url = this.classLoader.getResource(resourcePath);
+			if (url == null) {
+				throw new FileNotFoundException("Class file [" + resourcePath + "] not found in " + this.classLoader);
+			}
+			metadata = getMetadata(url);
+			this.metadataCache.put(className, metadata);
+		}
+		return metadata;
+	}
+
+	/**
+	 * Read the metadata of the class file at the given URL, bypassing the cache.
+	 * @param url the location of the class file
+	 * @return the metadata
+	 * @throws IOException if the class file could not be read
+	 */
+	public ClassFileMetadata getMetadata(URL url) throws IOException {
+		return ClassFileParser.parse(readClassFile(url), url.toString());
+	}
+
+	/**
+	 * Read the metadata of the class file contained in the given stream,
+	 * bypassing the cache. The stream gets read fully but not closed.
+	 * @param inputStream the class file contents
+	 * @param description a description of the class file, used in error messages
+	 * @return the metadata
+	 * @throws IOException if the class file could not be read
+	 */
+	public ClassFileMetadata getMetadata(InputStream inputStream, String description) throws IOException {
+		return ClassFileParser.parse(ByteBuffer.wrap(StreamUtils.copyToByteArray(inputStream)), description);
+	}
+
+	/**
+	 * Determine whether the given class is assignable to the given type, based on
+	 * class file metadata for the class and its supertypes. Supertypes that are
+	 * already loaded by the JDK itself, i.e. in the {@code java.} packages, get
+	 * checked through reflection instead.
+	 * @param className the binary name of the class to check
+	 * @param targetType the type to match
+	 * @return whether the class is assignable to the given type
+	 * @throws IOException if the class file of the class or one of its supertypes
+	 * could not be read
+	 */
+	public boolean isAssignable(String className, Class<?> targetType) throws IOException {
+		if (targetType == Object.class) {
+			return true;
+		}
+		String targetName = targetType.getName();
+		Set<String> visited = new HashSet<String>();
+		LinkedList<String> candidates = new LinkedList<String>();
+		candidates.add(className);
+		while (!candidates.isEmpty()) {
+			String candidate = candidates.removeFirst();
+			if (candidate.equals(targetName)) {
+				return true;
+			}
+			if (!visited.add(candidate)) {
+				continue;
+			}
+			if (candidate.startsWith("java.")) {
+				if (isJdkTypeAssignable(candidate, targetType)) {
+					return true;
+				}
+				continue;
+			}
+			ClassFileMetadata metadata = getMetadata(candidate);
+			if (metadata.getSuperClassName() != null) {
+				candidates.add(metadata.getSuperClassName());
+			}
+			for (String interfaceName : metadata.getInterfaceNames()) {
+				candidates.add(interfaceName);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determine whether the given annotation is present on the given class, following
+	 * the search algorithm of {@link com.springframework.core.annotation.AnnotationUtils#findAnnotation(Class, Class)}:
+	 * the class itself, then its annotations (as meta-annotations), then its interfaces,
+	 * then its superclass hierarchy. Types in the {@code java.} packages are not searched.
+	 * @param metadata the metadata of the class to check
+	 * @param annotationType the name of the annotation type to look for
+	 * @return whether the annotation is present
+	 * @throws IOException if the class file of a searched type could not be read
+	 */
+	public boolean hasAnnotation(ClassFileMetadata metadata, String annotationType) throws IOException {
+		return hasAnnotation(metadata, annotationType, new HashSet<String>());
+	}
+
+	/**
+	 * Clear the metadata cache.
+	 */
+	public void clearCache() {
+		this.metadataCache.clear();
+	}
+
+
+	private boolean hasAnnotation(ClassFileMetadata metadata, String annotationType, Set<String> visited)
+			throws IOException {
+
+		String[] annotationTypes = metadata.getAnnotationTypes();
+		for (String candidate : annotationTypes) {
+			if (candidate.equals(annotationType)) {
+				return true;
+			}
+		}
+		for (String candidate : annotationTypes) {
+			if (!candidate.startsWith("java.") && visited.add(candidate)) {
+				ClassFileMetadata annotationMetadata;
+				try {
+					annotationMetadata = getMetadata(candidate);
+				}
+				catch (FileNotFoundException ex) {
+					// Annotations not present on the classpath get ignored at runtime as well
+					continue;
+				}
+				if (hasAnnotation(annotationMetadata, annotationType, visited)) {
+					return true;
+				}
+			}
+		}
+		for (String interfaceName : metadata.getInterfaceNames()) {
+			if (!interfaceName.startsWith("java.") && hasAnnotation(getMetadata(interfaceName), annotationType, visited)) {
+				return true;
+			}
+		}
+		String superClassName = metadata.getSuperClassName();
+		return (superClassName != null && !superClassName.startsWith("java.") &&
+				hasAnnotation(getMetadata(superClassName), annotationType, visited));
+	}
+
+	private boolean isJdkTypeAssignable(String className, Class<?> targetType) {
+		if (!targetType.getName().startsWith("java.")) {
+			// JDK types never implement application types
+			return false;
+		}
+		try {
+			return targetType.isAssignableFrom(ClassUtils.forName(className, this.classLoader));
+		}
+		catch (ClassNotFoundException ex) {
+			return false;
+		}
+	}
+
+	private static ByteBuffer readClassFile(URL url) throws IOException {
+		if (ResourceUtils.isFileURL(url)) {
+			File file = ResourceUtils.getFile(url);
+			FileInputStream in = new FileInputStream(file);
+			try {
+				FileChannel channel = in.getChannel();
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			finally {
+				in.close();
+			}
+		}
+		InputStream in = url.openStream();
+		try {
+			return ByteBuffer.wrap(StreamUtils.copyToByteArray(in));
+		}
+		finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parser for the parts of a class file described by {@link ClassFileMetadata}:
+ * access flags, class name, superclass, interfaces, runtime-visible class
+ * annotations (with their String {@code value} elements) and generic signature. Field and method sections get skipped.
+ *
+ * <p>Reads straight from a {@link ByteBuffer}, so that memory-mapped class
+ * files can be parsed without copying them first.
+ */
+class ClassFileParser {
+
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private static final byte CONSTANT_UTF8 = 1;
+
+	private static final byte CONSTANT_INTEGER = 3;
+
+	private static final byte CONSTANT_FLOAT = 4;
+
+	private static final byte CONSTANT_LONG = 5;
+
+	private static final byte CONSTANT_DOUBLE = 6;
+
+	private static final byte CONSTANT_CLASS = 7;
+
+	private static final byte CONSTANT_STRING = 8;
+
+	private static final byte CONSTANT_FIELDREF = 9;
+
+	private static final byte CONSTANT_METHODREF = 10;
+
+	private static final byte CONSTANT_INTERFACE_METHODREF = 11;
+
+	private static final byte CONSTANT_NAME_AND_TYPE = 12;
+
+	private static final byte CONSTANT_METHOD_HANDLE = 15;
+
+	private static final byte CONSTANT_METHOD_TYPE = 16;
+
+	private static final byte CONSTANT_DYNAMIC = 17;
+
+	private static final byte CONSTANT_INVOKE_DYNAMIC = 18;
+
+	private static final byte CONSTANT_MODULE = 19;
+
+	private static final byte CONSTANT_PACKAGE = 20;
+
+	private static final String[] NO_NAMES = new String[0];
+
+
+	private final ByteBuffer buffer;
+
+	/** Positions of the constant pool entries, right after their tag */
+	private int[] constantPositions;
+
+
+	private ClassFileParser(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+
+	/**
+	 * Parse the class file contained in the given buffer, from its current position.
+	 * @param buffer the class file contents
+	 * @param description a description of the class file, used in error messages
+	 * @return the metadata of the class
+	 * @throws IOException if the buffer does not contain a valid class file
+	 */
+	public static ClassFileMetadata parse(ByteBuffer buffer, String description) throws IOException {
+		try {
+			return new ClassFileParser(buffer.slice()).parse();
+		}
+		catch (BufferUnderflowException ex) {
+			throw new IOException("Truncated class file: " + description);
+		}
+		catch (IndexOutOfBoundsException ex) {
+			throw new IOException("Corrupt class file: " + description);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new IOException("Invalid class file " + description + ": " + ex.getMessage());
+		}
+	}
+
+	private ClassFileMetadata parse() {
+		if (this.buffer.getInt() != MAGIC) {
+			throw new IllegalArgumentException("not a class file");
+		}
+		// Skip minor and major version
+		this.buffer.getInt();
+		readConstantPool();
+
+		int accessFlags = readUnsignedShort();
+		String className = readClassName(readUnsignedShort());
+		int superClassIndex = readUnsignedShort();
+		String superClassName = (superClassIndex != 0 ? readClassName(superClassIndex) : null);
+		int interfaceCount = readUnsignedShort();
+		String[] interfaceNames = (interfaceCount > 0 ? new String[interfaceCount] : NO_NAMES);
+		for (int i = 0; i < interfaceCount; i++) {
+			interfaceNames[i] = readClassName(readUnsignedShort());
+		}
+
+		skipMembers();  // fields
+		skipMembers();  // methods
+
+		String[] annotationTypes = NO_NAMES;
+		Map<String, String> annotationValues = Collections.emptyMap();
+		String genericSignature = null;
+		int attributeCount = readUnsignedShort();
+		for (int i = 0; i < attributeCount; i++) {
+			String attributeName = readUtf8(readUnsignedShort());
+			int length = this.buffer.getInt();
+			int end = this.buffer.position() + length;
+			if ("Signature".equals(attributeName)) {
+				genericSignature = readUtf8(readUnsignedShort());
+			}
+			else if ("RuntimeVisibleAnnotations".equals(attributeName)) {
+				annotationValues = new HashMap<String, String>(4);
+				annotationTypes = readAnnotationTypes(annotationValues);
+			}
+			this.buffer.position(end);
+		}
+		return new ClassFileMetadata(className, accessFlags, superClassName, interfaceNames,
+				annotationTypes, annotationValues, genericSignature);
+	}
+
+	private void readConstantPool() {
+		int count = readUnsignedShort();
+		this.constantPositions = new int[count];
+		for (int i = 1; i < count; i++) {
+			byte tag = this.buffer.get();
+			this.constantPositions[i] = this.buffer.position();
+			switch (tag) {
+				case CONSTANT_UTF8:
+					skip(readUnsignedShort());
+					break;
+				case CONSTANT_CLASS:
+				case CONSTANT_STRING:
+				case CONSTANT_METHOD_TYPE:
+				case CONSTANT_MODULE:
+				case CONSTANT_PACKAGE:
+					skip(2);
+					break;
+				case CONSTANT_METHOD_HANDLE:
+					skip(3);
+					break;
+				case CONSTANT_INTEGER:
+				case CONSTANT_FLOAT:
+				case CONSTANT_FIELDREF:
+				case CONSTANT_METHODREF:
+				case CONSTANT_INTERFACE_METHODREF:
+				case CONSTANT_NAME_AND_TYPE:
+				case CONSTANT_DYNAMIC:
+				case CONSTANT_INVOKE_DYNAMIC:
+					skip(4);
+					break;
+				case CONSTANT_LONG:
+				case CONSTANT_DOUBLE:
+					skip(8);
+					// Eight-byte constants take up two entries
+					i++;
+					break;
+				default:
+					throw new IllegalArgumentException("unknown constant pool tag " + tag);
+			}
+		}
+	}
+
+	private void skipMembers() {
+		int memberCount = readUnsignedShort();
+		for (int i = 0; i < memberCount; i++) {
+			// Skip access flags, name and descriptor
+			skip(6);
+			int attributeCount = readUnsignedShort();
+			for (int j = 0; j < attributeCount; j++) {
+				skip(2);
+				skip(this.buffer.getInt());
+			}
+		}
+	}
+
+	private String[] readAnnotationTypes(Map<String, String> annotationValues) {
+		int count = readUnsignedShort();
+		String[] annotationTypes = new String[count];
+		for (int i = 0; i < count; i++) {
+			annotationTypes[i] = readAnnotation(annotationValues);
+		}
+		return annotationTypes;
+	}
+
+	/**
+	 * Read an annotation structure, skipping its element values
+	 * except for a String {@code value} element.
+	 * @param annotationValues the map to put the String {@code value} element into,
+	 * keyed by annotation type, or {@code null} to skip all element values
+	 * @return the name of the annotation type
+	 */
+	private String readAnnotation(Map<String, String> annotationValues) {
+		String annotationType = descriptorToClassName(readUtf8(readUnsignedShort()));
+		int pairCount = readUnsignedShort();
+		for (int i = 0; i < pairCount; i++) {
+			int nameIndex = readUnsignedShort();
+			if (annotationValues != null && this.buffer.get(this.buffer.position()) == 's' &&
+					"value".equals(readUtf8(nameIndex))) {
+				skip(1);
+				annotationValues.put(annotationType, readUtf8(readUnsignedShort()));
+			}
+			else {
+				skipElementValue();
+			}
+		}
+		return annotationType;
+	}
+
+	private void skipElementValue() {
+		char tag = (char) this.buffer.get();
+		switch (tag) {
+			case 'e':
+				skip(4);
+				break;
+			case '@':
+				readAnnotation(null);
+				break;
+			case '[':
+				int count = readUnsignedShort();
+				for (int i = 0; i < count; i++) {
+					skipElementValue();
+				}
+				break;
+			default:
+				// B, C, D, F, I, J, S, Z, s and c: a single constant pool index
+				skip(2);
+		}
+	}
+
+	private String readClassName(int classIndex) {
+		int nameIndex = this.buffer.getShort(this.constantPositions[classIndex]) & 0xFFFF;
+		return readUtf8(nameIndex).replace('/', '.');
+	}
+
+	/**
+	 * Decode the modified UTF-8 string at the given constant pool index.
+	 */
+	private String readUtf8(int index) {
+		int position = this.constantPositions[index];
+		int length = this.buffer.getShort(position) & 0xFFFF;
+		position += 2;
+		int end = position + length;
+		char[] chars = new char[length];
+		int count = 0;
+		while (position < end) {
+			int c = this.buffer.get(position++) & 0xFF;
+			if (c < 0x80) {
+				chars[count++] = (char) c;
+			}
+			else if (c < 0xE0) {
+				chars[count++] = (char) (((c & 0x1F) << 6) | (this.buffer.get(position++) & 0x3F));
+			}
+			else {
+				chars[count++] = (char) (((c & 0x0F) << 12) | ((this.buffer.get(position++) & 0x3F) << 6) |
+						(this.buffer.get(position++) & 0x3F));
+			}
+		}
+		return new String(chars, 0, count);
+	}
+
+	private int readUnsignedShort() {
+		return this.buffer.getShort() & 0xFFFF;
+	}
+
+	private void skip(int length) {
+		this.buffer.position(this.buffer.position() + length);
+	}
+
+	private static String descriptorToClassName(String descriptor) {
+		// "Lcom/example/Foo;" -> "com.example.Foo"
+		return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+	}
+
+}
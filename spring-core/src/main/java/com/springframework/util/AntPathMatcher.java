@@ -0,0 +1,378 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PathMatcher} implementation for Ant-style path patterns.
+ *
+ * <p>The mapping matches URLs using the following rules:<br>
+ * <ul>
+ * <li>{@code ?} matches one character</li>
+ * <li>{@code *} matches zero or more characters</li>
+ * <li>{@code **} matches zero or more <em>directories</em> in a path</li>
+ * </ul>
+ *
+ * <h3>Examples</h3>
+ * <ul>
+ * <li>{@code com/t?st.jsp} &mdash; matches {@code com/test.jsp} but also
+ * {@code com/tast.jsp} or {@code com/txst.jsp}</li>
+ * <li>{@code com/*.jsp} &mdash; matches all {@code .jsp} files in the
+ * {@code com} directory</li>
+ * <li><code>com/&#42;&#42;/test.jsp</code> &mdash; matches all {@code test.jsp}
+ * files underneath the {@code com} path</li>
+ * <li><code>org/&#42;&#42;/servlet/bla.jsp</code> &mdash; matches
+ * {@code org/springframework/servlet/bla.jsp} but also
+ * {@code org/springframework/testing/servlet/bla.jsp} and {@code org/servlet/bla.jsp}</li>
+ * </ul>
+ *
+ * <p>Patterns get tokenized and compiled once and are cached afterwards,
+ * so that matching a path only tokenizes the path itself. Literal path
+ * segments get compared with {@link String#equals}, wildcard segments get
+ * matched character by character without regular expressions.
+ */
+public class AntPathMatcher implements PathMatcher {
+
+	/** Default path separator: "/" */
+	public static final String DEFAULT_PATH_SEPARATOR = "/";
+
+	/**
+	 * Number of compiled patterns beyond which the cache gets turned off,
+	 * assuming that arbitrary patterns are coming in with little chance
+	 * for encountering a recurring pattern.
+	 */
+	private static final int CACHE_TURNOFF_THRESHOLD = 65536;
+
+
+	private String pathSeparator;
+
+	private boolean caseSensitive = true;
+
+	private volatile boolean cachePatterns = true;
+
+	private final Map<String, CompiledPattern> compiledPatternCache =
+			new ConcurrentHashMap<String, CompiledPattern>(256);
+
+
+	/**
+	 * Create a new instance with the {@link #DEFAULT_PATH_SEPARATOR}.
+	 */
+	public AntPathMatcher() {
+		this.pathSeparator = DEFAULT_PATH_SEPARATOR;
+	}
+
+	/**
+	 * A convenient, alternative constructor to use with a custom path separator.
+	 * @param pathSeparator the path separator to use, must not be {@code null}.
+	 */
+	public AntPathMatcher(String pathSeparator) {
+		Assert.notNull(pathSeparator, "'pathSeparator' is required");
+		this.pathSeparator = pathSeparator;
+	}
+
+
+	/**
+	 * Set the path separator to use for pattern parsing.
+	 * <p>Default is "/", as in Ant.
+	 */
+	public void setPathSeparator(String pathSeparator) {
+		this.pathSeparator = (pathSeparator != null ? pathSeparator : DEFAULT_PATH_SEPARATOR);
+		this.compiledPatternCache.clear();
+	}
+
+	/**
+	 * Specify whether to perform pattern matching in a case-sensitive fashion.
+	 * <p>Default is {@code true}. Switch this to {@code false} for case-insensitive matching.
+	 */
+	public void setCaseSensitive(boolean caseSensitive) {
+		this.caseSensitive = caseSensitive;
+		this.compiledPatternCache.clear();
+	}
+
+	/**
+	 * Specify whether to cache compiled patterns.
+	 * <p>Default is for the cache to be on, but with the variant to automatically
+	 * turn it off when encountering too many patterns to cache at runtime
+	 * (the threshold is 65536), assuming that arbitrary permutations of patterns
+	 * are coming in, with little chance for encountering a recurring pattern.
+	 */
+	public void setCachePatterns(boolean cachePatterns) {
+		this.cachePatterns = cachePatterns;
+		if (!cachePatterns) {
+			this.compiledPatternCache.clear();
+		}
+	}
+
+
+	@Override
+	public boolean isPattern(String path) {
+		return (path.indexOf('*') != -1 || path.indexOf('?') != -1);
+	}
+
+	@Override
+	public boolean match(String pattern, String path) {
+		return compilePattern(pattern).matches(path, true);
+	}
+
+	@Override
+	public boolean matchStart(String pattern, String path) {
+		return compilePattern(pattern).matches(path, false);
+	}
+
+	/**
+	 * Compile the given pattern, or return the cached compiled pattern.
+	 */
+	private CompiledPattern compilePattern(String pattern) {
+		CompiledPattern compiled = (this.cachePatterns ? this.compiledPatternCache.get(pattern) : null);
+		if (compiled == null) {
+			compiled = new CompiledPattern(pattern, this.pathSeparator, this.caseSensitive);
+			if (this.cachePatterns) {
+				if (this.compiledPatternCache.size() >= CACHE_TURNOFF_THRESHOLD) {
+					// Try to adapt to the runtime situation that we're encountering:
+					// There are obviously too many different patterns coming in here...
+					// So let's turn off the cache since the patterns are unlikely to be reoccurring.
+					this.cachePatterns = false;
+					this.compiledPatternCache.clear();
+					return compiled;
+				}
+				this.compiledPatternCache.put(pattern, compiled);
+			}
+		}
+		return compiled;
+	}
+
+	private static String[] tokenize(String path, String pathSeparator) {
+		List<String> tokens = new ArrayList<String>();
+		int start = 0;
+		int length = path.length();
+		while (start <= length) {
+			int end = path.indexOf(pathSeparator, start);
+			if (end == -1) {
+				end = length;
+			}
+			String token = path.substring(start, end).trim();
+			if (token.length() > 0) {
+				tokens.add(token);
+			}
+			start = end + pathSeparator.length();
+		}
+		return tokens.toArray(new String[tokens.size()]);
+	}
+
+
+	/**
+	 * A pattern split into its path segments once, with each segment
+	 * classified as {@code **}, literal or wildcard segment.
+	 */
+	private static class CompiledPattern {
+
+		private final String pathSeparator;
+
+		private final boolean caseSensitive;
+
+		private final boolean absolute;
+
+		private final boolean trailingSeparator;
+
+		private final String[] segments;
+
+		private final boolean[] doubleWildcard;
+
+		private final boolean[] wildcard;
+
+		public CompiledPattern(String pattern, String pathSeparator, boolean caseSensitive) {
+			this.pathSeparator = pathSeparator;
+			this.caseSensitive = caseSensitive;
+			this.absolute = pattern.startsWith(pathSeparator);
+			this.trailingSeparator = pattern.endsWith(pathSeparator);
+			String[] tokens = tokenize(pattern, pathSeparator);
+			this.segments = new String[tokens.length];
+			this.doubleWildcard = new boolean[tokens.length];
+			this.wildcard = new boolean[tokens.length];
+			for (int i = 0; i < tokens.length; i++) {
+				this.doubleWildcard[i] = "**".equals(tokens[i]);
+				this.wildcard[i] = (tokens[i].indexOf('*') != -1 || tokens[i].indexOf('?') != -1);
+				this.segments[i] = (caseSensitive ? tokens[i] : tokens[i].toLowerCase());
+			}
+		}
+
+		/**
+		 * Match the given path against this pattern.
+		 * @param path the path to match
+		 * @param fullMatch whether a full pattern match is required (else a pattern match
+		 * as far as the given base path goes is sufficient)
+		 * @return {@code true} if the supplied {@code path} matched, {@code false} if it didn't
+		 */
+		public boolean matches(String path, boolean fullMatch) {
+			if (path.startsWith(this.pathSeparator) != this.absolute) {
+				return false;
+			}
+			String[] pathDirs = tokenize(path, this.pathSeparator);
+			int pattIdxStart = 0;
+			int pattIdxEnd = this.segments.length - 1;
+			int pathIdxStart = 0;
+			int pathIdxEnd = pathDirs.length - 1;
+
+			// Match all elements up to the first **
+			while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+				if (this.doubleWildcard[pattIdxStart]) {
+					break;
+				}
+				if (!matchSegment(pattIdxStart, pathDirs[pathIdxStart])) {
+					return false;
+				}
+				pattIdxStart++;
+				pathIdxStart++;
+			}
+
+			if (pathIdxStart > pathIdxEnd) {
+				// Path is exhausted, only match if rest of pattern is * or **'s
+				if (pattIdxStart > pattIdxEnd) {
+					return (this.trailingSeparator ? path.endsWith(this.pathSeparator) :
+							!path.endsWith(this.pathSeparator));
+				}
+				if (!fullMatch) {
+					return true;
+				}
+				if (pattIdxStart == pattIdxEnd && this.segments[pattIdxStart].equals("*") &&
+						path.endsWith(this.pathSeparator)) {
+					return true;
+				}
+				return onlyDoubleWildcards(pattIdxStart, pattIdxEnd);
+			}
+			else if (pattIdxStart > pattIdxEnd) {
+				// Path not exhausted, but pattern is. Failure.
+				return false;
+			}
+			else if (!fullMatch && this.doubleWildcard[pattIdxStart]) {
+				// Path start definitely matches due to "**" part in pattern.
+				return true;
+			}
+
+			// Up to last '**'
+			while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+				if (this.doubleWildcard[pattIdxEnd]) {
+					break;
+				}
+				if (!matchSegment(pattIdxEnd, pathDirs[pathIdxEnd])) {
+					return false;
+				}
+				pattIdxEnd--;
+				pathIdxEnd--;
+			}
+			if (pathIdxStart > pathIdxEnd) {
+				// Path is exhausted
+				return onlyDoubleWildcards(pattIdxStart, pattIdxEnd);
+			}
+
+			while (pattIdxStart != pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+				int patIdxTmp = -1;
+				for (int i = pattIdxStart + 1; i <= pattIdxEnd; i++) {
+					if (this.doubleWildcard[i]) {
+						patIdxTmp = i;
+						break;
+					}
+				}
+				if (patIdxTmp == pattIdxStart + 1) {
+					// '**/**' situation, so skip one
+					pattIdxStart++;
+					continue;
+				}
+				// Find the pattern between pattIdxStart & patIdxTmp in the path
+				int patLength = (patIdxTmp - pattIdxStart - 1);
+				int strLength = (pathIdxEnd - pathIdxStart + 1);
+				int foundIdx = -1;
+
+				strLoop:
+				for (int i = 0; i <= strLength - patLength; i++) {
+					for (int j = 0; j < patLength; j++) {
+						if (!matchSegment(pattIdxStart + j + 1, pathDirs[pathIdxStart + i + j])) {
+							continue strLoop;
+						}
+					}
+					foundIdx = pathIdxStart + i;
+					break;
+				}
+
+				if (foundIdx == -1) {
+					return false;
+				}
+				pattIdxStart = patIdxTmp;
+				pathIdxStart = foundIdx + patLength;
+			}
+
+			return onlyDoubleWildcards(pattIdxStart, pattIdxEnd);
+		}
+
+		private boolean onlyDoubleWildcards(int start, int end) {
+			for (int i = start; i <= end; i++) {
+				if (!this.doubleWildcard[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean matchSegment(int index, String pathSegment) {
+			String segment = this.segments[index];
+			String str = (this.caseSensitive ? pathSegment : pathSegment.toLowerCase());
+			if (!this.wildcard[index]) {
+				return segment.equals(str);
+			}
+			return matchWildcards(segment, str);
+		}
+
+		/**
+		 * Match a segment containing {@code *} and {@code ?} wildcards,
+		 * backtracking to the last {@code *} on a mismatch.
+		 */
+		private static boolean matchWildcards(String segment, String str) {
+			int segIdx = 0;
+			int strIdx = 0;
+			int starIdx = -1;
+			int starMatchEnd = 0;
+			while (strIdx < str.length()) {
+				if (segIdx < segment.length() &&
+						(segment.charAt(segIdx) == '?' || segment.charAt(segIdx) == str.charAt(strIdx))) {
+					segIdx++;
+					strIdx++;
+				}
+				else if (segIdx < segment.length() && segment.charAt(segIdx) == '*') {
+					starIdx = segIdx++;
+					starMatchEnd = strIdx;
+				}
+				else if (starIdx != -1) {
+					segIdx = starIdx + 1;
+					strIdx = ++starMatchEnd;
+				}
+				else {
+					return false;
+				}
+			}
+			while (segIdx < segment.length() && segment.charAt(segIdx) == '*') {
+				segIdx++;
+			}
+			return (segIdx == segment.length());
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link InputStream} reading the remaining content of a {@link ByteBuffer},
+ * e.g. a memory-mapped file, without copying it to the heap first.
+ *
+ * <p>The stream works on a duplicate of the given buffer, leaving the
+ * position of the given buffer untouched. Closing it has no effect.
+ */
+public class ByteBufferInputStream extends InputStream {
+
+	private final ByteBuffer buffer;
+
+
+	/**
+	 * Create a new ByteBufferInputStream for the given buffer.
+	 * @param buffer the buffer to read from its current position up to its limit
+	 */
+	public ByteBufferInputStream(ByteBuffer buffer) {
+		Assert.notNull(buffer, "ByteBuffer must not be null");
+		this.buffer = buffer.duplicate();
+	}
+
+
+	@Override
+	public int read() {
+		return (this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1);
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		int count = Math.min(len, this.buffer.remaining());
+		if (count == 0) {
+			return -1;
+		}
+		this.buffer.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public long skip(long n) {
+		int count = (int) Math.min(Math.max(n, 0), this.buffer.remaining());
+		this.buffer.position(this.buffer.position() + count);
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return this.buffer.remaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public synchronized void mark(int readLimit) {
+		this.buffer.mark();
+	}
+
+	@Override
+	public synchronized void reset() {
+		this.buffer.reset();
+	}
+
+}
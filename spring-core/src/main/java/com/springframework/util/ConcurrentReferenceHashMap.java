@@ -406,6 +406,9 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 	@SuppressWarnings("serial")
 	protected final class Segment extends ReentrantLock {
 
+		/** Lock site name for {@link LockContentionProfiler} */
+		private static final String LOCK_SITE = "ConcurrentReferenceHashMap.Segment";
+
 		private final ReferenceManager referenceManager;
 
 		private final int initialSize;
@@ -435,6 +438,26 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 			setReferences(createReferenceArray(this.initialSize));
 		}
 
+		/**
+		 * Acquire the lock, reporting the acquisition to the active
+		 * {@link LockContentionProfiler}, if any.
+		 */
+		@Override
+		public void lock() {
+			LockContentionProfiler profiler = LockContentionProfiler.getActiveProfiler();
+			if (profiler == null) {
+				super.lock();
+			}
+			else if (tryLock()) {
+				profiler.recordAcquisition(LOCK_SITE, 0, false);
+			}
+			else {
+				long waitStart = System.nanoTime();
+				super.lock();
+				profiler.recordAcquisition(LOCK_SITE, System.nanoTime() - waitStart, true);
+			}
+		}
+
 		public Reference<K, V> getReference(Object key, int hash, Restructure restructure) {
 			if (restructure == Restructure.WHEN_NECESSARY) {
 				restructureIfNecessary(false);
@@ -17,6 +17,8 @@
 package com.springframework.util;
 
 import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -28,11 +30,10 @@ import java.util.Properties;
  * {@code java.util.Properties} unfortunately lacked up until JDK 1.5:
  * You were only able to load files using the ISO-8859-1 charset there.
  *
- * <p>Loading from and storing to a stream delegates to {@code Properties.load}
- * and {@code Properties.store}, respectively, to be fully compatible with
- * the Unicode conversion as implemented by the JDK Properties class. As of JDK 1.6,
- * {@code Properties.load/store} will also be used for readers/writers,
- * effectively turning this class into a plain backwards compatibility adapter.
+ * <p>Loading from a stream or reader goes through {@link PropertiesParser}, which
+ * follows the parsing rules of {@code Properties.load}, including its Unicode
+ * conversion, but parses the entire content in one go instead of line by line
+ * into a synchronized table. Storing delegates to {@code Properties.store}.
  *
  * <p>The persistence code that works with Reader/Writer follows the JDK's parsing
  * strategy but does not implement Unicode conversion, because the Reader/Writer
@@ -51,12 +52,16 @@ public class DefaultPropertiesPersister implements PropertiesPersister {
 
 	@Override
 	public void load(Properties props, InputStream is) throws IOException {
-		props.load(is);
+		Map<String, String> parsed = new LinkedHashMap<String, String>();
+		PropertiesParser.parse(is, parsed);
+		props.putAll(parsed);
 	}
 
 	@Override
 	public void load(Properties props, Reader reader) throws IOException {
-		props.load(reader);
+		Map<String, String> parsed = new LinkedHashMap<String, String>();
+		PropertiesParser.parse(reader, parsed);
+		props.putAll(parsed);
 	}
 
 	@Override
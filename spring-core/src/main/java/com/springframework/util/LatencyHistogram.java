@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Histogram of durations with power-of-two microsecond buckets: bucket 0 holds
+ * durations below one microsecond, bucket {@code i} durations from
+ * 2<sup>i-1</sup> up to 2<sup>i</sup> microseconds, and the last bucket
+ * everything beyond.
+ *
+ * <p>Bucket counters are created on first use, since the durations of a single
+ * operation usually fall into a handful of buckets only.
+ *
+ * @see LockContentionProfiler
+ */
+public class LatencyHistogram {
+
+	/** Number of buckets */
+	public static final int BUCKET_COUNT = 32;
+
+	private final AtomicReferenceArray<StripedCounter> buckets =
+			new AtomicReferenceArray<StripedCounter>(BUCKET_COUNT);
+
+	private final StripedCounter totalNanos = new StripedCounter();
+
+	private final AtomicLong maxNanos = new AtomicLong();
+
+
+	/**
+	 * Record the given duration.
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		int index = bucketIndex(nanos);
+		StripedCounter bucket = this.buckets.get(index);
+		if (bucket == null) {
+			this.buckets.compareAndSet(index, null, new StripedCounter());
+			bucket = this.buckets.get(index);
+		}
+		bucket.increment();
+		this.totalNanos.add(nanos);
+		long max = this.maxNanos.get();
+		while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+			max = this.maxNanos.get();
+		}
+	}
+
+	/**
+	 * Return the number of durations per bucket.
+	 */
+	public long[] getCounts() {
+		long[] counts = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			StripedCounter bucket = this.buckets.get(i);
+			counts[i] = (bucket != null ? bucket.sum() : 0L);
+		}
+		return counts;
+	}
+
+	/**
+	 * Return the sum of all recorded durations, in nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return this.totalNanos.sum();
+	}
+
+	/**
+	 * Return the longest recorded duration, in nanoseconds.
+	 */
+	public long getMaxNanos() {
+		return this.maxNanos.get();
+	}
+
+
+	private static int bucketIndex(long nanos) {
+		long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+		return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+	}
+
+	/**
+	 * Return the exclusive upper bound of the given bucket in microseconds,
+	 * or {@link Long#MAX_VALUE} for the last bucket.
+	 */
+	public static long getBucketUpperBound(int index) {
+		return (index < BUCKET_COUNT - 1 ? 1L << index : Long.MAX_VALUE);
+	}
+
+	/**
+	 * Return an upper bound in microseconds for the given percentile of the
+	 * durations counted in the given buckets, or 0 if there are none.
+	 * @param counts the number of durations per bucket
+	 * @param percentile the percentile, between 0 and 100
+	 * @see #getCounts()
+	 */
+	public static long getPercentile(long[] counts, double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+		}
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long threshold = (long) Math.ceil(total * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= threshold && seen > 0) {
+				return getBucketUpperBound(i);
+			}
+		}
+		return getBucketUpperBound(counts.length - 1);
+	}
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records how the framework's internal locks get acquired: per lock site, the
+ * number of acquisitions, the number of contended acquisitions, a histogram of
+ * the time spent waiting, and the beans that were in creation on the acquiring
+ * threads.
+ *
+ * <p>Profiling is off by default and costs a single volatile read per lock
+ * acquisition then. It gets switched on globally through {@link #install}, since
+ * some of the instrumented locks live in shared infrastructure such as
+ * {@link ConcurrentReferenceHashMap}:
+ *
+ * <pre class="code">
+ * LockContentionProfiler profiler = new LockContentionProfiler();
+ * LockContentionProfiler.install(profiler);
+ * // ... run the workload ...
+ * LockContentionProfiler.uninstall();
+ * for (LockSiteStatistics site : profiler.getStatistics()) {
+ *     System.out.println(site);
+ * }</pre>
+ *
+ * <p>For {@link java.util.concurrent.locks.Lock} based sites, an acquisition counts
+ * as contended if an initial {@code tryLock()} fails. Java monitors offer no such
+ * check, so a monitor acquisition counts as contended once its wait exceeds the
+ * {@linkplain #setContentionThreshold contention threshold}.
+ */
+public class LockContentionProfiler {
+
+	private static volatile LockContentionProfiler activeProfiler;
+
+
+	private final ThreadLocal<String> beanInCreation = new ThreadLocal<String>();
+
+	private final ConcurrentMap<String, LockSiteCounters> lockSites = new ConcurrentHashMap<String, LockSiteCounters>();
+
+	private volatile long contentionThreshold = 1000;
+
+
+	/**
+	 * Start recording lock acquisitions with the given profiler,
+	 * replacing the currently installed profiler, if any.
+	 */
+	public static void install(LockContentionProfiler profiler) {
+		Assert.notNull(profiler, "LockContentionProfiler must not be null");
+		activeProfiler = profiler;
+	}
+
+	/**
+	 * Stop recording lock acquisitions.
+	 */
+	public static void uninstall() {
+		activeProfiler = null;
+	}
+
+	/**
+	 * Return the currently installed profiler, or {@code null} if none.
+	 */
+	public static LockContentionProfiler getActiveProfiler() {
+		return activeProfiler;
+	}
+
+	/**
+	 * Return a timestamp to pass to {@link #afterMonitorEnter} right before
+	 * entering a monitor, or 0 if no profiler is installed.
+	 */
+	public static long beforeMonitorEnter() {
+		return (activeProfiler != null ? System.nanoTime() : 0);
+	}
+
+	/**
+	 * Record a monitor acquisition with the active profiler, if any.
+	 * To be called right after entering the monitor.
+	 * @param lockSite the name of the monitor
+	 * @param waitStart the timestamp returned by {@link #beforeMonitorEnter()}
+	 */
+	public static void afterMonitorEnter(String lockSite, long waitStart) {
+		LockContentionProfiler profiler = activeProfiler;
+		if (profiler != null && waitStart != 0) {
+			long waitNanos = System.nanoTime() - waitStart;
+			profiler.recordAcquisition(lockSite, waitNanos, waitNanos >= profiler.contentionThreshold);
+		}
+	}
+
+
+	/**
+	 * Set the wait time in nanoseconds from which on a monitor acquisition
+	 * counts as contended. Default is 1000, i.e. one microsecond.
+	 */
+	public void setContentionThreshold(long contentionThreshold) {
+		Assert.isTrue(contentionThreshold >= 0, "'contentionThreshold' must not be negative");
+		this.contentionThreshold = contentionThreshold;
+	}
+
+	/**
+	 * Return the wait time in nanoseconds from which on a monitor acquisition counts as contended.
+	 */
+	public long getContentionThreshold() {
+		return this.contentionThreshold;
+	}
+
+	/**
+	 * Mark the given bean as being created on the current thread, attributing
+	 * lock acquisitions to it until {@link #endBeanCreation} gets called.
+	 * @param beanName the name of the bean
+	 * @return the bean previously in creation on the current thread, to pass
+	 * to {@code endBeanCreation}
+	 */
+	public String beginBeanCreation(String beanName) {
+		String outerBeanName = this.beanInCreation.get();
+		this.beanInCreation.set(beanName);
+		return outerBeanName;
+	}
+
+	/**
+	 * Mark the creation of the current bean on the current thread as finished.
+	 * @param outerBeanName the value returned by the corresponding {@link #beginBeanCreation} call
+	 */
+	public void endBeanCreation(String outerBeanName) {
+		if (outerBeanName != null) {
+			this.beanInCreation.set(outerBeanName);
+		}
+		else {
+			this.beanInCreation.remove();
+		}
+	}
+
+	/**
+	 * Record an acquisition of the given lock.
+	 * @param lockSite the name of the lock
+	 * @param waitNanos the time spent waiting for the lock, in nanoseconds
+	 * @param contended whether the lock was held by another thread at the time
+	 */
+	public void recordAcquisition(String lockSite, long waitNanos, boolean contended) {
+		LockSiteCounters counters = this.lockSites.get(lockSite);
+		if (counters == null) {
+			counters = new LockSiteCounters();
+			LockSiteCounters existing = this.lockSites.putIfAbsent(lockSite, counters);
+			if (existing != null) {
+				counters = existing;
+			}
+		}
+		counters.record(waitNanos, contended, this.beanInCreation.get());
+	}
+
+	/**
+	 * Return a snapshot of the statistics of the given lock site.
+	 * @param lockSite the name of the lock
+	 * @return the statistics, or {@code null} if the lock has not been acquired
+	 */
+	public LockSiteStatistics getStatistics(String lockSite) {
+		LockSiteCounters counters = this.lockSites.get(lockSite);
+		return (counters != null ? counters.snapshot(lockSite) : null);
+	}
+
+	/**
+	 * Return a snapshot of the statistics of all lock sites acquired so far,
+	 * the lock sites with the highest total wait time first.
+	 */
+	public List<LockSiteStatistics> getStatistics() {
+		List<LockSiteStatistics> statistics = new ArrayList<LockSiteStatistics>(this.lockSites.size());
+		for (String lockSite : this.lockSites.keySet()) {
+			LockSiteStatistics siteStatistics = getStatistics(lockSite);
+			if (siteStatistics != null) {
+				statistics.add(siteStatistics);
+			}
+		}
+		Collections.sort(statistics, new Comparator<LockSiteStatistics>() {
+			@Override
+			public int compare(LockSiteStatistics stats1, LockSiteStatistics stats2) {
+				long wait1 = stats1.getTotalWaitTime();
+				long wait2 = stats2.getTotalWaitTime();
+				return (wait1 < wait2 ? 1 : (wait1 > wait2 ? -1 : 0));
+			}
+		});
+		return statistics;
+	}
+
+	/**
+	 * Discard all statistics recorded so far.
+	 */
+	public void reset() {
+		this.lockSites.clear();
+	}
+
+
+	/**
+	 * Live counters for a single lock site.
+	 */
+	private static class LockSiteCounters {
+
+		private final StripedCounter acquisitions = new StripedCounter();
+
+		private final StripedCounter contendedAcquisitions = new StripedCounter();
+
+		private final LatencyHistogram waitTimes = new LatencyHistogram();
+
+		private final ConcurrentMap<String, StripedCounter> acquisitionsByBean =
+				new ConcurrentHashMap<String, StripedCounter>();
+
+		void record(long waitNanos, boolean contended, String beanName) {
+			this.acquisitions.increment();
+			if (contended) {
+				this.contendedAcquisitions.increment();
+			}
+			this.waitTimes.record(waitNanos);
+			if (beanName != null) {
+				StripedCounter counter = this.acquisitionsByBean.get(beanName);
+				if (counter == null) {
+					counter = new StripedCounter();
+					StripedCounter existing = this.acquisitionsByBean.putIfAbsent(beanName, counter);
+					if (existing != null) {
+						counter = existing;
+					}
+				}
+				counter.increment();
+			}
+		}
+
+		LockSiteStatistics snapshot(String lockSite) {
+			return new LockSiteStatistics(lockSite, this.acquisitions.sum(), this.contendedAcquisitions.sum(),
+					this.waitTimes, this.acquisitionsByBean);
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.util;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the statistics of a single lock site, as recorded
+ * by {@link LockContentionProfiler}.
+ *
+ * @see LockContentionProfiler#getStatistics(String)
+ */
+public class LockSiteStatistics {
+
+	private final String lockSite;
+
+	private final long acquisitions;
+
+	private final long contendedAcquisitions;
+
+	private final long[] waitTimeHistogram;
+
+	private final long totalWaitTime;
+
+	private final long maxWaitTime;
+
+	private final Map<String, Long> acquisitionsByBean;
+
+
+	LockSiteStatistics(String lockSite, long acquisitions, long contendedAcquisitions,
+			LatencyHistogram waitTimes, Map<String, StripedCounter> acquisitionsByBean) {
+
+		this.lockSite = lockSite;
+		this.acquisitions = acquisitions;
+		this.contendedAcquisitions = contendedAcquisitions;
+		this.waitTimeHistogram = waitTimes.getCounts();
+		this.totalWaitTime = waitTimes.getTotalNanos();
+		this.maxWaitTime = waitTimes.getMaxNanos();
+
+		List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>(acquisitionsByBean.size());
+		for (Map.Entry<String, StripedCounter> entry : acquisitionsByBean.entrySet()) {
+			entries.add(new AbstractMap.SimpleImmutableEntry<String, Long>(entry.getKey(), entry.getValue().sum()));
+		}
+		Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+			@Override
+			public int compare(Map.Entry<String, Long> entry1, Map.Entry<String, Long> entry2) {
+				return entry2.getValue().compareTo(entry1.getValue());
+			}
+		});
+		Map<String, Long> sorted = new LinkedHashMap<String, Long>(entries.size() * 2);
+		for (Map.Entry<String, Long> entry : entries) {
+			sorted.put(entry.getKey(), entry.getValue());
+		}
+		this.acquisitionsByBean = Collections.unmodifiableMap(sorted);
+	}
+
+
+	/**
+	 * Return the name of the lock site.
+	 */
+	public String getLockSite() {
+		return this.lockSite;
+	}
+
+	/**
+	 * Return the number of acquisitions.
+	 */
+	public long getAcquisitions() {
+		return this.acquisitions;
+	}
+
+	/**
+	 * Return the number of acquisitions that had to wait for another thread.
+	 */
+	public long getContendedAcquisitions() {
+		return this.contendedAcquisitions;
+	}
+
+	/**
+	 * Return the number of acquisitions per wait time bucket.
+	 * @see LatencyHistogram#getBucketUpperBound(int)
+	 */
+	public long[] getWaitTimeHistogram() {
+		return this.waitTimeHistogram.clone();
+	}
+
+	/**
+	 * Return the total time spent waiting for the lock, in nanoseconds.
+	 */
+	public long getTotalWaitTime() {
+		return this.totalWaitTime;
+	}
+
+	/**
+	 * Return the longest time a single acquisition waited for the lock, in nanoseconds.
+	 */
+	public long getMaxWaitTime() {
+		return this.maxWaitTime;
+	}
+
+	/**
+	 * Return an upper bound in microseconds for the given percentile of wait times.
+	 * @param percentile the percentile, between 0 and 100
+	 */
+	public long getWaitTimePercentile(double percentile) {
+		return LatencyHistogram.getPercentile(this.waitTimeHistogram, percentile);
+	}
+
+	/**
+	 * Return the number of acquisitions per bean in creation on the acquiring
+	 * thread, most frequent first. Acquisitions outside of bean creation are
+	 * not included.
+	 */
+	public Map<String, Long> getAcquisitionsByBean() {
+		return this.acquisitionsByBean;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.lockSite);
+		sb.append(": acquisitions=").append(this.acquisitions);
+		sb.append(", contended=").append(this.contendedAcquisitions);
+		sb.append(", totalWaitTime=").append(this.totalWaitTime / 1000).append("us");
+		sb.append(", maxWaitTime=").append(this.maxWaitTime / 1000).append("us");
+		int beanCount = 0;
+		for (Map.Entry<String, Long> entry : this.acquisitionsByBean.entrySet()) {
+			if (beanCount == 5) {
+				sb.append(", ...");
+				break;
+			}
+			sb.append(beanCount == 0 ? ", beans=" : ", ").append(entry.getKey()).append('=').append(entry.getValue());
+			beanCount++;
+		}
+		return sb.toString();
+	}
+
+}
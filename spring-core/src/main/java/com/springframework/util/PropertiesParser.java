@@ -0,0 +1,382 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Parser for the {@code .properties} file format, filling a plain
+ * {@code String}-to-{@code String} map instead of a synchronized
+ * {@link java.util.Properties} table.
+ *
+ * <p>Follows the rules of {@link java.util.Properties#load(Reader)} for comments,
+ * key/value separators, line continuations and escapes, including
+ * {@code \\uxxxx} Unicode escapes. Content is parsed in place from a
+ * {@link ByteBuffer} (in ISO-8859-1 encoding, e.g. a memory-mapped file)
+ * or from a char array, without decoding it one character at a time
+ * through a stream.
+ *
+ * @see java.util.Properties#load(InputStream)
+ * @see DefaultPropertiesPersister
+ */
+public abstract class PropertiesParser {
+
+	/**
+	 * Parse the remaining content of the given buffer, in ISO-8859-1 encoding,
+	 * into the given map. The position of the given buffer is left untouched.
+	 * @param buffer the buffer to parse
+	 * @param target the map to put the properties into
+	 * @throws IllegalArgumentException if the content contains a malformed
+	 * Unicode escape sequence
+	 */
+	public static void parse(ByteBuffer buffer, Map<String, String> target) {
+		Assert.notNull(buffer, "ByteBuffer must not be null");
+		Assert.notNull(target, "Target Map must not be null");
+		parse(new ByteBufferSource(buffer), target);
+	}
+
+	/**
+	 * Parse the given range of characters into the given map.
+	 * @param chars the characters to parse
+	 * @param offset the offset of the first character to parse
+	 * @param length the number of characters to parse
+	 * @param target the map to put the properties into
+	 * @throws IllegalArgumentException if the content contains a malformed
+	 * Unicode escape sequence
+	 */
+	public static void parse(char[] chars, int offset, int length, Map<String, String> target) {
+		Assert.notNull(chars, "Char array must not be null");
+		Assert.notNull(target, "Target Map must not be null");
+		parse(new CharArraySource(chars, offset, length), target);
+	}
+
+	/**
+	 * Parse the content of the given InputStream, in ISO-8859-1 encoding,
+	 * into the given map. Leaves the stream open when done.
+	 * @param in the stream to parse
+	 * @param target the map to put the properties into
+	 * @throws IOException in case of I/O errors
+	 * @throws IllegalArgumentException if the content contains a malformed
+	 * Unicode escape sequence
+	 */
+	public static void parse(InputStream in, Map<String, String> target) throws IOException {
+		parse(ByteBuffer.wrap(StreamUtils.copyToByteArray(in)), target);
+	}
+
+	/**
+	 * Parse the content of the given Reader into the given map.
+	 * Leaves the reader open when done.
+	 * @param reader the reader to parse
+	 * @param target the map to put the properties into
+	 * @throws IOException in case of I/O errors
+	 * @throws IllegalArgumentException if the content contains a malformed
+	 * Unicode escape sequence
+	 */
+	public static void parse(Reader reader, Map<String, String> target) throws IOException {
+		Assert.notNull(reader, "Reader must not be null");
+		char[] chars = new char[StreamUtils.BUFFER_SIZE];
+		int length = 0;
+		int charsRead;
+		while ((charsRead = reader.read(chars, length, chars.length - length)) != -1) {
+			length += charsRead;
+			if (length == chars.length) {
+				char[] larger = new char[chars.length * 2];
+				System.arraycopy(chars, 0, larger, 0, length);
+				chars = larger;
+			}
+		}
+		parse(chars, 0, length, target);
+	}
+
+
+	private static void parse(Source source, Map<String, String> target) {
+		LineParser parser = new LineParser(source);
+		int limit;
+		while ((limit = parser.readLine()) >= 0) {
+			char[] line = parser.line;
+			int keyLength = 0;
+			int valueStart = limit;
+			boolean hasSeparator = false;
+			boolean precedingBackslash = false;
+			while (keyLength < limit) {
+				char c = line[keyLength];
+				if ((c == '=' || c == ':') && !precedingBackslash) {
+					valueStart = keyLength + 1;
+					hasSeparator = true;
+					break;
+				}
+				else if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+					valueStart = keyLength + 1;
+					break;
+				}
+				precedingBackslash = (c == '\\' && !precedingBackslash);
+				keyLength++;
+			}
+			while (valueStart < limit) {
+				char c = line[valueStart];
+				if (c != ' ' && c != '\t' && c != '\f') {
+					if (!hasSeparator && (c == '=' || c == ':')) {
+						hasSeparator = true;
+					}
+					else {
+						break;
+					}
+				}
+				valueStart++;
+			}
+			String key = parser.convert(0, keyLength);
+			String value = parser.convert(valueStart, limit - valueStart);
+			target.put(key, value);
+		}
+	}
+
+
+	/**
+	 * Reads logical lines, i.e. lines with continuations joined and with
+	 * comment lines, blank lines and leading whitespace skipped, the same
+	 * way as {@code java.util.Properties.LineReader} does.
+	 */
+	private static class LineParser {
+
+		private final Source source;
+
+		private final int end;
+
+		private int position;
+
+		char[] line = new char[256];
+
+		private char[] converted = new char[256];
+
+		LineParser(Source source) {
+			this.source = source;
+			this.end = source.length();
+		}
+
+		/**
+		 * Read the next logical line into {@link #line}.
+		 * @return the length of the line, or -1 once the content is exhausted
+		 */
+		int readLine() {
+			int length = 0;
+			boolean skipWhiteSpace = true;
+			boolean appendedLineBegin = false;
+			boolean precedingBackslash = false;
+
+			while (true) {
+				if (this.position >= this.end) {
+					if (length == 0) {
+						return -1;
+					}
+					return (precedingBackslash ? length - 1 : length);
+				}
+				char c = this.source.charAt(this.position++);
+				if (skipWhiteSpace) {
+					if (c == ' ' || c == '\t' || c == '\f') {
+						continue;
+					}
+					if (!appendedLineBegin && (c == '\r' || c == '\n')) {
+						continue;
+					}
+					skipWhiteSpace = false;
+					appendedLineBegin = false;
+				}
+				if (length == 0 && (c == '#' || c == '!')) {
+					// Comment: skip the rest of the natural line.
+					while (this.position < this.end) {
+						char next = this.source.charAt(this.position++);
+						if (next == '\r' || next == '\n') {
+							break;
+						}
+					}
+					if (this.position >= this.end) {
+						return -1;
+					}
+					skipWhiteSpace = true;
+					continue;
+				}
+				if (c != '\n' && c != '\r') {
+					if (length == this.line.length) {
+						char[] larger = new char[length * 2];
+						System.arraycopy(this.line, 0, larger, 0, length);
+						this.line = larger;
+					}
+					this.line[length++] = c;
+					precedingBackslash = (c == '\\' && !precedingBackslash);
+				}
+				else {
+					if (length == 0) {
+						skipWhiteSpace = true;
+						continue;
+					}
+					if (this.position >= this.end) {
+						return (precedingBackslash ? length - 1 : length);
+					}
+					if (precedingBackslash) {
+						// The backslash is not part of the line; skip the
+						// leading whitespace of the following line.
+						length--;
+						skipWhiteSpace = true;
+						appendedLineBegin = true;
+						precedingBackslash = false;
+						if (c == '\r' && this.source.charAt(this.position) == '\n') {
+							this.position++;
+						}
+					}
+					else {
+						return length;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Turn the given range of the current line into a String,
+		 * resolving escape sequences.
+		 */
+		String convert(int offset, int length) {
+			int end = offset + length;
+			int firstBackslash = -1;
+			for (int i = offset; i < end; i++) {
+				if (this.line[i] == '\\') {
+					firstBackslash = i;
+					break;
+				}
+			}
+			if (firstBackslash == -1) {
+				return new String(this.line, offset, length);
+			}
+			if (this.converted.length < length) {
+				this.converted = new char[Math.max(length, this.converted.length * 2)];
+			}
+			char[] out = this.converted;
+			int outLength = firstBackslash - offset;
+			System.arraycopy(this.line, offset, out, 0, outLength);
+			int i = firstBackslash;
+			while (i < end) {
+				char c = this.line[i++];
+				if (c == '\\' && i < end) {
+					c = this.line[i++];
+					if (c == 'u') {
+						int value = 0;
+						for (int j = 0; j < 4; j++) {
+							int digit = (i < end ? hexDigit(this.line[i++]) : -1);
+							if (digit == -1) {
+								throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+							}
+							value = (value << 4) + digit;
+						}
+						c = (char) value;
+					}
+					else if (c == 't') {
+						c = '\t';
+					}
+					else if (c == 'r') {
+						c = '\r';
+					}
+					else if (c == 'n') {
+						c = '\n';
+					}
+					else if (c == 'f') {
+						c = '\f';
+					}
+				}
+				out[outLength++] = c;
+			}
+			return new String(out, 0, outLength);
+		}
+
+		private static int hexDigit(char c) {
+			if (c >= '0' && c <= '9') {
+				return c - '0';
+			}
+			if (c >= 'a' && c <= 'f') {
+				return c - 'a' + 10;
+			}
+			if (c >= 'A' && c <= 'F') {
+				return c - 'A' + 10;
+			}
+			return -1;
+		}
+	}
+
+
+	private abstract static class Source {
+
+		abstract int length();
+
+		abstract char charAt(int index);
+	}
+
+
+	private static final class ByteBufferSource extends Source {
+
+		private final ByteBuffer buffer;
+
+		private final int offset;
+
+		private final int length;
+
+		ByteBufferSource(ByteBuffer buffer) {
+			this.buffer = buffer;
+			this.offset = buffer.position();
+			this.length = buffer.remaining();
+		}
+
+		@Override
+		int length() {
+			return this.length;
+		}
+
+		@Override
+		char charAt(int index) {
+			return (char) (this.buffer.get(this.offset + index) & 0xFF);
+		}
+	}
+
+
+	private static final class CharArraySource extends Source {
+
+		private final char[] chars;
+
+		private final int offset;
+
+		private final int length;
+
+		CharArraySource(char[] chars, int offset, int length) {
+			this.chars = chars;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		int length() {
+			return this.length;
+		}
+
+		@Override
+		char charAt(int index) {
+			return this.chars[this.offset + index];
+		}
+	}
+
+}
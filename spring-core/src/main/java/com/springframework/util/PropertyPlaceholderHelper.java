@@ -0,0 +1,338 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Utility class for working with Strings that have placeholder values in them.
+ * A placeholder takes the form {@code ${name}}. Using {@code PropertyPlaceholderHelper}
+ * these placeholders can be substituted for user-supplied values. Placeholders
+ * may be nested, e.g. {@code ${a${b}}}, and may declare a default value after
+ * the value separator, e.g. {@code ${name:default}}.
+ *
+ * <p>Each distinct String gets compiled only once into a list of literal and
+ * placeholder segments; the compiled form is cached and reused for subsequent
+ * resolution calls, so that resolving a String only costs as much as its
+ * placeholders do. Values supplied for placeholders get resolved recursively.
+ */
+public class PropertyPlaceholderHelper {
+
+	private final String placeholderPrefix;
+
+	private final String placeholderSuffix;
+
+	private final String simplePrefix;
+
+	private final String valueSeparator;
+
+	private final boolean ignoreUnresolvablePlaceholders;
+
+	/** Original String --> compiled template, softly held */
+	private final ConcurrentMap<String, Template> templateCache = new ConcurrentReferenceHashMap<String, Template>(256);
+
+
+	/**
+	 * Creates a new {@code PropertyPlaceholderHelper} that uses the supplied prefix and suffix.
+	 * Unresolvable placeholders are ignored.
+	 * @param placeholderPrefix the prefix that denotes the start of a placeholder
+	 * @param placeholderSuffix the suffix that denotes the end of a placeholder
+	 */
+	public PropertyPlaceholderHelper(String placeholderPrefix, String placeholderSuffix) {
+		this(placeholderPrefix, placeholderSuffix, null, true);
+	}
+
+	/**
+	 * Creates a new {@code PropertyPlaceholderHelper} that uses the supplied prefix and suffix.
+	 * @param placeholderPrefix the prefix that denotes the start of a placeholder
+	 * @param placeholderSuffix the suffix that denotes the end of a placeholder
+	 * @param valueSeparator the separating character between the placeholder variable
+	 * and the associated default value, if any
+	 * @param ignoreUnresolvablePlaceholders indicates whether unresolvable placeholders should
+	 * be ignored ({@code true}) or cause an exception ({@code false})
+	 */
+	public PropertyPlaceholderHelper(String placeholderPrefix, String placeholderSuffix,
+			String valueSeparator, boolean ignoreUnresolvablePlaceholders) {
+
+		Assert.notNull(placeholderPrefix, "'placeholderPrefix' must not be null");
+		Assert.notNull(placeholderSuffix, "'placeholderSuffix' must not be null");
+		this.placeholderPrefix = placeholderPrefix;
+		this.placeholderSuffix = placeholderSuffix;
+		String simplePrefixForSuffix = simplePrefixFor(placeholderSuffix);
+		if (simplePrefixForSuffix != null && this.placeholderPrefix.endsWith(simplePrefixForSuffix)) {
+			this.simplePrefix = simplePrefixForSuffix;
+		}
+		else {
+			this.simplePrefix = this.placeholderPrefix;
+		}
+		this.valueSeparator = valueSeparator;
+		this.ignoreUnresolvablePlaceholders = ignoreUnresolvablePlaceholders;
+	}
+
+
+	/**
+	 * Replaces all placeholders of format {@code ${name}} with the corresponding
+	 * property from the supplied {@link Properties}.
+	 * @param value the value containing the placeholders to be replaced
+	 * @param properties the {@code Properties} to use for replacement
+	 * @return the supplied value with placeholders replaced inline
+	 */
+	public String replacePlaceholders(String value, final Properties properties) {
+		Assert.notNull(properties, "'properties' must not be null");
+		return replacePlaceholders(value, new PlaceholderResolver() {
+			@Override
+			public String resolvePlaceholder(String placeholderName) {
+				return properties.getProperty(placeholderName);
+			}
+		});
+	}
+
+	/**
+	 * Replaces all placeholders of format {@code ${name}} with the value returned
+	 * from the supplied {@link PlaceholderResolver}.
+	 * @param value the value containing the placeholders to be replaced
+	 * @param placeholderResolver the {@code PlaceholderResolver} to use for replacement
+	 * @return the supplied value with placeholders replaced inline
+	 * @throws IllegalArgumentException if a placeholder cannot be resolved and
+	 * unresolvable placeholders are not to be ignored, or in case of a
+	 * circular placeholder reference
+	 */
+	public String replacePlaceholders(String value, PlaceholderResolver placeholderResolver) {
+		Assert.notNull(value, "'value' must not be null");
+		return resolve(value, placeholderResolver, new HashSet<String>());
+	}
+
+
+	private String resolve(String value, PlaceholderResolver placeholderResolver, Set<String> visitedPlaceholders) {
+		if (value.indexOf(this.placeholderPrefix) == -1) {
+			return value;
+		}
+		Template template = this.templateCache.get(value);
+		if (template == null) {
+			template = compile(value, 0, value.length());
+			this.templateCache.put(value, template);
+		}
+		return template.resolve(this, placeholderResolver, visitedPlaceholders);
+	}
+
+	/**
+	 * Compile the given range of the given String into a template.
+	 */
+	private Template compile(String text, int from, int to) {
+		List<Object> segments = new ArrayList<Object>(4);
+		int literalStart = from;
+		int startIndex = text.indexOf(this.placeholderPrefix, from);
+		while (startIndex != -1 && startIndex < to) {
+			int endIndex = findPlaceholderEndIndex(text, startIndex, to);
+			if (endIndex == -1) {
+				break;
+			}
+			if (startIndex > literalStart) {
+				segments.add(text.substring(literalStart, startIndex));
+			}
+			int innerStart = startIndex + this.placeholderPrefix.length();
+			segments.add(new Placeholder(text.substring(innerStart, endIndex),
+					text.substring(startIndex, endIndex + this.placeholderSuffix.length()),
+					compile(text, innerStart, endIndex), this.valueSeparator));
+			literalStart = endIndex + this.placeholderSuffix.length();
+			startIndex = text.indexOf(this.placeholderPrefix, literalStart);
+		}
+		if (literalStart < to) {
+			segments.add(text.substring(literalStart, to));
+		}
+		return new Template(text.substring(from, to), segments.toArray());
+	}
+
+	private int findPlaceholderEndIndex(CharSequence buf, int startIndex, int to) {
+		int index = startIndex + this.placeholderPrefix.length();
+		int withinNestedPlaceholder = 0;
+		while (index < to) {
+			if (StringUtils.substringMatch(buf, index, this.placeholderSuffix) &&
+					index + this.placeholderSuffix.length() <= to) {
+				if (withinNestedPlaceholder > 0) {
+					withinNestedPlaceholder--;
+					index = index + this.placeholderSuffix.length();
+				}
+				else {
+					return index;
+				}
+			}
+			else if (StringUtils.substringMatch(buf, index, this.simplePrefix)) {
+				withinNestedPlaceholder++;
+				index = index + this.simplePrefix.length();
+			}
+			else {
+				index++;
+			}
+		}
+		return -1;
+	}
+
+	private static String simplePrefixFor(String suffix) {
+		if ("}".equals(suffix)) {
+			return "{";
+		}
+		if ("]".equals(suffix)) {
+			return "[";
+		}
+		if (")".equals(suffix)) {
+			return "(";
+		}
+		return null;
+	}
+
+
+	/**
+	 * Strategy interface used to resolve replacement values for placeholders contained in Strings.
+	 */
+	public interface PlaceholderResolver {
+
+		/**
+		 * Resolve the supplied placeholder name to the replacement value.
+		 * @param placeholderName the name of the placeholder to resolve
+		 * @return the replacement value, or {@code null} if no replacement is to be made
+		 */
+		String resolvePlaceholder(String placeholderName);
+	}
+
+
+	/**
+	 * A compiled String: a sequence of literal Strings and {@link Placeholder}s.
+	 */
+	private static class Template {
+
+		private final String text;
+
+		private final Object[] segments;
+
+		Template(String text, Object[] segments) {
+			this.text = text;
+			this.segments = segments;
+		}
+
+		String resolve(PropertyPlaceholderHelper helper, PlaceholderResolver placeholderResolver,
+				Set<String> visitedPlaceholders) {
+
+			if (this.segments.length == 1 && this.segments[0] instanceof String) {
+				return (String) this.segments[0];
+			}
+			StringBuilder result = new StringBuilder(this.text.length());
+			for (Object segment : this.segments) {
+				if (segment instanceof String) {
+					result.append((String) segment);
+				}
+				else {
+					result.append(((Placeholder) segment).resolve(
+							helper, placeholderResolver, visitedPlaceholders, this.text));
+				}
+			}
+			return result.toString();
+		}
+	}
+
+
+	/**
+	 * A compiled placeholder. A placeholder without nested placeholders gets
+	 * split into name and default value up front.
+	 */
+	private static class Placeholder {
+
+		private final String inner;
+
+		private final String original;
+
+		private final Template innerTemplate;
+
+		private final String valueSeparator;
+
+		private final String name;
+
+		private final String defaultValue;
+
+		Placeholder(String inner, String original, Template innerTemplate, String valueSeparator) {
+			this.inner = inner;
+			this.original = original;
+			this.valueSeparator = valueSeparator;
+			boolean literal = (innerTemplate.segments.length == 0 ||
+					(innerTemplate.segments.length == 1 && innerTemplate.segments[0] instanceof String));
+			this.innerTemplate = (literal ? null : innerTemplate);
+			int separatorIndex = (literal && valueSeparator != null ? inner.indexOf(valueSeparator) : -1);
+			if (separatorIndex != -1) {
+				this.name = inner.substring(0, separatorIndex);
+				this.defaultValue = inner.substring(separatorIndex + valueSeparator.length());
+			}
+			else {
+				this.name = null;
+				this.defaultValue = null;
+			}
+		}
+
+		String resolve(PropertyPlaceholderHelper helper, PlaceholderResolver placeholderResolver,
+				Set<String> visitedPlaceholders, String text) {
+
+			if (!visitedPlaceholders.add(this.inner)) {
+				throw new IllegalArgumentException(
+						"Circular placeholder reference '" + this.inner + "' in property definitions");
+			}
+			try {
+				String placeholder = (this.innerTemplate != null ?
+						this.innerTemplate.resolve(helper, placeholderResolver, visitedPlaceholders) : this.inner);
+				String propVal = placeholderResolver.resolvePlaceholder(placeholder);
+				if (propVal == null && this.valueSeparator != null) {
+					if (this.innerTemplate == null) {
+						if (this.name != null) {
+							propVal = placeholderResolver.resolvePlaceholder(this.name);
+							if (propVal == null) {
+								propVal = this.defaultValue;
+							}
+						}
+					}
+					else {
+						int separatorIndex = placeholder.indexOf(this.valueSeparator);
+						if (separatorIndex != -1) {
+							propVal = placeholderResolver.resolvePlaceholder(placeholder.substring(0, separatorIndex));
+							if (propVal == null) {
+								propVal = placeholder.substring(separatorIndex + this.valueSeparator.length());
+							}
+						}
+					}
+				}
+				if (propVal != null) {
+					// Recursive invocation, parsing placeholders contained in the previously resolved value.
+					return helper.resolve(propVal, placeholderResolver, visitedPlaceholders);
+				}
+				else if (helper.ignoreUnresolvablePlaceholders) {
+					return this.original;
+				}
+				else {
+					throw new IllegalArgumentException("Could not resolve placeholder '" +
+							placeholder + "'" + " in string value \"" + text + "\"");
+				}
+			}
+			finally {
+				visitedPlaceholders.remove(this.inner);
+			}
+		}
+	}
+
+}
@@ -17,6 +17,10 @@
 package com.springframework.util;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 
 /**
@@ -24,6 +28,10 @@ import java.nio.charset.Charset;
  * similar to those defined in {@link FileCopyUtils} except that all affected streams are
  * left open when done. All copy methods use a block size of 4096 bytes.
  *
+ * <p>Copying between file streams or channels bypasses the block buffer:
+ * {@link FileChannel#transferTo} and {@link FileChannel#transferFrom} let the
+ * operating system move the bytes, e.g. straight from the page cache to a socket.
+ *
  * <p>Mainly for use within the framework, but also useful for application code.
  *
  * @author Juergen Hoeller
@@ -44,6 +52,9 @@ public abstract class StreamUtils {
 	 * @throws IOException in case of I/O errors
 	 */
 	public static byte[] copyToByteArray(InputStream in) throws IOException {
+		if (in != null && in.getClass() == FileInputStream.class) {
+			return copyFileToByteArray((FileInputStream) in);
+		}
 		ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
 		copy(in, out);
 		return out.toByteArray();
@@ -101,23 +112,134 @@ public abstract class StreamUtils {
 	/**
 	 * Copy the contents of the given InputStream to the given OutputStream.
 	 * Leaves both streams open when done.
+	 * <p>Content of any length gets copied in full; for content of more than
+	 * {@link Integer#MAX_VALUE} bytes, the returned count is capped at that value.
 	 * @param in the InputStream to copy from
 	 * @param out the OutputStream to copy to
-	 * @return the number of bytes copied
+	 * @return the number of bytes copied, at most {@link Integer#MAX_VALUE}
 	 * @throws IOException in case of I/O errors
 	 */
 	public static int copy(InputStream in, OutputStream out) throws IOException {
 		Assert.notNull(in, "No InputStream specified");
 		Assert.notNull(out, "No OutputStream specified");
-		int byteCount = 0;
-		byte[] buffer = new byte[BUFFER_SIZE];
-		int bytesRead = -1;
-		while ((bytesRead = in.read(buffer)) != -1) {
-			out.write(buffer, 0, bytesRead);
-			byteCount += bytesRead;
+		long byteCount;
+		if (in.getClass() == FileInputStream.class && out.getClass() == FileOutputStream.class) {
+			byteCount = copy(((FileInputStream) in).getChannel(), ((FileOutputStream) out).getChannel());
+		}
+		else {
+			byteCount = 0;
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int bytesRead = -1;
+			while ((bytesRead = in.read(buffer)) != -1) {
+				out.write(buffer, 0, bytesRead);
+				byteCount += bytesRead;
+			}
+			out.flush();
+		}
+		return (int) Math.min(byteCount, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Copy the contents of the given ReadableByteChannel to the given WritableByteChannel.
+	 * Leaves both channels open when done.
+	 * <p>If either side is a {@link FileChannel}, the bytes get transferred through
+	 * {@link FileChannel#transferTo} or {@link FileChannel#transferFrom}, without
+	 * passing through a buffer on the Java heap; the position of the file channel
+	 * gets advanced accordingly. Both channels are expected to be in blocking mode.
+	 * @param in the channel to copy from
+	 * @param out the channel to copy to
+	 * @return the number of bytes copied
+	 * @throws IOException in case of I/O errors
+	 */
+	public static long copy(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		Assert.notNull(in, "No ReadableByteChannel specified");
+		Assert.notNull(out, "No WritableByteChannel specified");
+		if (in instanceof FileChannel) {
+			FileChannel source = (FileChannel) in;
+			long position = source.position();
+			long count = 0;
+			long remaining;
+			while ((remaining = source.size() - position - count) > 0) {
+				long transferred = source.transferTo(position + count, remaining, out);
+				if (transferred <= 0) {
+					break;
+				}
+				count += transferred;
+			}
+			source.position(position + count);
+			return count;
+		}
+		if (out instanceof FileChannel) {
+			FileChannel target = (FileChannel) out;
+			long position = target.position();
+			long count = 0;
+			ByteBuffer probe = null;
+			while (true) {
+				long transferred = target.transferFrom(in, position + count, Long.MAX_VALUE - position - count);
+				if (transferred > 0) {
+					count += transferred;
+					continue;
+				}
+				// transferFrom returns 0 both at the end of the source and for a short
+				// read: read through a buffer to tell the two apart.
+				if (probe == null) {
+					probe = ByteBuffer.allocate(BUFFER_SIZE);
+				}
+				if (in.read(probe) == -1) {
+					break;
+				}
+				probe.flip();
+				while (probe.hasRemaining()) {
+					count += target.write(probe, position + count);
+				}
+				probe.clear();
+			}
+			target.position(position + count);
+			return count;
+		}
+		long count = 0;
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		while (in.read(buffer) != -1) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				count += out.write(buffer);
+			}
+			buffer.clear();
+		}
+		return count;
+	}
+
+	/**
+	 * Copy the remaining contents of the given ReadableByteChannel into a new,
+	 * read-only ByteBuffer. Leaves the channel open when done.
+	 * <p>Reads from a {@link FileChannel} go into a buffer sized up front
+	 * from the file's length at the time of the call.
+	 * @param in the channel to copy from
+	 * @return the new ByteBuffer that has been copied to
+	 * @throws IOException in case of I/O errors
+	 */
+	public static ByteBuffer copyToByteBuffer(ReadableByteChannel in) throws IOException {
+		Assert.notNull(in, "No ReadableByteChannel specified");
+		if (in instanceof FileChannel) {
+			FileChannel channel = (FileChannel) in;
+			long remaining = channel.size() - channel.position();
+			if (remaining < Integer.MAX_VALUE) {
+				ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(remaining, 0));
+				int bytesRead = 0;
+				while (buffer.hasRemaining() && bytesRead != -1) {
+					bytesRead = channel.read(buffer);
+				}
+				buffer.flip();
+				return buffer.asReadOnlyBuffer();
+			}
 		}
-		out.flush();
-		return byteCount;
+		ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		while (in.read(buffer) != -1) {
+			out.write(buffer.array(), 0, buffer.position());
+			buffer.clear();
+		}
+		return ByteBuffer.wrap(out.toByteArray()).asReadOnlyBuffer();
 	}
 
 	/**
@@ -142,6 +264,39 @@ public abstract class StreamUtils {
 		return new NonClosingOutputStream(out);
 	}
 
+	/**
+	 * Read the remainder of the given FileInputStream into an array sized
+	 * up front from the file's length, avoiding the intermediate buffers.
+	 */
+	private static byte[] copyFileToByteArray(FileInputStream in) throws IOException {
+		FileChannel channel = in.getChannel();
+		long remaining = channel.size() - channel.position();
+		if (remaining >= Integer.MAX_VALUE) {
+			throw new IOException("File too large to copy into a byte array: " + remaining + " bytes");
+		}
+		byte[] bytes = new byte[(int) Math.max(remaining, 0)];
+		int count = 0;
+		int bytesRead;
+		while (count < bytes.length && (bytesRead = in.read(bytes, count, bytes.length - count)) != -1) {
+			count += bytesRead;
+		}
+		if (count < bytes.length) {
+			byte[] truncated = new byte[count];
+			System.arraycopy(bytes, 0, truncated, 0, count);
+			return truncated;
+		}
+		int next = in.read();
+		if (next == -1) {
+			return bytes;
+		}
+		// File got longer in the meantime: append the rest.
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + BUFFER_SIZE);
+		out.write(bytes);
+		out.write(next);
+		copy(in, out);
+		return out.toByteArray();
+	}
+
 
 	private static class NonClosingInputStream extends FilterInputStream {
 
@@ -242,8 +242,17 @@ public abstract class StringUtils {
 			return str;
 		}
 		int len = str.length();
-		StringBuilder sb = new StringBuilder(str.length());
-		for (int i = 0; i < len; i++) {
+		int firstWhitespace = 0;
+		while (firstWhitespace < len && !Character.isWhitespace(str.charAt(firstWhitespace))) {
+			firstWhitespace++;
+		}
+		if (firstWhitespace == len) {
+			// Nothing to trim: avoid creating a copy.
+			return str;
+		}
+		StringBuilder sb = new StringBuilder(len);
+		sb.append(str, 0, firstWhitespace);
+		for (int i = firstWhitespace + 1; i < len; i++) {
 			char c = str.charAt(i);
 			if (!Character.isWhitespace(c)) {
 				sb.append(c);
@@ -4,4 +4,12 @@ package com.springframework.util;
  * Created by hadoop on 2015/5/6 0006.
  */
 public interface StringValueResolver {
+
+    /**
+     * Resolve the given String value, for example parsing placeholders.
+     * @param strVal the original String value
+     * @return the resolved String value
+     * @throws IllegalArgumentException in case of an unresolvable String value
+     */
+    String resolveStringValue(String strVal);
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.springframework.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Thread-safe {@code long} counter that spreads concurrent updates across
+ * several cache-line padded cells, in the spirit of JDK 8's {@code LongAdder}.
+ *
+ * <p>An uncontended counter only consists of a single base value. The cells
+ * only get allocated once an update on the base value fails due to contention,
+ * so that a large number of rarely updated counters stays cheap.
+ *
+ * <p>{@link #sum()} is not an atomic snapshot: updates happening concurrently
+ * may or may not be included. This makes the class suitable for statistics,
+ * not for fine-grained synchronization control.
+ */
+public class StripedCounter {
+
+	/** Number of {@code long} slots per cell, spanning a 64 byte cache line */
+	private static final int CELL_PADDING = 8;
+
+	private static final int CELL_COUNT;
+
+	static {
+		int cpus = Runtime.getRuntime().availableProcessors();
+		int cells = 2;
+		while (cells < cpus && cells < 64) {
+			cells <<= 1;
+		}
+		CELL_COUNT = cells;
+	}
+
+	private static final AtomicReferenceFieldUpdater<StripedCounter, AtomicLongArray> CELLS_UPDATER =
+			AtomicReferenceFieldUpdater.newUpdater(StripedCounter.class, AtomicLongArray.class, "cells");
+
+
+	private final AtomicLong base = new AtomicLong();
+
+	private volatile AtomicLongArray cells;
+
+
+	/**
+	 * Add the given value.
+	 * @param delta the value to add
+	 */
+	public void add(long delta) {
+		AtomicLongArray cells = this.cells;
+		if (cells == null) {
+			long current = this.base.get();
+			if (this.base.compareAndSet(current, current + delta)) {
+				return;
+			}
+			CELLS_UPDATER.compareAndSet(this, null, new AtomicLongArray(CELL_COUNT * CELL_PADDING));
+			cells = this.cells;
+		}
+		cells.addAndGet(cellIndex() * CELL_PADDING, delta);
+	}
+
+	/**
+	 * Increment the counter by one.
+	 */
+	public void increment() {
+		add(1L);
+	}
+
+	/**
+	 * Return the current sum of all updates.
+	 */
+	public long sum() {
+		long sum = this.base.get();
+		AtomicLongArray cells = this.cells;
+		if (cells != null) {
+			for (int i = 0; i < CELL_COUNT; i++) {
+				sum += cells.get(i * CELL_PADDING);
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Reset the counter to zero. Only reliable in the absence of concurrent updates.
+	 */
+	public void reset() {
+		this.base.set(0L);
+		AtomicLongArray cells = this.cells;
+		if (cells != null) {
+			for (int i = 0; i < CELL_COUNT; i++) {
+				cells.set(i * CELL_PADDING, 0L);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(sum());
+	}
+
+
+	/**
+	 * Pick the cell for the current thread, spreading sequential thread ids.
+	 */
+	private static int cellIndex() {
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id ^ (id >>> 32));
+		hash *= 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & (CELL_COUNT - 1);
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SpringProperties}.
+ */
+public class SpringPropertiesTests {
+
+	private static final String KEY = "springPropertiesTests.key";
+
+	private static final String OTHER_KEY = "springPropertiesTests.other";
+
+
+	@After
+	public void reset() {
+		SpringProperties.setProperty(KEY, null);
+		SpringProperties.setProperty(OTHER_KEY, null);
+		System.clearProperty(KEY);
+		System.clearProperty(OTHER_KEY);
+	}
+
+
+	@Test
+	public void systemPropertySetAfterLookupIsVisible() {
+		assertNull(SpringProperties.getProperty(KEY));
+		System.setProperty(KEY, "first");
+		assertEquals("first", SpringProperties.getProperty(KEY));
+		System.setProperty(KEY, "second");
+		assertEquals("second", SpringProperties.getProperty(KEY));
+		System.clearProperty(KEY);
+		assertNull(SpringProperties.getProperty(KEY));
+	}
+
+	@Test
+	public void localPropertyOverridesSystemProperty() {
+		System.setProperty(KEY, "system");
+		SpringProperties.setProperty(KEY, "local");
+		assertEquals("local", SpringProperties.getProperty(KEY));
+		SpringProperties.setProperty(KEY, null);
+		assertEquals("system", SpringProperties.getProperty(KEY));
+	}
+
+	@Test
+	public void placeholdersAreNotResolved() {
+		SpringProperties.setProperty(OTHER_KEY, "value");
+		SpringProperties.setProperty(KEY, "${" + OTHER_KEY + "}");
+		assertEquals("${" + OTHER_KEY + "}", SpringProperties.getProperty(KEY));
+		System.setProperty(KEY + ".system", "${" + OTHER_KEY + "}");
+		try {
+			assertEquals("${" + OTHER_KEY + "}", SpringProperties.getProperty(KEY + ".system"));
+		}
+		finally {
+			System.clearProperty(KEY + ".system");
+		}
+	}
+
+	@Test
+	public void setFlag() {
+		assertFalse(SpringProperties.getFlag(KEY));
+		SpringProperties.setFlag(KEY);
+		assertTrue(SpringProperties.getFlag(KEY));
+	}
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io;
+
+import com.springframework.util.ClassUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ClassPathResource} and its {@link ClassPathResourceCache}.
+ */
+public class ClassPathResourceTests {
+
+	private static final String RESOURCE = "Dom4jTest.xml";
+
+	private static final String ABSOLUTE_RESOURCE = "com/springframework/core/io/" + RESOURCE;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+	@After
+	public void clearCache() {
+		ClassPathResource.clearCache(null);
+	}
+
+
+	@Test
+	public void classRelativePath() throws IOException {
+		ClassPathResource resource = new ClassPathResource(RESOURCE, getClass());
+		assertTrue(resource.exists());
+		assertEquals(getClass().getResource(RESOURCE), resource.getURL());
+		assertEquals("class path resource [" + ABSOLUTE_RESOURCE + "]", resource.getDescription());
+	}
+
+	@Test
+	public void classRelativePathWithAbsolutePath() throws IOException {
+		ClassPathResource resource = new ClassPathResource("/" + ABSOLUTE_RESOURCE, ClassUtils.class);
+		assertTrue(resource.exists());
+		assertEquals(getClass().getResource(RESOURCE), resource.getURL());
+		assertEquals("class path resource [" + ABSOLUTE_RESOURCE + "]", resource.getDescription());
+	}
+
+	@Test
+	public void classRelativePathInOtherPackage() {
+		assertFalse(new ClassPathResource(RESOURCE, ClassUtils.class).exists());
+		assertTrue(new ClassPathResource("ClassUtils.class", ClassUtils.class).exists());
+	}
+
+	@Test
+	public void classRelativePathForBootstrapClass() throws IOException {
+		ClassPathResource resource = new ClassPathResource("String.class", String.class);
+		assertTrue(resource.exists());
+		assertEquals(String.class.getResource("String.class"), resource.getURL());
+	}
+
+	@Test
+	public void absolutePath() throws IOException {
+		ClassPathResource resource = new ClassPathResource(ABSOLUTE_RESOURCE);
+		assertTrue(resource.exists());
+		assertEquals(getClass().getResource(RESOURCE), resource.getURL());
+		assertEquals(resource.getURL(), new ClassPathResource(ABSOLUTE_RESOURCE, getClass().getClassLoader()).getURL());
+		assertEquals("class path resource [" + ABSOLUTE_RESOURCE + "]", resource.getDescription());
+	}
+
+	@Test
+	public void missingResource() throws IOException {
+		ClassPathResource resource = new ClassPathResource("missing.xml", getClass());
+		assertFalse(resource.exists());
+		try {
+			resource.getInputStream();
+			fail("Should have thrown FileNotFoundException");
+		}
+		catch (FileNotFoundException ex) {
+			assertTrue(ex.getMessage().contains("com/springframework/core/io/missing.xml"));
+		}
+		try {
+			resource.getURL();
+			fail("Should have thrown FileNotFoundException");
+		}
+		catch (FileNotFoundException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void missingResourceCachedUntilClearCache() throws IOException {
+		File directory = this.temporaryFolder.newFolder("classes");
+		URLClassLoader classLoader = new URLClassLoader(new URL[] {directory.toURI().toURL()}, null);
+		try {
+			ClassPathResource resource = new ClassPathResource("cfg/added.xml", classLoader);
+			assertFalse(resource.exists());
+
+			write(new File(directory, "cfg/added.xml"), "added");
+			assertNotNull(classLoader.getResource("cfg/added.xml"));
+			assertFalse(resource.exists());
+			assertFalse(new ClassPathResource("cfg/added.xml", classLoader).exists());
+
+			ClassPathResource.clearCache(classLoader);
+			assertTrue(resource.exists());
+			assertEquals("added", read(resource));
+		}
+		finally {
+			classLoader.close();
+		}
+	}
+
+	@Test
+	public void clearCacheForOneClassLoaderKeepsOthers() throws IOException {
+		File directory1 = this.temporaryFolder.newFolder("classes1");
+		File directory2 = this.temporaryFolder.newFolder("classes2");
+		URLClassLoader classLoader1 = new URLClassLoader(new URL[] {directory1.toURI().toURL()}, null);
+		URLClassLoader classLoader2 = new URLClassLoader(new URL[] {directory2.toURI().toURL()}, null);
+		try {
+			assertFalse(new ClassPathResource("added.xml", classLoader1).exists());
+			assertFalse(new ClassPathResource("added.xml", classLoader2).exists());
+			write(new File(directory1, "added.xml"), "one");
+			write(new File(directory2, "added.xml"), "two");
+
+			ClassPathResource.clearCache(classLoader1);
+			assertEquals("one", read(new ClassPathResource("added.xml", classLoader1)));
+			assertFalse(new ClassPathResource("added.xml", classLoader2).exists());
+
+			ClassPathResource.clearCache(null);
+			assertEquals("two", read(new ClassPathResource("added.xml", classLoader2)));
+		}
+		finally {
+			classLoader1.close();
+			classLoader2.close();
+		}
+	}
+
+	@Test
+	public void jarResourceReadThroughJarFilePool() throws IOException {
+		File jar = new File(this.temporaryFolder.getRoot(), "resources.jar");
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			out.putNextEntry(new JarEntry("cfg/app.xml"));
+			out.write("jar content".getBytes("UTF-8"));
+			out.closeEntry();
+		}
+		finally {
+			out.close();
+		}
+		URLClassLoader classLoader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, null);
+		try {
+			ClassPathResource resource = new ClassPathResource("cfg/app.xml", classLoader);
+			assertTrue(JarFilePool.isPoolable(resource.getURL()));
+			assertEquals("jar content", read(resource));
+			assertTrue(JarFilePool.getSharedInstance().contains(jar));
+			assertFalse(new ClassPathResource("cfg/missing.xml", classLoader).exists());
+		}
+		finally {
+			JarFilePool.getSharedInstance().clear();
+			classLoader.close();
+		}
+	}
+
+
+	private static void write(File file, String content) throws IOException {
+		assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private static String read(Resource resource) throws IOException {
+		InputStream in = resource.getInputStream();
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[256];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toString("UTF-8");
+		}
+		finally {
+			in.close();
+		}
+	}
+
+}
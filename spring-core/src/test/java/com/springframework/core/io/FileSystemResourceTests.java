@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io;
+
+import com.springframework.core.io.support.EncodedResource;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link FileSystemResource#getByteBuffer()} and the mapped reads
+ * of {@link EncodedResource} built on top of it.
+ */
+public class FileSystemResourceTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+	@Test
+	public void getByteBufferMapsFileContent() throws IOException {
+		File file = this.temporaryFolder.newFile("content.txt");
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write("content".getBytes("ISO-8859-1"));
+		}
+		finally {
+			out.close();
+		}
+
+		ByteBuffer buffer = new FileSystemResource(file).getByteBuffer();
+		assertTrue(buffer.isReadOnly());
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		assertEquals("content", new String(bytes, "ISO-8859-1"));
+	}
+
+	@Test
+	public void getByteBufferRejectsFileLargerThanBufferCapacity() throws IOException {
+		File file = createSparseFile(Integer.MAX_VALUE + 1L);
+		try {
+			new FileSystemResource(file).getByteBuffer();
+			fail("Should have thrown IOException");
+		}
+		catch (IOException ex) {
+			assertTrue(ex.getMessage().contains("too large"));
+		}
+	}
+
+	@Test
+	public void encodedResourceReadsFileLargerThanBufferCapacityAsStream() throws IOException {
+		File file = createSparseFile(Integer.MAX_VALUE + 1L);
+		InputStream in = new EncodedResource(new FileSystemResource(file)).getInputStream();
+		try {
+			assertEquals(0, in.read());
+		}
+		finally {
+			in.close();
+		}
+	}
+
+
+	private File createSparseFile(long length) throws IOException {
+		File file = this.temporaryFolder.newFile("large.bin");
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(length);
+		}
+		finally {
+			raf.close();
+		}
+		return file;
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link JarFilePool}.
+ */
+public class JarFilePoolTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final List<JarFilePool> pools = new ArrayList<JarFilePool>();
+
+	private File jarA;
+
+	private File jarB;
+
+	private File jarC;
+
+
+	@Before
+	public void setUp() throws IOException {
+		this.jarA = writeJar("a.jar", "a");
+		this.jarB = writeJar("b.jar", "b");
+		this.jarC = writeJar("c.jar", "c");
+	}
+
+	@After
+	public void clearPools() {
+		for (JarFilePool pool : this.pools) {
+			pool.clear();
+		}
+	}
+
+
+	@Test
+	public void isPoolable() throws IOException {
+		assertTrue(JarFilePool.isPoolable(entryUrl(this.jarA)));
+		assertFalse(JarFilePool.isPoolable(this.jarA.toURI().toURL()));
+		assertFalse(JarFilePool.isPoolable(new URL("jar:" + this.jarA.toURI().toURL() + "!/")));
+		assertFalse(JarFilePool.isPoolable(new URL("jar:" + this.jarA.toURI().toURL() + "!/nested.jar!/entry.txt")));
+		assertFalse(JarFilePool.isPoolable(new URL("jar:http://example.com/a.jar!/entry.txt")));
+	}
+
+	@Test
+	public void readEntries() throws IOException {
+		JarFilePool pool = newPool(4);
+		assertEquals("a", read(pool, entryUrl(this.jarA)));
+		assertEquals("entry.txt", pool.getEntry(entryUrl(this.jarA)).getName());
+		assertNull(pool.getEntry(new URL("jar:" + this.jarA.toURI().toURL() + "!/missing.txt")));
+		try {
+			pool.getInputStream(new URL("jar:" + this.jarA.toURI().toURL() + "!/missing.txt"));
+			fail("Should have thrown FileNotFoundException");
+		}
+		catch (FileNotFoundException ex) {
+			// expected
+		}
+		assertEquals(1, pool.size());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedIdleJarFile() throws IOException {
+		JarFilePool pool = newPool(2);
+		read(pool, entryUrl(this.jarA));
+		read(pool, entryUrl(this.jarB));
+		read(pool, entryUrl(this.jarA));
+		read(pool, entryUrl(this.jarC));
+
+		assertEquals(2, pool.size());
+		assertTrue(pool.contains(this.jarA));
+		assertFalse(pool.contains(this.jarB));
+		assertTrue(pool.contains(this.jarC));
+	}
+
+	@Test
+	public void doesNotEvictJarFileInUse() throws IOException {
+		JarFilePool pool = newPool(1);
+		InputStream in = pool.getInputStream(entryUrl(this.jarA));
+		read(pool, entryUrl(this.jarB));
+
+		assertEquals(1, pool.size());
+		assertTrue(pool.contains(this.jarA));
+		assertEquals("a", readFully(in));
+		assertTrue(pool.contains(this.jarA));
+	}
+
+	@Test
+	public void jarFileStaysOpenWhileReferenced() throws IOException {
+		JarFilePool pool = newPool(0);
+		InputStream in1 = pool.getInputStream(entryUrl(this.jarA));
+		InputStream in2 = pool.getInputStream(entryUrl(this.jarA));
+		assertNotNull(pool.getEntry(entryUrl(this.jarA)));
+		assertEquals(1, pool.size());
+
+		in1.close();
+		in1.close();
+		assertTrue(pool.contains(this.jarA));
+		assertEquals("a", readFully(in2));
+		assertFalse(pool.contains(this.jarA));
+	}
+
+	@Test
+	public void idleJarFileClosedWithPoolSizeZero() throws IOException {
+		JarFilePool pool = newPool(0);
+		assertEquals("a", read(pool, entryUrl(this.jarA)));
+		assertNotNull(pool.getEntry(entryUrl(this.jarA)));
+		assertEquals(0, pool.size());
+	}
+
+	@Test
+	public void changedJarFileGetsReopened() throws IOException {
+		JarFilePool pool = newPool(4);
+		InputStream in = pool.getInputStream(entryUrl(this.jarA));
+
+		File changed = writeJar("changed.jar", "changed content");
+		assertTrue(changed.renameTo(this.jarA));
+		assertEquals("changed content", read(pool, entryUrl(this.jarA)));
+		assertEquals("a", readFully(in));
+		assertEquals(1, pool.size());
+	}
+
+	@Test
+	public void clearKeepsJarFileInUseOpen() throws IOException {
+		JarFilePool pool = newPool(4);
+		read(pool, entryUrl(this.jarB));
+		InputStream in = pool.getInputStream(entryUrl(this.jarA));
+
+		pool.clear();
+		assertEquals(0, pool.size());
+		assertEquals("a", readFully(in));
+		assertEquals("b", read(pool, entryUrl(this.jarB)));
+		assertEquals(1, pool.size());
+	}
+
+	@Test
+	public void concurrentAccessSharesJarFile() throws Exception {
+		final JarFilePool pool = newPool(4);
+		final URL url = entryUrl(this.jarA);
+		final CountDownLatch start = new CountDownLatch(1);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						start.await();
+						return read(pool, url);
+					}
+				}));
+			}
+			start.countDown();
+			for (Future<String> result : results) {
+				assertEquals("a", result.get(10, TimeUnit.SECONDS));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, pool.size());
+	}
+
+
+	private JarFilePool newPool(int poolSize) {
+		JarFilePool pool = new JarFilePool(poolSize);
+		this.pools.add(pool);
+		return pool;
+	}
+
+	private File writeJar(String name, String content) throws IOException {
+		File jar = new File(this.temporaryFolder.getRoot(), name);
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			out.putNextEntry(new JarEntry("entry.txt"));
+			out.write(content.getBytes("UTF-8"));
+			out.closeEntry();
+		}
+		finally {
+			out.close();
+		}
+		return jar;
+	}
+
+	private static URL entryUrl(File jar) throws IOException {
+		return new URL("jar:" + jar.toURI().toURL() + "!/entry.txt");
+	}
+
+	private static String read(JarFilePool pool, URL url) throws IOException {
+		return readFully(pool.getInputStream(url));
+	}
+
+	private static String readFully(InputStream in) throws IOException {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[256];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toString("UTF-8");
+		}
+		finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io.support;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link JarEntryIndex}.
+ */
+public class JarEntryIndexTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File jar;
+
+
+	@Before
+	public void setUp() throws IOException {
+		this.jar = new File(this.temporaryFolder.getRoot(), "index.jar");
+		PathMatchingResourcePatternResolverTests.writeJar(this.jar, "a/b/one.txt", "a/bc/two.txt", "a/b.txt");
+	}
+
+	@After
+	public void clearCache() {
+		JarEntryIndex.clearCache();
+	}
+
+
+	@Test
+	public void entryNamesByPrefix() throws IOException {
+		JarEntryIndex index = JarEntryIndex.forJarFile(this.jar);
+
+		assertEquals(Arrays.asList("a/b/", "a/b/one.txt"), index.getEntryNames("a/b/"));
+		assertEquals(Arrays.asList("a/b.txt", "a/b/", "a/b/one.txt", "a/bc/", "a/bc/two.txt"),
+				index.getEntryNames("a/b"));
+		assertEquals(Arrays.asList("a/bc/", "a/bc/two.txt"), index.getEntryNames("a/bc/"));
+		assertEquals(Collections.<String>emptyList(), index.getEntryNames("a/c/"));
+		assertEquals(6, index.getEntryNames("").size());
+	}
+
+	@Test
+	public void unchangedJarSharesIndex() throws IOException {
+		assertSame(JarEntryIndex.forJarFile(this.jar), JarEntryIndex.forJarFile(this.jar));
+	}
+
+	@Test
+	public void reindexedWhenModificationTimeChanges() throws IOException {
+		JarEntryIndex index = JarEntryIndex.forJarFile(this.jar);
+		assertTrue(this.jar.setLastModified(this.jar.lastModified() - 10000L));
+
+		assertNotSame(index, JarEntryIndex.forJarFile(this.jar));
+	}
+
+	@Test
+	public void reindexedWhenSizeChanges() throws IOException {
+		JarEntryIndex index = JarEntryIndex.forJarFile(this.jar);
+		long lastModified = this.jar.lastModified();
+		PathMatchingResourcePatternResolverTests.writeJar(this.jar, "a/b/one.txt", "a/b/three.txt");
+		assertTrue(this.jar.setLastModified(lastModified));
+
+		JarEntryIndex newIndex = JarEntryIndex.forJarFile(this.jar);
+		assertNotSame(index, newIndex);
+		assertEquals(Arrays.asList("a/b/", "a/b/one.txt", "a/b/three.txt"), newIndex.getEntryNames("a/b/"));
+	}
+
+	@Test
+	public void clearCacheDropsIndexes() throws IOException {
+		JarEntryIndex index = JarEntryIndex.forJarFile(this.jar);
+		JarEntryIndex.clearCache();
+
+		assertNotSame(index, JarEntryIndex.forJarFile(this.jar));
+	}
+
+}
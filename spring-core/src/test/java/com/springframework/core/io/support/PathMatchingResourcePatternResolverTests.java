@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io.support;
+
+import com.springframework.core.io.Resource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PathMatchingResourcePatternResolver}, matching the same
+ * layout in a directory and in a jar.
+ */
+public class PathMatchingResourcePatternResolverTests {
+
+	private static final String[] ENTRIES = {"cfg/app.xml", "cfg/sub/deep.xml", "cfg/sub/other.txt",
+			"cfg/b/one.xml", "cfg/bc/two.xml", "cfgx/wrong.xml"};
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+	private File rootDir;
+
+	private File jar;
+
+
+	@Before
+	public void setUp() throws IOException {
+		this.rootDir = this.temporaryFolder.newFolder("root-dir");
+		for (String entry : ENTRIES) {
+			File file = new File(this.rootDir, entry);
+			assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+			assertTrue(file.createNewFile());
+		}
+		this.jar = new File(this.temporaryFolder.getRoot(), "resources.jar");
+		writeJar(this.jar, ENTRIES);
+	}
+
+
+	@Test
+	public void singleWildcardInDirectory() throws IOException {
+		assertEquals(Arrays.asList("cfg/app.xml"), resolveInDirectory("cfg/*.xml"));
+		assertEquals(Arrays.asList("cfg/sub/deep.xml", "cfg/sub/other.txt"), resolveInDirectory("cfg/sub/*"));
+		assertEquals(Arrays.asList("cfg/b/one.xml", "cfg/bc/two.xml", "cfg/sub/deep.xml"),
+				resolveInDirectory("cfg/*/*.xml"));
+	}
+
+	@Test
+	public void singleWildcardInJar() throws IOException {
+		assertEquals(Arrays.asList("cfg/app.xml"), resolveInJar("cfg/*.xml"));
+		assertEquals(Arrays.asList("cfg/sub/deep.xml", "cfg/sub/other.txt"), resolveInJar("cfg/sub/*"));
+		assertEquals(Arrays.asList("cfg/b/one.xml", "cfg/bc/two.xml", "cfg/sub/deep.xml"),
+				resolveInJar("cfg/*/*.xml"));
+	}
+
+	@Test
+	public void doubleWildcardInDirectory() throws IOException {
+		assertEquals(Arrays.asList("cfg/app.xml", "cfg/b/one.xml", "cfg/bc/two.xml", "cfg/sub/deep.xml"),
+				resolveInDirectory("cfg/**/*.xml"));
+		assertEquals(Arrays.asList("cfg/sub/other.txt"), resolveInDirectory("**/*.txt"));
+	}
+
+	@Test
+	public void doubleWildcardInJar() throws IOException {
+		assertEquals(Arrays.asList("cfg/app.xml", "cfg/b/one.xml", "cfg/bc/two.xml", "cfg/sub/deep.xml"),
+				resolveInJar("cfg/**/*.xml"));
+		assertEquals(Arrays.asList("cfg/sub/other.txt"), resolveInJar("**/*.txt"));
+	}
+
+	@Test
+	public void prefixBoundaryInDirectory() throws IOException {
+		assertEquals(Arrays.asList("cfg/b/one.xml"), resolveInDirectory("cfg/b/*"));
+		assertEquals(Arrays.asList("cfg/b/one.xml"), resolveInDirectory("cfg/b/**/*.xml"));
+		assertEquals(Collections.<String>emptyList(), resolveInDirectory("cfg/*/wrong.xml"));
+	}
+
+	@Test
+	public void prefixBoundaryInJar() throws IOException {
+		assertEquals(Arrays.asList("cfg/b/one.xml"), resolveInJar("cfg/b/*"));
+		assertEquals(Arrays.asList("cfg/b/one.xml"), resolveInJar("cfg/b/**/*.xml"));
+		assertEquals(Collections.<String>emptyList(), resolveInJar("cfg/*/wrong.xml"));
+	}
+
+	@Test
+	public void classpathAllAcrossDirectoryAndJar() throws IOException {
+		URLClassLoader classLoader = new URLClassLoader(
+				new URL[] {this.rootDir.toURI().toURL(), this.jar.toURI().toURL()}, null);
+		try {
+			PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+			Resource[] resources = resolver.getResources("classpath*:cfg/b*/*.xml");
+
+			assertEquals(Arrays.asList("cfg/b/one.xml", "cfg/b/one.xml", "cfg/bc/two.xml", "cfg/bc/two.xml"),
+					relativePaths(resources));
+		}
+		finally {
+			classLoader.close();
+		}
+	}
+
+	@Test
+	public void changedJarGetsReindexed() throws IOException {
+		assertEquals(Arrays.asList("cfg/app.xml"), resolveInJar("cfg/*.xml"));
+
+		List<String> entries = new ArrayList<String>(Arrays.asList(ENTRIES));
+		entries.add("cfg/added.xml");
+		long lastModified = this.jar.lastModified();
+		writeJar(this.jar, entries.toArray(new String[entries.size()]));
+		assertTrue(this.jar.setLastModified(lastModified));
+
+		assertEquals(Arrays.asList("cfg/added.xml", "cfg/app.xml"), resolveInJar("cfg/*.xml"));
+	}
+
+
+	private List<String> resolveInDirectory(String pattern) throws IOException {
+		return relativePaths(this.resolver.getResources(this.rootDir.toURI().toURL() + pattern));
+	}
+
+	private List<String> resolveInJar(String pattern) throws IOException {
+		return relativePaths(this.resolver.getResources("jar:" + this.jar.toURI().toURL() + "!/" + pattern));
+	}
+
+	private static List<String> relativePaths(Resource[] resources) throws IOException {
+		List<String> paths = new ArrayList<String>();
+		for (Resource resource : resources) {
+			String url = resource.getURL().toString();
+			int separatorIndex = url.indexOf("!/");
+			paths.add(separatorIndex != -1 ? url.substring(separatorIndex + 2) :
+					url.substring(url.indexOf("/root-dir/") + "/root-dir/".length()));
+		}
+		Collections.sort(paths);
+		return paths;
+	}
+
+	static void writeJar(File jar, String... entries) throws IOException {
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			List<String> directories = new ArrayList<String>();
+			for (String entry : entries) {
+				for (int i = entry.indexOf('/'); i != -1; i = entry.indexOf('/', i + 1)) {
+					String directory = entry.substring(0, i + 1);
+					if (!directories.contains(directory)) {
+						directories.add(directory);
+						out.putNextEntry(new JarEntry(directory));
+						out.closeEntry();
+					}
+				}
+				out.putNextEntry(new JarEntry(entry));
+				out.write(entry.getBytes("UTF-8"));
+				out.closeEntry();
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io.support;
+
+import com.springframework.core.io.FileSystemResource;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PropertiesLoaderUtils#fillPropertiesMap}.
+ */
+public class PropertiesLoaderUtilsTests {
+
+	private static final String CONTENT =
+			"# comment\nplain=value\nescaped\\ key:caf\\u00e9\ncontinued=a\\\n   b\nlatin1=é\n";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+	@Test
+	public void fillPropertiesMapFromSmallFile() throws IOException {
+		File file = writeFile("small.properties", CONTENT);
+		assertSameAsProperties(file);
+	}
+
+	@Test
+	public void fillPropertiesMapFromMappedFile() throws IOException {
+		StringBuilder content = new StringBuilder(CONTENT);
+		for (int i = 0; content.length() <= EncodedResource.MAPPED_READ_THRESHOLD; i++) {
+			content.append("key").append(i).append(" = value").append(i).append('\n');
+		}
+		File file = writeFile("large.properties", content.toString());
+		Map<String, String> map = assertSameAsProperties(file);
+		assertEquals("café", map.get("escaped key"));
+	}
+
+	@Test
+	public void fillPropertiesMapFromXmlFile() throws IOException {
+		File file = writeFile("props.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+				"<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">\n" +
+				"<properties><entry key=\"plain\">value</entry></properties>\n");
+		Map<String, String> map = new HashMap<String, String>();
+		PropertiesLoaderUtils.fillPropertiesMap(map, new FileSystemResource(file));
+		assertEquals(1, map.size());
+		assertEquals("value", map.get("plain"));
+	}
+
+
+	private Map<String, String> assertSameAsProperties(File file) throws IOException {
+		Properties expected = new Properties();
+		FileInputStream in = new FileInputStream(file);
+		try {
+			expected.load(in);
+		}
+		finally {
+			in.close();
+		}
+		Map<String, String> map = new HashMap<String, String>();
+		PropertiesLoaderUtils.fillPropertiesMap(map, new FileSystemResource(file));
+		assertEquals(expected, map);
+		assertEquals("ab", map.get("continued"));
+		assertEquals("é", map.get("latin1"));
+		return map;
+	}
+
+	private File writeFile(String name, String content) throws IOException {
+		File file = this.temporaryFolder.newFile(name);
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("ISO-8859-1"));
+		}
+		finally {
+			out.close();
+		}
+		return file;
+	}
+
+}
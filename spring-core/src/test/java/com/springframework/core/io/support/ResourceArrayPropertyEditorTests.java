@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io.support;
+
+import com.springframework.core.env.MapPropertySource;
+import com.springframework.core.env.StandardEnvironment;
+import com.springframework.core.io.Resource;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ResourceArrayPropertyEditor}.
+ */
+public class ResourceArrayPropertyEditorTests {
+
+	private static final String SYSTEM_PROPERTY = "resources.test.dir";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+	@After
+	public void clearSystemProperty() {
+		System.clearProperty(SYSTEM_PROPERTY);
+	}
+
+
+	@Test
+	public void patternResolved() throws Exception {
+		File dir = createFiles();
+		ResourceArrayPropertyEditor editor = new ResourceArrayPropertyEditor();
+		editor.setAsText(dir.toURI().toURL() + "*.xml");
+
+		assertEquals(2, ((Resource[]) editor.getValue()).length);
+	}
+
+	@Test
+	public void systemPropertyPlaceholder() throws Exception {
+		File dir = createFiles();
+		System.setProperty(SYSTEM_PROPERTY, dir.toURI().toURL().toString());
+		ResourceArrayPropertyEditor editor = new ResourceArrayPropertyEditor();
+		editor.setAsText("${" + SYSTEM_PROPERTY + "}a.xml");
+
+		Resource[] resources = (Resource[]) editor.getValue();
+		assertEquals(1, resources.length);
+		assertEquals(new File(dir, "a.xml"), resources[0].getFile());
+	}
+
+	@Test
+	public void placeholderFromGivenPropertyResolver() throws Exception {
+		File dir = createFiles();
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new MapPropertySource("test",
+				Collections.<String, Object>singletonMap("dir", dir.toURI().toURL().toString())));
+		ResourceArrayPropertyEditor editor = new ResourceArrayPropertyEditor(
+				new PathMatchingResourcePatternResolver(), environment);
+		editor.setValue(Arrays.asList("${dir}a.xml", "${dir}*.txt"));
+
+		assertEquals(2, ((Resource[]) editor.getValue()).length);
+	}
+
+	@Test
+	public void unresolvablePlaceholderIgnored() {
+		ResourceArrayPropertyEditor editor = new ResourceArrayPropertyEditor();
+		editor.setAsText("classpath*:${" + SYSTEM_PROPERTY + "}/missing.xml");
+
+		assertEquals(0, ((Resource[]) editor.getValue()).length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unresolvablePlaceholderRejected() {
+		ResourceArrayPropertyEditor editor = new ResourceArrayPropertyEditor(
+				new PathMatchingResourcePatternResolver(), null, false);
+		editor.setAsText("classpath*:${" + SYSTEM_PROPERTY + "}/missing.xml");
+	}
+
+
+	private File createFiles() throws Exception {
+		File dir = this.temporaryFolder.newFolder("resources");
+		for (String name : new String[] {"a.xml", "b.xml", "c.txt"}) {
+			assertTrue(new File(dir, name).createNewFile());
+		}
+		return dir;
+	}
+
+}
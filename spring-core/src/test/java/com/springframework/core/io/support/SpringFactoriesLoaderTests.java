@@ -0,0 +1,269 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.io.support;
+
+import com.springframework.core.Ordered;
+import com.springframework.core.annotation.Order;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SpringFactoriesLoader}, reading {@code spring.factories}
+ * files from temporary class path directories.
+ */
+public class SpringFactoriesLoaderTests {
+
+	private static final String FACTORY = DummyFactory.class.getName();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+	@After
+	public void clearCache() {
+		SpringFactoriesLoader.clearCache(null);
+	}
+
+
+	@Test
+	public void loadFactoryNamesFromMultipleFiles() throws IOException {
+		ClassLoader classLoader = newClassLoader(
+				writeFactories("first", FACTORY + "=" + name(MyDummyFactory1.class) + ", " + name(MyDummyFactory2.class)),
+				writeFactories("second", FACTORY + "=" + name(MyDummyFactory3.class) + "\nother.Type=other.Impl"));
+
+		assertEquals(Arrays.asList(name(MyDummyFactory1.class), name(MyDummyFactory2.class), name(MyDummyFactory3.class)),
+				SpringFactoriesLoader.loadFactoryNames(DummyFactory.class, classLoader));
+		assertEquals(Collections.emptyList(), SpringFactoriesLoader.loadFactoryNames(Runnable.class, classLoader));
+	}
+
+	@Test
+	public void loadFactoryNamesReturnsCopy() throws IOException {
+		ClassLoader classLoader = newClassLoader(writeFactories("first", FACTORY + "=" + name(MyDummyFactory1.class)));
+
+		SpringFactoriesLoader.loadFactoryNames(DummyFactory.class, classLoader).clear();
+		assertEquals(Arrays.asList(name(MyDummyFactory1.class)),
+				SpringFactoriesLoader.loadFactoryNames(DummyFactory.class, classLoader));
+	}
+
+	@Test
+	public void loadFactoriesSortedByOrder() throws IOException {
+		ClassLoader classLoader = newClassLoader(
+				writeFactories("first", FACTORY + "=" + name(MyDummyFactory3.class) + "," + name(MyDummyFactory2.class)),
+				writeFactories("second", FACTORY + "=" + name(MyDummyFactory1.class)));
+
+		List<DummyFactory> factories = SpringFactoriesLoader.loadFactories(DummyFactory.class, classLoader);
+		assertEquals(Arrays.asList("Foo", "Bar", "Baz"), strings(factories));
+	}
+
+	@Test
+	public void loadFactoriesCreatesNewInstances() throws IOException {
+		ClassLoader classLoader = newClassLoader(writeFactories("first", FACTORY + "=" + name(MyDummyFactory1.class)));
+
+		DummyFactory factory = SpringFactoriesLoader.loadFactories(DummyFactory.class, classLoader).get(0);
+		assertNotSame(factory, SpringFactoriesLoader.loadFactories(DummyFactory.class, classLoader).get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void loadFactoriesWithUnassignableClass() throws IOException {
+		ClassLoader classLoader = newClassLoader(writeFactories("first", FACTORY + "=" + String.class.getName()));
+		SpringFactoriesLoader.loadFactories(DummyFactory.class, classLoader);
+	}
+
+	@Test
+	public void loadFactorySingletonsReusesInstances() throws IOException {
+		ClassLoader classLoader = newClassLoader(
+				writeFactories("first", FACTORY + "=" + name(MyDummyFactory2.class) + "," + name(MyDummyFactory1.class)));
+
+		List<DummyFactory> factories = SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader);
+		assertEquals(Arrays.asList("Foo", "Bar"), strings(factories));
+		assertSame(factories, SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader));
+		try {
+			factories.clear();
+			fail("Should have thrown UnsupportedOperationException");
+		}
+		catch (UnsupportedOperationException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void loadFactorySingletonsPerClassLoader() throws IOException {
+		File directory = writeFactories("first", FACTORY + "=" + name(MyDummyFactory1.class));
+		ClassLoader classLoader1 = newClassLoader(directory);
+		ClassLoader classLoader2 = newClassLoader(directory);
+
+		DummyFactory factory1 = SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader1).get(0);
+		DummyFactory factory2 = SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader2).get(0);
+		assertNotSame(factory1, factory2);
+	}
+
+	@Test
+	public void loadFactorySingletonsForClassLoaderThatIsNotCacheSafe() throws Exception {
+		ClassLoader classLoader = newClassLoader(writeFactories("first", FACTORY + "=" + name(MyDummyFactory1.class)));
+
+		SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader);
+		assertTrue(singletonCache("softSingletonCache").containsKey(classLoader));
+		assertFalse(singletonCache("strongSingletonCache").containsKey(classLoader));
+	}
+
+	@Test
+	public void loadFactorySingletonsForCacheSafeClassLoader() throws Exception {
+		ClassLoader classLoader = SpringFactoriesLoader.class.getClassLoader();
+
+		List<DummyFactory> factories = SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, null);
+		assertSame(factories, SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader));
+		assertTrue(singletonCache("strongSingletonCache").containsKey(classLoader));
+		assertFalse(singletonCache("softSingletonCache").containsKey(classLoader));
+	}
+
+	@Test
+	public void clearCacheRereadsFactories() throws IOException {
+		File directory = writeFactories("first", FACTORY + "=" + name(MyDummyFactory1.class));
+		ClassLoader classLoader = newClassLoader(directory);
+
+		List<DummyFactory> factories = SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader);
+		assertEquals(Arrays.asList("Foo"), strings(factories));
+
+		writeFactories(directory, FACTORY + "=" + name(MyDummyFactory1.class) + "," + name(MyDummyFactory2.class));
+		assertSame(factories, SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader));
+		assertEquals(1, SpringFactoriesLoader.loadFactoryNames(DummyFactory.class, classLoader).size());
+
+		SpringFactoriesLoader.clearCache(classLoader);
+		assertEquals(2, SpringFactoriesLoader.loadFactoryNames(DummyFactory.class, classLoader).size());
+		List<DummyFactory> reloaded = SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader);
+		assertEquals(Arrays.asList("Foo", "Bar"), strings(reloaded));
+		assertNotSame(factories.get(0), reloaded.get(0));
+	}
+
+	@Test
+	public void clearCacheForOneClassLoaderKeepsOthers() throws IOException {
+		File directory = writeFactories("first", FACTORY + "=" + name(MyDummyFactory1.class));
+		ClassLoader classLoader1 = newClassLoader(directory);
+		ClassLoader classLoader2 = newClassLoader(directory);
+		List<DummyFactory> factories1 = SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader1);
+		List<DummyFactory> factories2 = SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader2);
+
+		SpringFactoriesLoader.clearCache(classLoader1);
+		assertNotSame(factories1, SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader1));
+		assertSame(factories2, SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader2));
+
+		SpringFactoriesLoader.clearCache(null);
+		assertNotSame(factories2, SpringFactoriesLoader.loadFactorySingletons(DummyFactory.class, classLoader2));
+	}
+
+
+	private File writeFactories(String name, String content) throws IOException {
+		File directory = this.temporaryFolder.newFolder(name);
+		writeFactories(directory, content);
+		return directory;
+	}
+
+	private static void writeFactories(File directory, String content) throws IOException {
+		File file = new File(directory, SpringFactoriesLoader.FACTORIES_RESOURCE_LOCATION);
+		assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("ISO-8859-1"));
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private ClassLoader newClassLoader(File... directories) throws IOException {
+		URL[] urls = new URL[directories.length];
+		for (int i = 0; i < directories.length; i++) {
+			urls[i] = directories[i].toURI().toURL();
+		}
+		return new URLClassLoader(urls, getClass().getClassLoader());
+	}
+
+	private static Map<?, ?> singletonCache(String fieldName) throws Exception {
+		Field field = SpringFactoriesLoader.class.getDeclaredField(fieldName);
+		field.setAccessible(true);
+		return (Map<?, ?>) field.get(null);
+	}
+
+	private static String name(Class<?> clazz) {
+		return clazz.getName();
+	}
+
+	private static List<String> strings(List<DummyFactory> factories) {
+		String[] strings = new String[factories.size()];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = factories.get(i).getString();
+		}
+		return Arrays.asList(strings);
+	}
+
+
+	public interface DummyFactory {
+
+		String getString();
+	}
+
+
+	@Order(1)
+	public static class MyDummyFactory1 implements DummyFactory {
+
+		@Override
+		public String getString() {
+			return "Foo";
+		}
+	}
+
+
+	public static class MyDummyFactory2 implements DummyFactory, Ordered {
+
+		@Override
+		public int getOrder() {
+			return 2;
+		}
+
+		@Override
+		public String getString() {
+			return "Bar";
+		}
+	}
+
+
+	public static class MyDummyFactory3 implements DummyFactory {
+
+		@Override
+		public String getString() {
+			return "Baz";
+		}
+	}
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.core.metrics;
+
+import com.springframework.core.metrics.RecordingApplicationStartup.RecordedStep;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link RecordingApplicationStartup}.
+ */
+public class RecordingApplicationStartupTests {
+
+	private final RecordingApplicationStartup startup = new RecordingApplicationStartup();
+
+
+	@Test
+	public void nestedSteps() {
+		StartupStep outer = this.startup.start("outer").tag("name", "a");
+		StartupStep inner = this.startup.start("inner");
+		inner.end();
+		StartupStep sibling = this.startup.start("sibling");
+		sibling.end();
+		outer.end();
+		StartupStep next = this.startup.start("next");
+		next.end();
+
+		assertNull(outer.getParentId());
+		assertEquals(Long.valueOf(outer.getId()), inner.getParentId());
+		assertEquals(Long.valueOf(outer.getId()), sibling.getParentId());
+		assertNull(next.getParentId());
+
+		List<RecordedStep> steps = this.startup.getRecordedSteps();
+		assertEquals(4, steps.size());
+		assertSame(inner, steps.get(0));
+		assertSame(sibling, steps.get(1));
+		assertSame(outer, steps.get(2));
+		assertSame(next, steps.get(3));
+		assertEquals("a", steps.get(2).getTags().get("name"));
+		assertTrue(steps.get(0).getTags().isEmpty());
+	}
+
+	@Test
+	public void selfTimeExcludesChildren() throws InterruptedException {
+		StartupStep outer = this.startup.start("outer");
+		StartupStep inner = this.startup.start("inner");
+		Thread.sleep(20);
+		inner.end();
+		outer.end();
+
+		RecordedStep recordedOuter = (RecordedStep) outer;
+		RecordedStep recordedInner = (RecordedStep) inner;
+		assertTrue(recordedInner.getDuration() >= 20000000);
+		assertEquals(recordedInner.getDuration(), recordedInner.getSelfTime());
+		assertTrue(recordedOuter.getDuration() >= recordedInner.getDuration());
+		assertEquals(recordedOuter.getDuration() - recordedInner.getDuration(), recordedOuter.getSelfTime());
+	}
+
+	@Test
+	public void stepInProgressAndEndedTwice() {
+		RecordedStep step = (RecordedStep) this.startup.start("step");
+		assertEquals(-1, step.getDuration());
+		assertTrue(step.toString().endsWith("(in progress)"));
+
+		step.end();
+		long duration = step.getDuration();
+		assertTrue(duration >= 0);
+		step.end();
+		assertEquals(duration, step.getDuration());
+		assertEquals(1, this.startup.getRecordedSteps().size());
+		try {
+			step.tag("late", "value");
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void parentStepsTrackedPerThread() throws InterruptedException {
+		final StartupStep outer = this.startup.start("outer");
+		final AtomicReference<StartupStep> otherThreadStep = new AtomicReference<StartupStep>();
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				StartupStep step = startup.start("other");
+				step.end();
+				otherThreadStep.set(step);
+			}
+		};
+		thread.start();
+		thread.join();
+		outer.end();
+
+		assertNull(otherThreadStep.get().getParentId());
+	}
+
+	@Test
+	public void foldedStacks() throws IOException {
+		StartupStep outer = this.startup.start("spring.beans.instantiate").tag("beanName", "a");
+		for (int i = 0; i < 2; i++) {
+			this.startup.start("spring.beans.instantiate").tag("beanName", "b").end();
+		}
+		this.startup.start("spring.beans.instantiate").tag("beanName", "c").tag("beanType", "x.C").end();
+		outer.end();
+		this.startup.start("plain").end();
+
+		List<String> lines = exportFoldedStacks();
+		assertEquals(4, lines.size());
+		assertFoldedLine(lines.get(0), "spring.beans.instantiate[a];spring.beans.instantiate[b]");
+		assertFoldedLine(lines.get(1), "spring.beans.instantiate[a];spring.beans.instantiate[c,x.C]");
+		assertFoldedLine(lines.get(2), "spring.beans.instantiate[a]");
+		assertFoldedLine(lines.get(3), "plain");
+	}
+
+	@Test
+	public void foldedStacksAggregateSelfTimes() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			StartupStep step = this.startup.start("step");
+			Thread.sleep(5);
+			step.end();
+		}
+		long total = 0;
+		for (RecordedStep step : this.startup.getRecordedSteps()) {
+			total += step.getSelfTime() / 1000;
+		}
+
+		List<String> lines = exportFoldedStacks();
+		assertEquals(1, lines.size());
+		long exported = Long.parseLong(lines.get(0).substring("step ".length()));
+		assertTrue(exported >= 10000);
+		assertTrue(Math.abs(exported - total) <= 1);
+	}
+
+	@Test
+	public void foldedStacksEscapeSeparators() throws IOException {
+		this.startup.start("a step;with separators").tag("beanName", "x y").end();
+
+		List<String> lines = exportFoldedStacks();
+		assertEquals(1, lines.size());
+		assertFoldedLine(lines.get(0), "a_step_with_separators[x_y]");
+	}
+
+	@Test
+	public void stepEndedCallbackAndClear() throws IOException {
+		final List<String> ended = new ArrayList<String>();
+		RecordingApplicationStartup startup = new RecordingApplicationStartup() {
+			@Override
+			protected void stepEnded(RecordedStep step) {
+				ended.add(step.getName());
+			}
+		};
+		StartupStep outer = startup.start("outer");
+		startup.start("inner").end();
+		outer.end();
+		assertEquals(2, ended.size());
+		assertEquals("inner", ended.get(0));
+		assertEquals("outer", ended.get(1));
+
+		startup.clear();
+		assertTrue(startup.getRecordedSteps().isEmpty());
+		StringWriter writer = new StringWriter();
+		startup.exportFoldedStacks(writer);
+		assertEquals("", writer.toString());
+	}
+
+
+	private List<String> exportFoldedStacks() throws IOException {
+		StringWriter writer = new StringWriter();
+		this.startup.exportFoldedStacks(writer);
+		String output = writer.toString();
+		assertTrue(output.endsWith("\n"));
+		List<String> lines = new ArrayList<String>();
+		for (String line : output.split("\n")) {
+			lines.add(line);
+		}
+		return lines;
+	}
+
+	private static void assertFoldedLine(String line, String expectedStack) {
+		assertTrue(line, line.startsWith(expectedStack + " "));
+		assertTrue(line, line.substring(expectedStack.length() + 1).matches("\\d+"));
+	}
+
+}
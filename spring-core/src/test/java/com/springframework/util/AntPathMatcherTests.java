@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link AntPathMatcher}.
+ */
+public class AntPathMatcherTests {
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+
+	@Test
+	public void literalPatterns() {
+		assertTrue(this.pathMatcher.match("test", "test"));
+		assertTrue(this.pathMatcher.match("/test", "/test"));
+		assertFalse(this.pathMatcher.match("/test.jpg", "test.jpg"));
+		assertFalse(this.pathMatcher.match("test", "/test"));
+		assertFalse(this.pathMatcher.match("/test", "test"));
+		assertFalse(this.pathMatcher.match("/a/b", "/a/b/"));
+		assertTrue(this.pathMatcher.match("/a/b/", "/a/b/"));
+	}
+
+	@Test
+	public void questionMark() {
+		assertTrue(this.pathMatcher.match("t?st", "test"));
+		assertTrue(this.pathMatcher.match("??st", "test"));
+		assertTrue(this.pathMatcher.match("tes?", "test"));
+		assertFalse(this.pathMatcher.match("tes?", "tes"));
+		assertFalse(this.pathMatcher.match("tes?", "testt"));
+	}
+
+	@Test
+	public void singleWildcard() {
+		assertTrue(this.pathMatcher.match("*", "test"));
+		assertTrue(this.pathMatcher.match("test*", "test"));
+		assertTrue(this.pathMatcher.match("test*", "testTest"));
+		assertTrue(this.pathMatcher.match("*test*", "AnothertestTest"));
+		assertTrue(this.pathMatcher.match("*.*", "test.txt"));
+		assertTrue(this.pathMatcher.match("a*b*c", "aXbYbZc"));
+		assertFalse(this.pathMatcher.match("a*b*c", "aXbYbZcd"));
+		assertFalse(this.pathMatcher.match("test*", "tst"));
+		assertFalse(this.pathMatcher.match("*.*", "test"));
+		// '*' never crosses a path separator
+		assertFalse(this.pathMatcher.match("/a/*", "/a/b/c"));
+		assertFalse(this.pathMatcher.match("*", "a/b"));
+		assertTrue(this.pathMatcher.match("/*/b", "/a/b"));
+	}
+
+	@Test
+	public void doubleWildcard() {
+		assertTrue(this.pathMatcher.match("/**", "/testing/testing"));
+		assertTrue(this.pathMatcher.match("/**/*", "/testing/testing"));
+		assertTrue(this.pathMatcher.match("/bla/**/bla", "/bla/testing/testing/bla"));
+		assertTrue(this.pathMatcher.match("/bla/**/bla", "/bla/bla"));
+		assertTrue(this.pathMatcher.match("/**/test", "/bla/bla/test"));
+		assertTrue(this.pathMatcher.match("/bla/**/**/bla", "/bla/bla/bla/bla/bla/bla"));
+		assertTrue(this.pathMatcher.match("/*bla*/**/bla/**", "/XXXblaXXXX/testing/testing/bla/testing/testing/"));
+		assertTrue(this.pathMatcher.match("/x/x/**/bla", "/x/x/x/bla"));
+		assertTrue(this.pathMatcher.match("**/*.xml", "a.xml"));
+		assertTrue(this.pathMatcher.match("**/*.xml", "a/b/c.xml"));
+		assertTrue(this.pathMatcher.match("a/**", "a"));
+		assertFalse(this.pathMatcher.match("/bla*bla/test", "/blaXXXbl/test"));
+		assertFalse(this.pathMatcher.match("/????", "/bala/bla"));
+		assertFalse(this.pathMatcher.match("/**/*bla", "/bla/bla/bla/bbb"));
+		assertFalse(this.pathMatcher.match("**/*.xml", "a/b/c.txt"));
+	}
+
+	@Test
+	public void prefixBoundaries() {
+		assertTrue(this.pathMatcher.match("a/b/**", "a/b/c"));
+		assertFalse(this.pathMatcher.match("a/b/**", "a/bc/d"));
+		assertFalse(this.pathMatcher.match("a/b/*", "a/bc"));
+		assertFalse(this.pathMatcher.match("a/b", "a/bc"));
+		assertFalse(this.pathMatcher.match("a/bc/*", "a/b/c"));
+		assertTrue(this.pathMatcher.matchStart("a/b/**/*.xml", "a/b/"));
+		assertFalse(this.pathMatcher.matchStart("a/b/**/*.xml", "a/bc/"));
+	}
+
+	@Test
+	public void matchStart() {
+		assertTrue(this.pathMatcher.matchStart("/x/**/*.xml", "/x/"));
+		assertTrue(this.pathMatcher.matchStart("/x/**/*.xml", "/x/y/z/"));
+		assertTrue(this.pathMatcher.matchStart("/x/*/*.xml", "/x/y/"));
+		assertFalse(this.pathMatcher.matchStart("/x/*/*.xml", "/y/"));
+		assertFalse(this.pathMatcher.match("/x/*/*.xml", "/x/y/"));
+	}
+
+	@Test
+	public void isPattern() {
+		assertTrue(this.pathMatcher.isPattern("/a/*.xml"));
+		assertTrue(this.pathMatcher.isPattern("/a/?.xml"));
+		assertTrue(this.pathMatcher.isPattern("/**"));
+		assertFalse(this.pathMatcher.isPattern("/a/b.xml"));
+	}
+
+	@Test
+	public void caseInsensitive() {
+		this.pathMatcher.setCaseSensitive(false);
+
+		assertTrue(this.pathMatcher.match("/Group/*.XML", "/group/Sales.xml"));
+		assertTrue(this.pathMatcher.match("/GROUP/**", "/group/sales/members"));
+	}
+
+	@Test
+	public void customPathSeparator() {
+		this.pathMatcher.setPathSeparator(".");
+
+		assertTrue(this.pathMatcher.match("com.*.Foo", "com.example.Foo"));
+		assertTrue(this.pathMatcher.match("com.**.Foo", "com.a.b.Foo"));
+		assertFalse(this.pathMatcher.match("com.*.Foo", "com.a.b.Foo"));
+	}
+
+	@Test
+	public void sameResultsWithoutPatternCache() {
+		AntPathMatcher uncached = new AntPathMatcher();
+		uncached.setCachePatterns(false);
+		String[] patterns = {"/**/*.xml", "a/b/*", "/x/?y/**", "*"};
+		String[] paths = {"/a/b.xml", "a/b/c", "a/bc/d", "/x/zy/1/2", "abc", "/a.txt"};
+		for (String pattern : patterns) {
+			for (String path : paths) {
+				assertEquals(pattern + " vs " + path,
+						this.pathMatcher.match(pattern, path), uncached.match(pattern, path));
+				assertEquals(pattern + " vs " + path,
+						this.pathMatcher.matchStart(pattern, path), uncached.matchStart(pattern, path));
+			}
+		}
+	}
+
+}
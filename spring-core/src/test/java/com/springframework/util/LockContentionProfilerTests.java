@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link LockContentionProfiler}.
+ */
+public class LockContentionProfilerTests {
+
+	private final LockContentionProfiler profiler = new LockContentionProfiler();
+
+
+	@After
+	public void uninstall() {
+		LockContentionProfiler.uninstall();
+	}
+
+
+	@Test
+	public void monitorAcquisitionsOnlyRecordedWhileInstalled() {
+		LockContentionProfiler.afterMonitorEnter("lock", LockContentionProfiler.beforeMonitorEnter());
+		assertNull(LockContentionProfiler.getActiveProfiler());
+		assertNull(this.profiler.getStatistics("lock"));
+
+		LockContentionProfiler.install(this.profiler);
+		assertSame(this.profiler, LockContentionProfiler.getActiveProfiler());
+		LockContentionProfiler.afterMonitorEnter("lock", LockContentionProfiler.beforeMonitorEnter());
+		assertEquals(1, this.profiler.getStatistics("lock").getAcquisitions());
+
+		LockContentionProfiler.uninstall();
+		LockContentionProfiler.afterMonitorEnter("lock", LockContentionProfiler.beforeMonitorEnter());
+		assertEquals(1, this.profiler.getStatistics("lock").getAcquisitions());
+	}
+
+	@Test
+	public void monitorAcquisitionContendedFromThreshold() {
+		LockContentionProfiler.install(this.profiler);
+		this.profiler.setContentionThreshold(Long.MAX_VALUE);
+		LockContentionProfiler.afterMonitorEnter("lock", LockContentionProfiler.beforeMonitorEnter());
+		assertEquals(0, this.profiler.getStatistics("lock").getContendedAcquisitions());
+
+		this.profiler.setContentionThreshold(0);
+		LockContentionProfiler.afterMonitorEnter("lock", LockContentionProfiler.beforeMonitorEnter());
+		assertEquals(1, this.profiler.getStatistics("lock").getContendedAcquisitions());
+		assertEquals(2, this.profiler.getStatistics("lock").getAcquisitions());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeContentionThreshold() {
+		this.profiler.setContentionThreshold(-1);
+	}
+
+	@Test
+	public void acquisitionsAttributedToNestedBeanCreation() {
+		this.profiler.recordAcquisition("lock", 0, false);
+		String outer = this.profiler.beginBeanCreation("outer");
+		assertNull(outer);
+		this.profiler.recordAcquisition("lock", 0, false);
+		String inner = this.profiler.beginBeanCreation("inner");
+		assertEquals("outer", inner);
+		this.profiler.recordAcquisition("lock", 0, false);
+		this.profiler.recordAcquisition("lock", 0, false);
+		this.profiler.recordAcquisition("lock", 0, false);
+		this.profiler.endBeanCreation(inner);
+		this.profiler.recordAcquisition("lock", 0, false);
+		this.profiler.endBeanCreation(outer);
+		this.profiler.recordAcquisition("lock", 0, false);
+
+		LockSiteStatistics statistics = this.profiler.getStatistics("lock");
+		assertEquals(7, statistics.getAcquisitions());
+		Map<String, Long> byBean = statistics.getAcquisitionsByBean();
+		assertEquals(Arrays.asList("inner", "outer"), Arrays.asList(byBean.keySet().toArray()));
+		assertEquals(Long.valueOf(3), byBean.get("inner"));
+		assertEquals(Long.valueOf(2), byBean.get("outer"));
+	}
+
+	@Test
+	public void waitTimesAndSortingBySite() {
+		this.profiler.recordAcquisition("cheap", 500, false);
+		this.profiler.recordAcquisition("costly", 3000000, true);
+		this.profiler.recordAcquisition("costly", 1000000, true);
+
+		LockSiteStatistics costly = this.profiler.getStatistics("costly");
+		assertEquals(2, costly.getAcquisitions());
+		assertEquals(2, costly.getContendedAcquisitions());
+		assertEquals(4000000, costly.getTotalWaitTime());
+		assertEquals(3000000, costly.getMaxWaitTime());
+		assertTrue(costly.getWaitTimePercentile(100) >= 3000);
+
+		List<LockSiteStatistics> statistics = this.profiler.getStatistics();
+		assertEquals(2, statistics.size());
+		assertEquals("costly", statistics.get(0).getLockSite());
+		assertEquals("cheap", statistics.get(1).getLockSite());
+		assertEquals("cheap: acquisitions=1, contended=0, totalWaitTime=0us, maxWaitTime=0us",
+				statistics.get(1).toString());
+	}
+
+	@Test
+	public void snapshotIsNotAffectedByLaterAcquisitions() {
+		this.profiler.recordAcquisition("lock", 100, false);
+		LockSiteStatistics statistics = this.profiler.getStatistics("lock");
+		this.profiler.recordAcquisition("lock", 100, true);
+		assertEquals(1, statistics.getAcquisitions());
+		assertEquals(0, statistics.getContendedAcquisitions());
+
+		this.profiler.reset();
+		assertNull(this.profiler.getStatistics("lock"));
+		assertTrue(this.profiler.getStatistics().isEmpty());
+	}
+
+}
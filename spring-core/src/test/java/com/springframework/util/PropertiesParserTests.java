@@ -0,0 +1,187 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PropertiesParser}, checked against {@link Properties#load}.
+ */
+public class PropertiesParserTests {
+
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+
+	@Test
+	public void separators() throws IOException {
+		Map<String, String> map = assertSameAsProperties(
+				"equals=1\ncolon:2\nspace 3\ntab\t4\nspaced = 5\nspacedColon : 6\nformfeed\f7\n" +
+				"both = : 8\nempty=\nkeyOnly\n  indented=9\n");
+		assertEquals("1", map.get("equals"));
+		assertEquals("2", map.get("colon"));
+		assertEquals("3", map.get("space"));
+		assertEquals("4", map.get("tab"));
+		assertEquals("5", map.get("spaced"));
+		assertEquals("6", map.get("spacedColon"));
+		assertEquals("7", map.get("formfeed"));
+		assertEquals(": 8", map.get("both"));
+		assertEquals("", map.get("empty"));
+		assertEquals("", map.get("keyOnly"));
+		assertEquals("9", map.get("indented"));
+	}
+
+	@Test
+	public void comments() throws IOException {
+		Map<String, String> map = assertSameAsProperties(
+				"# comment=1\n! bang=2\n   # indented=3\nkey=value # not a comment\n#\n!\n");
+		assertEquals(1, map.size());
+		assertEquals("value # not a comment", map.get("key"));
+	}
+
+	@Test
+	public void lineContinuations() throws IOException {
+		Map<String, String> map = assertSameAsProperties(
+				"key=first \\\n    second\\\n\tthird\nother=a\\\r\n  b\nmac=c\\\r  d\n" +
+				"escaped=e\\\\\nnext=f\nlast=g\\");
+		assertEquals("first secondthird", map.get("key"));
+		assertEquals("ab", map.get("other"));
+		assertEquals("cd", map.get("mac"));
+		assertEquals("e\\", map.get("escaped"));
+		assertEquals("f", map.get("next"));
+		assertEquals("g", map.get("last"));
+	}
+
+	@Test
+	public void continuationDoesNotStartComment() throws IOException {
+		Map<String, String> map = assertSameAsProperties("key=a\\\n  # b\n");
+		assertEquals("a# b", map.get("key"));
+	}
+
+	@Test
+	public void escapes() throws IOException {
+		Map<String, String> map = assertSameAsProperties(
+				"a\\=b=c\\:d\nkey\\ with\\ spaces=v\ttab=\\t\\n\\r\\f\\x\\\\\nleading=\\  value\n");
+		assertEquals("c:d", map.get("a=b"));
+		assertEquals("v\ttab=\t\n\r\fx\\", map.get("key with spaces"));
+		assertEquals("  value", map.get("leading"));
+	}
+
+	@Test
+	public void unicodeEscapes() throws IOException {
+		Map<String, String> map = assertSameAsProperties("\\u006bey=\\u00e9t\\u00C9\\u20ac\n");
+		assertEquals("étÉ€", map.get("key"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void malformedUnicodeEscape() {
+		PropertiesParser.parse(ByteBuffer.wrap("key=\\u00g1".getBytes(ISO_8859_1)), new HashMap<String, String>());
+	}
+
+	@Test
+	public void latin1Bytes() throws IOException {
+		Map<String, String> map = assertSameAsProperties("café=crème\n");
+		assertEquals("crème", map.get("café"));
+	}
+
+	@Test
+	public void laterEntriesWin() throws IOException {
+		Map<String, String> map = assertSameAsProperties("key=1\nkey=2\n");
+		assertEquals("2", map.get("key"));
+	}
+
+	@Test
+	public void bufferPositionLeftUntouched() {
+		ByteBuffer buffer = ByteBuffer.wrap("skip\nkey=value\n".getBytes(ISO_8859_1));
+		buffer.position(5);
+		Map<String, String> map = new HashMap<String, String>();
+		PropertiesParser.parse(buffer, map);
+		assertEquals(5, buffer.position());
+		assertEquals(1, map.size());
+		assertEquals("value", map.get("key"));
+	}
+
+	@Test
+	public void randomContentSameAsProperties() throws IOException {
+		String alphabet = "ab =:\\\\\\\n\r\t\f #!u0aé";
+		Random random = new Random(7);
+		for (int run = 0; run < 2000; run++) {
+			StringBuilder content = new StringBuilder();
+			int length = random.nextInt(60);
+			for (int i = 0; i < length; i++) {
+				content.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			if (random.nextInt(4) == 0) {
+				content.append("\\u00").append(Integer.toHexString(0x20 + random.nextInt(0x5f)));
+			}
+			assertSameAsProperties(content.toString());
+		}
+	}
+
+
+	/**
+	 * Parse the given content through every entry point of PropertiesParser
+	 * and check the result against {@link Properties#load(java.io.InputStream)}.
+	 */
+	private Map<String, String> assertSameAsProperties(String content) throws IOException {
+		Properties expected = new Properties();
+		IllegalArgumentException expectedFailure = null;
+		try {
+			expected.load(new ByteArrayInputStream(content.getBytes(ISO_8859_1)));
+		}
+		catch (IllegalArgumentException ex) {
+			expectedFailure = ex;
+		}
+
+		Map<String, String> fromBuffer = new LinkedHashMap<String, String>();
+		Map<String, String> fromChars = new LinkedHashMap<String, String>();
+		Map<String, String> fromReader = new LinkedHashMap<String, String>();
+		try {
+			PropertiesParser.parse(ByteBuffer.wrap(content.getBytes(ISO_8859_1)), fromBuffer);
+			PropertiesParser.parse(content.toCharArray(), 0, content.length(), fromChars);
+			PropertiesParser.parse(new StringReader(content), fromReader);
+		}
+		catch (IllegalArgumentException ex) {
+			assertNotNull("Unexpected failure for [" + content + "]: " + ex, expectedFailure);
+			return null;
+		}
+		assertNull("Expected failure for [" + content + "]", expectedFailure);
+
+		Map<String, String> expectedMap = new HashMap<String, String>();
+		for (String key : expected.stringPropertyNames()) {
+			expectedMap.put(key, expected.getProperty(key));
+		}
+		assertEquals("Parsed from buffer: [" + content + "]", expectedMap, fromBuffer);
+		assertEquals("Parsed from chars: [" + content + "]", expectedMap, fromChars);
+		assertEquals("Parsed from reader: [" + content + "]", expectedMap, fromReader);
+		return fromBuffer;
+	}
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import com.springframework.util.PropertyPlaceholderHelper.PlaceholderResolver;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PropertyPlaceholderHelper}.
+ */
+public class PropertyPlaceholderHelperTests {
+
+	private final PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("${", "}", ":", false);
+
+	private final PropertyPlaceholderHelper lenientHelper = new PropertyPlaceholderHelper("${", "}", ":", true);
+
+
+	@Test
+	public void withoutPlaceholders() {
+		assertEquals("foo", this.helper.replacePlaceholders("foo", new Properties()));
+		assertEquals("${unclosed", this.helper.replacePlaceholders("${unclosed", new Properties()));
+	}
+
+	@Test
+	public void simplePlaceholders() {
+		Properties props = properties("foo", "bar", "baz", "qux");
+
+		assertEquals("bar", this.helper.replacePlaceholders("${foo}", props));
+		assertEquals("a bar and qux.", this.helper.replacePlaceholders("a ${foo} and ${baz}.", props));
+	}
+
+	@Test
+	public void nestedPlaceholderInName() {
+		Properties props = properties("env", "prod", "url.prod", "jdbc:prod", "inner", "env");
+
+		assertEquals("jdbc:prod", this.helper.replacePlaceholders("${url.${env}}", props));
+		assertEquals("jdbc:prod", this.helper.replacePlaceholders("${url.${${inner}}}", props));
+	}
+
+	@Test
+	public void recursivelyResolvedValue() {
+		Properties props = properties("greeting", "hello ${name}", "name", "${first} ${last}",
+				"first", "John", "last", "Doe");
+
+		assertEquals("hello John Doe!", this.helper.replacePlaceholders("${greeting}!", props));
+	}
+
+	@Test
+	public void defaultValue() {
+		Properties props = properties("host", "example.com");
+
+		assertEquals("example.com:8080", this.helper.replacePlaceholders("${host:localhost}:${port:8080}", props));
+		assertEquals("", this.helper.replacePlaceholders("${port:}", props));
+		assertEquals("a:b", this.helper.replacePlaceholders("${missing:a:b}", props));
+	}
+
+	@Test
+	public void defaultValueWithNestedPlaceholders() {
+		Properties props = properties("env", "dev", "fallback", "none");
+
+		assertEquals("none", this.helper.replacePlaceholders("${url.${env}:${fallback}}", props));
+		props.setProperty("url.dev", "jdbc:dev");
+		assertEquals("jdbc:dev", this.helper.replacePlaceholders("${url.${env}:${fallback}}", props));
+	}
+
+	@Test
+	public void fullPlaceholderValueTakesPrecedenceOverDefault() {
+		Properties props = properties("a:b", "whole");
+
+		assertEquals("whole", this.helper.replacePlaceholders("${a:b}", props));
+	}
+
+	@Test
+	public void withoutValueSeparator() {
+		PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("${", "}", null, true);
+
+		assertEquals("${port:8080}", helper.replacePlaceholders("${port:8080}", new Properties()));
+	}
+
+	@Test
+	public void unresolvablePlaceholderIgnored() {
+		Properties props = properties("foo", "bar");
+
+		assertEquals("bar ${missing}", this.lenientHelper.replacePlaceholders("${foo} ${missing}", props));
+		assertEquals("${a.${missing}}", this.lenientHelper.replacePlaceholders("${a.${missing}}", props));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unresolvablePlaceholderRejected() {
+		this.helper.replacePlaceholders("${foo} ${missing}", properties("foo", "bar"));
+	}
+
+	@Test
+	public void unresolvablePlaceholderMessage() {
+		try {
+			this.helper.replacePlaceholders("x ${missing}", new Properties());
+			fail("Should have thrown IllegalArgumentException");
+		}
+		catch (IllegalArgumentException ex) {
+			assertEquals("Could not resolve placeholder 'missing' in string value \"x ${missing}\"", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void placeholderOfOtherSyntaxStaysLiteral() {
+		// There is no escape syntax: a different prefix keeps "${...}" as it is
+		PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("@{", "}", ":", false);
+
+		assertEquals("${foo} bar", helper.replacePlaceholders("${foo} @{foo}", properties("foo", "bar")));
+	}
+
+	@Test
+	public void circularReference() {
+		Properties props = properties("a", "${b}", "b", "${c}", "c", "${a}");
+		try {
+			this.helper.replacePlaceholders("${a}", props);
+			fail("Should have thrown IllegalArgumentException");
+		}
+		catch (IllegalArgumentException ex) {
+			assertTrue(ex.getMessage().startsWith("Circular placeholder reference"));
+		}
+		try {
+			this.lenientHelper.replacePlaceholders("${a}", props);
+			fail("Circular references are never ignored");
+		}
+		catch (IllegalArgumentException ex) {
+			assertTrue(ex.getMessage().startsWith("Circular placeholder reference"));
+		}
+	}
+
+	@Test
+	public void repeatedPlaceholderIsNoCircularReference() {
+		Properties props = properties("a", "${b}-${b}", "b", "x");
+
+		assertEquals("x-x x-x", this.helper.replacePlaceholders("${a} ${a}", props));
+	}
+
+	@Test
+	public void compiledTemplateResolvedAgainstCurrentValues() {
+		final List<String> requested = new ArrayList<String>();
+		final Properties props = properties("foo", "one");
+		PlaceholderResolver resolver = new PlaceholderResolver() {
+			@Override
+			public String resolvePlaceholder(String placeholderName) {
+				requested.add(placeholderName);
+				return props.getProperty(placeholderName);
+			}
+		};
+
+		assertEquals("[one]", this.helper.replacePlaceholders("[${foo}]", resolver));
+		props.setProperty("foo", "two");
+		assertEquals("[two]", this.helper.replacePlaceholders("[${foo}]", resolver));
+		assertEquals(2, requested.size());
+	}
+
+	@Test
+	public void customPrefixAndSuffix() {
+		PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("[[", "]]", "|", false);
+
+		assertEquals("bar/dflt", helper.replacePlaceholders("[[foo]]/[[missing|dflt]]", properties("foo", "bar")));
+	}
+
+
+	private static Properties properties(String... keysAndValues) {
+		Properties props = new Properties();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			props.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return props;
+	}
+
+}
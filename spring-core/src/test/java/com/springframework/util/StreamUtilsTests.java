@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the stream and channel copies in {@link StreamUtils}.
+ */
+public class StreamUtilsTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final byte[] content = new byte[StreamUtils.BUFFER_SIZE * 5 + 17];
+
+
+	public StreamUtilsTests() {
+		new Random(42).nextBytes(this.content);
+	}
+
+
+	@Test
+	public void copyFileStreams() throws IOException {
+		File source = writeContent();
+		File target = this.temporaryFolder.newFile("target");
+		FileInputStream in = new FileInputStream(source);
+		FileOutputStream out = new FileOutputStream(target);
+		try {
+			assertEquals(this.content.length, StreamUtils.copy(in, out));
+		}
+		finally {
+			in.close();
+			out.close();
+		}
+		assertArrayEquals(this.content, readContent(target));
+	}
+
+	@Test
+	public void copyFileChannelToOtherChannel() throws IOException {
+		File source = writeContent();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FileInputStream in = new FileInputStream(source);
+		try {
+			assertEquals(this.content.length, StreamUtils.copy(in.getChannel(), Channels.newChannel(out)));
+			assertEquals(this.content.length, in.getChannel().position());
+		}
+		finally {
+			in.close();
+		}
+		assertArrayEquals(this.content, out.toByteArray());
+	}
+
+	@Test
+	public void copyIntoFileChannelContinuesAfterShortReads() throws IOException {
+		File target = this.temporaryFolder.newFile("target");
+		FileOutputStream out = new FileOutputStream(target);
+		try {
+			long count = StreamUtils.copy(new TricklingChannel(this.content), out.getChannel());
+			assertEquals(this.content.length, count);
+			assertEquals(this.content.length, out.getChannel().position());
+		}
+		finally {
+			out.close();
+		}
+		assertArrayEquals(this.content, readContent(target));
+	}
+
+
+	private File writeContent() throws IOException {
+		File file = this.temporaryFolder.newFile("source");
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(this.content);
+		}
+		finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private byte[] readContent(File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			return StreamUtils.copyToByteArray(in);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Channel that hands out its content in small chunks and returns 0
+	 * from every other read, like a slow non-file source.
+	 */
+	private static class TricklingChannel implements ReadableByteChannel {
+
+		private final byte[] content;
+
+		private int position;
+
+		private boolean starve;
+
+		TricklingChannel(byte[] content) {
+			this.content = content;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) {
+			if (this.position == this.content.length) {
+				return -1;
+			}
+			this.starve = !this.starve;
+			if (this.starve) {
+				return 0;
+			}
+			int length = Math.min(Math.min(dst.remaining(), 100), this.content.length - this.position);
+			dst.put(Arrays.copyOfRange(this.content, this.position, this.position + length));
+			this.position += length;
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
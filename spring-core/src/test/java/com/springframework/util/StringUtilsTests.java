@@ -0,0 +1,48 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StringUtils}.
+ */
+public class StringUtilsTests {
+
+	@Test
+	public void trimAllWhitespace() {
+		assertNull(StringUtils.trimAllWhitespace(null));
+		assertEquals("", StringUtils.trimAllWhitespace(""));
+		assertEquals("", StringUtils.trimAllWhitespace(" \t\n"));
+		assertEquals("a", StringUtils.trimAllWhitespace(" a"));
+		assertEquals("a", StringUtils.trimAllWhitespace("a "));
+		assertEquals("abc", StringUtils.trimAllWhitespace(" a b\tc\n"));
+		assertEquals("1000", StringUtils.trimAllWhitespace("1 000"));
+	}
+
+	@Test
+	public void trimAllWhitespaceReturnsSameInstanceWithoutWhitespace() {
+		String str = new String("noWhitespace");
+		assertSame(str, StringUtils.trimAllWhitespace(str));
+		String empty = new String("");
+		assertSame(empty, StringUtils.trimAllWhitespace(empty));
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.springframework.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StripedCounter}.
+ */
+public class StripedCounterTests {
+
+	@Test
+	public void addAndSum() {
+		StripedCounter counter = new StripedCounter();
+		assertEquals(0, counter.sum());
+		counter.increment();
+		counter.add(41);
+		counter.add(-2);
+		assertEquals(40, counter.sum());
+		assertEquals("40", counter.toString());
+	}
+
+	@Test
+	public void reset() {
+		StripedCounter counter = new StripedCounter();
+		counter.add(5);
+		counter.reset();
+		assertEquals(0, counter.sum());
+		counter.increment();
+		assertEquals(1, counter.sum());
+	}
+
+	@Test
+	public void concurrentIncrementsAreNotLost() throws InterruptedException {
+		final StripedCounter counter = new StripedCounter();
+		final int increments = 100000;
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					}
+					catch (InterruptedException ex) {
+						return;
+					}
+					for (int j = 0; j < increments; j++) {
+						counter.increment();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(threads.length * (long) increments, counter.sum());
+
+		counter.reset();
+		assertEquals(0, counter.sum());
+		counter.add(3);
+		assertEquals(3, counter.sum());
+	}
+
+}